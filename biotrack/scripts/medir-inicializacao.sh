@@ -0,0 +1,105 @@
+#!/usr/bin/env bash
+# Tempo de inicialização do BioTrack até o primeiro GET /api/v1/usuarios com status 200, em três variantes:
+#   padrao   jar do build normal (com springdoc), sem AOT nem CDS
+#   aot      jar do build de inicialização rápida (./mvnw -Dinicio-rapido clean package), com -Dspring.aot.enabled=true
+#   aot-cds  o mesmo, mais o arquivo de CDS gravado na execução de treino do build
+# Todas com o profile "prod", cada partida sobre uma cópia nova do mesmo banco já migrado e com os usuários do
+# DataLoader (preparado uma vez com o profile "dev"; sem usuários, GET /usuarios responde erro).
+# O relógio começa antes do "java" e para no primeiro 200: inclui a JVM, o Spring, o Flyway e o Tomcat.
+#
+# Uso (a partir de biotrack/): scripts/medir-inicializacao.sh [rodadas] [porta]
+#   rodadas  partidas por variante, alternadas entre as variantes (padrão 5); imprime cada uma e a mediana
+#   porta    porta HTTP usada pelas partidas (padrão 18080)
+# Com SEM_BUILD=1, reaproveita os jars já construídos em target/.
+set -euo pipefail
+
+cd "$(dirname "$0")/.."
+
+RODADAS=${1:-5}
+PORTA=${2:-18080}
+JAVA=${JAVA_HOME:+$JAVA_HOME/bin/}java
+DIRETORIO=$PWD/target/medicao-inicializacao
+JAR_PADRAO=padrao.jar
+DIRETORIO_RAPIDO=$PWD/target/inicio-rapido
+JAR_RAPIDO=biotrack-0.0.1-SNAPSHOT.jar
+
+# Os dois builds com clean (o de inicialização rápida não pode herdar classes do normal); o jar normal
+# espera fora de target/ enquanto o segundo build roda
+if [[ "${SEM_BUILD:-}" != "1" ]]; then
+  log_build=$(mktemp "${TMPDIR:-/tmp}/biotrack-build.XXXXXX")
+  echo "Construindo os jars (log em $log_build)..."
+  ./mvnw -B -DskipTests -Djacoco.skip=true clean package > "$log_build" 2>&1
+  jar_temporario=$(mktemp "${TMPDIR:-/tmp}/biotrack-padrao.XXXXXX")
+  cp target/biotrack-0.0.1-SNAPSHOT.jar "$jar_temporario"
+  ./mvnw -B -Djacoco.skip=true -Dinicio-rapido clean package >> "$log_build" 2>&1
+  mkdir -p "$DIRETORIO"
+  mv "$jar_temporario" "$DIRETORIO/$JAR_PADRAO"
+fi
+
+# Sobe o java com as opções e argumentos dados a partir do diretório informado, espera o primeiro 200 em
+# GET /usuarios, para o processo e imprime os milissegundos desde o início.
+# O diretório importa para o CDS: o classpath (-jar <nome>) precisa ser o mesmo da execução de treino
+subir_e_medir() {
+  local log=$1 diretorio=$2
+  shift 2
+  local inicio fim pid
+  inicio=$(date +%s%N)
+  (cd "$diretorio" && exec "$JAVA" "$@" --server.port="$PORTA") > "$log" 2>&1 &
+  pid=$!
+  until curl -sf -o /dev/null "http://localhost:$PORTA/api/v1/usuarios"; do
+    if ! kill -0 "$pid" 2> /dev/null; then
+      echo "O processo terminou antes de responder; veja $log" >&2
+      exit 1
+    fi
+    sleep 0.02
+  done
+  fim=$(date +%s%N)
+  kill "$pid" && wait "$pid" 2> /dev/null || true
+  echo $(( (fim - inicio) / 1000000 ))
+}
+
+medir() {
+  local variante=$1
+  local banco
+  banco=$(mktemp -d "${TMPDIR:-/tmp}/biotrack-inicio.XXXXXX")
+  cp "$DIRETORIO/semente/biotrackdb.mv.db" "$banco/"
+  local opcoes=() diretorio=$DIRETORIO jar=$JAR_PADRAO
+  case $variante in
+    aot) diretorio=$DIRETORIO_RAPIDO; jar=$JAR_RAPIDO; opcoes=(-Dspring.aot.enabled=true) ;;
+    aot-cds) diretorio=$DIRETORIO_RAPIDO; jar=$JAR_RAPIDO
+      opcoes=(-XX:SharedArchiveFile=application.jsa -Dspring.aot.enabled=true) ;;
+  esac
+  subir_e_medir "$DIRETORIO/$variante.log" "$diretorio" "${opcoes[@]}" -jar "$jar" --spring.profiles.active=prod \
+    --biotrack.banco.arquivo="$banco/biotrackdb"
+  rm -rf "$banco"
+  # Se a JVM não conseguir usar o arquivo de CDS, ela sobe sem ele e só avisa no log
+  if grep -q "Unable to use shared archive" "$DIRETORIO/$variante.log"; then
+    echo "O arquivo de CDS não foi usado; veja $DIRETORIO/$variante.log" >&2
+    exit 1
+  fi
+}
+
+mediana() {
+  sort -n | awk '{ v[NR] = $1 } END { print (NR % 2) ? v[(NR + 1) / 2] : int((v[NR / 2] + v[NR / 2 + 1]) / 2) }'
+}
+
+mkdir -p "$DIRETORIO"
+rm -rf "$DIRETORIO/semente"
+subir_e_medir "$DIRETORIO/semente.log" "$DIRETORIO" -jar "$JAR_PADRAO" --spring.profiles.active=dev \
+  --biotrack.banco.arquivo="$DIRETORIO/semente/biotrackdb" > /dev/null
+
+VARIANTES=(padrao aot aot-cds)
+declare -A TEMPOS
+for ((rodada = 1; rodada <= RODADAS; rodada++)); do
+  for variante in "${VARIANTES[@]}"; do
+    ms=$(medir "$variante")
+    TEMPOS[$variante]+="$ms "
+    echo "rodada $rodada  $variante: $ms ms"
+  done
+done
+
+echo
+echo "Mediana até o primeiro GET /usuarios ($RODADAS rodadas, $(nproc) núcleo(s), $("$JAVA" -version 2>&1 | head -1)):"
+for variante in "${VARIANTES[@]}"; do
+  printf '  %-8s %6s ms\n' "$variante" "$(tr ' ' '\n' <<< "${TEMPOS[$variante]}" | grep . | mediana)"
+done
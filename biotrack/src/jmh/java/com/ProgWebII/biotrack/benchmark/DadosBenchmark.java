@@ -0,0 +1,73 @@
+package com.ProgWebII.biotrack.benchmark;
+
+import com.ProgWebII.biotrack.dto.response.MedidaResponse;
+import com.ProgWebII.biotrack.dto.response.UsuarioResponse;
+import com.ProgWebII.biotrack.model.Measure;
+import com.ProgWebII.biotrack.model.MetricaMedida;
+import com.ProgWebII.biotrack.model.User;
+import com.ProgWebII.biotrack.store.SerieMedidas;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Massa de dados sintética e determinística usada pelos benchmarks.
+ * Uma medida por dia a partir de 01/01/2020, com todos os campos preenchidos.
+ */
+final class DadosBenchmark {
+
+    static final LocalDateTime INICIO = LocalDateTime.of(2020, 1, 1, 8, 0);
+
+    private DadosBenchmark() {
+    }
+
+    static User usuarioComMedidas(int quantidadeMedidas) {
+        User usuario = User.builder()
+                .id(1L)
+                .name("Usuário Benchmark")
+                .birthDate(LocalDate.of(1990, 1, 1))
+                .zipCode("12345-678")
+                .email("benchmark@email.com")
+                .password("senhaHasheada")
+                .build();
+
+        List<Measure> medidas = new ArrayList<>(quantidadeMedidas);
+        for (int i = 0; i < quantidadeMedidas; i++) {
+            medidas.add(medida(usuario, i));
+        }
+        usuario.setMeasures(medidas);
+        return usuario;
+    }
+
+    static Measure medida(User usuario, int dia) {
+        double variacao = (dia % 30) / 10.0;
+        return new Measure((long) dia + 1, INICIO.plusDays(dia), 80.0 - variacao, 175.0,
+                90.0 - variacao, 100.0, 98.0, 33.0, 32.5, 58.0, 57.5, 20.0 - variacao / 2, usuario);
+    }
+
+    static SerieMedidas serie(int quantidadeMedidas) {
+        SerieMedidas.Construtor construtor = new SerieMedidas.Construtor(quantidadeMedidas);
+        for (int i = 0; i < quantidadeMedidas; i++) {
+            Measure medida = medida(null, i);
+            construtor.novaLinha(medida.getId(), SerieMedidas.paraInstante(medida.getMeasurementDate()));
+            for (MetricaMedida metrica : MetricaMedida.values()) {
+                construtor.valor(metrica, metrica.valorDe(medida));
+            }
+        }
+        return construtor.construir();
+    }
+
+    static UsuarioResponse usuarioResponse(int quantidadeMedidas) {
+        List<MedidaResponse> medidas = new ArrayList<>(quantidadeMedidas);
+        for (int i = 0; i < quantidadeMedidas; i++) {
+            Measure m = medida(null, i);
+            medidas.add(new MedidaResponse(m.getId(), m.getMeasurementDate(), m.getWeightKg(), m.getHeightCm(),
+                    m.getWaistCm(), m.getHipCm(), m.getChestCm(), m.getArmRightCm(), m.getArmLeftCm(),
+                    m.getThighRightCm(), m.getThighLeftCm(), m.getBodyFatPercentage()));
+        }
+        return new UsuarioResponse(1L, "Usuário Benchmark", LocalDate.of(1990, 1, 1),
+                "12345-678", "benchmark@email.com", medidas);
+    }
+}
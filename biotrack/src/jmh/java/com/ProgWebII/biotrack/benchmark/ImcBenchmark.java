@@ -0,0 +1,56 @@
+package com.ProgWebII.biotrack.benchmark;
+
+import com.ProgWebII.biotrack.model.Imc;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cálculo e classificação do IMC, chamados para cada usuário nas listagens por faixa.
+ * Os valores de entrada ficam em campos do estado para o JIT não dobrar o cálculo em constante.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ImcBenchmark {
+
+    private Imc imc;
+    private Double pesoKg;
+    private Double alturaCm;
+    private Double imcSobrepeso;
+
+    @Setup
+    public void setUp() {
+        imc = new Imc();
+        pesoKg = 82.5;
+        alturaCm = 175.0;
+        imcSobrepeso = 27.3;
+    }
+
+    @Benchmark
+    public Double calcularImc() {
+        return imc.calcularImc(pesoKg, alturaCm);
+    }
+
+    @Benchmark
+    public String classificarFaixaImc() {
+        return imc.classificarFaixaImc(imcSobrepeso);
+    }
+
+    @Benchmark
+    public String calcularEClassificar() {
+        return imc.classificarFaixaImc(imc.calcularImc(pesoKg, alturaCm));
+    }
+}
@@ -0,0 +1,200 @@
+package com.ProgWebII.biotrack.benchmark;
+
+import com.ProgWebII.biotrack.BiotrackApplication;
+import com.ProgWebII.biotrack.dto.response.BuscarUsuarioPorIdResponse;
+import com.ProgWebII.biotrack.dto.response.MedidaResponse;
+import com.ProgWebII.biotrack.dto.response.TendenciasResponse;
+import com.ProgWebII.biotrack.dto.response.UsuarioResponse;
+import com.ProgWebII.biotrack.service.LatestMeasureService;
+import com.ProgWebII.biotrack.service.MeasureService;
+import com.ProgWebII.biotrack.service.TendenciaService;
+import com.ProgWebII.biotrack.service.UserService;
+import com.ProgWebII.biotrack.store.MeasureColumnStore;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.sql.Timestamp;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Caminhos de leitura do UserService e do MeasureService contra um H2 em memória populado em várias escalas
+ * (usuários x medidas por usuário). Sobe o contexto Spring sem servidor web e com o cache de leitura
+ * desligado, para medir serviço + banco; cada chamada sorteia um usuário e uma medida.
+ *
+ * A escala "10000x10" mostra o custo com muitos usuários; "100x1000", com históricos longos.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class LeituraServicosBenchmark {
+
+    private static final long PRIMEIRO_USUARIO = 1;
+    private static final int TAMANHO_LOTE = 1_000;
+
+    @Param({"100x10", "10000x10", "100x1000"})
+    private String escala;
+
+    private int usuarios;
+    private int medidasPorUsuario;
+
+    private ConfigurableApplicationContext contexto;
+    private UserService userService;
+    private MeasureService measureService;
+    private TendenciaService tendenciaService;
+    private MeasureColumnStore measureColumnStore;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        String[] partes = escala.split("x");
+        usuarios = Integer.parseInt(partes[0]);
+        medidasPorUsuario = Integer.parseInt(partes[1]);
+
+        // Passadas como argumentos para prevalecer sobre o application.properties
+        contexto = new SpringApplicationBuilder(BiotrackApplication.class)
+                .web(WebApplicationType.NONE)
+                .run("--spring.datasource.url=jdbc:h2:mem:benchmark;DB_CLOSE_DELAY=-1;DB_CLOSE_ON_EXIT=FALSE",
+                        "--spring.jpa.show-sql=false",
+                        "--spring.cache.type=none",
+                        "--spring.devtools.restart.enabled=false",
+                        "--spring.main.banner-mode=off",
+                        "--logging.level.root=WARN",
+                        "--biotrack.projecoes.reconstruir-na-inicializacao=false");
+
+        popular(contexto.getBean(JdbcTemplate.class));
+        contexto.getBean(LatestMeasureService.class).reconstruir();
+
+        userService = contexto.getBean(UserService.class);
+        measureService = contexto.getBean(MeasureService.class);
+        tendenciaService = contexto.getBean(TendenciaService.class);
+        measureColumnStore = contexto.getBean(MeasureColumnStore.class);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        contexto.close();
+    }
+
+    // Insere usuários e medidas direto por JDBC; as medidas do usuário i têm IDs consecutivos
+    private void popular(JdbcTemplate jdbcTemplate) {
+        // Descarta os dados de exemplo que o DataLoader grava no banco vazio
+        jdbcTemplate.update("DELETE FROM tb_measure");
+        jdbcTemplate.update("DELETE FROM tb_users");
+
+        List<Object[]> linhasUsuarios = new ArrayList<>(TAMANHO_LOTE);
+        for (int i = 0; i < usuarios; i++) {
+            long id = PRIMEIRO_USUARIO + i;
+            linhasUsuarios.add(new Object[]{id, "Usuário " + id, LocalDate.of(1990, 1, 1),
+                    "12345-678", "usuario" + id + "@benchmark.com", "senhaHasheada"});
+            if (linhasUsuarios.size() == TAMANHO_LOTE) {
+                inserirUsuarios(jdbcTemplate, linhasUsuarios);
+            }
+        }
+        inserirUsuarios(jdbcTemplate, linhasUsuarios);
+
+        List<Object[]> linhasMedidas = new ArrayList<>(TAMANHO_LOTE);
+        for (int i = 0; i < usuarios; i++) {
+            for (int j = 0; j < medidasPorUsuario; j++) {
+                var m = DadosBenchmark.medida(null, j);
+                linhasMedidas.add(new Object[]{idMedida(i, j), Timestamp.valueOf(m.getMeasurementDate()),
+                        m.getWeightKg(), m.getHeightCm(), m.getWaistCm(), m.getHipCm(), m.getChestCm(),
+                        m.getArmRightCm(), m.getArmLeftCm(), m.getThighRightCm(), m.getThighLeftCm(),
+                        m.getBodyFatPercentage(), PRIMEIRO_USUARIO + i});
+                if (linhasMedidas.size() == TAMANHO_LOTE) {
+                    inserirMedidas(jdbcTemplate, linhasMedidas);
+                }
+            }
+        }
+        inserirMedidas(jdbcTemplate, linhasMedidas);
+
+        // Mantém a sequência à frente dos IDs inseridos manualmente
+        jdbcTemplate.execute("ALTER SEQUENCE seq_measure RESTART WITH " + (idMedida(usuarios, 0) + 1));
+    }
+
+    private void inserirUsuarios(JdbcTemplate jdbcTemplate, List<Object[]> linhas) {
+        jdbcTemplate.batchUpdate("INSERT INTO tb_users (id, name, birth_date, zip_code, email, password) "
+                + "VALUES (?, ?, ?, ?, ?, ?)", linhas);
+        linhas.clear();
+    }
+
+    private void inserirMedidas(JdbcTemplate jdbcTemplate, List<Object[]> linhas) {
+        jdbcTemplate.batchUpdate("INSERT INTO tb_measure (id, measurement_date, weight_kg, height_cm, waist_cm, "
+                + "hip_cm, chest_cm, arm_right_cm, arm_left_cm, thigh_right_cm, thigh_left_cm, "
+                + "body_fat_percentage, user_id) VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?)", linhas);
+        linhas.clear();
+    }
+
+    private long idMedida(int usuario, int medida) {
+        return (long) usuario * medidasPorUsuario + medida + 1;
+    }
+
+    private int sortearUsuario() {
+        return ThreadLocalRandom.current().nextInt(usuarios);
+    }
+
+    @Benchmark
+    public BuscarUsuarioPorIdResponse buscarUsuarioPorId() {
+        return userService.buscarPorId(PRIMEIRO_USUARIO + sortearUsuario());
+    }
+
+    @Benchmark
+    public UsuarioResponse usuarioComUltimaMedida() {
+        return userService.trazerUsuarioPorIdComUltimaMedida(PRIMEIRO_USUARIO + sortearUsuario());
+    }
+
+    @Benchmark
+    public UsuarioResponse usuarioComTodasAsMedidas() {
+        return userService.trazerUsuarioPorIdComTodasAsMedidas(PRIMEIRO_USUARIO + sortearUsuario());
+    }
+
+    // Série já carregada no MeasureColumnStore (após o aquecimento, o caso comum)
+    @Benchmark
+    public List<MedidaResponse> listarMedidasDoUsuario() {
+        return measureService.listarTodasAsMedidasDeUmUsuario(PRIMEIRO_USUARIO + sortearUsuario());
+    }
+
+    // Série descartada antes da leitura: inclui a consulta JDBC que monta as colunas
+    @Benchmark
+    public List<MedidaResponse> listarMedidasDoUsuarioSemSerieCarregada() {
+        long userId = PRIMEIRO_USUARIO + sortearUsuario();
+        measureColumnStore.invalidar(userId);
+        return measureService.listarTodasAsMedidasDeUmUsuario(userId);
+    }
+
+    // Série descartada antes do cálculo: as tendências leem só a janela pelo cursor, sem montar a série.
+    // Compare com listarMedidasDoUsuarioSemSerieCarregada, que carrega o histórico inteiro
+    @Benchmark
+    public TendenciasResponse tendenciasSemSerieCarregada() {
+        long userId = PRIMEIRO_USUARIO + sortearUsuario();
+        measureColumnStore.invalidar(userId);
+        return tendenciaService.calcularTendencias(userId, List.of("weightKg", "waistCm"), List.of(7, 30));
+    }
+
+    @Benchmark
+    public MedidaResponse buscarMedidaPorId() {
+        int usuario = sortearUsuario();
+        int medida = ThreadLocalRandom.current().nextInt(medidasPorUsuario);
+        return measureService.buscarMedidaPorId(PRIMEIRO_USUARIO + usuario, idMedida(usuario, medida));
+    }
+}
@@ -0,0 +1,61 @@
+package com.ProgWebII.biotrack.benchmark;
+
+import com.ProgWebII.biotrack.dto.response.MedidaResponse;
+import com.ProgWebII.biotrack.dto.response.UsuarioResponse;
+import com.ProgWebII.biotrack.mapper.MedidaMapper;
+import com.ProgWebII.biotrack.mapper.UsuarioMapper;
+import com.ProgWebII.biotrack.model.User;
+import com.ProgWebII.biotrack.store.SerieMedidas;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Conversões entidade/série → DTO de resposta com 10, 1k e 100k medidas por usuário.
+ * UsuarioMapper.toResponse percorre as entidades Measure; MedidaMapper.toResponses lê a série
+ * colunar do MeasureColumnStore (caminho usado pelas listagens de histórico).
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class MapperBenchmark {
+
+    @Param({"10", "1000", "100000"})
+    private int medidas;
+
+    private final MedidaMapper medidaMapper = new MedidaMapper();
+    private final UsuarioMapper usuarioMapper = new UsuarioMapper(medidaMapper);
+
+    private User usuario;
+    private SerieMedidas serie;
+
+    @Setup
+    public void setUp() {
+        usuario = DadosBenchmark.usuarioComMedidas(medidas);
+        serie = DadosBenchmark.serie(medidas);
+    }
+
+    @Benchmark
+    public UsuarioResponse usuarioParaResponse() {
+        return usuarioMapper.toResponse(usuario);
+    }
+
+    @Benchmark
+    public List<MedidaResponse> serieParaResponses() {
+        return medidaMapper.toResponses(serie);
+    }
+}
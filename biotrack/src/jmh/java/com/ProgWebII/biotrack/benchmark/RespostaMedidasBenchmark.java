@@ -0,0 +1,100 @@
+package com.ProgWebII.biotrack.benchmark;
+
+import com.ProgWebII.biotrack.dto.response.MedidaResponse;
+import com.ProgWebII.biotrack.mapper.MedidaMapper;
+import com.ProgWebII.biotrack.model.MetricaMedida;
+import com.ProgWebII.biotrack.store.SerieMedidas;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Caminho completo de GET /medidas/{usuarioId}/medidas (série colunar → DTOs → JSON) com 10, 1k e 100k medidas,
+ * comparando o MedidaResponse atual (double[] + serializador próprio) com o DTO anterior
+ * (dez Double com getters, serializado por reflexão), reproduzido aqui em {@link MedidaLegada}.
+ * A métrica que interessa é a alocação por requisição:
+ *
+ *   ./mvnw -Pbenchmark test-compile exec:exec -Djmh.args="RespostaMedidasBenchmark -prof gc"
+ *
+ * e compare gc.alloc.rate.norm (bytes/op) entre os dois métodos.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class RespostaMedidasBenchmark {
+
+    @Param({"10", "1000", "100000"})
+    private int medidas;
+
+    private final MedidaMapper medidaMapper = new MedidaMapper();
+
+    private SerieMedidas serie;
+    private ObjectWriter writerAtual;
+    private ObjectWriter writerLegado;
+
+    @Setup
+    public void setUp() {
+        serie = DadosBenchmark.serie(medidas);
+        // Datas como texto, como no ObjectMapper que o Spring Boot entrega ao conversor HTTP
+        ObjectMapper objectMapper = Jackson2ObjectMapperBuilder.json()
+                .featuresToDisable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS)
+                .build();
+        writerAtual = objectMapper.writerFor(new TypeReference<List<MedidaResponse>>() { });
+        writerLegado = objectMapper.writerFor(new TypeReference<List<MedidaLegada>>() { });
+    }
+
+    @Benchmark
+    public byte[] respostaAtual() throws JsonProcessingException {
+        return writerAtual.writeValueAsBytes(medidaMapper.toResponses(serie));
+    }
+
+    @Benchmark
+    public byte[] respostaLegada() throws JsonProcessingException {
+        List<MedidaLegada> resposta = new ArrayList<>(serie.tamanho());
+        for (int i = 0; i < serie.tamanho(); i++) {
+            resposta.add(new MedidaLegada(
+                    serie.id(i),
+                    serie.dataMedicao(i),
+                    serie.valorOuNull(MetricaMedida.PESO, i),
+                    serie.valorOuNull(MetricaMedida.ALTURA, i),
+                    serie.valorOuNull(MetricaMedida.CINTURA, i),
+                    serie.valorOuNull(MetricaMedida.QUADRIL, i),
+                    serie.valorOuNull(MetricaMedida.PEITO, i),
+                    serie.valorOuNull(MetricaMedida.BRACO_DIREITO, i),
+                    serie.valorOuNull(MetricaMedida.BRACO_ESQUERDO, i),
+                    serie.valorOuNull(MetricaMedida.COXA_DIREITA, i),
+                    serie.valorOuNull(MetricaMedida.COXA_ESQUERDA, i),
+                    serie.valorOuNull(MetricaMedida.GORDURA_CORPORAL, i)));
+        }
+        return writerLegado.writeValueAsBytes(resposta);
+    }
+
+    // Forma anterior do MedidaResponse: Double por campo, serializado pelo BeanSerializer do Jackson
+    public record MedidaLegada(Long id, LocalDateTime measurementDate, Double weightKg, Double heightCm,
+                               Double waistCm, Double hipCm, Double chestCm, Double armRightCm,
+                               Double armLeftCm, Double thighRightCm, Double thighLeftCm,
+                               Double bodyFatPercentage) {
+    }
+}
@@ -0,0 +1,55 @@
+package com.ProgWebII.biotrack.benchmark;
+
+import com.ProgWebII.biotrack.dto.response.UsuarioResponse;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Serialização JSON do UsuarioResponse (GET /usuarios/{id}/medidas) com 10, 1k e 100k medidas.
+ * O ObjectMapper é montado pelo mesmo builder que o Spring usa no conversor HTTP (JavaTimeModule,
+ * datas como texto), para medir o formato que realmente vai na resposta.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class SerializacaoBenchmark {
+
+    @Param({"10", "1000", "100000"})
+    private int medidas;
+
+    private ObjectWriter writer;
+    private UsuarioResponse resposta;
+
+    @Setup
+    public void setUp() {
+        // O Spring Boot desliga WRITE_DATES_AS_TIMESTAMPS; o builder puro escreveria as datas como array
+        writer = Jackson2ObjectMapperBuilder.json()
+                .featuresToDisable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS)
+                .build()
+                .writerFor(UsuarioResponse.class);
+        resposta = DadosBenchmark.usuarioResponse(medidas);
+    }
+
+    @Benchmark
+    public byte[] serializarUsuarioResponse() throws JsonProcessingException {
+        return writer.writeValueAsBytes(resposta);
+    }
+}
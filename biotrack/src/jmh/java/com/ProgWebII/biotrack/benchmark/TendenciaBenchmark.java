@@ -0,0 +1,91 @@
+package com.ProgWebII.biotrack.benchmark;
+
+import com.ProgWebII.biotrack.dto.response.TendenciasResponse;
+import com.ProgWebII.biotrack.model.MetricaMedida;
+import com.ProgWebII.biotrack.repository.MeasureSeriesRepository;
+import com.ProgWebII.biotrack.service.TendenciaService;
+import com.ProgWebII.biotrack.store.MeasureColumnStore;
+import com.ProgWebII.biotrack.store.SerieMedidas;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * TendenciaService.calcularTendencias com históricos de 1k, 100k e 1M medidas, espalhadas por 10 anos.
+ * A janela de 3650 dias cobre o histórico inteiro, então o tempo cresce com o número de medidas;
+ * a alocação por chamada não deve crescer. Rode com o profiler de GC para conferir:
+ *
+ *   ./mvnw -Pbenchmark test-compile exec:exec -Djmh.args="TendenciaBenchmark -prof gc"
+ *
+ * e compare gc.alloc.rate.norm (bytes/op) entre os tamanhos.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class TendenciaBenchmark {
+
+    private static final long DEZ_ANOS_MILIS = 3650L * 86_400_000L;
+    private static final List<String> METRICAS = List.of("weightKg", "waistCm", "bodyFatPercentage");
+
+    @Param({"1000", "100000", "1000000"})
+    private int medidas;
+
+    private TendenciaService tendenciaService;
+
+    @Setup
+    public void setUp() {
+        SerieMedidas serie = serie(medidas);
+
+        // Série já em memória no MeasureColumnStore, sem banco: o benchmark mede só o cálculo.
+        // A leitura a frio (cursor no banco) está em LeituraServicosBenchmark
+        MeasureSeriesRepository repositorio = new MeasureSeriesRepository(null) {
+            @Override
+            public SerieMedidas carregarSerie(long userId) {
+                return serie;
+            }
+        };
+        MeasureColumnStore measureColumnStore = new MeasureColumnStore(repositorio, 1);
+        measureColumnStore.serieDoUsuario(1L);
+        tendenciaService = new TendenciaService(measureColumnStore, null, null);
+    }
+
+    private static SerieMedidas serie(int quantidade) {
+        long inicio = SerieMedidas.paraInstante(DadosBenchmark.INICIO);
+        long intervalo = DEZ_ANOS_MILIS / quantidade;
+        SerieMedidas.Construtor construtor = new SerieMedidas.Construtor(quantidade);
+        for (int i = 0; i < quantidade; i++) {
+            double variacao = (i % 30) / 10.0;
+            construtor.novaLinha(i + 1, inicio + i * intervalo)
+                    .valor(MetricaMedida.PESO, 80.0 - variacao)
+                    .valor(MetricaMedida.CINTURA, 90.0 - variacao)
+                    .valor(MetricaMedida.GORDURA_CORPORAL, 20.0 - variacao / 2);
+        }
+        return construtor.construir();
+    }
+
+    // Janelas curtas: a passada para ao sair da maior janela
+    @Benchmark
+    public TendenciasResponse janelasRecentes() {
+        return tendenciaService.calcularTendencias(1L, METRICAS, List.of(7, 30, 90));
+    }
+
+    // Janela de 10 anos: percorre o histórico inteiro
+    @Benchmark
+    public TendenciasResponse historicoCompleto() {
+        return tendenciaService.calcularTendencias(1L, METRICAS, List.of(7, 30, 3650));
+    }
+}
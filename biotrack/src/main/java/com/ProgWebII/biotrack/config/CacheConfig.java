@@ -0,0 +1,26 @@
+package com.ProgWebII.biotrack.config;
+
+import org.springframework.cache.annotation.EnableCaching;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.Ordered;
+
+/**
+ * Cache de leitura (Caffeine) dos perfis e históricos de usuários.
+ * Tamanho, expiração e estatísticas ficam em spring.cache.* no application.properties.
+ *
+ * O interceptor de cache roda por fora do de transação (ordem menor), então as remoções
+ * feitas por @CacheEvict em métodos @Transactional só acontecem depois do commit.
+ */
+@Configuration
+@EnableCaching(order = Ordered.LOWEST_PRECEDENCE - 1)
+public class CacheConfig {
+
+    // BuscarUsuarioPorIdResponse por ID do usuário
+    public static final String USUARIOS = "usuarios";
+
+    // UsuarioResponse com todas as medidas, por ID do usuário
+    public static final String USUARIOS_COM_MEDIDAS = "usuariosComMedidas";
+
+    // Lista de MedidaResponse, por ID do usuário
+    public static final String MEDIDAS_DO_USUARIO = "medidasDoUsuario";
+}
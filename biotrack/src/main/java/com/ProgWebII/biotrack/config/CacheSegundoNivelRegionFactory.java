@@ -0,0 +1,83 @@
+package com.ProgWebII.biotrack.config;
+
+import com.ProgWebII.biotrack.model.Measure;
+import com.ProgWebII.biotrack.model.User;
+import com.github.benmanes.caffeine.jcache.configuration.CaffeineConfiguration;
+import com.github.benmanes.caffeine.jcache.spi.CaffeineCachingProvider;
+import org.hibernate.boot.spi.SessionFactoryOptions;
+import org.hibernate.cache.CacheException;
+import org.hibernate.cache.jcache.internal.JCacheRegionFactory;
+import org.hibernate.cache.spi.RegionFactory;
+
+import javax.cache.Cache;
+import javax.cache.CacheManager;
+import java.util.Map;
+import java.util.OptionalLong;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cache de 2º nível do Hibernate (JCache, com o Caffeine como provedor local): as entidades User e Measure,
+ * a coleção User.measures e os resultados das consultas marcadas como cacheáveis.
+ *
+ * Cada SessionFactory recebe um provedor próprio, em vez do CacheManager global do JCache: contextos de teste
+ * com bancos diferentes (e os mesmos IDs) não compartilham regiões, e fechar um deles não fecha o dos outros.
+ * As regiões nascem com o tamanho e a expiração de biotrack.cache.segundo-nivel.* (em spring.jpa.properties);
+ * uma região sem chave aqui impede a inicialização, em vez de nascer sem limite.
+ */
+public class CacheSegundoNivelRegionFactory extends JCacheRegionFactory {
+
+    public static final String REGIAO_USUARIOS = User.class.getName();
+    public static final String REGIAO_MEDIDAS = Measure.class.getName();
+    public static final String REGIAO_MEDIDAS_DO_USUARIO = User.class.getName() + ".measures";
+    public static final String REGIAO_CONSULTAS = RegionFactory.DEFAULT_QUERY_RESULTS_REGION_UNQUALIFIED_NAME;
+    public static final String REGIAO_TIMESTAMPS = RegionFactory.DEFAULT_UPDATE_TIMESTAMPS_REGION_UNQUALIFIED_NAME;
+
+    private static final String PREFIXO = "biotrack.cache.segundo-nivel.";
+
+    // Região → chave das propriedades de tamanho e expiração
+    private static final Map<String, String> CHAVES = Map.of(
+            REGIAO_USUARIOS, "usuarios",
+            REGIAO_MEDIDAS, "medidas",
+            REGIAO_MEDIDAS_DO_USUARIO, "medidas-do-usuario",
+            REGIAO_CONSULTAS, "consultas");
+
+    private Map<String, Object> propriedades = Map.of();
+
+    @Override
+    protected CacheManager resolveCacheManager(SessionFactoryOptions settings, Map<String, Object> properties) {
+        this.propriedades = properties;
+        CaffeineCachingProvider provedor = new CaffeineCachingProvider();
+        return provedor.getCacheManager(provedor.getDefaultURI(), getClass().getClassLoader());
+    }
+
+    @Override
+    protected Cache<Object, Object> createCache(String regionName) {
+        // Os timestamps dizem quando cada tabela mudou: sem limite nem expiração, senão o cache de consultas
+        // poderia devolver um resultado anterior à última escrita
+        if (REGIAO_TIMESTAMPS.equals(regionName)) {
+            return getCacheManager().createCache(regionName, configuracao(OptionalLong.empty(), OptionalLong.empty()));
+        }
+        String chave = CHAVES.get(regionName);
+        if (chave == null) {
+            throw new CacheException("Região do cache de 2º nível sem configuração: " + regionName);
+        }
+        long maximoEntradas = propriedade(chave + ".maximo-entradas", 10000);
+        long expiracaoMinutos = propriedade(chave + ".expiracao-minutos", 30);
+        return getCacheManager().createCache(regionName, configuracao(
+                OptionalLong.of(maximoEntradas), OptionalLong.of(TimeUnit.MINUTES.toNanos(expiracaoMinutos))));
+    }
+
+    private long propriedade(String nome, long padrao) {
+        Object valor = propriedades.get(PREFIXO + nome);
+        return valor == null ? padrao : Long.parseLong(valor.toString().trim());
+    }
+
+    private static CaffeineConfiguration<Object, Object> configuracao(OptionalLong maximoEntradas, OptionalLong expiracaoNanos) {
+        CaffeineConfiguration<Object, Object> configuracao = new CaffeineConfiguration<>();
+        configuracao.setMaximumSize(maximoEntradas);
+        configuracao.setExpireAfterWrite(expiracaoNanos);
+        // O Hibernate já guarda cópias desmontadas das entidades: sem serialização a cada get/put
+        configuracao.setStoreByValue(false);
+        return configuracao;
+    }
+}
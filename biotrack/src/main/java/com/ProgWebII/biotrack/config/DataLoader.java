@@ -4,16 +4,26 @@ import com.ProgWebII.biotrack.model.Measure;
 import com.ProgWebII.biotrack.model.User;
 import com.ProgWebII.biotrack.repository.MeasureRepository;
 import com.ProgWebII.biotrack.repository.UserRepository;
-import org.springframework.boot.CommandLineRunner;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.SmartInitializingSingleton;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Profile;
 import org.springframework.security.crypto.password.PasswordEncoder;
 
 import java.time.LocalDate;
 import java.util.Arrays;
 import java.util.List;
 
+// Dados de exemplo só no profile "dev" (o padrão, veja spring.profiles.default); com o schema mantido pelo Flyway,
+// a carga (e o hash BCrypt das três senhas) acontece só na primeira inicialização, com o banco vazio.
+// Roda assim que os beans ficam prontos: antes do ProjectionRebuildRunner, que monta as projeções a partir desta
+// carga, e do servidor web
 @Configuration
-public class DataLoader implements CommandLineRunner {
+@Profile("dev")
+public class DataLoader implements SmartInitializingSingleton {
+
+    private static final Logger log = LoggerFactory.getLogger(DataLoader.class);
 
     private final UserRepository userRepository;
     private final MeasureRepository measureRepository;
@@ -26,21 +36,21 @@ public class DataLoader implements CommandLineRunner {
     }
 
     @Override
-    public void run(String... args) {
+    public void afterSingletonsInstantiated() {
 
         if (userRepository.count() > 0) {
-            System.out.println("Dados já existentes — DataLoader ignorado.");
+            log.info("Dados já existentes — DataLoader ignorado.");
             return;
         }
 
         //Usuários
         //gerando o hash através do passwordEncoder via injeção de deendencias pelo construtor
-        User ana = new User(null, "Ana Costa", LocalDate.of(1992, 5, 10), "01001-000",
-                "ana.costa@email.com", passwordEncoder.encode("123456"), null);
-        User joao = new User(null, "João Silva", LocalDate.of(1988, 3, 22), "01310-200",
-                "joao.silva@email.com", passwordEncoder.encode("123456"), null);
-        User carla = new User(null, "Carla Mendes", LocalDate.of(1995, 11, 5), "04045-100",
-                "carla.mendes@email.com", passwordEncoder.encode("123456") , null);
+        User ana = User.builder().name("Ana Costa").birthDate(LocalDate.of(1992, 5, 10)).zipCode("01001-000")
+                .email("ana.costa@email.com").password(passwordEncoder.encode("123456")).build();
+        User joao = User.builder().name("João Silva").birthDate(LocalDate.of(1988, 3, 22)).zipCode("01310-200")
+                .email("joao.silva@email.com").password(passwordEncoder.encode("123456")).build();
+        User carla = User.builder().name("Carla Mendes").birthDate(LocalDate.of(1995, 11, 5)).zipCode("04045-100")
+                .email("carla.mendes@email.com").password(passwordEncoder.encode("123456")).build();
 
         userRepository.saveAll(Arrays.asList(ana, joao, carla));
 
@@ -56,6 +66,6 @@ public class DataLoader implements CommandLineRunner {
         List<Measure> medidas = Arrays.asList(m1, m2, m3, m4, m5);
         measureRepository.saveAll(medidas);
 
-        System.out.println("Dados iniciais carregados com sucesso!");
+        log.info("Dados iniciais carregados com sucesso!");
     }
 }
@@ -0,0 +1,36 @@
+package com.ProgWebII.biotrack.config;
+
+import com.ProgWebII.biotrack.store.MedidasAlteradasEvent;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+/**
+ * Remove do cache os históricos de um usuário quando as suas medidas mudam.
+ * As escritas de medida nem sempre recebem o ID do usuário como parâmetro (ex.: removerMedida),
+ * por isso a remoção parte do evento publicado pelos serviços, e não de @CacheEvict.
+ */
+@Component
+public class MedidasCacheListener {
+
+    private final CacheManager cacheManager;
+
+    public MedidasCacheListener(CacheManager cacheManager) {
+        this.cacheManager = cacheManager;
+    }
+
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public void aoAlterarMedidas(MedidasAlteradasEvent evento) {
+        remover(CacheConfig.USUARIOS_COM_MEDIDAS, evento.userId());
+        remover(CacheConfig.MEDIDAS_DO_USUARIO, evento.userId());
+    }
+
+    private void remover(String nomeCache, Long userId) {
+        Cache cache = cacheManager.getCache(nomeCache);
+        if (cache != null) {
+            cache.evict(userId);
+        }
+    }
+}
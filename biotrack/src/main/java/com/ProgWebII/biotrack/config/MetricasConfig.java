@@ -0,0 +1,26 @@
+package com.ProgWebII.biotrack.config;
+
+import io.micrometer.core.aop.TimedAspect;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Métricas próprias da aplicação (Micrometer), exportadas com as demais em /api/v1/actuator/prometheus.
+ * O Spring Boot já mede as requisições HTTP, os repositórios Spring Data, o pool do Hikari, o cache e o Hibernate;
+ * aqui entram os timers de @Timed, usados por classe nos serviços e nos repositórios JDBC.
+ * Histogramas e percentis são configurados pelo prefixo "biotrack" no application.properties.
+ */
+@Configuration
+public class MetricasConfig {
+
+    // Um timer por método público, com as tags class e method
+    public static final String TIMER_SERVICOS = "biotrack.servicos";
+    public static final String TIMER_REPOSITORIOS_JDBC = "biotrack.repositorios.jdbc";
+
+    // Sem este aspecto o @Timed é ignorado fora dos controllers
+    @Bean
+    public TimedAspect timedAspect(MeterRegistry meterRegistry) {
+        return new TimedAspect(meterRegistry);
+    }
+}
@@ -0,0 +1,44 @@
+package com.ProgWebII.biotrack.config;
+
+import com.zaxxer.hikari.HikariDataSource;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.env.Environment;
+
+/**
+ * Dimensiona o pool do Hikari pelo número de núcleos: (núcleos * conexoes-por-nucleo) + 1, como fixo
+ * (minimum-idle = máximo). Com o H2 embutido quase não há espera de rede ou disco por comando, então
+ * conexões além disso só disputam CPU e os travamentos do banco.
+ *
+ * Ativo quando biotrack.banco.pool.conexoes-por-nucleo está definido (profile "prod");
+ * um spring.datasource.hikari.maximum-pool-size explícito continua valendo.
+ */
+@Configuration
+@ConditionalOnProperty(name = "biotrack.banco.pool.conexoes-por-nucleo")
+public class PoolConexoesConfig {
+
+    private static final Logger log = LoggerFactory.getLogger(PoolConexoesConfig.class);
+
+    // static: o pós-processador precisa existir antes do DataSource
+    @Bean
+    public static BeanPostProcessor tamanhoPoolPorNucleos(Environment ambiente) {
+        return new BeanPostProcessor() {
+            @Override
+            public Object postProcessAfterInitialization(Object bean, String beanName) {
+                if (bean instanceof HikariDataSource hikari
+                        && !ambiente.containsProperty("spring.datasource.hikari.maximum-pool-size")) {
+                    int conexoesPorNucleo = ambiente.getRequiredProperty("biotrack.banco.pool.conexoes-por-nucleo", Integer.class);
+                    int tamanho = Runtime.getRuntime().availableProcessors() * conexoesPorNucleo + 1;
+                    hikari.setMaximumPoolSize(tamanho);
+                    hikari.setMinimumIdle(tamanho);
+                    log.info("Pool de conexões dimensionado para {} conexões", tamanho);
+                }
+                return bean;
+            }
+        };
+    }
+}
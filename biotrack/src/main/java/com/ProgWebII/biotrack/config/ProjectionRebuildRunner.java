@@ -0,0 +1,105 @@
+package com.ProgWebII.biotrack.config;
+
+import com.ProgWebII.biotrack.repository.LatestMeasureRepository;
+import com.ProgWebII.biotrack.repository.MeasureRepository;
+import com.ProgWebII.biotrack.repository.MeasureRollupRepository;
+import com.ProgWebII.biotrack.service.LatestMeasureService;
+import com.ProgWebII.biotrack.service.MeasureRollupService;
+import com.ProgWebII.biotrack.store.DistribuicaoPopulacaoStore;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Garante as projeções derivadas de tb_measure (última medida e agregados por período) antes de o servidor web
+ * aceitar requisições. As próprias escritas mantêm as projeções; aqui elas só são montadas quando estão vazias
+ * e tb_measure não (banco anterior à migração que as criou, ou a carga do DataLoader), sem ler tb_measure
+ * inteira a cada partida. A distribuição da população é carregada no primeiro acesso.
+ * A reconstrução completa é uma ação de operação: suba a aplicação uma vez com
+ * --biotrack.projecoes.reconstruir-na-inicializacao=true (por exemplo, depois de corrigir tb_measure direto no banco).
+ */
+@Configuration
+public class ProjectionRebuildRunner implements SmartLifecycle {
+
+    private static final Logger log = LoggerFactory.getLogger(ProjectionRebuildRunner.class);
+
+    // Bem abaixo da fase do servidor web (WebServerStartStopLifecycle), que só abre a porta depois
+    private static final int FASE = 0;
+
+    private final LatestMeasureService latestMeasureService;
+    private final MeasureRollupService measureRollupService;
+    private final DistribuicaoPopulacaoStore distribuicaoPopulacaoStore;
+    private final MeasureRepository measureRepository;
+    private final LatestMeasureRepository latestMeasureRepository;
+    private final MeasureRollupRepository measureRollupRepository;
+    private final boolean reconstruirTudo;
+    private volatile boolean executado;
+
+    public ProjectionRebuildRunner(LatestMeasureService latestMeasureService, MeasureRollupService measureRollupService,
+                                   DistribuicaoPopulacaoStore distribuicaoPopulacaoStore,
+                                   MeasureRepository measureRepository, LatestMeasureRepository latestMeasureRepository,
+                                   MeasureRollupRepository measureRollupRepository,
+                                   @Value("${biotrack.projecoes.reconstruir-na-inicializacao:false}") boolean reconstruirTudo) {
+        this.latestMeasureService = latestMeasureService;
+        this.measureRollupService = measureRollupService;
+        this.distribuicaoPopulacaoStore = distribuicaoPopulacaoStore;
+        this.measureRepository = measureRepository;
+        this.latestMeasureRepository = latestMeasureRepository;
+        this.measureRollupRepository = measureRollupRepository;
+        this.reconstruirTudo = reconstruirTudo;
+    }
+
+    @Override
+    public void start() {
+        if (reconstruirTudo) {
+            reconstruirTudo();
+        } else {
+            montarProjecoesVazias();
+        }
+        executado = true;
+    }
+
+    // O COUNT(*) sem filtro não percorre a tabela no H2
+    private void montarProjecoesVazias() {
+        if (measureRepository.count() == 0) {
+            return;
+        }
+        if (latestMeasureRepository.count() == 0) {
+            int usuarios = latestMeasureService.reconstruir();
+            log.info("Projeção de última medida vazia, montada para {} usuário(s).", usuarios);
+        }
+        if (measureRollupRepository.count() == 0) {
+            int agregados = measureRollupService.reconstruir();
+            log.info("Agregados de medidas (dia/semana/mês) vazios, montados: {} registro(s).", agregados);
+        }
+    }
+
+    private void reconstruirTudo() {
+        int usuarios = latestMeasureService.reconstruir();
+        log.info("Projeção de última medida reconstruída para {} usuário(s).", usuarios);
+
+        int agregados = measureRollupService.reconstruir();
+        log.info("Agregados de medidas (dia/semana/mês) reconstruídos: {} registro(s).", agregados);
+
+        // Lida de tb_latest_measure, por isso depois da reconstrução da última medida
+        int usuariosNaDistribuicao = distribuicaoPopulacaoStore.reconstruir();
+        log.info("Distribuição de IMC da população carregada com {} usuário(s).", usuariosNaDistribuicao);
+    }
+
+    @Override
+    public void stop() {
+        executado = false;
+    }
+
+    @Override
+    public boolean isRunning() {
+        return executado;
+    }
+
+    @Override
+    public int getPhase() {
+        return FASE;
+    }
+}
@@ -1,12 +1,26 @@
 package com.ProgWebII.biotrack.controller;
 
 import com.ProgWebII.biotrack.controller.documentation.MeasureControllerDocs;
+import com.ProgWebII.biotrack.dto.request.MedidaLoteRequest;
+import com.ProgWebII.biotrack.dto.response.LoteMedidasResponse;
 import com.ProgWebII.biotrack.dto.response.MedidaResponse;
+import com.ProgWebII.biotrack.dto.response.RelatorioImportacaoResponse;
 import com.ProgWebII.biotrack.dto.request.MeasureRequest;
+import com.ProgWebII.biotrack.dto.response.SerieAgregadaResponse;
+import com.ProgWebII.biotrack.service.MeasureBatchService;
+import com.ProgWebII.biotrack.service.MeasureImportService;
+import com.ProgWebII.biotrack.service.MeasureRollupService;
 import com.ProgWebII.biotrack.service.MeasureService;
+import jakarta.validation.Valid;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
+import java.io.IOException;
+import java.io.InputStream;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
 import java.util.List;
 
 @RestController
@@ -14,21 +28,67 @@ import java.util.List;
 public class MeasureController implements MeasureControllerDocs {
 
   private final MeasureService measureService;
+  private final MeasureBatchService measureBatchService;
+  private final MeasureRollupService measureRollupService;
+  private final MeasureImportService measureImportService;
 
-  public MeasureController(MeasureService measureService) {
+  public MeasureController(MeasureService measureService, MeasureBatchService measureBatchService,
+                           MeasureRollupService measureRollupService, MeasureImportService measureImportService) {
     this.measureService = measureService;
+    this.measureBatchService = measureBatchService;
+    this.measureRollupService = measureRollupService;
+    this.measureImportService = measureImportService;
   }
 
   //POST /api/v1/usuarios/{idUsuario}/medidas → cria uma nova medida para o usuário existente
   @PostMapping("/{userId}")
-  public ResponseEntity<String> createMeasure(@RequestBody MeasureRequest measureRequest, @PathVariable Long userId) {
+  public ResponseEntity<String> createMeasure(@Valid @RequestBody MeasureRequest measureRequest, @PathVariable Long userId) {
     measureService.CreateMeasure(measureRequest, userId);
     return ResponseEntity.ok("Medida criada com sucesso!");
   }
-   //GET /api/v1/usuarios/{idUsuario}/medidas → todas as medidas do usuário
+
+    // POST /medidas/batch (application/json) → cria várias medidas a partir de um array JSON
+    @PostMapping(value = "/batch", consumes = MediaType.APPLICATION_JSON_VALUE)
+    public ResponseEntity<LoteMedidasResponse> criarMedidasEmLote(@RequestBody List<MedidaLoteRequest> medidas) {
+        return ResponseEntity.ok(measureBatchService.criarMedidasEmLote(medidas));
+    }
+
+    // POST /medidas/batch (application/x-ndjson) → cria várias medidas lendo uma por linha
+    @PostMapping(value = "/batch", consumes = MediaType.APPLICATION_NDJSON_VALUE)
+    public ResponseEntity<LoteMedidasResponse> criarMedidasEmLoteNdjson(InputStream corpo) throws IOException {
+        return ResponseEntity.ok(measureBatchService.criarMedidasEmLote(corpo));
+    }
+
+    // POST /medidas/import?arquivo=historico.csv → importa (ou retoma) um arquivo do diretório de importação
+    @PostMapping("/import")
+    public ResponseEntity<RelatorioImportacaoResponse> importarMedidas(@RequestParam String arquivo) throws IOException {
+        return ResponseEntity.ok(measureImportService.importar(arquivo));
+    }
+   //GET /api/v1/usuarios/{idUsuario}/medidas?from=...&to=...&fields=weightKg,waistCm&limit=100 → medidas do usuário
     @GetMapping("/{usuarioId}/medidas")
-    public ResponseEntity<List<MedidaResponse>> listarTodasAsMedidas(@PathVariable Long usuarioId) {
-        return ResponseEntity.ok(measureService.listarTodasAsMedidasDeUmUsuario(usuarioId));
+    public ResponseEntity<List<MedidaResponse>> listarTodasAsMedidas(
+            @PathVariable Long usuarioId,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime to,
+            @RequestParam(required = false) List<String> fields,
+            @RequestParam(required = false) Integer limit) {
+        // Sem filtros, o histórico completo continua saindo do cache
+        if (from == null && to == null && fields == null && limit == null) {
+            return ResponseEntity.ok(measureService.listarTodasAsMedidasDeUmUsuario(usuarioId));
+        }
+        return ResponseEntity.ok(measureService.listarMedidasFiltradas(usuarioId, from, to, fields, limit));
+    }
+
+    // GET /medidas/{usuarioId}/medidas/agregadas?metrica=weightKg&de=...&ate=...&pontos=200 → série por dia/semana/mês
+    @GetMapping("/{usuarioId}/medidas/agregadas")
+    public ResponseEntity<SerieAgregadaResponse> buscarMedidasAgregadas(
+            @PathVariable Long usuarioId,
+            @RequestParam String metrica,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate de,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate ate,
+            @RequestParam(defaultValue = "200") int pontos,
+            @RequestParam(required = false) String granularidade) {
+        return ResponseEntity.ok(measureRollupService.buscarSerie(usuarioId, metrica, de, ate, pontos, granularidade));
     }
 
     // GET /api/v1/usuarios/{idUsuario}/medidas/{medidaId} → busca uma medida específica de um usuário
@@ -44,7 +104,7 @@ public class MeasureController implements MeasureControllerDocs {
     @PutMapping("/{medidaId}")
     public ResponseEntity<String> atualizarMedida(
             @PathVariable Long medidaId,
-            @RequestBody MeasureRequest medidaRequest) {
+            @Valid @RequestBody MeasureRequest medidaRequest) {
         measureService.atualizarMedida(medidaId, medidaRequest);
         return ResponseEntity.ok("Medida atualizada com sucesso!");
     }
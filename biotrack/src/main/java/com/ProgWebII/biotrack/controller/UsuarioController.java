@@ -2,17 +2,39 @@ package com.ProgWebII.biotrack.controller;
 
 import com.ProgWebII.biotrack.controller.documentation.UsuarioControllerDocs;
 import com.ProgWebII.biotrack.dto.response.BuscarUsuarioPorIdResponse;
+import com.ProgWebII.biotrack.dto.response.DistribuicaoImcResponse;
 import com.ProgWebII.biotrack.dto.response.ListarTodosUsuariosResponse;
+import com.ProgWebII.biotrack.dto.response.TendenciasResponse;
+import com.ProgWebII.biotrack.dto.response.UsuarioImcResponse;
 import com.ProgWebII.biotrack.dto.response.UsuarioResponse;
 import com.ProgWebII.biotrack.dto.response.UsuarioSemMedidasResponse;
-import com.ProgWebII.biotrack.mapper.UsuarioMapper;
-import com.ProgWebII.biotrack.model.Imc;
-import com.ProgWebII.biotrack.repository.UserRepository;
+import com.ProgWebII.biotrack.repository.projection.VersaoUsuarioProjection;
+import com.ProgWebII.biotrack.service.DistribuicaoImcService;
+import com.ProgWebII.biotrack.service.MeasureExportService;
+import com.ProgWebII.biotrack.service.PasswordHashingService;
+import com.ProgWebII.biotrack.service.StreamMedidasService;
+import com.ProgWebII.biotrack.service.TendenciaService;
 import com.ProgWebII.biotrack.service.UserService;
+import jakarta.validation.Valid;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.boot.autoconfigure.task.TaskExecutionAutoConfiguration;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.web.PageableDefault;
+import org.springframework.http.CacheControl;
+import org.springframework.http.ContentDisposition;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+import org.springframework.web.servlet.support.ServletUriComponentsBuilder;
 
 import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
 
 import com.ProgWebII.biotrack.dto.request.UserRequest;
 import com.ProgWebII.biotrack.dto.request.UserPatchRequest;
@@ -22,46 +44,89 @@ import com.ProgWebII.biotrack.dto.request.UserPatchRequest;
 mapeamento de rota base (ou endpoint base) de um controller REST no Spring Boot.*/
 public class UsuarioController implements UsuarioControllerDocs {
 
-    private final UserRepository userRepository;
+    public static final String CABECALHO_PROXIMO_CURSOR = "X-Next-Cursor";
+
     private final UserService userService;
-    private final Imc imc;
-    private final UsuarioMapper usuarioMapper;
+    private final PasswordHashingService passwordHashingService;
+    private final TendenciaService tendenciaService;
+    private final DistribuicaoImcService distribuicaoImcService;
+    private final StreamMedidasService streamMedidasService;
+    private final MeasureExportService measureExportService;
+    // Continuação das escritas com senha (acesso ao banco), fora do pool de hash
+    private final Executor executorEscritas;
 
-    public UsuarioController(UserRepository userRepository, UserService userService, Imc imc, UsuarioMapper usuarioMapper) {
-        this.userRepository = userRepository;
+    public UsuarioController(UserService userService, PasswordHashingService passwordHashingService,
+                             TendenciaService tendenciaService, DistribuicaoImcService distribuicaoImcService,
+                             StreamMedidasService streamMedidasService, MeasureExportService measureExportService,
+                             @Qualifier(TaskExecutionAutoConfiguration.APPLICATION_TASK_EXECUTOR_BEAN_NAME)
+                             Executor executorEscritas) {
         this.userService = userService;
-        this.imc = imc;
-        this.usuarioMapper = usuarioMapper;
+        this.passwordHashingService = passwordHashingService;
+        this.tendenciaService = tendenciaService;
+        this.distribuicaoImcService = distribuicaoImcService;
+        this.streamMedidasService = streamMedidasService;
+        this.measureExportService = measureExportService;
+        this.executorEscritas = executorEscritas;
     }
 
+    // As escritas com senha respondem de forma assíncrona: a thread do Tomcat é liberada
+    // enquanto o BCrypt roda no pool do PasswordHashingService. A gravação continua no applicationTaskExecutor:
+    // nas threads do hash, a espera por conexão e pelo banco encheria a fila limitada do pool e geraria 503
+    // sem que a CPU estivesse ocupada
     @PostMapping()
-    public ResponseEntity<String> criarUsuario(@RequestBody UserRequest userRequest) {
-        userService.createUser(userRequest);
-        return ResponseEntity.ok("Usuário criado com sucesso!");
+    public CompletableFuture<ResponseEntity<String>> criarUsuario(@Valid @RequestBody UserRequest userRequest) {
+        return passwordHashingService.gerarHash(userRequest.password())
+                .thenApplyAsync(senhaHash -> {
+                    userService.createUser(userRequest, senhaHash);
+                    return ResponseEntity.ok("Usuário criado com sucesso!");
+                }, executorEscritas);
     }
 
+    //GET /usuarios/filtro-imc?faixa=...&page=0&size=20 → usuários da faixa de IMC, paginados
     @GetMapping("/filtro-imc")
-    public ResponseEntity<List<UsuarioResponse>> filtrarUsuariosPorImc(@RequestParam String faixa) {
+    public ResponseEntity<Page<UsuarioImcResponse>> filtrarUsuariosPorImc(
+            @RequestParam String faixa,
+            @PageableDefault(size = 20) Pageable pageable) {
+        return ResponseEntity.ok(userService.filtrarUsuariosPorFaixaImc(faixa, pageable));
+    }
+
+    //GET /usuarios/estatisticas/imc?percentis=5,25,50,75,95 → usuários por faixa de IMC e percentis da população
+    @GetMapping("/estatisticas/imc")
+    public ResponseEntity<DistribuicaoImcResponse> calcularDistribuicaoImc(
+            @RequestParam(defaultValue = "5,25,50,75,95") List<Double> percentis) {
+        return ResponseEntity.ok(distribuicaoImcService.calcularDistribuicao(percentis));
+    }
 
-        List<UsuarioResponse> usuariosFiltrados = userRepository.findAll().stream()
-                .filter(user -> {
-                    Double imcUsuario = imc.obterImcUsuario(user.getId());
-                    if (imcUsuario == null) return false;
+    //GET /usuarios?limit=100&after={ultimoId} → lista usuários (sem medidas) paginados por cursor
+    @GetMapping
+    public ResponseEntity<List<ListarTodosUsuariosResponse>> listarTodos(
+            @RequestParam(required = false) Long after,
+            @RequestParam(defaultValue = "100") int limit) {
+        List<ListarTodosUsuariosResponse> usuarios = userService.listarTodos(after, limit);
+
+        ResponseEntity.BodyBuilder resposta = ResponseEntity.ok();
 
-                    String faixaUsuario = imc.classificarFaixaImc(imcUsuario);
-                    return faixaUsuario != null && faixaUsuario.equalsIgnoreCase(faixa);
-                })
-                .map(usuarioMapper::toResponse)
-                .sorted((a, b) -> a.id().compareTo(b.id()))
-                .toList();
+        // Página cheia: informa o cursor da próxima página no cabeçalho
+        if (!usuarios.isEmpty() && usuarios.size() == Math.min(limit, UserService.LIMITE_MAXIMO_PAGINA)) {
+            Long proximoCursor = usuarios.get(usuarios.size() - 1).id();
+            String proximaPagina = ServletUriComponentsBuilder.fromCurrentRequest()
+                    .replaceQueryParam("after", proximoCursor)
+                    .replaceQueryParam("limit", limit)
+                    .toUriString();
+            resposta.header(CABECALHO_PROXIMO_CURSOR, String.valueOf(proximoCursor))
+                    .header(HttpHeaders.LINK, "<" + proximaPagina + ">; rel=\"next\"");
+        }
 
-        return ResponseEntity.ok(usuariosFiltrados);
+        return resposta.body(usuarios);
     }
 
-    //GET /usuarios → lista todos (sem medidas)
-    @GetMapping
-    public ResponseEntity<List<ListarTodosUsuariosResponse>> listarTodos() {
-        return ResponseEntity.ok(userService.listarTodos());
+    //GET /usuarios (Accept: application/x-ndjson) → todos os usuários em streaming, um JSON por linha
+    @GetMapping(produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public ResponseEntity<StreamingResponseBody> listarTodosNdjson(@RequestParam(required = false) Long after) {
+        StreamingResponseBody corpo = saida -> userService.exportarUsuariosNdjson(after, saida);
+        return ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_NDJSON)
+                .body(corpo);
     }
 
     //GET /usuarios/{id} → busca usuário por ID (sem medidas)
@@ -76,35 +141,140 @@ public class UsuarioController implements UsuarioControllerDocs {
         return ResponseEntity.ok(userService.listarUsuariosSemMedidas());
     }
 
-    //GET /usuarios/{id}/todas-medidas → usuário + todas as medidas
+    //GET /usuarios/{id}/todas-medidas → usuário + todas as medidas (304 se o If-None-Match ainda vale)
     @GetMapping("/{id}/todas-medidas")
-    public ResponseEntity<UsuarioResponse> trazerUsuarioComTodasMedidas(@PathVariable Long id) {
-        return ResponseEntity.ok(userService.trazerUsuarioPorIdComTodasAsMedidas(id));
+    public ResponseEntity<UsuarioResponse> trazerUsuarioComTodasMedidas(@PathVariable Long id, WebRequest requisicao) {
+        VersaoUsuarioProjection versao = userService.buscarVersao(id);
+        if (naoModificado(id, versao, requisicao)) {
+            return null; // 304 já preenchido pelo checkNotModified, sem consultar as medidas
+        }
+        return comVersao(id, versao).body(userService.trazerUsuarioPorIdComTodasAsMedidas(id));
     }
 
-    //GET /usuarios/{id}/ultima-medida → usuário + última medida
+    //GET /usuarios/{id}/ultima-medida → usuário + última medida (304 se o If-None-Match ainda vale)
     @GetMapping("/{id}/ultima-medida")
-    public ResponseEntity<UsuarioResponse> trazerUsuarioComUltimaMedida(@PathVariable Long id) {
-        return ResponseEntity.ok(userService.trazerUsuarioPorIdComUltimaMedida(id));
+    public ResponseEntity<UsuarioResponse> trazerUsuarioComUltimaMedida(@PathVariable Long id, WebRequest requisicao) {
+        VersaoUsuarioProjection versao = userService.buscarVersao(id);
+        if (naoModificado(id, versao, requisicao)) {
+            return null;
+        }
+        return comVersao(id, versao).body(userService.trazerUsuarioPorIdComUltimaMedida(id));
+    }
+
+    //GET /usuarios/{id}/medidas/stream → SSE com cada medida criada ou atualizada do usuário a partir de agora
+    @GetMapping(path = "/{id}/medidas/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public SseEmitter acompanharMedidas(@PathVariable Long id) {
+        return streamMedidasService.assinar(id);
+    }
+
+    //GET /usuarios/{id}/medidas/export?format=csv|ndjson → histórico completo do usuário em streaming (gzip se aceito)
+    @GetMapping("/{id}/medidas/export")
+    public ResponseEntity<StreamingResponseBody> exportarMedidas(
+            @PathVariable Long id,
+            @RequestParam(defaultValue = "csv") String format,
+            @RequestHeader(value = HttpHeaders.ACCEPT_ENCODING, required = false) String acceptEncoding) {
+        MeasureExportService.Formato formato = MeasureExportService.Formato.porNome(format);
+        measureExportService.validarUsuario(id);
+        boolean gzip = aceitaGzip(acceptEncoding);
+        StreamingResponseBody corpo = saida -> measureExportService.exportarMedidas(id, formato, gzip, saida);
+        return exportacao("medidas-usuario-" + id, formato, gzip).body(corpo);
+    }
+
+    //GET /usuarios/medidas/export?format=csv|ndjson&particoes=N → exportação administrativa das medidas de todos os usuários
+    //(sem particoes, usa o máximo configurado; desligada por padrão: biotrack.medidas.exportacao.todas.habilitada; 503 se o limite de exportações simultâneas estiver ocupado)
+    @GetMapping("/medidas/export")
+    public ResponseEntity<StreamingResponseBody> exportarTodasAsMedidas(
+            @RequestParam(defaultValue = "csv") String format,
+            @RequestParam(required = false) Integer particoes,
+            @RequestHeader(value = HttpHeaders.ACCEPT_ENCODING, required = false) String acceptEncoding) {
+        MeasureExportService.Formato formato = MeasureExportService.Formato.porNome(format);
+        boolean gzip = aceitaGzip(acceptEncoding);
+        int quantidadeParticoes = particoes != null ? particoes : measureExportService.getMaximoParticoes();
+        measureExportService.reservarExportacaoCompleta(quantidadeParticoes);
+        StreamingResponseBody corpo = saida -> {
+            try {
+                measureExportService.exportarTodasAsMedidas(formato, quantidadeParticoes, gzip, saida);
+            } finally {
+                measureExportService.liberarExportacaoCompleta();
+            }
+        };
+        return exportacao("medidas", formato, gzip).body(corpo);
+    }
+
+    // Basta o cliente citar gzip no Accept-Encoding (curl --compressed, navegadores)
+    private static boolean aceitaGzip(String acceptEncoding) {
+        return acceptEncoding != null && acceptEncoding.toLowerCase().contains("gzip");
+    }
+
+    private static ResponseEntity.BodyBuilder exportacao(String nomeArquivo, MeasureExportService.Formato formato,
+                                                         boolean gzip) {
+        ResponseEntity.BodyBuilder resposta = ResponseEntity.ok()
+                .contentType(formato.getMediaType())
+                .header(HttpHeaders.CONTENT_DISPOSITION, ContentDisposition.attachment()
+                        .filename(nomeArquivo + "." + formato.getExtensao()).build().toString())
+                .varyBy(HttpHeaders.ACCEPT_ENCODING);
+        if (gzip) {
+            resposta.header(HttpHeaders.CONTENT_ENCODING, "gzip");
+        }
+        return resposta;
+    }
+
+    // ETag fraco: ID, revisão e instante da última alteração (que diferencia revisões iguais após recriar o banco)
+    static String etag(Long id, VersaoUsuarioProjection versao) {
+        return "W/\"" + id + "-" + versao.getRevisao() + "-" + Long.toHexString(ultimaAlteracao(versao)) + "\"";
+    }
+
+    private static long ultimaAlteracao(VersaoUsuarioProjection versao) {
+        return versao.getUltimaAlteracao() == null ? -1 : versao.getUltimaAlteracao().toEpochMilli();
+    }
+
+    private static boolean naoModificado(Long id, VersaoUsuarioProjection versao, WebRequest requisicao) {
+        return requisicao.checkNotModified(etag(id, versao), ultimaAlteracao(versao));
+    }
+
+    // no-cache: o cliente pode guardar a resposta, mas revalida a cada uso
+    private static ResponseEntity.BodyBuilder comVersao(Long id, VersaoUsuarioProjection versao) {
+        ResponseEntity.BodyBuilder resposta = ResponseEntity.ok()
+                .eTag(etag(id, versao))
+                .cacheControl(CacheControl.noCache());
+        if (versao.getUltimaAlteracao() != null) {
+            resposta.lastModified(versao.getUltimaAlteracao());
+        }
+        return resposta;
+    }
+
+    //GET /usuarios/{id}/tendencias?metricas=weightKg,waistCm&janelas=7,30,90 → resumo das tendências, sem o histórico
+    @GetMapping("/{id}/tendencias")
+    public ResponseEntity<TendenciasResponse> calcularTendencias(
+            @PathVariable Long id,
+            @RequestParam(defaultValue = "weightKg,waistCm,bodyFatPercentage") List<String> metricas,
+            @RequestParam(defaultValue = "7,30,90") List<Integer> janelas) {
+        return ResponseEntity.ok(tendenciaService.calcularTendencias(id, metricas, janelas));
     }
 
     
     // PUT /usuarios/{id} → atualiza completamente um usuário
     @PutMapping("/{id}")
-    public ResponseEntity<String> atualizarUsuario(
+    public CompletableFuture<ResponseEntity<String>> atualizarUsuario(
             @PathVariable Long id,
             @RequestBody UserRequest userRequest) {
-        userService.atualizarUsuario(id, userRequest);
-        return ResponseEntity.ok("Usuário atualizado com sucesso!");
+        return passwordHashingService.gerarHashSeInformada(userRequest.password())
+                .thenApplyAsync(senhaHash -> {
+                    userService.atualizarUsuario(id, userRequest, senhaHash);
+                    return ResponseEntity.ok("Usuário atualizado com sucesso!");
+                }, executorEscritas);
     }
     
     // PATCH /usuarios/{id} → atualiza parcialmente um usuário
     @PatchMapping("/{id}")
-    public ResponseEntity<String> atualizarParcialUsuario(
+    public CompletableFuture<ResponseEntity<String>> atualizarParcialUsuario(
             @PathVariable Long id,
-            @RequestBody UserPatchRequest userPatchRequest) {
-        userService.atualizarParcialUsuario(id, userPatchRequest);
-        return ResponseEntity.ok("Usuário atualizado parcialmente com sucesso!");
+            @Valid @RequestBody UserPatchRequest userPatchRequest) {
+        return passwordHashingService.gerarHashSeInformada(userPatchRequest.password())
+                .thenApplyAsync(senhaHash -> {
+                    userService.atualizarParcialUsuario(id, userPatchRequest, senhaHash);
+                    return ResponseEntity.ok("Usuário atualizado parcialmente com sucesso!");
+                }, executorEscritas);
     }
     
     // DELETE /usuarios/{id} → remove um usuário
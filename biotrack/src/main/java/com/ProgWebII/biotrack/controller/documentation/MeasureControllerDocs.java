@@ -1,16 +1,26 @@
 package com.ProgWebII.biotrack.controller.documentation;
 
 import com.ProgWebII.biotrack.dto.request.MeasureRequest;
+import com.ProgWebII.biotrack.dto.request.MedidaLoteRequest;
+import com.ProgWebII.biotrack.dto.response.LoteMedidasResponse;
 import com.ProgWebII.biotrack.dto.response.MedidaResponse;
+import com.ProgWebII.biotrack.dto.response.RelatorioImportacaoResponse;
+import com.ProgWebII.biotrack.dto.response.SerieAgregadaResponse;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.Parameter;
 import io.swagger.v3.oas.annotations.media.Content;
 import io.swagger.v3.oas.annotations.media.Schema;
 import io.swagger.v3.oas.annotations.responses.ApiResponse;
 import io.swagger.v3.oas.annotations.responses.ApiResponses;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
+import java.io.IOException;
+import java.io.InputStream;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
 import java.util.List;
 
 public interface MeasureControllerDocs {
@@ -31,18 +41,93 @@ public interface MeasureControllerDocs {
     );
 
     @Operation(
-            summary = "Lista todas as medidas do usuário",
-            description = "Retorna todas as medidas cadastradas para um usuário específico."
+            summary = "Cria medidas em lote",
+            description = "Recebe um array JSON de medidas, cada uma com o ID do seu usuário, e grava as linhas válidas " +
+                    "em lotes JDBC. Linhas inválidas ou de usuários inexistentes são rejeitadas sem abortar o lote."
+    )
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Lote processado; o relatório traz o resultado de cada linha.",
+                    content = @Content(mediaType = "application/json",
+                            schema = @Schema(implementation = LoteMedidasResponse.class)))
+    })
+    @PostMapping(value = "/batch", consumes = MediaType.APPLICATION_JSON_VALUE)
+    ResponseEntity<LoteMedidasResponse> criarMedidasEmLote(@RequestBody List<MedidaLoteRequest> medidas);
+
+    @Operation(
+            summary = "Cria medidas em lote (NDJSON)",
+            description = "Mesmo comportamento do lote em JSON, lendo uma medida por linha (Content-Type: application/x-ndjson). " +
+                    "Linhas com JSON malformado são rejeitadas individualmente."
+    )
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Lote processado; o relatório traz o resultado de cada linha.",
+                    content = @Content(mediaType = "application/json",
+                            schema = @Schema(implementation = LoteMedidasResponse.class)))
+    })
+    @PostMapping(value = "/batch", consumes = MediaType.APPLICATION_NDJSON_VALUE)
+    ResponseEntity<LoteMedidasResponse> criarMedidasEmLoteNdjson(InputStream corpo) throws IOException;
+
+    @Operation(
+            summary = "Importa medidas de um arquivo do servidor",
+            description = "Lê um arquivo CSV (com cabeçalho) ou NDJSON do diretório de importação, nos campos da exportação; " +
+                    "o dono de cada medida vem por userId ou email. O arquivo é processado em blocos paralelos e cada bloco " +
+                    "gravado fica registrado: repetir a chamada depois de uma falha continua dos blocos que faltam. " +
+                    "Linhas inválidas são rejeitadas individualmente (até 100 aparecem no relatório, com a posição em bytes)."
+    )
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Importação concluída; o relatório traz contagens e vazão.",
+                    content = @Content(mediaType = "application/json",
+                            schema = @Schema(implementation = RelatorioImportacaoResponse.class))),
+            @ApiResponse(responseCode = "400", description = "Arquivo inexistente, formato ou cabeçalho inválido."),
+            @ApiResponse(responseCode = "409", description = "O arquivo já está sendo importado ou mudou desde a execução anterior.")
+    })
+    @PostMapping("/import")
+    ResponseEntity<RelatorioImportacaoResponse> importarMedidas(
+            @Parameter(description = "Caminho do arquivo relativo ao diretório de importação (.csv ou .ndjson)") @RequestParam String arquivo
+    ) throws IOException;
+
+    @Operation(
+            summary = "Lista as medidas do usuário",
+            description = "Sem parâmetros, retorna todas as medidas do usuário. Com 'from'/'to', 'fields' ou 'limit', " +
+                    "o intervalo, o limite e as colunas vão direto para a consulta: o banco lê só as medidas do intervalo " +
+                    "(da mais antiga para a mais recente) e só as métricas pedidas, e as demais ficam fora do JSON."
     )
     @ApiResponses(value = {
             @ApiResponse(responseCode = "200", description = "Lista de medidas retornada com sucesso.",
                     content = @Content(mediaType = "application/json",
                             schema = @Schema(implementation = MedidaResponse.class))),
+            @ApiResponse(responseCode = "400", description = "Intervalo, campo ou limite inválido."),
             @ApiResponse(responseCode = "404", description = "Usuário não encontrado.")
     })
     @GetMapping("/{usuarioId}/medidas")
     ResponseEntity<List<MedidaResponse>> listarTodasAsMedidas(
-            @Parameter(description = "ID do usuário") @PathVariable Long usuarioId
+            @Parameter(description = "ID do usuário") @PathVariable Long usuarioId,
+            @Parameter(description = "Data inicial, inclusiva (yyyy-MM-ddTHH:mm:ss)") @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime from,
+            @Parameter(description = "Data final, inclusiva (yyyy-MM-ddTHH:mm:ss)") @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime to,
+            @Parameter(description = "Métricas a retornar, separadas por vírgula (ex.: weightKg,waistCm)") @RequestParam(required = false) List<String> fields,
+            @Parameter(description = "Número máximo de medidas (1 a 5000)") @RequestParam(required = false) Integer limit
+    );
+
+    @Operation(
+            summary = "Série agregada de uma métrica",
+            description = "Retorna contagem, média, mínimo e máximo da métrica por dia, semana (ISO) ou mês no intervalo informado, " +
+                    "lidos dos agregados pré-calculados. Sem 'granularidade', usa a mais fina cujo número de baldes cabe em 'pontos' " +
+                    "(5 anos com o padrão de 200 pontos → cerca de 60 baldes mensais)."
+    )
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Série retornada com sucesso.",
+                    content = @Content(mediaType = "application/json",
+                            schema = @Schema(implementation = SerieAgregadaResponse.class))),
+            @ApiResponse(responseCode = "400", description = "Métrica, intervalo, pontos ou granularidade inválidos."),
+            @ApiResponse(responseCode = "404", description = "Usuário não encontrado.")
+    })
+    @GetMapping("/{usuarioId}/medidas/agregadas")
+    ResponseEntity<SerieAgregadaResponse> buscarMedidasAgregadas(
+            @Parameter(description = "ID do usuário") @PathVariable Long usuarioId,
+            @Parameter(description = "Campo da medida (ex.: weightKg)") @RequestParam String metrica,
+            @Parameter(description = "Data inicial (yyyy-MM-dd)") @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate de,
+            @Parameter(description = "Data final, inclusiva (yyyy-MM-dd)") @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate ate,
+            @Parameter(description = "Número máximo de pontos desejado (1 a 5000)") @RequestParam(defaultValue = "200") int pontos,
+            @Parameter(description = "DIA, SEMANA ou MES (opcional)") @RequestParam(required = false) String granularidade
     );
 
     @Operation(
@@ -3,7 +3,10 @@ package com.ProgWebII.biotrack.controller.documentation;
 import com.ProgWebII.biotrack.dto.request.UserPatchRequest;
 import com.ProgWebII.biotrack.dto.request.UserRequest;
 import com.ProgWebII.biotrack.dto.response.BuscarUsuarioPorIdResponse;
+import com.ProgWebII.biotrack.dto.response.DistribuicaoImcResponse;
 import com.ProgWebII.biotrack.dto.response.ListarTodosUsuariosResponse;
+import com.ProgWebII.biotrack.dto.response.TendenciasResponse;
+import com.ProgWebII.biotrack.dto.response.UsuarioImcResponse;
 import com.ProgWebII.biotrack.dto.response.UsuarioResponse;
 import com.ProgWebII.biotrack.dto.response.UsuarioSemMedidasResponse;
 import io.swagger.v3.oas.annotations.Operation;
@@ -12,10 +15,17 @@ import io.swagger.v3.oas.annotations.media.Content;
 import io.swagger.v3.oas.annotations.media.Schema;
 import io.swagger.v3.oas.annotations.responses.ApiResponse;
 import io.swagger.v3.oas.annotations.responses.ApiResponses;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 import java.util.List;
+import java.util.concurrent.CompletableFuture;
 
 public interface UsuarioControllerDocs {
 
@@ -23,21 +33,52 @@ public interface UsuarioControllerDocs {
     @ApiResponses({
             @ApiResponse(responseCode = "200", description = "Usuário criado com sucesso."),
             @ApiResponse(responseCode = "400", description = "Dados inválidos."),
-            @ApiResponse(responseCode = "500", description = "Erro interno ao criar usuário.")
+            @ApiResponse(responseCode = "500", description = "Erro interno ao criar usuário."),
+            @ApiResponse(responseCode = "503", description = "Pool de hash de senhas saturado; tente de novo após o Retry-After.")
     })
     @PostMapping
-    ResponseEntity<String> criarUsuario(@RequestBody UserRequest userRequest);
+    CompletableFuture<ResponseEntity<String>> criarUsuario(@RequestBody UserRequest userRequest);
 
-    @Operation(summary = "Filtra usuários pela faixa de IMC", description = "Retorna os usuários pertencentes à faixa de IMC informada.")
+    @Operation(summary = "Filtra usuários pela faixa de IMC", description = "Retorna, paginados, os usuários cuja última medida pertence à faixa de IMC informada.")
+    @ApiResponses({
+            @ApiResponse(responseCode = "200", description = "Página de usuários retornada com sucesso.")
+    })
     @GetMapping("/filtro-imc")
-    ResponseEntity<List<UsuarioResponse>> filtrarUsuariosPorImc(@Parameter(description = "Faixa do IMC para filtro") @RequestParam String faixa);
+    ResponseEntity<Page<UsuarioImcResponse>> filtrarUsuariosPorImc(
+            @Parameter(description = "Faixa do IMC para filtro") @RequestParam String faixa,
+            @Parameter(description = "Paginação (page, size)") Pageable pageable);
+
+    @Operation(summary = "Distribuição de IMC da população", description = "Pela última medida de cada usuário, retorna a quantidade " +
+            "e a parcela de usuários em cada faixa de IMC e os percentis de IMC e gordura corporal. Os números vêm de contadores " +
+            "atualizados a cada escrita, então o custo não depende da quantidade de usuários; os percentis têm erro máximo " +
+            "de meia 'resolucao'.")
+    @ApiResponses({
+            @ApiResponse(responseCode = "200", description = "Distribuição calculada com sucesso."),
+            @ApiResponse(responseCode = "400", description = "Percentil inválido (use de 1 a 20 valores entre 0, exclusivo, e 100).")
+    })
+    @GetMapping("/estatisticas/imc")
+    ResponseEntity<DistribuicaoImcResponse> calcularDistribuicaoImc(
+            @Parameter(description = "Percentis desejados (ex.: 5, 25, 50, 75, 95)") @RequestParam List<Double> percentis);
 
-    @Operation(summary = "Lista todos os usuários", description = "Retorna todos os usuários sem suas medidas.")
+    @Operation(summary = "Lista os usuários", description = "Retorna os usuários sem suas medidas, paginados por cursor (keyset) sobre o ID. " +
+            "Quando há próxima página, os cabeçalhos X-Next-Cursor e Link (rel=\"next\") trazem o cursor a ser enviado em 'after'.")
     @ApiResponses({
-            @ApiResponse(responseCode = "200", description = "Lista retornada com sucesso.")
+            @ApiResponse(responseCode = "200", description = "Lista retornada com sucesso."),
+            @ApiResponse(responseCode = "404", description = "Nenhum usuário cadastrado.")
     })
     @GetMapping
-    ResponseEntity<List<ListarTodosUsuariosResponse>> listarTodos();
+    ResponseEntity<List<ListarTodosUsuariosResponse>> listarTodos(
+            @Parameter(description = "ID do último usuário da página anterior") @RequestParam(required = false) Long after,
+            @Parameter(description = "Tamanho da página (máximo 1000)") @RequestParam(defaultValue = "100") int limit);
+
+    @Operation(summary = "Lista os usuários em streaming (NDJSON)", description = "Escreve todos os usuários, um JSON por linha, " +
+            "lidos direto de um cursor JDBC. Use Accept: application/x-ndjson.")
+    @ApiResponses({
+            @ApiResponse(responseCode = "200", description = "Stream iniciado com sucesso.")
+    })
+    @GetMapping(produces = MediaType.APPLICATION_NDJSON_VALUE)
+    ResponseEntity<StreamingResponseBody> listarTodosNdjson(
+            @Parameter(description = "ID a partir do qual a listagem começa") @RequestParam(required = false) Long after);
 
     @Operation(summary = "Busca usuário por ID", description = "Retorna os dados de um usuário sem medidas.")
     @ApiResponses({
@@ -51,30 +92,103 @@ public interface UsuarioControllerDocs {
     @GetMapping("/sem-medidas")
     ResponseEntity<List<UsuarioSemMedidasResponse>> listarTodosSemMedidas();
 
-    @Operation(summary = "Busca usuário + todas medidas", description = "Retorna os dados do usuário incluindo todas as medições registradas.")
+    @Operation(summary = "Busca usuário + todas medidas", description = "Retorna os dados do usuário incluindo todas as medições registradas. " +
+            "A resposta traz ETag e Last-Modified da versão do usuário; com If-None-Match (ou If-Modified-Since) ainda válido, " +
+            "responde 304 sem consultar as medidas.")
+    @ApiResponses({
+            @ApiResponse(responseCode = "200", description = "Usuário e medidas retornados."),
+            @ApiResponse(responseCode = "304", description = "Nada mudou desde a versão informada."),
+            @ApiResponse(responseCode = "404", description = "Usuário não encontrado.")
+    })
     @GetMapping("/{id}/todas-medidas")
-    ResponseEntity<UsuarioResponse> trazerUsuarioComTodasMedidas(@PathVariable Long id);
+    ResponseEntity<UsuarioResponse> trazerUsuarioComTodasMedidas(@PathVariable Long id, @Parameter(hidden = true) WebRequest requisicao);
 
-    @Operation(summary = "Busca usuário + última medida", description = "Retorna os dados do usuário incluindo a última medição registrada.")
+    @Operation(summary = "Busca usuário + última medida", description = "Retorna os dados do usuário incluindo a última medição registrada. " +
+            "Mesmas regras de ETag/304 da listagem com todas as medidas.")
+    @ApiResponses({
+            @ApiResponse(responseCode = "200", description = "Usuário e última medida retornados."),
+            @ApiResponse(responseCode = "304", description = "Nada mudou desde a versão informada."),
+            @ApiResponse(responseCode = "404", description = "Usuário ou medida não encontrada.")
+    })
     @GetMapping("/{id}/ultima-medida")
-    ResponseEntity<UsuarioResponse> trazerUsuarioComUltimaMedida(@PathVariable Long id);
+    ResponseEntity<UsuarioResponse> trazerUsuarioComUltimaMedida(@PathVariable Long id, @Parameter(hidden = true) WebRequest requisicao);
+
+    @Operation(summary = "Stream de medidas do usuário", description = "Mantém a conexão aberta (Server-Sent Events) e envia " +
+            "cada medida criada (evento medida-criada) ou atualizada (medida-atualizada) do usuário, com o mesmo JSON das listagens. " +
+            "Um cliente que não acompanha o ritmo perde os eventos mais antigos e recebe medidas-descartadas com a quantidade perdida. " +
+            "A conexão recebe um comentário periódico para se manter aberta.")
+    @ApiResponses({
+            @ApiResponse(responseCode = "200", description = "Stream aberto."),
+            @ApiResponse(responseCode = "404", description = "Usuário não encontrado."),
+            @ApiResponse(responseCode = "503", description = "Limite de streams do servidor atingido; tente de novo após o Retry-After.")
+    })
+    @GetMapping(path = "/{id}/medidas/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    SseEmitter acompanharMedidas(@Parameter(description = "ID do usuário") @PathVariable Long id);
+
+    @Operation(summary = "Exporta o histórico de medidas do usuário", description = "Escreve todas as medidas do usuário, " +
+            "da mais recente para a mais antiga, em CSV (com cabeçalho) ou NDJSON, lidas de um cursor JDBC sem carregar o " +
+            "histórico em memória. Com Accept-Encoding: gzip a resposta vai comprimida (Content-Encoding: gzip).")
+    @ApiResponses({
+            @ApiResponse(responseCode = "200", description = "Exportação iniciada."),
+            @ApiResponse(responseCode = "404", description = "Usuário não encontrado.")
+    })
+    @GetMapping("/{id}/medidas/export")
+    ResponseEntity<StreamingResponseBody> exportarMedidas(
+            @Parameter(description = "ID do usuário") @PathVariable Long id,
+            @Parameter(description = "Formato: csv ou ndjson") @RequestParam(defaultValue = "csv") String format,
+            @Parameter(hidden = true) @RequestHeader(value = "Accept-Encoding", required = false) String acceptEncoding);
+
+    @Operation(summary = "Exporta as medidas de todos os usuários", description = "Uso administrativo: divide os IDs de " +
+            "usuário em intervalos lidos em paralelo, cada um com uma conexão do pool, e escreve as medidas em CSV ou NDJSON " +
+            "conforme cada bloco fica pronto. As medidas de um usuário saem juntas, da mais recente para a mais antiga. " +
+            "Com Accept-Encoding: gzip, cada bloco é um membro gzip (o conjunto é um .gz válido). Desligada por padrão " +
+            "(biotrack.medidas.exportacao.todas.habilitada) e limitada em exportações simultâneas " +
+            "(biotrack.medidas.exportacao.todas.maximo-simultaneas).")
+    @ApiResponses({
+            @ApiResponse(responseCode = "200", description = "Exportação iniciada."),
+            @ApiResponse(responseCode = "400", description = "Formato ou número de partições inválido."),
+            @ApiResponse(responseCode = "404", description = "Exportação de todos os usuários desabilitada."),
+            @ApiResponse(responseCode = "503", description = "Limite de exportações simultâneas atingido (com Retry-After).")
+    })
+    @GetMapping("/medidas/export")
+    ResponseEntity<StreamingResponseBody> exportarTodasAsMedidas(
+            @Parameter(description = "Formato: csv ou ndjson") @RequestParam(defaultValue = "csv") String format,
+            @Parameter(description = "Intervalos de usuários lidos em paralelo (padrão e máximo: " +
+                    "biotrack.medidas.exportacao.maximo-particoes)") @RequestParam(required = false) Integer particoes,
+            @Parameter(hidden = true) @RequestHeader(value = "Accept-Encoding", required = false) String acceptEncoding);
+
+    @Operation(summary = "Tendências das medidas do usuário", description = "Para cada métrica, calcula no servidor a média móvel, " +
+            "a inclinação da regressão linear (unidade por dia) e a variação nas janelas de N dias anteriores à medição mais recente. " +
+            "Retorna apenas o resumo, sem o histórico.")
+    @ApiResponses({
+            @ApiResponse(responseCode = "200", description = "Tendências calculadas com sucesso."),
+            @ApiResponse(responseCode = "400", description = "Métrica ou janela inválida."),
+            @ApiResponse(responseCode = "404", description = "Usuário não encontrado.")
+    })
+    @GetMapping("/{id}/tendencias")
+    ResponseEntity<TendenciasResponse> calcularTendencias(
+            @Parameter(description = "ID do usuário") @PathVariable Long id,
+            @Parameter(description = "Campos da medida (ex.: weightKg, waistCm, bodyFatPercentage)") @RequestParam List<String> metricas,
+            @Parameter(description = "Janelas em dias (1 a 3650, no máximo 10)") @RequestParam List<Integer> janelas);
 
     @Operation(summary = "Atualiza completamente um usuário", description = "Substitui totalmente os dados de um usuário.")
     @ApiResponses({
             @ApiResponse(responseCode = "200", description = "Usuário atualizado com sucesso."),
             @ApiResponse(responseCode = "404", description = "Usuário não encontrado."),
-            @ApiResponse(responseCode = "400", description = "Dados inválidos.")
+            @ApiResponse(responseCode = "400", description = "Dados inválidos."),
+            @ApiResponse(responseCode = "503", description = "Pool de hash de senhas saturado; tente de novo após o Retry-After.")
     })
     @PutMapping("/{id}")
-    ResponseEntity<String> atualizarUsuario(@PathVariable Long id, @RequestBody UserRequest userRequest);
+    CompletableFuture<ResponseEntity<String>> atualizarUsuario(@PathVariable Long id, @RequestBody UserRequest userRequest);
 
     @Operation(summary = "Atualiza parcialmente um usuário", description = "Atualiza apenas os campos enviados no corpo.")
     @ApiResponses({
             @ApiResponse(responseCode = "200", description = "Usuário atualizado com sucesso."),
-            @ApiResponse(responseCode = "404", description = "Usuário não encontrado.")
+            @ApiResponse(responseCode = "404", description = "Usuário não encontrado."),
+            @ApiResponse(responseCode = "503", description = "Pool de hash de senhas saturado; tente de novo após o Retry-After.")
     })
     @PatchMapping("/{id}")
-    ResponseEntity<String> atualizarParcialUsuario(@PathVariable Long id, @RequestBody UserPatchRequest userPatchRequest);
+    CompletableFuture<ResponseEntity<String>> atualizarParcialUsuario(@PathVariable Long id, @RequestBody UserPatchRequest userPatchRequest);
 
     @Operation(summary = "Remove um usuário", description = "Deleta um usuário existente pelo ID.")
     @ApiResponses({
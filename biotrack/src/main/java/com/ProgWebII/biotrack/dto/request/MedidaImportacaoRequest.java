@@ -0,0 +1,33 @@
+package com.ProgWebII.biotrack.dto.request;
+
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
+
+import java.time.LocalDateTime;
+
+/**
+ * Linha de um arquivo de importação de medidas (CSV ou NDJSON), com os campos do arquivo de exportação.
+ * O dono vem pelo userId ou pelo email; colunas a mais (como o id da exportação) são ignoradas.
+ */
+@JsonIgnoreProperties(ignoreUnknown = true)
+public record MedidaImportacaoRequest(
+    Long userId,
+    String email,
+    LocalDateTime measurementDate,
+    Double weightKg,
+    Double heightCm,
+    Double waistCm,
+    Double hipCm,
+    Double chestCm,
+    Double armRightCm,
+    Double armLeftCm,
+    Double thighRightCm,
+    Double thighLeftCm,
+    Double bodyFatPercentage
+) {
+
+    // Os valores medidos, validados com as mesmas regras da criação de medida
+    public MeasureRequest medida() {
+        return new MeasureRequest(measurementDate, weightKg, heightCm, waistCm, hipCm, chestCm,
+                armRightCm, armLeftCm, thighRightCm, thighLeftCm, bodyFatPercentage);
+    }
+}
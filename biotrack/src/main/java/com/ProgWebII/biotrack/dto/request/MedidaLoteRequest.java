@@ -0,0 +1,17 @@
+package com.ProgWebII.biotrack.dto.request;
+
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.NotNull;
+
+/**
+ * Item da ingestão em lote de medidas: o usuário dono da medida e os valores medidos.
+ */
+public record MedidaLoteRequest(
+    @NotNull(message = "O ID do usuário é obrigatório.")
+    Long userId,
+
+    @NotNull(message = "A medida é obrigatória.")
+    @Valid
+    MeasureRequest medida
+) {
+}
@@ -0,0 +1,14 @@
+package com.ProgWebII.biotrack.dto.response;
+
+import java.util.List;
+
+// Distribuição da população pela última medida de cada usuário. Os percentis são aproximados
+// ao centro de um balde de largura 'resolucao' (erro máximo de resolucao / 2)
+public record DistribuicaoImcResponse(
+        long usuariosComImc,
+        long usuariosComGorduraCorporal,
+        List<FaixaImcQuantidadeResponse> faixas,
+        List<PercentilResponse> percentisImc,
+        List<PercentilResponse> percentisGorduraCorporal,
+        double resolucao
+) {}
@@ -0,0 +1,11 @@
+package com.ProgWebII.biotrack.dto.response;
+
+/**
+ * Linha rejeitada na importação de medidas.
+ *
+ * @param posicao Posição (em bytes) do início da linha no arquivo.
+ */
+public record ErroImportacaoResponse(
+        long posicao,
+        String mensagem
+) {}
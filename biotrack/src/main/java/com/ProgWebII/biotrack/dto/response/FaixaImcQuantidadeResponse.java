@@ -0,0 +1,8 @@
+package com.ProgWebII.biotrack.dto.response;
+
+// Quantidade de usuários em uma faixa de IMC e a sua parcela (0 a 100) entre os usuários com IMC
+public record FaixaImcQuantidadeResponse(
+        String faixa,
+        long quantidade,
+        double percentual
+) {}
@@ -0,0 +1,10 @@
+package com.ProgWebII.biotrack.dto.response;
+
+import java.util.List;
+
+public record LoteMedidasResponse(
+        int total,
+        int inseridas,
+        int rejeitadas,
+        List<ResultadoLinhaLoteResponse> linhas
+) {}
@@ -1,39 +1,270 @@
 package com.ProgWebII.biotrack.dto.response;
 
-import lombok.Getter;
-import lombok.Setter;
+import com.ProgWebII.biotrack.model.MetricaMedida;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.io.SerializedString;
+import com.fasterxml.jackson.databind.BeanProperty;
+import com.fasterxml.jackson.databind.JsonMappingException;
+import com.fasterxml.jackson.databind.JsonSerializer;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.databind.SerializerProvider;
+import com.fasterxml.jackson.databind.annotation.JsonSerialize;
+import com.fasterxml.jackson.databind.ser.ContextualSerializer;
+import com.fasterxml.jackson.databind.ser.std.StdSerializer;
+import com.fasterxml.jackson.datatype.jsr310.ser.LocalDateTimeSerializer;
+
+import java.io.IOException;
 import java.time.LocalDateTime;
+import java.util.Set;
 
-@Getter
-@Setter
-public class MedidaResponse {
-    private Long id;
-    private LocalDateTime measurementDate;
-    private Double weightKg;
-    private Double heightCm;
-    private Double waistCm;
-    private Double hipCm;
-    private Double chestCm;
-    private Double armRightCm;
-    private Double armLeftCm;
-    private Double thighRightCm;
-    private Double thighLeftCm;
-    private Double bodyFatPercentage;
+/**
+ * Uma medida na resposta da API, imutável.
+ * Os valores ficam em um double[] indexado por {@link MetricaMedida} (NaN = não informado), em vez de
+ * dez Double, e o {@link Serializador} escreve o JSON direto desses primitivos, sem reflexão nem boxing.
+ * A máscara de campos diz quais métricas entram no JSON: as listagens com o parâmetro fields omitem
+ * as demais; nas outras respostas todas aparecem, com null quando não informadas.
+ */
+@JsonSerialize(using = MedidaResponse.Serializador.class)
+public final class MedidaResponse {
 
-    public MedidaResponse(Long id, LocalDateTime measurementDate, Double weightKg, Double heightCm,
-                         Double waistCm, Double hipCm, Double chestCm, Double armRightCm,
-                         Double armLeftCm, Double thighRightCm, Double thighLeftCm, Double bodyFatPercentage) {
+    private static final MetricaMedida[] METRICAS = MetricaMedida.values();
+
+    public static final int TODOS_OS_CAMPOS = (1 << METRICAS.length) - 1;
+
+    private final long id;
+    private final LocalDateTime measurementDate;
+    private final double[] valores;
+    private final int campos;
+
+    /**
+     * @param valores Valor de cada métrica, na ordem de {@link MetricaMedida} (NaN se ausente).
+     *                O array passa a pertencer à resposta e não deve ser alterado depois.
+     * @param campos  Máscara das métricas que vão no JSON (bit = ordinal da métrica).
+     */
+    public MedidaResponse(long id, LocalDateTime measurementDate, double[] valores, int campos) {
+        if (valores.length != METRICAS.length) {
+            throw new IllegalArgumentException("Esperados " + METRICAS.length + " valores, recebidos " + valores.length);
+        }
         this.id = id;
         this.measurementDate = measurementDate;
-        this.weightKg = weightKg;
-        this.heightCm = heightCm;
-        this.waistCm = waistCm;
-        this.hipCm = hipCm;
-        this.chestCm = chestCm;
-        this.armRightCm = armRightCm;
-        this.armLeftCm = armLeftCm;
-        this.thighRightCm = thighRightCm;
-        this.thighLeftCm = thighLeftCm;
-        this.bodyFatPercentage = bodyFatPercentage;
+        this.valores = valores;
+        this.campos = campos;
+    }
+
+    // Usado pela expressão de construtor do JPQL, que entrega os valores já como Double
+    public MedidaResponse(Long id, LocalDateTime measurementDate, Double weightKg, Double heightCm,
+                          Double waistCm, Double hipCm, Double chestCm, Double armRightCm,
+                          Double armLeftCm, Double thighRightCm, Double thighLeftCm, Double bodyFatPercentage) {
+        this(id, measurementDate, new double[]{
+                primitivo(weightKg), primitivo(heightCm), primitivo(waistCm), primitivo(hipCm), primitivo(chestCm),
+                primitivo(armRightCm), primitivo(armLeftCm), primitivo(thighRightCm), primitivo(thighLeftCm),
+                primitivo(bodyFatPercentage)}, TODOS_OS_CAMPOS);
+    }
+
+    public static int mascara(Set<MetricaMedida> metricas) {
+        int mascara = 0;
+        for (MetricaMedida metrica : metricas) {
+            mascara |= 1 << metrica.ordinal();
+        }
+        return mascara;
+    }
+
+    private static double primitivo(Double valor) {
+        return valor == null ? Double.NaN : valor;
+    }
+
+    public Long getId() {
+        return id;
+    }
+
+    public LocalDateTime getMeasurementDate() {
+        return measurementDate;
+    }
+
+    // Valor primitivo da métrica (NaN se ausente)
+    public double valor(MetricaMedida metrica) {
+        return valores[metrica.ordinal()];
+    }
+
+    public boolean incluiCampo(MetricaMedida metrica) {
+        return (campos & (1 << metrica.ordinal())) != 0;
+    }
+
+    public Double getWeightKg() {
+        return valorOuNull(MetricaMedida.PESO);
+    }
+
+    public Double getHeightCm() {
+        return valorOuNull(MetricaMedida.ALTURA);
+    }
+
+    public Double getWaistCm() {
+        return valorOuNull(MetricaMedida.CINTURA);
+    }
+
+    public Double getHipCm() {
+        return valorOuNull(MetricaMedida.QUADRIL);
+    }
+
+    public Double getChestCm() {
+        return valorOuNull(MetricaMedida.PEITO);
+    }
+
+    public Double getArmRightCm() {
+        return valorOuNull(MetricaMedida.BRACO_DIREITO);
+    }
+
+    public Double getArmLeftCm() {
+        return valorOuNull(MetricaMedida.BRACO_ESQUERDO);
+    }
+
+    public Double getThighRightCm() {
+        return valorOuNull(MetricaMedida.COXA_DIREITA);
+    }
+
+    public Double getThighLeftCm() {
+        return valorOuNull(MetricaMedida.COXA_ESQUERDA);
+    }
+
+    public Double getBodyFatPercentage() {
+        return valorOuNull(MetricaMedida.GORDURA_CORPORAL);
+    }
+
+    // Os getters Double ficam para quem lê a resposta em Java (e para a documentação da API)
+    private Double valorOuNull(MetricaMedida metrica) {
+        double valor = valores[metrica.ordinal()];
+        return Double.isNaN(valor) ? null : valor;
+    }
+
+    /**
+     * Escreve a medida campo a campo no gerador: números primitivos, nomes pré-codificados
+     * e o serializador de LocalDateTime resolvido uma vez, para seguir o formato de data do ObjectMapper.
+     * Quando o ObjectMapper usa o formato ISO padrão (o do Spring Boot), a data é escrita direto em um char[],
+     * sem passar pelo DateTimeFormatter.
+     */
+    public static final class Serializador extends StdSerializer<MedidaResponse> implements ContextualSerializer {
+
+        private static final SerializedString ID = new SerializedString("id");
+        private static final SerializedString DATA = new SerializedString("measurementDate");
+        private static final SerializedString[] NOMES = new SerializedString[METRICAS.length];
+        private static final int TAMANHO_BUFFER = 24;
+
+        static {
+            for (MetricaMedida metrica : METRICAS) {
+                NOMES[metrica.ordinal()] = new SerializedString(metrica.getCampo());
+            }
+        }
+
+        private final JsonSerializer<Object> serializadorData;
+        private final boolean dataIsoPadrao;
+
+        public Serializador() {
+            this(null, false);
+        }
+
+        private Serializador(JsonSerializer<Object> serializadorData, boolean dataIsoPadrao) {
+            super(MedidaResponse.class);
+            this.serializadorData = serializadorData;
+            this.dataIsoPadrao = dataIsoPadrao;
+        }
+
+        @Override
+        public JsonSerializer<?> createContextual(SerializerProvider provider, BeanProperty property)
+                throws JsonMappingException {
+            JsonSerializer<Object> serializador = provider.findValueSerializer(LocalDateTime.class);
+            boolean isoPadrao = serializador == (Object) LocalDateTimeSerializer.INSTANCE
+                    && !provider.isEnabled(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS);
+            return new Serializador(serializador, isoPadrao);
+        }
+
+        @Override
+        public void serialize(MedidaResponse medida, JsonGenerator gerador, SerializerProvider provider)
+                throws IOException {
+            // Um buffer por medida, reaproveitado pela data e pelos números
+            char[] texto = new char[TAMANHO_BUFFER];
+            gerador.writeStartObject(medida);
+            gerador.writeFieldName(ID);
+            gerador.writeNumber(medida.id);
+            gerador.writeFieldName(DATA);
+            if (medida.measurementDate == null) {
+                gerador.writeNull();
+            } else if (dataIsoPadrao && escreverIso(medida.measurementDate, gerador, texto)) {
+                // Escrita direta no formato yyyy-MM-ddTHH:mm:ss
+            } else if (serializadorData != null) {
+                serializadorData.serialize(medida.measurementDate, gerador, provider);
+            } else {
+                provider.defaultSerializeValue(medida.measurementDate, gerador);
+            }
+            for (int i = 0; i < NOMES.length; i++) {
+                if ((medida.campos & (1 << i)) == 0) {
+                    continue;
+                }
+                gerador.writeFieldName(NOMES[i]);
+                double valor = medida.valores[i];
+                if (Double.isNaN(valor)) {
+                    gerador.writeNull();
+                } else if (!escreverUmaCasa(valor, gerador, texto)) {
+                    gerador.writeNumber(valor);
+                }
+            }
+            gerador.writeEndObject();
+        }
+
+        // Mesmo texto do ISO_LOCAL_DATE_TIME para anos de 4 dígitos e segundos inteiros; nos demais casos devolve false
+        private static boolean escreverIso(LocalDateTime data, JsonGenerator gerador, char[] texto) throws IOException {
+            int ano = data.getYear();
+            if (ano < 0 || ano > 9999 || data.getNano() != 0) {
+                return false;
+            }
+            digitos(texto, 0, ano, 4);
+            texto[4] = '-';
+            digitos(texto, 5, data.getMonthValue(), 2);
+            texto[7] = '-';
+            digitos(texto, 8, data.getDayOfMonth(), 2);
+            texto[10] = 'T';
+            digitos(texto, 11, data.getHour(), 2);
+            texto[13] = ':';
+            digitos(texto, 14, data.getMinute(), 2);
+            texto[16] = ':';
+            digitos(texto, 17, data.getSecond(), 2);
+            gerador.writeString(texto, 0, 19);
+            return true;
+        }
+
+        /**
+         * Escreve valores com no máximo uma casa decimal (o caso das medidas) sem criar a String de
+         * Double.toString. Só aceita quando o double é exatamente o mais próximo de n/10 e está abaixo de 10^7,
+         * faixa em que Double.toString devolve esse mesmo texto (ex.: 69.5, 165.0); nos demais casos devolve false.
+         */
+        private static boolean escreverUmaCasa(double valor, JsonGenerator gerador, char[] texto) throws IOException {
+            double absoluto = Math.abs(valor);
+            if (!(absoluto < 1e7) || (valor == 0 && 1 / valor < 0)) {
+                return false; // Infinito, notação científica ou -0.0
+            }
+            long decimos = Math.round(absoluto * 10);
+            if (decimos / 10.0 != absoluto) {
+                return false;
+            }
+            int fim = TAMANHO_BUFFER;
+            texto[--fim] = (char) ('0' + decimos % 10);
+            texto[--fim] = '.';
+            long inteiro = decimos / 10;
+            do {
+                texto[--fim] = (char) ('0' + inteiro % 10);
+                inteiro /= 10;
+            } while (inteiro > 0);
+            if (valor < 0) {
+                texto[--fim] = '-';
+            }
+            gerador.writeNumber(texto, fim, TAMANHO_BUFFER - fim);
+            return true;
+        }
+
+        private static void digitos(char[] texto, int inicio, int valor, int tamanho) {
+            for (int i = inicio + tamanho - 1; i >= inicio; i--) {
+                texto[i] = (char) ('0' + valor % 10);
+                valor /= 10;
+            }
+        }
     }
 }
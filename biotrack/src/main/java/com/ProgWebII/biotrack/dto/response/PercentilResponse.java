@@ -0,0 +1,7 @@
+package com.ProgWebII.biotrack.dto.response;
+
+// Valor da métrica no percentil pedido; null quando nenhum usuário tem a métrica
+public record PercentilResponse(
+        double percentil,
+        Double valor
+) {}
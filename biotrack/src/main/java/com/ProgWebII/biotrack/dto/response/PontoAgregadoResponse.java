@@ -0,0 +1,12 @@
+package com.ProgWebII.biotrack.dto.response;
+
+import java.time.LocalDate;
+
+// Um balde do agregado: início do período e estatísticas da métrica nele
+public record PontoAgregadoResponse(
+        LocalDate inicio,
+        long quantidade,
+        double media,
+        double minimo,
+        double maximo
+) {}
@@ -0,0 +1,22 @@
+package com.ProgWebII.biotrack.dto.response;
+
+import java.util.List;
+
+/**
+ * Resultado de uma execução da importação de medidas em arquivo.
+ * Os números se referem só aos blocos processados nesta execução; blocosJaImportados conta os que
+ * uma execução anterior já tinha gravado e foram pulados.
+ */
+public record RelatorioImportacaoResponse(
+        String arquivo,
+        int blocos,
+        int blocosJaImportados,
+        long linhas,
+        long inseridas,
+        long rejeitadas,
+        long bytes,
+        long duracaoMs,
+        double linhasPorSegundo,
+        double megabytesPorSegundo,
+        List<ErroImportacaoResponse> erros
+) {}
@@ -0,0 +1,13 @@
+package com.ProgWebII.biotrack.dto.response;
+
+import java.util.List;
+
+public record ResultadoLinhaLoteResponse(
+        int linha,
+        String status,
+        Long medidaId,
+        List<String> erros
+) {
+    public static final String CRIADA = "CRIADA";
+    public static final String REJEITADA = "REJEITADA";
+}
@@ -0,0 +1,13 @@
+package com.ProgWebII.biotrack.dto.response;
+
+import java.time.LocalDate;
+import java.util.List;
+
+public record SerieAgregadaResponse(
+        Long usuarioId,
+        String metrica,
+        String granularidade,
+        LocalDate de,
+        LocalDate ate,
+        List<PontoAgregadoResponse> pontos
+) {}
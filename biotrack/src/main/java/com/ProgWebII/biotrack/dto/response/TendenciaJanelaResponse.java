@@ -0,0 +1,11 @@
+package com.ProgWebII.biotrack.dto.response;
+
+// Resumo de uma métrica nos últimos 'dias' dias: média móvel, inclinação da regressão linear (unidade/dia)
+// e variação entre o valor mais antigo e o mais recente da janela. Campos null quando não há pontos suficientes.
+public record TendenciaJanelaResponse(
+        int dias,
+        int quantidade,
+        Double media,
+        Double inclinacaoPorDia,
+        Double variacao
+) {}
@@ -0,0 +1,8 @@
+package com.ProgWebII.biotrack.dto.response;
+
+import java.util.List;
+
+public record TendenciaMetricaResponse(
+        String metrica,
+        List<TendenciaJanelaResponse> janelas
+) {}
@@ -0,0 +1,11 @@
+package com.ProgWebII.biotrack.dto.response;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+// referencia: data da medição mais recente, a partir da qual as janelas são contadas (null se não há medidas)
+public record TendenciasResponse(
+        Long usuarioId,
+        LocalDateTime referencia,
+        List<TendenciaMetricaResponse> metricas
+) {}
@@ -0,0 +1,13 @@
+package com.ProgWebII.biotrack.dto.response;
+
+import java.time.LocalDate;
+
+public record UsuarioImcResponse(
+        Long id,
+        String name,
+        LocalDate birthDate,
+        String zipCode,
+        String email,
+        Double imc,
+        String faixaImc
+) {}
@@ -0,0 +1,54 @@
+package com.ProgWebII.biotrack.exception;
+
+import jakarta.persistence.EntityNotFoundException;
+import jakarta.persistence.OptimisticLockException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
+import org.springframework.web.bind.annotation.ExceptionHandler;
+import org.springframework.web.bind.annotation.RestControllerAdvice;
+import org.springframework.web.servlet.mvc.method.annotation.ResponseEntityExceptionHandler;
+
+// Estende ResponseEntityExceptionHandler para que as exceções do próprio Spring MVC (corpo inválido, @Valid,
+// parâmetro ausente...) continuem com o status 4xx delas, e não caiam no tratamento genérico de RuntimeException
+@RestControllerAdvice
+public class GlobalExceptionHandler extends ResponseEntityExceptionHandler {
+
+    private static final Logger log = LoggerFactory.getLogger(GlobalExceptionHandler.class);
+
+    //503 + Retry-After quando o pool de hash de senhas (ou outro recurso limitado) está cheio
+    @ExceptionHandler(ServicoSobrecarregadoException.class)
+    public ResponseEntity<String> tratarServicoSobrecarregado(ServicoSobrecarregadoException e) {
+        return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                .header(HttpHeaders.RETRY_AFTER, String.valueOf(e.getRetryAfterSegundos()))
+                .body(e.getMessage());
+    }
+
+    //404 quando o usuário ou a medida não existe
+    @ExceptionHandler(EntityNotFoundException.class)
+    public ResponseEntity<String> tratarNaoEncontrado(EntityNotFoundException e) {
+        return ResponseEntity.status(HttpStatus.NOT_FOUND).body(e.getMessage());
+    }
+
+    //409 quando outra escrita gravou uma versão mais nova do registro no meio desta (o cliente pode reler e repetir)
+    @ExceptionHandler({OptimisticLockException.class, ObjectOptimisticLockingFailureException.class})
+    public ResponseEntity<String> tratarConflitoDeVersao(RuntimeException e) {
+        return ResponseEntity.status(HttpStatus.CONFLICT).body("O registro foi alterado por outra requisição. Tente novamente.");
+    }
+
+    //400 para parâmetros recusados pelos serviços (intervalo, métrica, formato...)
+    @ExceptionHandler(IllegalArgumentException.class)
+    public ResponseEntity<String> tratarArgumentoInvalido(IllegalArgumentException e) {
+        return ResponseEntity.badRequest().body(e.getMessage());
+    }
+
+    //500 para o resto, sem expor a mensagem interna
+    @ExceptionHandler(RuntimeException.class)
+    public ResponseEntity<String> tratarErroInterno(RuntimeException e) {
+        log.error("Erro ao processar a requisição", e);
+        return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body("Erro interno do servidor.");
+    }
+}
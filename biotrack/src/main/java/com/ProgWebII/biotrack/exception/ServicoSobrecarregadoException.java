@@ -0,0 +1,19 @@
+package com.ProgWebII.biotrack.exception;
+
+/**
+ * Lançada quando um recurso limitado (ex.: o pool de hash de senhas) está saturado.
+ * Vira HTTP 503 com o cabeçalho Retry-After, para que o cliente tente de novo mais tarde.
+ */
+public class ServicoSobrecarregadoException extends RuntimeException {
+
+    private final long retryAfterSegundos;
+
+    public ServicoSobrecarregadoException(String mensagem, long retryAfterSegundos) {
+        super(mensagem);
+        this.retryAfterSegundos = retryAfterSegundos;
+    }
+
+    public long getRetryAfterSegundos() {
+        return retryAfterSegundos;
+    }
+}
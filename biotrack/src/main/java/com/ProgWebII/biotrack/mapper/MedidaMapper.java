@@ -0,0 +1,84 @@
+package com.ProgWebII.biotrack.mapper;
+
+import com.ProgWebII.biotrack.dto.response.MedidaResponse;
+import com.ProgWebII.biotrack.model.LatestMeasure;
+import com.ProgWebII.biotrack.model.Measure;
+import com.ProgWebII.biotrack.model.MetricaMedida;
+import com.ProgWebII.biotrack.store.SerieMedidas;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Único ponto de montagem do {@link MedidaResponse}, a partir da série colunar,
+ * da entidade Measure ou da projeção da última medida.
+ */
+@Component
+public class MedidaMapper {
+
+    private static final MetricaMedida[] METRICAS = MetricaMedida.values();
+
+    //Converte a série colunar → lista de DTOs MedidaResponse, na ordem da série
+    public List<MedidaResponse> toResponses(SerieMedidas serie) {
+        return toResponses(serie, MedidaResponse.TODOS_OS_CAMPOS);
+    }
+
+    //Mesma conversão, com só as métricas pedidas no JSON (as demais são omitidas)
+    public List<MedidaResponse> toResponses(SerieMedidas serie, Set<MetricaMedida> metricas) {
+        return toResponses(serie, MedidaResponse.mascara(metricas));
+    }
+
+    public MedidaResponse toResponse(SerieMedidas serie, int posicao) {
+        return toResponse(serie, posicao, MedidaResponse.TODOS_OS_CAMPOS);
+    }
+
+    //Converte a entidade Measure → DTO
+    public MedidaResponse toResponse(Measure medida) {
+        double[] valores = new double[METRICAS.length];
+        for (MetricaMedida metrica : METRICAS) {
+            valores[metrica.ordinal()] = primitivo(metrica.valorDe(medida));
+        }
+        return new MedidaResponse(medida.getId(), medida.getMeasurementDate(), valores, MedidaResponse.TODOS_OS_CAMPOS);
+    }
+
+    //Converte a projeção da última medida → DTO (o ID é o da medida em tb_measure)
+    public MedidaResponse toResponse(LatestMeasure ultima) {
+        double[] valores = {
+                primitivo(ultima.getWeightKg()),
+                primitivo(ultima.getHeightCm()),
+                primitivo(ultima.getWaistCm()),
+                primitivo(ultima.getHipCm()),
+                primitivo(ultima.getChestCm()),
+                primitivo(ultima.getArmRightCm()),
+                primitivo(ultima.getArmLeftCm()),
+                primitivo(ultima.getThighRightCm()),
+                primitivo(ultima.getThighLeftCm()),
+                primitivo(ultima.getBodyFatPercentage())
+        };
+        return new MedidaResponse(ultima.getMeasureId(), ultima.getMeasurementDate(), valores,
+                MedidaResponse.TODOS_OS_CAMPOS);
+    }
+
+    private List<MedidaResponse> toResponses(SerieMedidas serie, int campos) {
+        List<MedidaResponse> medidas = new ArrayList<>(serie.tamanho());
+        for (int i = 0; i < serie.tamanho(); i++) {
+            medidas.add(toResponse(serie, i, campos));
+        }
+        return medidas;
+    }
+
+    // Os valores da série já são primitivos com NaN para ausentes: copiados sem boxing
+    private MedidaResponse toResponse(SerieMedidas serie, int posicao, int campos) {
+        double[] valores = new double[METRICAS.length];
+        for (MetricaMedida metrica : METRICAS) {
+            valores[metrica.ordinal()] = serie.valor(metrica, posicao);
+        }
+        return new MedidaResponse(serie.id(posicao), serie.dataMedicao(posicao), valores, campos);
+    }
+
+    private static double primitivo(Double valor) {
+        return valor == null ? Double.NaN : valor;
+    }
+}
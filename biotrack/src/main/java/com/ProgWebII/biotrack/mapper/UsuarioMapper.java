@@ -1,14 +1,17 @@
 package com.ProgWebII.biotrack.mapper;
 
-import com.ProgWebII.biotrack.dto.response.MedidaResponse;
 import com.ProgWebII.biotrack.dto.response.UsuarioResponse;
-import com.ProgWebII.biotrack.model.Measure;
 import com.ProgWebII.biotrack.model.User;
 import org.springframework.stereotype.Component;
 
 @Component
 public class UsuarioMapper {
 
+    private final MedidaMapper medidaMapper;
+
+    public UsuarioMapper(MedidaMapper medidaMapper) {
+        this.medidaMapper = medidaMapper;
+    }
 
     public UsuarioResponse toResponse(User user) {
         return new UsuarioResponse(
@@ -18,25 +21,8 @@ public class UsuarioMapper {
                 user.getZipCode(),
                 user.getEmail(),
                 user.getMeasures().stream()
-                        .map(this::toMedidaResponse)
+                        .map(medidaMapper::toResponse)
                         .toList()
         );
     }
-
-    private MedidaResponse toMedidaResponse(Measure m) {
-        return new MedidaResponse(
-                m.getId(),
-                m.getMeasurementDate(),
-                m.getWeightKg(),
-                m.getHeightCm(),
-                m.getWaistCm(),
-                m.getHipCm(),
-                m.getChestCm(),
-                m.getArmRightCm(),
-                m.getArmLeftCm(),
-                m.getThighRightCm(),
-                m.getThighLeftCm(),
-                m.getBodyFatPercentage()
-        );
-    }
 }
@@ -0,0 +1,60 @@
+package com.ProgWebII.biotrack.model;
+
+/**
+ * Faixas de classificação do IMC.
+ * Os limites ficam aqui para que o cálculo em Java e as consultas no banco usem os mesmos valores.
+ */
+public enum FaixaImc {
+
+    ABAIXO_DO_PESO("Abaixo do Peso", 0.0, 18.5),
+    PESO_NORMAL("Peso Normal", 18.5, 25.0),
+    SOBREPESO("Sobrepeso", 25.0, 30.0),
+    OBESIDADE("Obesidade", 30.0, Double.MAX_VALUE);
+
+    private final String descricao;
+    private final double imcMinimo; // inclusivo
+    private final double imcMaximo; // exclusivo
+
+    FaixaImc(String descricao, double imcMinimo, double imcMaximo) {
+        this.descricao = descricao;
+        this.imcMinimo = imcMinimo;
+        this.imcMaximo = imcMaximo;
+    }
+
+    public String getDescricao() {
+        return descricao;
+    }
+
+    public double getImcMinimo() {
+        return imcMinimo;
+    }
+
+    public double getImcMaximo() {
+        return imcMaximo;
+    }
+
+    // Retorna a faixa correspondente ao IMC, ou null se o valor for inválido
+    public static FaixaImc deImc(Double imc) {
+        if (imc == null || imc <= 0) {
+            return null;
+        }
+        for (FaixaImc faixa : values()) {
+            if (imc < faixa.imcMaximo) {
+                return faixa;
+            }
+        }
+        return OBESIDADE;
+    }
+
+    // Converte a descrição recebida na API (ex.: "Peso Normal") para a faixa
+    public static FaixaImc porDescricao(String descricao) {
+        if (descricao != null) {
+            for (FaixaImc faixa : values()) {
+                if (faixa.descricao.equalsIgnoreCase(descricao.trim())) {
+                    return faixa;
+                }
+            }
+        }
+        throw new IllegalArgumentException("Faixa de IMC inválida: " + descricao);
+    }
+}
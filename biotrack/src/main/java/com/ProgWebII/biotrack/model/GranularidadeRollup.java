@@ -0,0 +1,66 @@
+package com.ProgWebII.biotrack.model;
+
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.time.temporal.ChronoUnit;
+import java.time.temporal.TemporalAdjusters;
+
+/**
+ * Tamanhos de balde dos agregados de medidas (tb_measure_rollup), do mais fino para o mais grosso.
+ * O início de cada balde é calculado aqui e, no banco, com DATE_TRUNC(unidadeSql, ...), que devem coincidir:
+ * dia, semana ISO (segunda-feira) e primeiro dia do mês.
+ */
+public enum GranularidadeRollup {
+
+    DIA("DAY"),
+    SEMANA("ISO_WEEK"),
+    MES("MONTH");
+
+    private final String unidadeSql;
+
+    GranularidadeRollup(String unidadeSql) {
+        this.unidadeSql = unidadeSql;
+    }
+
+    public String getUnidadeSql() {
+        return unidadeSql;
+    }
+
+    // Início do balde que contém a data
+    public LocalDate inicio(LocalDate data) {
+        return switch (this) {
+            case DIA -> data;
+            case SEMANA -> data.with(TemporalAdjusters.previousOrSame(DayOfWeek.MONDAY));
+            case MES -> data.withDayOfMonth(1);
+        };
+    }
+
+    // Início do balde seguinte (fim exclusivo do balde que começa em 'inicio')
+    public LocalDate proximo(LocalDate inicio) {
+        return switch (this) {
+            case DIA -> inicio.plusDays(1);
+            case SEMANA -> inicio.plusWeeks(1);
+            case MES -> inicio.plusMonths(1);
+        };
+    }
+
+    // Quantos baldes cobrem o intervalo [de, ate]
+    public long baldesEntre(LocalDate de, LocalDate ate) {
+        ChronoUnit unidade = switch (this) {
+            case DIA -> ChronoUnit.DAYS;
+            case SEMANA -> ChronoUnit.WEEKS;
+            case MES -> ChronoUnit.MONTHS;
+        };
+        return unidade.between(inicio(de), inicio(ate)) + 1;
+    }
+
+    // A mais fina cujo número de baldes no intervalo não passa de maximoPontos; sem nenhuma, a mais grossa
+    public static GranularidadeRollup paraIntervalo(LocalDate de, LocalDate ate, int maximoPontos) {
+        for (GranularidadeRollup granularidade : values()) {
+            if (granularidade.baldesEntre(de, ate) <= maximoPontos) {
+                return granularidade;
+            }
+        }
+        return MES;
+    }
+}
@@ -1,6 +1,6 @@
 package com.ProgWebII.biotrack.model;
 
-import com.ProgWebII.biotrack.repository.MeasureRepository;
+import com.ProgWebII.biotrack.repository.LatestMeasureRepository;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Component;
 
@@ -8,7 +8,7 @@ import org.springframework.stereotype.Component;
 public class Imc {
 
     @Autowired
-    private MeasureRepository measuresRepository;
+    private LatestMeasureRepository latestMeasureRepository;
 
     public Double calcularImc(Double weightKg, Double heightCm) {
         if (weightKg == null || heightCm == null || weightKg <= 0 || heightCm <= 0) {
@@ -20,23 +20,13 @@ public class Imc {
     }
     
     public String classificarFaixaImc(Double imc) {
-        if (imc == null || imc <= 0) {
-            return null;
-        }
-        
-        if (imc < 18.5) {
-            return "Abaixo do Peso";
-        } else if (imc < 25) {
-            return "Peso Normal";
-        } else if (imc < 30) {
-            return "Sobrepeso";
-        } else {
-            return "Obesidade";
-        }
+        FaixaImc faixa = FaixaImc.deImc(imc);
+        return faixa != null ? faixa.getDescricao() : null;
     }
     
     public Double obterImcUsuario(Long userId) {
-        var medidaMaisRecente = measuresRepository.findTopByUserIdOrderByMeasurementDateDesc(userId);
+        // Leitura pela chave primária da projeção de última medida
+        var medidaMaisRecente = latestMeasureRepository.findById(userId).orElse(null);
         
         if (medidaMaisRecente == null ||
             medidaMaisRecente.getWeightKg() == null ||
@@ -0,0 +1,78 @@
+package com.ProgWebII.biotrack.model;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import java.time.LocalDateTime;
+
+/**
+ * Projeção desnormalizada com a medida mais recente de cada usuário.
+ * Mantida pelo MeasureService a cada escrita, para que a leitura da última medida seja
+ * uma busca pela chave primária (ID do usuário) em vez de ordenar tb_measure.
+ */
+@Entity
+@Table(name = "tb_latest_measure",
+    indexes = {
+        @Index(name = "idx_latest_measure_measure", columnList = "measure_id", unique = true),
+        @Index(name = "idx_latest_measure_imc", columnList = "imc, user_id")
+    })
+@Data // Gera Getters, Setters, toString, equals e hashCode
+@Builder // Permite o uso do padrão Builder para criar instâncias
+@NoArgsConstructor // Construtor sem argumentos
+@AllArgsConstructor // Construtor com todos os argumentos
+public class LatestMeasure {
+
+  @Id
+  @Column(name = "user_id")
+  private Long userId; // Chave primária: um registro por usuário
+
+  @Column(name = "measure_id", nullable = false)
+  private Long measureId; // ID da medida em tb_measure que originou a projeção
+
+  @Column(name = "measurement_date", nullable = false)
+  private LocalDateTime measurementDate;
+
+  // Cópia dos valores da medida (mesmos nomes de coluna de tb_measure)
+  @Column(nullable = false)
+  private Double weightKg;
+  private Double heightCm;
+  private Double waistCm;
+  private Double hipCm;
+  private Double chestCm;
+  private Double armRightCm;
+  private Double armLeftCm;
+  private Double thighRightCm;
+  private Double thighLeftCm;
+  private Double bodyFatPercentage;
+
+  // IMC da medida, gravado para que o filtro por faixa leia só o intervalo do índice; null sem peso ou altura
+  private Double imc;
+
+  // Copia os valores de uma medida para a projeção
+  public void copiarDe(Measure medida) {
+    this.measureId = medida.getId();
+    this.measurementDate = medida.getMeasurementDate();
+    this.weightKg = medida.getWeightKg();
+    this.heightCm = medida.getHeightCm();
+    this.waistCm = medida.getWaistCm();
+    this.hipCm = medida.getHipCm();
+    this.chestCm = medida.getChestCm();
+    this.armRightCm = medida.getArmRightCm();
+    this.armLeftCm = medida.getArmLeftCm();
+    this.thighRightCm = medida.getThighRightCm();
+    this.thighLeftCm = medida.getThighLeftCm();
+    this.bodyFatPercentage = medida.getBodyFatPercentage();
+    this.imc = calcularImc(medida.getWeightKg(), medida.getHeightCm());
+  }
+
+  // Mesma fórmula de Imc.calcularImc e da reconstrução em LatestMeasureRepository
+  private static Double calcularImc(Double weightKg, Double heightCm) {
+    if (weightKg == null || heightCm == null || weightKg <= 0 || heightCm <= 0) {
+      return null;
+    }
+    double heightM = heightCm / 100.0;
+    return weightKg / (heightM * heightM);
+  }
+}
@@ -8,17 +8,27 @@ import lombok.Getter;
 import lombok.NoArgsConstructor;
 import java.time.LocalDateTime;
 import lombok.Setter;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
 
 @Entity
-@Table(name = "tb_measure")
+// Histórico de um usuário da medida mais recente para a mais antiga (mesma ordem e desempate por ID
+// das consultas de MeasureRepository e da reconstrução de tb_latest_measure)
+@Table(name = "tb_measure",
+    indexes = @Index(name = "idx_measure_user_data", columnList = "user_id, measurement_date DESC, id DESC"))
 @Data // Gera Getters, Setters, toString, equals e hashCode
 @Builder // Permite o uso do padrão Builder para criar instâncias
 @NoArgsConstructor // Construtor sem argumentos
 @AllArgsConstructor // Construtor com todos os argumentos
+@Cacheable // Cache de 2º nível (regiões em CacheSegundoNivelRegionFactory)
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE)
 public class Measure {
 
+  // Sequência com alocação em blocos (pooled): o Hibernate conhece o ID antes do INSERT
+  // e consegue agrupar as inserções em lotes JDBC, o que IDENTITY impede.
   @Id
-  @GeneratedValue(strategy = GenerationType.IDENTITY)
+  @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "measure_seq")
+  @SequenceGenerator(name = "measure_seq", sequenceName = "seq_measure", allocationSize = 50)
   private Long id; // Chave primária
 
   @Column(name = "measurement_date", nullable = false)
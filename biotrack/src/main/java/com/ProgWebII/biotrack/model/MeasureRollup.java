@@ -0,0 +1,67 @@
+package com.ProgWebII.biotrack.model;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.io.Serializable;
+import java.time.LocalDate;
+
+/**
+ * Agregado de uma métrica de um usuário em um balde de tempo (dia, semana ou mês).
+ * Derivado de tb_measure: o MeasureRollupService recalcula os baldes afetados a cada escrita,
+ * para que gráficos de longo prazo leiam um registro por balde em vez de todas as medidas.
+ */
+@Entity
+@Table(name = "tb_measure_rollup",
+    indexes = @Index(name = "idx_measure_rollup_serie", columnList = "user_id, granularidade, metrica, inicio"))
+@IdClass(MeasureRollup.Chave.class)
+@Data // Gera Getters, Setters, toString, equals e hashCode
+@Builder // Permite o uso do padrão Builder para criar instâncias
+@NoArgsConstructor // Construtor sem argumentos
+@AllArgsConstructor // Construtor com todos os argumentos
+public class MeasureRollup {
+
+  @Id
+  @Column(name = "user_id")
+  private Long userId;
+
+  @Id
+  @Enumerated(EnumType.STRING)
+  @Column(length = 10)
+  private GranularidadeRollup granularidade;
+
+  @Id
+  private LocalDate inicio; // Primeiro dia do balde
+
+  @Id
+  @Enumerated(EnumType.STRING)
+  @Column(length = 20)
+  private MetricaMedida metrica;
+
+  // Somente medidas com a métrica informada entram no agregado
+  @Column(nullable = false)
+  private long quantidade;
+
+  @Column(nullable = false)
+  private double soma;
+
+  @Column(nullable = false)
+  private double minimo;
+
+  @Column(nullable = false)
+  private double maximo;
+
+  // Chave composta: (usuário, granularidade, início do balde, métrica)
+  @Data
+  @NoArgsConstructor
+  @AllArgsConstructor
+  public static class Chave implements Serializable {
+    private Long userId;
+    private GranularidadeRollup granularidade;
+    private LocalDate inicio;
+    private MetricaMedida metrica;
+  }
+}
@@ -0,0 +1,55 @@
+package com.ProgWebII.biotrack.model;
+
+import java.util.function.Function;
+
+/**
+ * Métricas numéricas de uma medida.
+ * Liga o nome do campo na API, a coluna em tb_measure e o getter da entidade,
+ * para que as leituras colunares e as consultas agregadas usem a mesma lista.
+ */
+public enum MetricaMedida {
+
+    PESO("weightKg", "weight_kg", Measure::getWeightKg),
+    ALTURA("heightCm", "height_cm", Measure::getHeightCm),
+    CINTURA("waistCm", "waist_cm", Measure::getWaistCm),
+    QUADRIL("hipCm", "hip_cm", Measure::getHipCm),
+    PEITO("chestCm", "chest_cm", Measure::getChestCm),
+    BRACO_DIREITO("armRightCm", "arm_right_cm", Measure::getArmRightCm),
+    BRACO_ESQUERDO("armLeftCm", "arm_left_cm", Measure::getArmLeftCm),
+    COXA_DIREITA("thighRightCm", "thigh_right_cm", Measure::getThighRightCm),
+    COXA_ESQUERDA("thighLeftCm", "thigh_left_cm", Measure::getThighLeftCm),
+    GORDURA_CORPORAL("bodyFatPercentage", "body_fat_percentage", Measure::getBodyFatPercentage);
+
+    private final String campo;
+    private final String coluna;
+    private final Function<Measure, Double> leitor;
+
+    MetricaMedida(String campo, String coluna, Function<Measure, Double> leitor) {
+        this.campo = campo;
+        this.coluna = coluna;
+        this.leitor = leitor;
+    }
+
+    public String getCampo() {
+        return campo;
+    }
+
+    public String getColuna() {
+        return coluna;
+    }
+
+    // Lê o valor da métrica na entidade (null se não informado)
+    public Double valorDe(Measure medida) {
+        return leitor.apply(medida);
+    }
+
+    // Converte o nome do campo recebido na API (ex.: "waistCm") para a métrica
+    public static MetricaMedida porCampo(String campo) {
+        for (MetricaMedida metrica : values()) {
+            if (metrica.campo.equalsIgnoreCase(campo)) {
+                return metrica;
+            }
+        }
+        throw new IllegalArgumentException("Métrica inválida: " + campo);
+    }
+}
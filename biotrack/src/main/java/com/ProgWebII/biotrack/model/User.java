@@ -6,9 +6,13 @@ import lombok.Data;
 import lombok.Builder;
 import lombok.Getter;
 import lombok.NoArgsConstructor;
+import java.time.Instant;
 import java.time.LocalDate;
+import java.time.temporal.ChronoUnit;
 import java.util.List;
 import lombok.Setter;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
 
 @Entity
 @Table(name = "tb_users") // Boa prática para evitar conflitos com palavras reservadas
@@ -16,6 +20,9 @@ import lombok.Setter;
 @Builder // Permite o uso do padrão Builder para criar instâncias
 @NoArgsConstructor // Construtor sem argumentos
 @AllArgsConstructor // Construtor com todos os argumentos
+// Cache de 2º nível: lido muito mais do que escrito (regiões em CacheSegundoNivelRegionFactory)
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE)
 public class User {
 
   @Id
@@ -41,6 +48,41 @@ public class User {
   // Relacionamento One-to-Many: Um Usuário tem muitas Medidas.
   // 'mappedBy' indica o campo na classe Measures que detém a chave estrangeira.
   // 'CascadeType.ALL' fará com que medidas sejam excluídas se o usuário for excluído.
+  // Os IDs das medidas também ficam no cache de 2º nível; a inserção de uma medida remove a entrada do dono
+  // (hibernate.cache.auto_evict_collection_cache)
   @OneToMany(mappedBy = "user", cascade = CascadeType.ALL, fetch = FetchType.LAZY)
+  @Cache(usage = CacheConcurrencyStrategy.READ_WRITE)
   private List<Measure> measures;
+
+  // Versão dos dados do usuário e das medidas dele, usada no ETag das leituras. Como @Version, o Hibernate a
+  // incrementa em todo UPDATE da linha (e recusa gravar por cima de uma versão mais nova); as escritas de medidas
+  // a avançam por registrarAlteracao, na entidade devolvida travada por UserRepository.travar
+  @Version
+  @Column(nullable = false)
+  private long revisao;
+
+  @Column(name = "ultima_alteracao")
+  private Instant ultimaAlteracao; // Instante da última escrita (cabeçalho Last-Modified)
+
+  @PrePersist
+  void aoCriar() {
+    if (ultimaAlteracao == null) {
+      ultimaAlteracao = Instant.now();
+    }
+  }
+
+  /**
+   * Marca uma escrita nos dados ou nas medidas do usuário: no flush, o UPDATE versionado avança a revisão uma vez.
+   * Deve ser chamado na entidade travada (UserRepository.travar), para que as escritas do mesmo usuário não
+   * disputem a mesma versão.
+   *
+   * @param instante O instante da alteração.
+   */
+  public void registrarAlteracao(Instant instante) {
+    // Precisão da coluna (microssegundos), para que o instante gravado seja o mesmo lido depois. O instante precisa
+    // mudar para a entidade ficar suja (e a versão avançar), e o Last-Modified nunca volta
+    Instant alteracao = instante.truncatedTo(ChronoUnit.MICROS);
+    ultimaAlteracao = ultimaAlteracao != null && !alteracao.isAfter(ultimaAlteracao)
+        ? ultimaAlteracao.plus(1, ChronoUnit.MICROS) : alteracao;
+  }
 }
\ No newline at end of file
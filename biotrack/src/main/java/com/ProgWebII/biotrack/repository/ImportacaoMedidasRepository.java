@@ -0,0 +1,142 @@
+package com.ProgWebII.biotrack.repository;
+
+import com.ProgWebII.biotrack.config.MetricasConfig;
+import com.ProgWebII.biotrack.dto.request.MeasureRequest;
+import com.ProgWebII.biotrack.dto.request.MedidaLoteRequest;
+import io.micrometer.core.annotation.Timed;
+import org.springframework.jdbc.core.BatchPreparedStatementSetter;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Types;
+import java.time.Instant;
+import java.time.OffsetDateTime;
+import java.time.ZoneOffset;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+
+/**
+ * Gravação por JDBC da importação de medidas em arquivo: as medidas em lotes de INSERT, sem passar pelo
+ * contexto de persistência, e os pontos de retomada (tb_importacao_medidas e tb_importacao_medidas_bloco).
+ * Os métodos participam da transação corrente, para que um bloco e as suas medidas sejam gravados juntos.
+ */
+@Repository
+@Timed(MetricasConfig.TIMER_REPOSITORIOS_JDBC)
+public class ImportacaoMedidasRepository {
+
+  // Mesmo allocationSize da sequência em Measure
+  private static final int IDS_POR_VALOR_DA_SEQUENCIA = 50;
+
+  private static final String SQL_INSERIR_MEDIDA = """
+      INSERT INTO tb_measure (id, user_id, measurement_date, weight_kg, height_cm, waist_cm, hip_cm, chest_cm,
+          arm_right_cm, arm_left_cm, thigh_right_cm, thigh_left_cm, body_fat_percentage)
+      VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?)
+      """;
+
+  private final JdbcTemplate jdbcTemplate;
+
+  public ImportacaoMedidasRepository(JdbcTemplate jdbcTemplate) {
+    this.jdbcTemplate = jdbcTemplate;
+  }
+
+  /**
+   * Busca o tamanho do arquivo e o tamanho de bloco registrados na primeira execução da importação.
+   *
+   * @return [tamanho do arquivo, tamanho do bloco], ou vazio se o arquivo nunca foi importado.
+   */
+  public Optional<long[]> buscarImportacao(String arquivo) {
+    return jdbcTemplate.query(
+        "SELECT tamanho_arquivo, tamanho_bloco FROM tb_importacao_medidas WHERE arquivo = ?",
+        (rs, linha) -> new long[]{rs.getLong(1), rs.getLong(2)}, arquivo).stream().findFirst();
+  }
+
+  public void registrarImportacao(String arquivo, long tamanhoArquivo, long tamanhoBloco, Instant inicio) {
+    jdbcTemplate.update(
+        "INSERT INTO tb_importacao_medidas (arquivo, tamanho_arquivo, tamanho_bloco, iniciada_em) VALUES (?, ?, ?, ?)",
+        arquivo, tamanhoArquivo, tamanhoBloco, OffsetDateTime.ofInstant(inicio, ZoneOffset.UTC));
+  }
+
+  /**
+   * @return A posição inicial dos blocos do arquivo já gravados.
+   */
+  public Set<Long> buscarBlocosConcluidos(String arquivo) {
+    return new HashSet<>(jdbcTemplate.queryForList(
+        "SELECT inicio FROM tb_importacao_medidas_bloco WHERE arquivo = ?", Long.class, arquivo));
+  }
+
+  /**
+   * Registra o bloco como concluído. A chave primária (arquivo, inicio) impede que duas execuções simultâneas
+   * gravem o mesmo bloco: a segunda falha no commit e as medidas dela são desfeitas.
+   */
+  public void registrarBloco(String arquivo, long inicio, long fim, int inseridas, int rejeitadas) {
+    jdbcTemplate.update(
+        "INSERT INTO tb_importacao_medidas_bloco (arquivo, inicio, fim, inseridas, rejeitadas) VALUES (?, ?, ?, ?, ?)",
+        arquivo, inicio, fim, inseridas, rejeitadas);
+  }
+
+  /**
+   * Insere as medidas em um único lote JDBC, com IDs reservados na sequência seq_measure.
+   *
+   * @param medidas Dono e valores de cada medida, já validados.
+   */
+  public void inserirMedidas(List<MedidaLoteRequest> medidas) {
+    long[] ids = reservarIds(medidas.size());
+    jdbcTemplate.batchUpdate(SQL_INSERIR_MEDIDA, new BatchPreparedStatementSetter() {
+      @Override
+      public void setValues(PreparedStatement ps, int i) throws SQLException {
+        MedidaLoteRequest item = medidas.get(i);
+        MeasureRequest m = item.medida();
+        ps.setLong(1, ids[i]);
+        ps.setLong(2, item.userId());
+        ps.setObject(3, m.measurementDate());
+        ps.setDouble(4, m.weightKg());
+        definir(ps, 5, m.heightCm());
+        definir(ps, 6, m.waistCm());
+        definir(ps, 7, m.hipCm());
+        definir(ps, 8, m.chestCm());
+        definir(ps, 9, m.armRightCm());
+        definir(ps, 10, m.armLeftCm());
+        definir(ps, 11, m.thighRightCm());
+        definir(ps, 12, m.thighLeftCm());
+        definir(ps, 13, m.bodyFatPercentage());
+      }
+
+      @Override
+      public int getBatchSize() {
+        return medidas.size();
+      }
+    });
+  }
+
+  /**
+   * Reserva IDs como o otimizador pooled do Hibernate: cada valor v da sequência dá direito aos IDs
+   * [v - 49, v], e o Hibernate nunca usa um intervalo que não buscou. O primeiro valor (1) não
+   * cobre um intervalo inteiro e é descartado, como o Hibernate faz.
+   */
+  private long[] reservarIds(int quantidade) {
+    long[] ids = new long[quantidade];
+    for (int i = 0; i < quantidade; i += IDS_POR_VALOR_DA_SEQUENCIA) {
+      long valor;
+      do {
+        valor = jdbcTemplate.queryForObject("VALUES NEXT VALUE FOR seq_measure", Long.class);
+      } while (valor < IDS_POR_VALOR_DA_SEQUENCIA);
+      long primeiro = valor - IDS_POR_VALOR_DA_SEQUENCIA + 1;
+      for (int j = 0; j < IDS_POR_VALOR_DA_SEQUENCIA && i + j < quantidade; j++) {
+        ids[i + j] = primeiro + j;
+      }
+    }
+    return ids;
+  }
+
+  private static void definir(PreparedStatement ps, int indice, Double valor) throws SQLException {
+    if (valor == null) {
+      ps.setNull(indice, Types.DOUBLE);
+    } else {
+      ps.setDouble(indice, valor);
+    }
+  }
+}
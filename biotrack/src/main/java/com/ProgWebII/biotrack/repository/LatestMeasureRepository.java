@@ -0,0 +1,52 @@
+package com.ProgWebII.biotrack.repository;
+
+import com.ProgWebII.biotrack.model.LatestMeasure;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.stereotype.Repository;
+
+import java.util.Optional;
+
+/**
+ * Repositório da projeção "última medida por usuário" (tb_latest_measure).
+ * O ID da entidade é o próprio ID do usuário.
+ */
+@Repository
+public interface LatestMeasureRepository extends JpaRepository<LatestMeasure, Long> {
+
+  /**
+   * Busca a projeção que aponta para uma medida específica.
+   * Usado na remoção de medidas: só é preciso recalcular se a medida removida era a mais recente.
+   *
+   * @param measureId O ID da medida em tb_measure.
+   * @return A projeção do usuário cuja última medida é a informada, se houver.
+   */
+  Optional<LatestMeasure> findByMeasureId(Long measureId);
+
+  /**
+   * Reconstrói toda a projeção a partir de tb_measure em uma única instrução.
+   * Deve ser executado com a tabela vazia (ver {@link #deleteAllInBatch()}).
+   * A tabela afetada é declarada ao Hibernate: sem isso, um comando nativo limpa o cache de 2º nível inteiro.
+   *
+   * @return O número de usuários inseridos na projeção.
+   */
+  @Modifying
+  @QueryHints(@QueryHint(name = HibernateHints.HINT_NATIVE_SPACES, value = "tb_latest_measure"))
+  @Query(value = """
+      INSERT INTO tb_latest_measure (user_id, measure_id, measurement_date, weight_kg, height_cm, waist_cm, hip_cm,
+                                     chest_cm, arm_right_cm, arm_left_cm, thigh_right_cm, thigh_left_cm,
+                                     body_fat_percentage, imc)
+      SELECT user_id, id, measurement_date, weight_kg, height_cm, waist_cm, hip_cm,
+             chest_cm, arm_right_cm, arm_left_cm, thigh_right_cm, thigh_left_cm, body_fat_percentage,
+             CASE WHEN weight_kg > 0 AND height_cm > 0
+                  THEN weight_kg / ((height_cm / 100.0) * (height_cm / 100.0)) END
+      FROM (SELECT m.*, ROW_NUMBER() OVER (PARTITION BY m.user_id ORDER BY m.measurement_date DESC, m.id DESC) AS rn
+            FROM tb_measure m) t
+      WHERE t.rn = 1
+      """, nativeQuery = true)
+  int reconstruirAPartirDasMedidas();
+}
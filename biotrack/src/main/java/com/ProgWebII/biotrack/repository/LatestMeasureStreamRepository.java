@@ -0,0 +1,45 @@
+package com.ProgWebII.biotrack.repository;
+
+import com.ProgWebII.biotrack.config.MetricasConfig;
+import io.micrometer.core.annotation.Timed;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.stereotype.Repository;
+
+/**
+ * Leitura por JDBC dos valores de tb_latest_measure usados nas estatísticas da população,
+ * sem montar entidades: cada linha é entregue ao consumidor assim que lida.
+ */
+@Repository
+@Timed(MetricasConfig.TIMER_REPOSITORIOS_JDBC)
+public class LatestMeasureStreamRepository {
+
+  private static final String SQL_VALORES = """
+      SELECT user_id, weight_kg, height_cm, body_fat_percentage
+      FROM tb_latest_measure
+      """;
+
+  private final JdbcTemplate jdbcTemplate;
+
+  public LatestMeasureStreamRepository(JdbcTemplate jdbcTemplate) {
+    this.jdbcTemplate = jdbcTemplate;
+  }
+
+  /**
+   * Percorre a última medida de todos os usuários.
+   *
+   * @param consumidor Recebe o ID do usuário e os valores usados no IMC e na gordura corporal.
+   */
+  public void percorrerValores(ConsumidorValores consumidor) {
+    jdbcTemplate.query(SQL_VALORES, (RowCallbackHandler) rs -> consumidor.aceitar(
+        rs.getLong("user_id"),
+        rs.getObject("weight_kg", Double.class),
+        rs.getObject("height_cm", Double.class),
+        rs.getObject("body_fat_percentage", Double.class)));
+  }
+
+  @FunctionalInterface
+  public interface ConsumidorValores {
+    void aceitar(long userId, Double weightKg, Double heightCm, Double bodyFatPercentage);
+  }
+}
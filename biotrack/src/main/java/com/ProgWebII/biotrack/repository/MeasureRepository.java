@@ -1,10 +1,15 @@
 package com.ProgWebII.biotrack.repository; // Certifique-se de que este pacote corresponde ao seu projeto
 
+import com.ProgWebII.biotrack.dto.response.MedidaResponse;
 import com.ProgWebII.biotrack.model.Measure;
+import com.ProgWebII.biotrack.repository.projection.MedidaReferenciaProjection;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.util.List;
+import java.util.Optional;
 
 /**
  * Repositório para a entidade Measures.
@@ -14,14 +19,16 @@ import java.util.List;
 public interface MeasureRepository extends JpaRepository<Measure, Long> {
 
   /**
-   * Exemplo de método de consulta personalizado.
    * Encontra todas as medidas associadas a um User específico, ordenadas pela data de medição.
-   * O Spring Data JPA infere a consulta automaticamente pelo nome do método.
+   * As consultas por usuário são escritas à mão: a consulta derivada do nome do método faz LEFT JOIN
+   * com tb_users e filtra pelo ID do usuário na tabela juntada, o que no H2 varre tb_measure inteira.
+   * Filtrando pela FK user_id, a leitura usa o índice idx_measure_user_data.
    *
    * @param userId O ID da chave primária do Usuário.
    * @return Uma lista de objetos Measures.
    */
-  List<Measure> findByUserIdOrderByMeasurementDateDesc(Long userId);
+  @Query("SELECT m FROM Measure m WHERE m.user.id = :userId ORDER BY m.measurementDate DESC")
+  List<Measure> findByUserIdOrderByMeasurementDateDesc(@Param("userId") Long userId);
 
   /**
    * Encontra a medida mais recente para um usuário específico.
@@ -29,5 +36,42 @@ public interface MeasureRepository extends JpaRepository<Measure, Long> {
    * @param userId O ID da chave primária do Usuário.
    * @return O objeto Measures mais recente ou null se não for encontrado.
    */
-  Measure findTopByUserIdOrderByMeasurementDateDesc(Long userId);
-}
\ No newline at end of file
+  @Query("SELECT m FROM Measure m WHERE m.user.id = :userId ORDER BY m.measurementDate DESC LIMIT 1")
+  Measure findTopByUserIdOrderByMeasurementDateDesc(@Param("userId") Long userId);
+
+  /**
+   * Igual a {@link #findTopByUserIdOrderByMeasurementDateDesc(Long)}, mas desempata pelo ID da medida,
+   * com o mesmo critério usado na reconstrução da projeção de última medida.
+   *
+   * @param userId O ID da chave primária do Usuário.
+   * @return A medida mais recente ou null se o usuário não tiver medidas.
+   */
+  @Query("SELECT m FROM Measure m WHERE m.user.id = :userId ORDER BY m.measurementDate DESC, m.id DESC LIMIT 1")
+  Measure findFirstByUserIdOrderByMeasurementDateDescIdDesc(@Param("userId") Long userId);
+
+  /**
+   * Retorna o ID do usuário dono da medida e a data da medição, sem carregar a entidade.
+   *
+   * @param id O ID da medida.
+   * @return O dono e a data, ou vazio se a medida não existir.
+   */
+  @Query("SELECT m.user.id AS userId, m.measurementDate AS measurementDate FROM Measure m WHERE m.id = :id")
+  Optional<MedidaReferenciaProjection> findReferenciaById(@Param("id") Long id);
+
+  /**
+   * Busca uma medida de um usuário direto como DTO, filtrando pela FK user_id.
+   * Não carrega a entidade User nem a coleção de medidas dele.
+   *
+   * @param medidaId O ID da medida.
+   * @param userId   O ID do usuário dono da medida.
+   * @return A medida, ou vazio se ela não existir ou pertencer a outro usuário.
+   */
+  @Query("""
+      SELECT new com.ProgWebII.biotrack.dto.response.MedidaResponse(
+          m.id, m.measurementDate, m.weightKg, m.heightCm, m.waistCm, m.hipCm, m.chestCm,
+          m.armRightCm, m.armLeftCm, m.thighRightCm, m.thighLeftCm, m.bodyFatPercentage)
+      FROM Measure m
+      WHERE m.id = :medidaId AND m.user.id = :userId
+      """)
+  Optional<MedidaResponse> findMedidaResponseByIdAndUserId(@Param("medidaId") Long medidaId, @Param("userId") Long userId);
+}
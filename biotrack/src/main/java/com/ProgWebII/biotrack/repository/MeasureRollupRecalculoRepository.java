@@ -0,0 +1,33 @@
+package com.ProgWebII.biotrack.repository;
+
+import com.ProgWebII.biotrack.model.GranularidadeRollup;
+
+import java.time.LocalDate;
+
+/**
+ * Recálculo dos agregados de tb_measure_rollup a partir de tb_measure, com SQL nativo.
+ * Implementado em {@link MeasureRollupRecalculoRepositoryImpl} e exposto pelo {@link MeasureRollupRepository}.
+ */
+public interface MeasureRollupRecalculoRepository {
+
+  /**
+   * Recalcula os baldes de um usuário em uma granularidade, no intervalo [inicio, fim).
+   * Os limites devem ser inícios de balde, para que nenhum balde seja recalculado pela metade.
+   *
+   * @param userId        O ID do usuário.
+   * @param granularidade O tamanho do balde.
+   * @param inicio        Início do primeiro balde (inclusivo).
+   * @param fim           Início do balde seguinte ao último (exclusivo).
+   * @return O número de agregados gravados.
+   */
+  int recalcular(Long userId, GranularidadeRollup granularidade, LocalDate inicio, LocalDate fim);
+
+  /**
+   * Reconstrói todos os agregados de uma granularidade a partir de tb_measure em uma única instrução.
+   * Deve ser executado com a granularidade vazia na tabela.
+   *
+   * @param granularidade O tamanho do balde.
+   * @return O número de agregados gravados.
+   */
+  int reconstruir(GranularidadeRollup granularidade);
+}
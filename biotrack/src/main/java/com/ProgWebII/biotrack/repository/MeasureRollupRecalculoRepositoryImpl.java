@@ -0,0 +1,87 @@
+package com.ProgWebII.biotrack.repository;
+
+import com.ProgWebII.biotrack.model.GranularidadeRollup;
+import com.ProgWebII.biotrack.model.MetricaMedida;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import org.hibernate.jpa.HibernateHints;
+
+import java.time.LocalDate;
+import java.util.Arrays;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+/**
+ * Agrega tb_measure por (usuário, balde) com um SELECT por métrica unidos em UNION ALL, gerados a partir de
+ * {@link MetricaMedida} e {@link GranularidadeRollup}. Roda pelo EntityManager para enxergar as medidas
+ * ainda pendentes na transação (o flush é feito antes de cada recálculo).
+ * Os comandos declaram tb_measure_rollup como a única tabela afetada; sem isso, cada comando nativo
+ * limparia o cache de 2º nível inteiro (usuários e medidas) a cada medida gravada.
+ */
+class MeasureRollupRecalculoRepositoryImpl implements MeasureRollupRecalculoRepository {
+
+  private static final String FILTRO_USUARIO =
+      " AND user_id = :userId AND measurement_date >= :inicio AND measurement_date < :fim";
+
+  private static final String SQL_REMOVER = """
+      DELETE FROM tb_measure_rollup
+      WHERE user_id = :userId AND granularidade = :granularidade AND inicio >= :inicio AND inicio < :fim
+      """;
+
+  private static final String TABELA = "tb_measure_rollup";
+
+  private static final Map<GranularidadeRollup, String> SQL_RECALCULAR = new EnumMap<>(GranularidadeRollup.class);
+  private static final Map<GranularidadeRollup, String> SQL_RECONSTRUIR = new EnumMap<>(GranularidadeRollup.class);
+
+  static {
+    for (GranularidadeRollup granularidade : GranularidadeRollup.values()) {
+      SQL_RECALCULAR.put(granularidade, sqlAgregacao(granularidade, FILTRO_USUARIO));
+      SQL_RECONSTRUIR.put(granularidade, sqlAgregacao(granularidade, ""));
+    }
+  }
+
+  @PersistenceContext
+  private EntityManager entityManager;
+
+  @Override
+  public int recalcular(Long userId, GranularidadeRollup granularidade, LocalDate inicio, LocalDate fim) {
+    entityManager.flush();
+
+    entityManager.createNativeQuery(SQL_REMOVER)
+        .setHint(HibernateHints.HINT_NATIVE_SPACES, TABELA)
+        .setParameter("userId", userId)
+        .setParameter("granularidade", granularidade.name())
+        .setParameter("inicio", inicio)
+        .setParameter("fim", fim)
+        .executeUpdate();
+
+    return entityManager.createNativeQuery(SQL_RECALCULAR.get(granularidade))
+        .setHint(HibernateHints.HINT_NATIVE_SPACES, TABELA)
+        .setParameter("userId", userId)
+        .setParameter("inicio", inicio.atStartOfDay())
+        .setParameter("fim", fim.atStartOfDay())
+        .executeUpdate();
+  }
+
+  @Override
+  public int reconstruir(GranularidadeRollup granularidade) {
+    entityManager.flush();
+    return entityManager.createNativeQuery(SQL_RECONSTRUIR.get(granularidade))
+        .setHint(HibernateHints.HINT_NATIVE_SPACES, TABELA)
+        .executeUpdate();
+  }
+
+  private static String sqlAgregacao(GranularidadeRollup granularidade, String filtro) {
+    String balde = "CAST(DATE_TRUNC('" + granularidade.getUnidadeSql() + "', measurement_date) AS DATE)";
+    String selects = Arrays.stream(MetricaMedida.values())
+        .map(metrica -> "SELECT user_id, '" + granularidade.name() + "', " + balde + ", '" + metrica.name() + "', "
+            + "COUNT(" + metrica.getColuna() + "), SUM(" + metrica.getColuna() + "), "
+            + "MIN(" + metrica.getColuna() + "), MAX(" + metrica.getColuna() + ") "
+            + "FROM tb_measure WHERE " + metrica.getColuna() + " IS NOT NULL" + filtro + " "
+            + "GROUP BY user_id, " + balde)
+        .collect(Collectors.joining(" UNION ALL "));
+    return "INSERT INTO tb_measure_rollup (user_id, granularidade, inicio, metrica, quantidade, soma, minimo, maximo) "
+        + selects;
+  }
+}
@@ -0,0 +1,58 @@
+package com.ProgWebII.biotrack.repository;
+
+import com.ProgWebII.biotrack.dto.response.PontoAgregadoResponse;
+import com.ProgWebII.biotrack.model.GranularidadeRollup;
+import com.ProgWebII.biotrack.model.MeasureRollup;
+import com.ProgWebII.biotrack.model.MetricaMedida;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDate;
+import java.util.List;
+
+/**
+ * Repositório dos agregados de medidas por balde de tempo (tb_measure_rollup).
+ * O recálculo a partir de tb_measure fica em {@link MeasureRollupRecalculoRepository}.
+ */
+@Repository
+public interface MeasureRollupRepository extends JpaRepository<MeasureRollup, MeasureRollup.Chave>,
+    MeasureRollupRecalculoRepository {
+
+  /**
+   * Busca os baldes de uma métrica do usuário direto como DTO, em ordem cronológica.
+   * Usa o índice (user_id, granularidade, metrica, inicio): lê um registro por balde do intervalo.
+   *
+   * @param userId        O ID do usuário.
+   * @param granularidade O tamanho do balde.
+   * @param metrica       A métrica.
+   * @param de            Início do primeiro balde (inclusivo).
+   * @param ate           Data final (inclusiva).
+   * @return Os baldes que têm pelo menos uma medida com a métrica.
+   */
+  @Query("""
+      SELECT new com.ProgWebII.biotrack.dto.response.PontoAgregadoResponse(
+          r.inicio, r.quantidade, r.soma / r.quantidade, r.minimo, r.maximo)
+      FROM MeasureRollup r
+      WHERE r.userId = :userId AND r.granularidade = :granularidade AND r.metrica = :metrica
+        AND r.inicio BETWEEN :de AND :ate
+      ORDER BY r.inicio
+      """)
+  List<PontoAgregadoResponse> findPontos(@Param("userId") Long userId,
+                                         @Param("granularidade") GranularidadeRollup granularidade,
+                                         @Param("metrica") MetricaMedida metrica,
+                                         @Param("de") LocalDate de,
+                                         @Param("ate") LocalDate ate);
+
+  /**
+   * Remove todos os agregados de um usuário (usado na remoção do usuário).
+   *
+   * @param userId O ID do usuário.
+   * @return O número de registros removidos.
+   */
+  @Modifying
+  @Query("DELETE FROM MeasureRollup r WHERE r.userId = :userId")
+  int deleteByUserId(@Param("userId") Long userId);
+}
@@ -0,0 +1,110 @@
+package com.ProgWebII.biotrack.repository;
+
+import com.ProgWebII.biotrack.config.MetricasConfig;
+import com.ProgWebII.biotrack.model.MetricaMedida;
+import com.ProgWebII.biotrack.store.SerieMedidas;
+import io.micrometer.core.annotation.Timed;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Leitura do histórico de medidas direto para o formato colunar de {@link SerieMedidas}.
+ * Usa JDBC puro para que nenhuma entidade Measure/User nem Double seja criado por linha.
+ */
+@Repository
+@Timed(MetricasConfig.TIMER_REPOSITORIOS_JDBC)
+public class MeasureSeriesRepository {
+
+  private static final MetricaMedida[] METRICAS = MetricaMedida.values();
+
+  private static final String SQL_SERIE = "SELECT id, measurement_date, "
+      + String.join(", ", Arrays.stream(METRICAS).map(MetricaMedida::getColuna).toList())
+      + " FROM tb_measure WHERE user_id = ? ORDER BY measurement_date, id";
+
+  private final JdbcTemplate jdbcTemplate;
+
+  public MeasureSeriesRepository(JdbcTemplate jdbcTemplate) {
+    this.jdbcTemplate = jdbcTemplate;
+  }
+
+  /**
+   * Carrega todas as medidas do usuário, da mais antiga para a mais recente.
+   *
+   * @param userId O ID do usuário.
+   * @return A série do usuário (vazia se ele não tiver medidas ou não existir).
+   */
+  public SerieMedidas carregarSerie(long userId) {
+    SerieMedidas.Construtor construtor = new SerieMedidas.Construtor();
+    jdbcTemplate.query(SQL_SERIE, (ResultSet rs) -> adicionarLinha(rs, construtor), userId);
+    return construtor.construir();
+  }
+
+  /**
+   * Carrega as medidas do usuário no intervalo, lendo só as colunas das métricas pedidas.
+   * O intervalo e o limite vão para o SQL, então o banco percorre apenas a faixa do índice
+   * (user_id, measurement_date) e devolve só as linhas e colunas necessárias.
+   *
+   * @param userId   O ID do usuário.
+   * @param de       Data inicial, inclusiva (null para não limitar).
+   * @param ate      Data final, inclusiva (null para não limitar).
+   * @param metricas Métricas a ler; as demais ficam sem valor na série.
+   * @param limite   Número máximo de linhas, a partir da mais antiga (null para não limitar).
+   * @return A série do usuário no intervalo, da mais antiga para a mais recente.
+   */
+  public SerieMedidas carregarSerie(long userId, LocalDateTime de, LocalDateTime ate,
+                                    Set<MetricaMedida> metricas, Integer limite) {
+    // Na ordem do enum, para que as colunas do SELECT sigam a mesma ordem da leitura
+    MetricaMedida[] lidas = Arrays.stream(METRICAS).filter(metricas::contains).toArray(MetricaMedida[]::new);
+
+    StringBuilder sql = new StringBuilder("SELECT id, measurement_date");
+    for (MetricaMedida metrica : lidas) {
+      sql.append(", ").append(metrica.getColuna());
+    }
+    sql.append(" FROM tb_measure WHERE user_id = ?");
+    List<Object> parametros = new ArrayList<>();
+    parametros.add(userId);
+    if (de != null) {
+      sql.append(" AND measurement_date >= ?");
+      parametros.add(de);
+    }
+    if (ate != null) {
+      sql.append(" AND measurement_date <= ?");
+      parametros.add(ate);
+    }
+    sql.append(" ORDER BY measurement_date, id");
+    if (limite != null) {
+      sql.append(" LIMIT ?");
+      parametros.add(limite);
+    }
+
+    SerieMedidas.Construtor construtor = new SerieMedidas.Construtor();
+    jdbcTemplate.query(sql.toString(), (ResultSet rs) -> adicionarLinha(rs, construtor, lidas), parametros.toArray());
+    return construtor.construir();
+  }
+
+  private void adicionarLinha(ResultSet rs, SerieMedidas.Construtor construtor) throws SQLException {
+    adicionarLinha(rs, construtor, METRICAS);
+  }
+
+  // As colunas das métricas começam na terceira posição, na ordem do array
+  private void adicionarLinha(ResultSet rs, SerieMedidas.Construtor construtor, MetricaMedida[] metricas)
+      throws SQLException {
+    Timestamp data = rs.getTimestamp(2);
+    construtor.novaLinha(rs.getLong(1), SerieMedidas.paraInstante(data.toLocalDateTime()));
+    for (int i = 0; i < metricas.length; i++) {
+      double valor = rs.getDouble(i + 3);
+      if (!rs.wasNull()) {
+        construtor.valor(metricas[i], valor);
+      }
+    }
+  }
+}
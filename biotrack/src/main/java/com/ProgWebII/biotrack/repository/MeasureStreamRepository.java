@@ -0,0 +1,149 @@
+package com.ProgWebII.biotrack.repository;
+
+import com.ProgWebII.biotrack.config.MetricasConfig;
+import com.ProgWebII.biotrack.model.MetricaMedida;
+import io.micrometer.core.annotation.Timed;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.LocalDateTime;
+import java.util.Arrays;
+import java.util.Optional;
+
+/**
+ * Leitura do histórico de medidas por cursor JDBC, para as exportações e as tendências.
+ * As linhas saem na ordem do índice idx_measure_user_data (usuário, e da medida mais recente para a mais antiga),
+ * sem ordenação no banco e sem montar entidades: o uso de memória não depende do tamanho do histórico.
+ * As consultas usam a dica USE INDEX do H2, o banco da aplicação.
+ */
+@Repository
+@Timed(MetricasConfig.TIMER_REPOSITORIOS_JDBC)
+public class MeasureStreamRepository {
+
+  private static final int FETCH_SIZE = 500;
+
+  private static final MetricaMedida[] METRICAS = MetricaMedida.values();
+
+  private static final String SQL_COLUNAS = "SELECT user_id, id, measurement_date, "
+      + String.join(", ", Arrays.stream(METRICAS).map(MetricaMedida::getColuna).toList());
+
+  // O H2 escolheria o índice da chave estrangeira (só user_id) e ordenaria o histórico inteiro antes da primeira linha;
+  // com o índice composto, a ordem pedida é a do índice e as linhas saem conforme são lidas
+  private static final String SQL_TABELA = " FROM tb_measure USE INDEX (idx_measure_user_data)";
+
+  private static final String SQL_MEDIDAS_DO_USUARIO = SQL_COLUNAS + SQL_TABELA
+      + " WHERE user_id = ? ORDER BY user_id, measurement_date DESC, id DESC";
+
+  private static final String SQL_MEDIDAS_DOS_USUARIOS = SQL_COLUNAS + SQL_TABELA
+      + " WHERE user_id BETWEEN ? AND ? ORDER BY user_id, measurement_date DESC, id DESC";
+
+  // A data-limite sai da medida mais recente do usuário (primeira linha do mesmo índice, LIMIT 1)
+  private static final String SQL_MEDIDAS_RECENTES_DO_USUARIO = SQL_COLUNAS + SQL_TABELA
+      + " WHERE user_id = ? AND measurement_date >= DATEADD(DAY, -?, (SELECT measurement_date" + SQL_TABELA
+      + " WHERE user_id = ? ORDER BY user_id, measurement_date DESC, id DESC LIMIT 1))"
+      + " ORDER BY user_id, measurement_date DESC, id DESC";
+
+  private final JdbcTemplate jdbcTemplate;
+
+  public MeasureStreamRepository(JdbcTemplate jdbcTemplate) {
+    this.jdbcTemplate = jdbcTemplate;
+  }
+
+  /**
+   * Percorre todas as medidas de um usuário, da mais recente para a mais antiga.
+   *
+   * @param consumidor Recebe cada medida lida.
+   */
+  public void percorrerMedidas(long userId, ConsumidorMedida consumidor) {
+    percorrer(SQL_MEDIDAS_DO_USUARIO, consumidor, userId);
+  }
+
+  /**
+   * Percorre as medidas de um usuário dos últimos N dias contados a partir da medida mais recente dele
+   * (limites inclusivos), da mais recente para a mais antiga. O corte é feito no banco: o resto do histórico
+   * não é lido.
+   *
+   * @param dias       Tamanho do intervalo, em dias.
+   * @param consumidor Recebe cada medida lida.
+   */
+  public void percorrerMedidasRecentes(long userId, int dias, ConsumidorMedida consumidor) {
+    percorrer(SQL_MEDIDAS_RECENTES_DO_USUARIO, consumidor, userId, dias, userId);
+  }
+
+  /**
+   * Percorre as medidas dos usuários com ID no intervalo, em ordem de usuário e, dentro dele,
+   * da mais recente para a mais antiga.
+   *
+   * @param primeiroUserId Primeiro ID de usuário do intervalo (inclusivo).
+   * @param ultimoUserId   Último ID de usuário do intervalo (inclusivo).
+   * @param consumidor     Recebe cada medida lida.
+   */
+  public void percorrerMedidasDosUsuarios(long primeiroUserId, long ultimoUserId, ConsumidorMedida consumidor) {
+    percorrer(SQL_MEDIDAS_DOS_USUARIOS, consumidor, primeiroUserId, ultimoUserId);
+  }
+
+  /**
+   * Menor e maior ID de usuário com medidas (o H2 lê os dois extremos do índice), para dividir a exportação
+   * em intervalos.
+   *
+   * @return [menor, maior], ou vazio se não há medidas.
+   */
+  public Optional<long[]> buscarIntervaloUsuarios() {
+    return Optional.ofNullable(jdbcTemplate.queryForObject(
+        "SELECT MIN(user_id), MAX(user_id) FROM tb_measure",
+        (rs, linha) -> rs.getObject(1) == null ? null : new long[]{rs.getLong(1), rs.getLong(2)}));
+  }
+
+  private void percorrer(String sql, ConsumidorMedida consumidor, long... parametros) {
+    jdbcTemplate.execute((Connection conexao) -> {
+      // No H2 embarcado o ResultSet só é lido sob demanda com a execução lazy ligada na sessão
+      boolean h2 = "H2".equals(conexao.getMetaData().getDatabaseProductName());
+      if (h2) {
+        executar(conexao, "SET LAZY_QUERY_EXECUTION TRUE");
+      }
+      try (PreparedStatement ps = conexao.prepareStatement(sql,
+          ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY)) {
+        ps.setFetchSize(FETCH_SIZE);
+        for (int i = 0; i < parametros.length; i++) {
+          ps.setLong(i + 1, parametros[i]);
+        }
+        try (ResultSet rs = ps.executeQuery()) {
+          // Um array para todas as linhas: o consumidor usa os valores antes da próxima
+          double[] valores = new double[METRICAS.length];
+          while (rs.next()) {
+            for (int i = 0; i < METRICAS.length; i++) {
+              double valor = rs.getDouble(4 + i);
+              valores[i] = rs.wasNull() ? Double.NaN : valor;
+            }
+            consumidor.aceitar(rs.getLong(1), rs.getLong(2), rs.getObject(3, LocalDateTime.class), valores);
+          }
+        }
+      } finally {
+        if (h2) {
+          executar(conexao, "SET LAZY_QUERY_EXECUTION FALSE");
+        }
+      }
+      return null;
+    });
+  }
+
+  private void executar(Connection conexao, String sql) throws SQLException {
+    try (Statement statement = conexao.createStatement()) {
+      statement.execute(sql);
+    }
+  }
+
+  @FunctionalInterface
+  public interface ConsumidorMedida {
+    /**
+     * @param valores Valor de cada métrica, na ordem de {@link MetricaMedida} (NaN se ausente).
+     *                O array é reaproveitado na linha seguinte.
+     */
+    void aceitar(long userId, long id, LocalDateTime measurementDate, double[] valores);
+  }
+}
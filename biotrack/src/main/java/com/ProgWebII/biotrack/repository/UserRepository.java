@@ -1,16 +1,102 @@
 package com.ProgWebII.biotrack.repository; // Ajuste o pacote
 
+import com.ProgWebII.biotrack.dto.response.ListarTodosUsuariosResponse;
 import com.ProgWebII.biotrack.model.User;
+import com.ProgWebII.biotrack.repository.projection.UsuarioEmailProjection;
+import com.ProgWebII.biotrack.repository.projection.UsuarioImcProjection;
+import com.ProgWebII.biotrack.repository.projection.VersaoUsuarioProjection;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
 import java.util.List;
+import java.util.Optional;
+import java.util.Set;
 
 @Repository
-public interface UserRepository extends JpaRepository<User, Long> {
+public interface UserRepository extends JpaRepository<User, Long>, UserRevisaoRepository {
   // Spring Data JPA gera a implementação automaticamente
   @Query("SELECT u FROM User u WHERE u.measures IS EMPTY")
   List<User> findUsersWithoutMeasures();
 
-}
\ No newline at end of file
+  /**
+   * Verifica, em uma única consulta, quais dos IDs informados pertencem a usuários existentes.
+   *
+   * @param ids Os IDs a verificar.
+   * @return O subconjunto de IDs que existe em tb_users.
+   */
+  @Query("SELECT u.id FROM User u WHERE u.id IN :ids")
+  Set<Long> findIdsExistentes(@Param("ids") Collection<Long> ids);
+
+  /**
+   * Busca, em uma única consulta, os usuários com os e-mails informados (pelo índice único de email).
+   *
+   * @param emails Os e-mails a procurar.
+   * @return ID e e-mail dos usuários encontrados.
+   */
+  @Query("SELECT u.id AS id, u.email AS email FROM User u WHERE u.email IN :emails")
+  List<UsuarioEmailProjection> findIdsPorEmails(@Param("emails") Collection<String> emails);
+
+  /**
+   * Paginação por cursor (keyset): retorna os usuários com ID maior que o cursor, em ordem de ID.
+   * A consulta usa a chave primária, então o custo não cresce com a posição da página.
+   *
+   * @param after O último ID já retornado (exclusivo); use 0 para a primeira página.
+   * @param limit Quantidade máxima de usuários na página.
+   * @return Os usuários da página, já convertidos para o DTO de listagem.
+   */
+  @Query("""
+      SELECT new com.ProgWebII.biotrack.dto.response.ListarTodosUsuariosResponse(
+             u.id, u.name, u.birthDate, u.zipCode, u.email)
+      FROM User u
+      WHERE u.id > :after
+      ORDER BY u.id
+      """)
+  List<ListarTodosUsuariosResponse> findPaginaAposId(@Param("after") long after, Limit limit);
+
+  /**
+   * Busca, em uma única consulta, os usuários cujo IMC da medida mais recente está em [imcMinimo, imcMaximo).
+   * A medida mais recente vem da projeção tb_latest_measure (uma linha por usuário),
+   * evitando uma consulta por usuário; o IMC gravado na projeção permite ler só o intervalo
+   * correspondente do índice idx_latest_measure_imc.
+   *
+   * @param imcMinimo Limite inferior (inclusivo) do IMC.
+   * @param imcMaximo Limite superior (exclusivo) do IMC.
+   * @param pageable  Página solicitada (a ordenação é sempre pelo ID do usuário).
+   * @return Página de usuários com o IMC calculado.
+   */
+  @Query(value = """
+      SELECT u.id AS id, u.name AS name, u.birth_date AS birthDate, u.zip_code AS zipCode, u.email AS email,
+             lm.imc AS imc
+      FROM tb_latest_measure lm
+      JOIN tb_users u ON u.id = lm.user_id
+      WHERE lm.imc >= :imcMinimo AND lm.imc < :imcMaximo
+      ORDER BY u.id
+      """,
+      countQuery = """
+      SELECT COUNT(*)
+      FROM tb_latest_measure lm
+      WHERE lm.imc >= :imcMinimo AND lm.imc < :imcMaximo
+      """,
+      nativeQuery = true)
+  Page<UsuarioImcProjection> findUsuariosPorFaixaImc(@Param("imcMinimo") double imcMinimo,
+                                                     @Param("imcMaximo") double imcMaximo,
+                                                     Pageable pageable);
+
+  /**
+   * Versão do usuário (ETag das leituras condicionais), lida pela entidade: vem do cache de 2º nível, que só perde
+   * a entrada de um usuário quando ele mesmo é alterado. Uma consulta em cache seria invalidada por qualquer
+   * escrita em tb_users.
+   *
+   * @param id O ID do usuário.
+   * @return A revisão e o instante da última alteração, ou vazio se o usuário não existir.
+   */
+  default Optional<VersaoUsuarioProjection> findVersaoById(Long id) {
+    return findById(id).map(usuario -> VersaoUsuarioProjection.de(usuario.getRevisao(), usuario.getUltimaAlteracao()));
+  }
+}
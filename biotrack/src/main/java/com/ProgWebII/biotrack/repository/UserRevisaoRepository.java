@@ -0,0 +1,38 @@
+package com.ProgWebII.biotrack.repository;
+
+import com.ProgWebII.biotrack.model.User;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.Instant;
+import java.util.Collection;
+import java.util.Optional;
+
+/**
+ * Avanço da versão (ETag) dos usuários pela entidade gerenciada, e não por UPDATE em lote.
+ * Implementado em {@link UserRevisaoRepositoryImpl} e exposto pelo {@link UserRepository}.
+ */
+public interface UserRevisaoRepository {
+
+  /**
+   * Trava o usuário até o fim da transação e devolve a entidade gerenciada com o estado já travado.
+   * Deve vir antes de qualquer alteração do usuário ou das medidas dele: escritas simultâneas do mesmo usuário
+   * esperam aqui, em fila, e cada uma parte da versão gravada pela anterior.
+   *
+   * @param id O ID do usuário.
+   * @return O usuário travado, ou vazio se ele não existir.
+   */
+  @Transactional // Participa da transação da escrita, quando houver
+  Optional<User> travar(Long id);
+
+  /**
+   * Incrementa a revisão dos usuários cujos dados ou medidas mudaram, na mesma transação da escrita
+   * ({@link #travar} e {@link User#registrarAlteracao} de cada um).
+   * Cada usuário fica travado até o commit, e o cache de 2º nível só perde a entrada dos usuários alterados.
+   *
+   * @param ids      Os IDs dos usuários alterados.
+   * @param instante O instante da alteração.
+   * @return A quantidade de usuários atualizados.
+   */
+  @Transactional // Participa da transação da escrita, quando houver
+  int incrementarRevisao(Collection<Long> ids, Instant instante);
+}
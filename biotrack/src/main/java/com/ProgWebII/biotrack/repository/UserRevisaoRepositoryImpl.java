@@ -0,0 +1,58 @@
+package com.ProgWebII.biotrack.repository;
+
+import com.ProgWebII.biotrack.model.User;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.LockModeType;
+import jakarta.persistence.PersistenceContext;
+
+import java.time.Instant;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+import java.util.TreeSet;
+
+/**
+ * Trava cada usuário (SELECT ... FOR UPDATE só da revisão, que confere a versão da entidade) antes de qualquer
+ * alteração: no flush, o Hibernate grava um UPDATE versionado só daquela linha, que incrementa a revisao
+ * (@Version) e atualiza só aquela entrada no cache de 2º nível. Um UPDATE em lote (HQL) removeria a região de
+ * User inteira e as consultas em cache sobre tb_users a cada escrita de qualquer usuário.
+ */
+class UserRevisaoRepositoryImpl implements UserRevisaoRepository {
+
+  @PersistenceContext
+  private EntityManager entityManager;
+
+  @Override
+  public Optional<User> travar(Long id) {
+    // Trava só a linha, sem carregar a entidade junto: um find com PESSIMISTIC_WRITE deixaria a entrada do cache de
+    // 2º nível bloqueada até o commit, sem receber o estado novo
+    List<Long> revisao = entityManager.createQuery("SELECT u.revisao FROM User u WHERE u.id = :id", Long.class)
+        .setParameter("id", id)
+        .setLockMode(LockModeType.PESSIMISTIC_WRITE)
+        .getResultList();
+    if (revisao.isEmpty()) {
+      return Optional.empty();
+    }
+    // Com a linha travada, a entidade vem do contexto ou do cache de 2º nível. Se ela foi lida nesta transação antes
+    // da trava e outra escrita terminou nesse meio tempo, é relida do banco: a escrita segue sobre a versão atual
+    User usuario = entityManager.find(User.class, id);
+    if (usuario.getRevisao() != revisao.get(0)) {
+      entityManager.refresh(usuario);
+    }
+    return Optional.of(usuario);
+  }
+
+  @Override
+  public int incrementarRevisao(Collection<Long> ids, Instant instante) {
+    int alterados = 0;
+    // Sempre na mesma ordem: duas escritas com usuários em comum não se travam mutuamente
+    for (Long id : new TreeSet<>(ids)) {
+      Optional<User> usuario = travar(id);
+      if (usuario.isPresent()) {
+        usuario.get().registrarAlteracao(instante);
+        alterados++;
+      }
+    }
+    return alterados;
+  }
+}
@@ -0,0 +1,91 @@
+package com.ProgWebII.biotrack.repository;
+
+import com.ProgWebII.biotrack.config.MetricasConfig;
+import com.ProgWebII.biotrack.dto.response.ListarTodosUsuariosResponse;
+import io.micrometer.core.annotation.Timed;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.function.Consumer;
+
+/**
+ * Leitura de usuários por cursor JDBC, sem passar pelo contexto de persistência do JPA.
+ * Cada linha é entregue ao consumidor assim que lida, então o uso de memória não depende do tamanho da tabela.
+ */
+@Repository
+@Timed(MetricasConfig.TIMER_REPOSITORIOS_JDBC)
+public class UserStreamRepository {
+
+  private static final int FETCH_SIZE = 500;
+
+  private static final String SQL_USUARIOS = """
+      SELECT id, name, birth_date, zip_code, email
+      FROM tb_users
+      WHERE id > ?
+      ORDER BY id
+      """;
+
+  private final JdbcTemplate jdbcTemplate;
+
+  public UserStreamRepository(JdbcTemplate jdbcTemplate) {
+    this.jdbcTemplate = jdbcTemplate;
+  }
+
+  /**
+   * Percorre os usuários em ordem de ID, a partir do cursor informado.
+   *
+   * @param after      Último ID já lido (exclusivo); use 0 para começar do início.
+   * @param consumidor Recebe cada usuário lido.
+   */
+  public void percorrerUsuarios(long after, Consumer<ListarTodosUsuariosResponse> consumidor) {
+    jdbcTemplate.execute((Connection conexao) -> {
+      // No H2 embarcado o ResultSet só é lido sob demanda com a execução lazy ligada na sessão
+      boolean h2 = "H2".equals(conexao.getMetaData().getDatabaseProductName());
+      if (h2) {
+        executar(conexao, "SET LAZY_QUERY_EXECUTION TRUE");
+      }
+      try (PreparedStatement ps = conexao.prepareStatement(SQL_USUARIOS,
+          ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY)) {
+        ps.setFetchSize(FETCH_SIZE);
+        ps.setLong(1, after);
+        try (ResultSet rs = ps.executeQuery()) {
+          while (rs.next()) {
+            consumidor.accept(new ListarTodosUsuariosResponse(
+                rs.getLong("id"),
+                rs.getString("name"),
+                rs.getObject("birth_date", java.time.LocalDate.class),
+                rs.getString("zip_code"),
+                rs.getString("email")
+            ));
+          }
+        }
+      } finally {
+        if (h2) {
+          executar(conexao, "SET LAZY_QUERY_EXECUTION FALSE");
+        }
+      }
+      return null;
+    });
+  }
+
+  /**
+   * Confere se o usuário existe. Fica fora do JPA de propósito: em requisições que ficam abertas (stream SSE),
+   * a conexão usada pelo EntityManager da requisição (open-in-view) só voltaria ao pool quando a conexão HTTP fechasse;
+   * pelo JdbcTemplate, fora de transação, ela é devolvida logo após a consulta.
+   */
+  public boolean existe(long id) {
+    return Boolean.TRUE.equals(jdbcTemplate.queryForObject(
+        "SELECT EXISTS (SELECT 1 FROM tb_users WHERE id = ?)", Boolean.class, id));
+  }
+
+  private void executar(Connection conexao, String sql) throws SQLException {
+    try (Statement statement = conexao.createStatement()) {
+      statement.execute(sql);
+    }
+  }
+}
@@ -0,0 +1,13 @@
+package com.ProgWebII.biotrack.repository.projection;
+
+import java.time.LocalDateTime;
+
+/**
+ * Dono e data de uma medida: o suficiente para atualizar as projeções na remoção, sem carregar a entidade.
+ */
+public interface MedidaReferenciaProjection {
+
+    Long getUserId();
+
+    LocalDateTime getMeasurementDate();
+}
@@ -0,0 +1,11 @@
+package com.ProgWebII.biotrack.repository.projection;
+
+/**
+ * ID e e-mail de um usuário, para resolver o dono das medidas importadas pelo e-mail.
+ */
+public interface UsuarioEmailProjection {
+
+    Long getId();
+
+    String getEmail();
+}
@@ -0,0 +1,21 @@
+package com.ProgWebII.biotrack.repository.projection;
+
+import java.time.LocalDate;
+
+/**
+ * Projeção com os dados do usuário e o IMC calculado a partir da sua medida mais recente.
+ */
+public interface UsuarioImcProjection {
+
+    Long getId();
+
+    String getName();
+
+    LocalDate getBirthDate();
+
+    String getZipCode();
+
+    String getEmail();
+
+    Double getImc();
+}
@@ -0,0 +1,31 @@
+package com.ProgWebII.biotrack.repository.projection;
+
+import java.time.Instant;
+
+/**
+ * Versão dos dados de um usuário: o suficiente para montar o ETag e o Last-Modified das leituras,
+ * sem carregar as medidas.
+ */
+public interface VersaoUsuarioProjection {
+
+    long getRevisao();
+
+    Instant getUltimaAlteracao();
+
+    static VersaoUsuarioProjection de(long revisao, Instant ultimaAlteracao) {
+        return new Versao(revisao, ultimaAlteracao);
+    }
+
+    record Versao(long revisao, Instant ultimaAlteracao) implements VersaoUsuarioProjection {
+
+        @Override
+        public long getRevisao() {
+            return revisao;
+        }
+
+        @Override
+        public Instant getUltimaAlteracao() {
+            return ultimaAlteracao;
+        }
+    }
+}
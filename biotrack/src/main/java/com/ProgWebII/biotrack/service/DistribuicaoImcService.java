@@ -0,0 +1,72 @@
+package com.ProgWebII.biotrack.service;
+
+import com.ProgWebII.biotrack.config.MetricasConfig;
+import com.ProgWebII.biotrack.dto.response.DistribuicaoImcResponse;
+import com.ProgWebII.biotrack.dto.response.FaixaImcQuantidadeResponse;
+import com.ProgWebII.biotrack.dto.response.PercentilResponse;
+import com.ProgWebII.biotrack.model.FaixaImc;
+import com.ProgWebII.biotrack.store.DistribuicaoPopulacaoStore;
+import com.ProgWebII.biotrack.store.DistribuicaoPopulacaoStore.ResumoPopulacao;
+import io.micrometer.core.annotation.Timed;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Estatísticas da população: parcela de usuários em cada faixa de IMC e percentis de IMC e gordura corporal,
+ * sempre pela última medida de cada usuário. Os números vêm dos contadores mantidos pelo
+ * {@link DistribuicaoPopulacaoStore}, então o custo não depende da quantidade de usuários.
+ */
+@Service
+@Timed(MetricasConfig.TIMER_SERVICOS)
+public class DistribuicaoImcService {
+
+    public static final int MAXIMO_PERCENTIS = 20;
+
+    private final DistribuicaoPopulacaoStore distribuicaoPopulacaoStore;
+
+    public DistribuicaoImcService(DistribuicaoPopulacaoStore distribuicaoPopulacaoStore) {
+        this.distribuicaoPopulacaoStore = distribuicaoPopulacaoStore;
+    }
+
+    //Distribuição por faixa de IMC e os percentis pedidos (valores em (0, 100])
+    public DistribuicaoImcResponse calcularDistribuicao(List<Double> percentis) {
+        validarPercentis(percentis);
+        ResumoPopulacao resumo = distribuicaoPopulacaoStore.resumir(percentis);
+
+        List<FaixaImcQuantidadeResponse> faixas = new ArrayList<>();
+        for (FaixaImc faixa : FaixaImc.values()) {
+            long quantidade = resumo.usuariosPorFaixa().get(faixa);
+            double percentual = resumo.usuariosComImc() == 0 ? 0.0 : 100.0 * quantidade / resumo.usuariosComImc();
+            faixas.add(new FaixaImcQuantidadeResponse(faixa.getDescricao(), quantidade, percentual));
+        }
+
+        return new DistribuicaoImcResponse(
+                resumo.usuariosComImc(),
+                resumo.usuariosComGordura(),
+                faixas,
+                comPercentis(percentis, resumo.percentisImc()),
+                comPercentis(percentis, resumo.percentisGordura()),
+                DistribuicaoPopulacaoStore.RESOLUCAO);
+    }
+
+    private List<PercentilResponse> comPercentis(List<Double> percentis, List<Double> valores) {
+        List<PercentilResponse> resposta = new ArrayList<>(percentis.size());
+        for (int i = 0; i < percentis.size(); i++) {
+            resposta.add(new PercentilResponse(percentis.get(i), valores.get(i)));
+        }
+        return resposta;
+    }
+
+    private void validarPercentis(List<Double> percentis) {
+        if (percentis == null || percentis.isEmpty() || percentis.size() > MAXIMO_PERCENTIS) {
+            throw new IllegalArgumentException("Informe de 1 a " + MAXIMO_PERCENTIS + " percentis.");
+        }
+        for (Double percentil : percentis) {
+            if (percentil == null || !(percentil > 0 && percentil <= 100)) {
+                throw new IllegalArgumentException("Percentil inválido: " + percentil + ". Use valores entre 0 (exclusivo) e 100.");
+            }
+        }
+    }
+}
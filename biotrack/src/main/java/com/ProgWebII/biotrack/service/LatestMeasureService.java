@@ -0,0 +1,100 @@
+package com.ProgWebII.biotrack.service;
+
+import com.ProgWebII.biotrack.model.LatestMeasure;
+import com.ProgWebII.biotrack.model.Measure;
+import com.ProgWebII.biotrack.repository.LatestMeasureRepository;
+import com.ProgWebII.biotrack.repository.MeasureRepository;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.Optional;
+
+/**
+ * Mantém a projeção tb_latest_measure (última medida de cada usuário).
+ * Os métodos de atualização são chamados pelo MeasureService dentro da mesma transação da escrita.
+ */
+@Service
+public class LatestMeasureService {
+
+    private final LatestMeasureRepository latestMeasureRepository;
+    private final MeasureRepository measureRepository;
+
+    public LatestMeasureService(LatestMeasureRepository latestMeasureRepository, MeasureRepository measureRepository) {
+        this.latestMeasureRepository = latestMeasureRepository;
+        this.measureRepository = measureRepository;
+    }
+
+    //Busca a última medida do usuário pela chave primária
+    public Optional<LatestMeasure> buscarUltimaMedida(Long userId) {
+        return latestMeasureRepository.findById(userId);
+    }
+
+    //Chamado após a criação de uma medida
+    public void medidaCriada(Measure medida) {
+        Long userId = medida.getUser().getId();
+        LatestMeasure atual = latestMeasureRepository.findById(userId).orElse(null);
+
+        if (atual == null) {
+            atual = LatestMeasure.builder().userId(userId).build();
+        } else if (!maisRecente(medida, atual)) {
+            return;
+        }
+
+        atual.copiarDe(medida);
+        latestMeasureRepository.save(atual);
+    }
+
+    //Chamado após a atualização de uma medida
+    public void medidaAtualizada(Measure medida) {
+        Long userId = medida.getUser().getId();
+        LatestMeasure atual = latestMeasureRepository.findById(userId).orElse(null);
+
+        if (atual != null && atual.getMeasureId().equals(medida.getId())) {
+            // A medida alterada era a mais recente; se a data recuou, outra medida pode ter assumido o posto
+            recalcular(userId);
+        } else {
+            medidaCriada(medida);
+        }
+    }
+
+    //Chamado após a remoção de uma medida
+    public void medidaRemovida(Long medidaId) {
+        latestMeasureRepository.findByMeasureId(medidaId)
+                .ifPresent(atual -> recalcular(atual.getUserId()));
+    }
+
+    //Chamado após a remoção de um usuário
+    public void usuarioRemovido(Long userId) {
+        if (latestMeasureRepository.existsById(userId)) {
+            latestMeasureRepository.deleteById(userId);
+        }
+    }
+
+    //Reconstrói a projeção inteira a partir de tb_measure
+    @Transactional
+    public int reconstruir() {
+        latestMeasureRepository.deleteAllInBatch();
+        return latestMeasureRepository.reconstruirAPartirDasMedidas();
+    }
+
+    //Recalcula a projeção de um usuário consultando tb_measure (também após cargas que não passam pelo Hibernate)
+    public void recalcular(Long userId) {
+        Measure maisRecente = measureRepository.findFirstByUserIdOrderByMeasurementDateDescIdDesc(userId);
+
+        if (maisRecente == null) {
+            latestMeasureRepository.deleteById(userId);
+            return;
+        }
+
+        LatestMeasure projecao = latestMeasureRepository.findById(userId)
+                .orElseGet(() -> LatestMeasure.builder().userId(userId).build());
+        projecao.copiarDe(maisRecente);
+        latestMeasureRepository.save(projecao);
+    }
+
+    // Mesmo critério da reconstrução: data mais recente e, em caso de empate, o maior ID
+    private boolean maisRecente(Measure medida, LatestMeasure atual) {
+        int comparacao = medida.getMeasurementDate().compareTo(atual.getMeasurementDate());
+        return comparacao > 0 || (comparacao == 0 && medida.getId() > atual.getMeasureId());
+    }
+}
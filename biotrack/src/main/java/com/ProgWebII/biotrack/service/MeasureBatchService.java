@@ -0,0 +1,219 @@
+package com.ProgWebII.biotrack.service;
+
+import com.ProgWebII.biotrack.config.MetricasConfig;
+import com.ProgWebII.biotrack.dto.request.MeasureRequest;
+import com.ProgWebII.biotrack.dto.request.MedidaLoteRequest;
+import com.ProgWebII.biotrack.dto.response.LoteMedidasResponse;
+import com.ProgWebII.biotrack.dto.response.ResultadoLinhaLoteResponse;
+import com.ProgWebII.biotrack.mapper.MedidaMapper;
+import com.ProgWebII.biotrack.model.Measure;
+import com.ProgWebII.biotrack.repository.UserRepository;
+import com.ProgWebII.biotrack.store.MedidaGravadaEvent;
+import com.ProgWebII.biotrack.store.MedidasAlteradasEvent;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import io.micrometer.core.annotation.Timed;
+import jakarta.persistence.EntityManager;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validator;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Ingestão em lote de medidas.
+ * Valida todas as linhas antes de gravar, confere a existência dos usuários em uma única consulta
+ * e insere as medidas em lotes JDBC, liberando o contexto de persistência a cada lote.
+ */
+@Service
+@Timed(MetricasConfig.TIMER_SERVICOS)
+public class MeasureBatchService {
+
+    // Mesmo critério da projeção tb_latest_measure: data mais recente e, em empate, o maior ID
+    private static final Comparator<Measure> MAIS_RECENTE = Comparator
+            .comparing(Measure::getMeasurementDate)
+            .thenComparing(Measure::getId);
+
+    private final UserRepository userRepository;
+    private final LatestMeasureService latestMeasureService;
+    private final MeasureRollupService measureRollupService;
+    private final MedidaMapper medidaMapper;
+    private final EntityManager entityManager;
+    private final Validator validator;
+    private final ApplicationEventPublisher eventPublisher;
+    private final ObjectReader leitorLinha;
+    private final int tamanhoBatch;
+    private final int maximoLinhas;
+
+    public MeasureBatchService(UserRepository userRepository, LatestMeasureService latestMeasureService,
+                               MeasureRollupService measureRollupService, MedidaMapper medidaMapper,
+                               EntityManager entityManager, Validator validator, ObjectMapper objectMapper,
+                               ApplicationEventPublisher eventPublisher,
+                               @Value("${biotrack.medidas.lote.tamanho-batch:50}") int tamanhoBatch,
+                               @Value("${biotrack.medidas.lote.maximo-linhas:10000}") int maximoLinhas) {
+        if (tamanhoBatch <= 0) {
+            throw new IllegalArgumentException("O tamanho do batch deve ser maior que zero.");
+        }
+        this.userRepository = userRepository;
+        this.latestMeasureService = latestMeasureService;
+        this.measureRollupService = measureRollupService;
+        this.medidaMapper = medidaMapper;
+        this.entityManager = entityManager;
+        this.validator = validator;
+        this.eventPublisher = eventPublisher;
+        this.leitorLinha = objectMapper.readerFor(MedidaLoteRequest.class);
+        this.tamanhoBatch = tamanhoBatch;
+        this.maximoLinhas = maximoLinhas;
+    }
+
+    //Lê um corpo NDJSON (um MedidaLoteRequest por linha) e grava as linhas válidas
+    @Transactional
+    public LoteMedidasResponse criarMedidasEmLote(InputStream ndjson) throws IOException {
+        List<MedidaLoteRequest> itens = new ArrayList<>();
+        Map<Integer, List<String>> errosDeLeitura = new HashMap<>();
+
+        try (BufferedReader leitor = new BufferedReader(new InputStreamReader(ndjson, StandardCharsets.UTF_8))) {
+            String linha;
+            while ((linha = leitor.readLine()) != null) {
+                if (linha.isBlank()) {
+                    continue;
+                }
+                verificarLimite(itens.size() + 1);
+                try {
+                    itens.add(leitorLinha.readValue(linha));
+                } catch (JsonProcessingException e) {
+                    // A linha fica reservada no relatório para manter a numeração igual à do arquivo enviado
+                    errosDeLeitura.put(itens.size(), List.of("JSON inválido: " + e.getOriginalMessage()));
+                    itens.add(null);
+                }
+            }
+        }
+
+        return processar(itens, errosDeLeitura);
+    }
+
+    //Grava as linhas válidas de um array JSON de medidas
+    @Transactional
+    public LoteMedidasResponse criarMedidasEmLote(List<MedidaLoteRequest> itens) {
+        verificarLimite(itens.size());
+        return processar(itens, Map.of());
+    }
+
+    private LoteMedidasResponse processar(List<MedidaLoteRequest> itens, Map<Integer, List<String>> errosDeLeitura) {
+        // 1ª passada: validação de Bean Validation, sem nenhum acesso ao banco
+        List<List<String>> erros = new ArrayList<>(itens.size());
+        Set<Long> idsUsuarios = new HashSet<>();
+        for (int i = 0; i < itens.size(); i++) {
+            List<String> errosLinha = new ArrayList<>(errosDeLeitura.getOrDefault(i, List.of()));
+            MedidaLoteRequest item = itens.get(i);
+            if (item == null && errosLinha.isEmpty()) {
+                errosLinha.add("A linha está vazia.");
+            } else if (item != null) {
+                for (ConstraintViolation<MedidaLoteRequest> violacao : validator.validate(item)) {
+                    errosLinha.add(violacao.getPropertyPath() + ": " + violacao.getMessage());
+                }
+                if (errosLinha.isEmpty()) {
+                    idsUsuarios.add(item.userId());
+                }
+            }
+            erros.add(errosLinha);
+        }
+
+        // 2ª passada: existência de todos os usuários do lote em uma única consulta
+        Set<Long> idsExistentes = idsUsuarios.isEmpty() ? Set.of() : userRepository.findIdsExistentes(idsUsuarios);
+
+        // 3ª passada: inserção, com flush/clear a cada tamanhoBatch linhas para manter o contexto pequeno
+        ResultadoLinhaLoteResponse[] resultados = new ResultadoLinhaLoteResponse[itens.size()];
+        Map<Long, Measure> maisRecentePorUsuario = new HashMap<>();
+        Map<Long, List<LocalDateTime>> datasPorUsuario = new HashMap<>();
+        List<MedidaGravadaEvent> gravadas = new ArrayList<>();
+        int pendentes = 0;
+        int inseridas = 0;
+
+        for (int i = 0; i < itens.size(); i++) {
+            List<String> errosLinha = erros.get(i);
+            MedidaLoteRequest item = itens.get(i);
+            if (errosLinha.isEmpty() && !idsExistentes.contains(item.userId())) {
+                errosLinha.add("Usuário não encontrado: " + item.userId());
+            }
+            if (!errosLinha.isEmpty()) {
+                resultados[i] = new ResultadoLinhaLoteResponse(i + 1, ResultadoLinhaLoteResponse.REJEITADA, null, errosLinha);
+                continue;
+            }
+
+            Measure medida = novaMedida(item);
+            entityManager.persist(medida);
+            inseridas++;
+            resultados[i] = new ResultadoLinhaLoteResponse(i + 1, ResultadoLinhaLoteResponse.CRIADA, medida.getId(), List.of());
+            maisRecentePorUsuario.merge(item.userId(), medida, (atual, nova) -> MAIS_RECENTE.compare(nova, atual) > 0 ? nova : atual);
+            datasPorUsuario.computeIfAbsent(item.userId(), id -> new ArrayList<>()).add(medida.getMeasurementDate());
+            // A resposta é montada antes do clear(), enquanto a entidade ainda está em memória
+            gravadas.add(new MedidaGravadaEvent(item.userId(), medidaMapper.toResponse(medida), true));
+
+            if (++pendentes == tamanhoBatch) {
+                entityManager.flush();
+                entityManager.clear();
+                pendentes = 0;
+            }
+        }
+        entityManager.flush();
+        entityManager.clear();
+
+        // A versão avança antes da projeção e dos agregados: as linhas dos usuários do lote ficam travadas
+        // até o commit, serializando o recálculo com outras escritas dos mesmos usuários
+        if (!maisRecentePorUsuario.isEmpty()) {
+            userRepository.incrementarRevisao(maisRecentePorUsuario.keySet(), Instant.now());
+        }
+        // A projeção da última medida só precisa ver a medida mais recente de cada usuário do lote
+        maisRecentePorUsuario.values().forEach(latestMeasureService::medidaCriada);
+        // Os agregados são recalculados uma vez por usuário, cobrindo todas as datas dele no lote
+        datasPorUsuario.forEach(measureRollupService::medidasCriadas);
+        maisRecentePorUsuario.keySet().forEach(userId -> eventPublisher.publishEvent(new MedidasAlteradasEvent(userId)));
+        // Uma por medida, na ordem do lote, como no MeasureService: o stream SSE recebe cada medida criada
+        gravadas.forEach(eventPublisher::publishEvent);
+
+        return new LoteMedidasResponse(itens.size(), inseridas, itens.size() - inseridas, List.of(resultados));
+    }
+
+    private void verificarLimite(int linhas) {
+        if (linhas > maximoLinhas) {
+            throw new IllegalArgumentException("O lote excede o limite de " + maximoLinhas + " medidas.");
+        }
+    }
+
+    // O usuário entra como referência (proxy) para não carregar a entidade a cada linha
+    private Measure novaMedida(MedidaLoteRequest item) {
+        MeasureRequest m = item.medida();
+        return Measure.builder()
+                .measurementDate(m.measurementDate())
+                .weightKg(m.weightKg())
+                .heightCm(m.heightCm())
+                .waistCm(m.waistCm())
+                .hipCm(m.hipCm())
+                .chestCm(m.chestCm())
+                .armRightCm(m.armRightCm())
+                .armLeftCm(m.armLeftCm())
+                .thighRightCm(m.thighRightCm())
+                .thighLeftCm(m.thighLeftCm())
+                .bodyFatPercentage(m.bodyFatPercentage())
+                .user(userRepository.getReferenceById(item.userId()))
+                .build();
+    }
+}
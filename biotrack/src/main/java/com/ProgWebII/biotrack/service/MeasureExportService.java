@@ -0,0 +1,436 @@
+package com.ProgWebII.biotrack.service;
+
+import com.ProgWebII.biotrack.config.MetricasConfig;
+import com.ProgWebII.biotrack.exception.ServicoSobrecarregadoException;
+import com.ProgWebII.biotrack.model.MetricaMedida;
+import com.ProgWebII.biotrack.repository.MeasureStreamRepository;
+import com.ProgWebII.biotrack.repository.UserStreamRepository;
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.io.SerializedString;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.annotation.Timed;
+import jakarta.annotation.PreDestroy;
+import jakarta.persistence.EntityNotFoundException;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Service;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.Semaphore;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Exportação do histórico completo de medidas em CSV ou NDJSON, escrita direto do cursor JDBC na resposta.
+ * Nenhuma etapa guarda o histórico inteiro: a memória usada é a mesma para dez ou dez milhões de medidas.
+ * A exportação de todos os usuários divide os IDs em intervalos lidos em paralelo, cada um com a sua conexão;
+ * cada partição monta blocos de linhas inteiras (comprimidos na própria partição, se for o caso) e uma fila
+ * limitada os entrega, na ordem em que ficam prontos, à thread que escreve a resposta.
+ */
+@Service
+@Timed(MetricasConfig.TIMER_SERVICOS)
+public class MeasureExportService {
+
+    private static final MetricaMedida[] METRICAS = MetricaMedida.values();
+    private static final DateTimeFormatter DATA = DateTimeFormatter.ISO_LOCAL_DATE_TIME;
+
+    // Marca de fim de uma partição na fila de blocos
+    private static final Bloco FIM = new Bloco(null, null);
+
+    private final MeasureStreamRepository measureStreamRepository;
+    private final UserStreamRepository userStreamRepository;
+    private final JsonFactory jsonFactory;
+    private final ExecutorService particoes = Executors.newThreadPerTaskExecutor(
+            Thread.ofVirtual().name("exportacao-medidas-", 0).factory());
+    private final int maximoParticoes;
+    private final int tamanhoBloco;
+    // Exportação de todos os usuários: desligada por padrão (não há autenticação na API) e limitada em
+    // exportações simultâneas, já que cada uma prende até maximoParticoes conexões do pool até terminar
+    private final boolean exportacaoCompletaHabilitada;
+    private final Semaphore exportacoesCompletas;
+    private final long retryAfterSegundos;
+
+    public MeasureExportService(MeasureStreamRepository measureStreamRepository,
+                                UserStreamRepository userStreamRepository, ObjectMapper objectMapper,
+                                @Value("${biotrack.medidas.exportacao.maximo-particoes:4}") int maximoParticoes,
+                                @Value("${biotrack.medidas.exportacao.tamanho-bloco-kb:256}") int tamanhoBlocoKb,
+                                @Value("${biotrack.medidas.exportacao.todas.habilitada:false}") boolean exportacaoCompletaHabilitada,
+                                @Value("${biotrack.medidas.exportacao.todas.maximo-simultaneas:1}") int maximoExportacoesCompletas,
+                                @Value("${biotrack.medidas.exportacao.todas.retry-after-segundos:60}") long retryAfterSegundos) {
+        if (maximoParticoes <= 0 || tamanhoBlocoKb <= 0 || maximoExportacoesCompletas <= 0) {
+            throw new IllegalArgumentException("O máximo de partições, o tamanho do bloco e o máximo de exportações "
+                    + "simultâneas devem ser maiores que zero.");
+        }
+        this.measureStreamRepository = measureStreamRepository;
+        this.userStreamRepository = userStreamRepository;
+        this.jsonFactory = objectMapper.getFactory();
+        this.maximoParticoes = maximoParticoes;
+        this.tamanhoBloco = tamanhoBlocoKb * 1024;
+        this.exportacaoCompletaHabilitada = exportacaoCompletaHabilitada;
+        this.exportacoesCompletas = new Semaphore(maximoExportacoesCompletas);
+        this.retryAfterSegundos = retryAfterSegundos;
+    }
+
+    /**
+     * Formatos da exportação. As duas variantes (um usuário ou todos) têm as mesmas colunas:
+     * userId, id, measurementDate e as métricas, com os nomes da API.
+     */
+    public enum Formato {
+        CSV(new MediaType("text", "csv", StandardCharsets.UTF_8), "csv"),
+        NDJSON(MediaType.APPLICATION_NDJSON, "ndjson");
+
+        private final MediaType mediaType;
+        private final String extensao;
+
+        Formato(MediaType mediaType, String extensao) {
+            this.mediaType = mediaType;
+            this.extensao = extensao;
+        }
+
+        public MediaType getMediaType() {
+            return mediaType;
+        }
+
+        public String getExtensao() {
+            return extensao;
+        }
+
+        // Converte o parâmetro format recebido na API (csv ou ndjson)
+        public static Formato porNome(String nome) {
+            for (Formato formato : values()) {
+                if (formato.extensao.equalsIgnoreCase(nome)) {
+                    return formato;
+                }
+            }
+            throw new IllegalArgumentException("Formato de exportação inválido: " + nome + " (use csv ou ndjson)");
+        }
+    }
+
+    //Confere o usuário antes de a resposta começar: depois do primeiro byte já não dá para responder 404
+    public void validarUsuario(Long userId) {
+        if (userId == null || userId <= 0) {
+            throw new IllegalArgumentException("ID do usuário inválido");
+        }
+        if (!userStreamRepository.existe(userId)) {
+            throw new EntityNotFoundException("Usuário não encontrado com o ID: " + userId);
+        }
+    }
+
+    //Escreve todas as medidas do usuário, da mais recente para a mais antiga
+    public void exportarMedidas(long userId, Formato formato, boolean gzip, OutputStream saida) throws IOException {
+        OutputStream destino = gzip ? new GZIPOutputStream(saida, 64 * 1024) : saida;
+        Escritor escritor = novoEscritor(formato, destino);
+        escritor.cabecalho();
+        try {
+            measureStreamRepository.percorrerMedidas(userId, (usuario, id, data, valores) -> {
+                try {
+                    escritor.linha(usuario, id, data, valores);
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            });
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+        escritor.descarregar();
+        if (destino instanceof GZIPOutputStream compactador) {
+            compactador.finish();
+        }
+    }
+
+    /**
+     * Reserva uma vaga de exportação de todos os usuários antes de a resposta começar, enquanto ainda dá para
+     * responder com outro status: 404 se a exportação completa estiver desligada
+     * (biotrack.medidas.exportacao.todas.habilitada), 400 se as partições passarem do limite e 503 se todas as vagas
+     * estiverem ocupadas. Quem reserva libera a vaga com {@link #liberarExportacaoCompleta()} ao fim da escrita.
+     *
+     * @param quantidadeParticoes Intervalos de IDs que a exportação vai ler ao mesmo tempo.
+     */
+    public void reservarExportacaoCompleta(int quantidadeParticoes) {
+        if (!exportacaoCompletaHabilitada) {
+            throw new EntityNotFoundException("A exportação das medidas de todos os usuários está desabilitada.");
+        }
+        validarParticoes(quantidadeParticoes);
+        if (!exportacoesCompletas.tryAcquire()) {
+            throw new ServicoSobrecarregadoException(
+                    "Já há uma exportação de todas as medidas em andamento. Tente novamente mais tarde.", retryAfterSegundos);
+        }
+    }
+
+    public void liberarExportacaoCompleta() {
+        exportacoesCompletas.release();
+    }
+
+    public int getMaximoParticoes() {
+        return maximoParticoes;
+    }
+
+    private void validarParticoes(int quantidadeParticoes) {
+        if (quantidadeParticoes < 1 || quantidadeParticoes > maximoParticoes) {
+            throw new IllegalArgumentException("O número de partições deve estar entre 1 e " + maximoParticoes);
+        }
+    }
+
+    /**
+     * Escreve as medidas de todos os usuários, lidas em paralelo por intervalos de ID.
+     * Dentro de um usuário as medidas seguem da mais recente para a mais antiga e nunca se misturam com as de
+     * outra partição; já os blocos de partições diferentes se alternam na saída.
+     * Com gzip, cada bloco é um membro gzip separado (RFC 1952): o arquivo continua um .gz válido e a
+     * compressão também roda em paralelo.
+     *
+     * @param quantidadeParticoes Intervalos de IDs lidos ao mesmo tempo (de 1 até o máximo configurado).
+     */
+    public void exportarTodasAsMedidas(Formato formato, int quantidadeParticoes, boolean gzip, OutputStream saida)
+            throws IOException {
+        validarParticoes(quantidadeParticoes);
+
+        ByteArrayOutputStream cabecalho = new ByteArrayOutputStream();
+        Escritor escritorCabecalho = novoEscritor(formato, cabecalho);
+        escritorCabecalho.cabecalho();
+        escritorCabecalho.descarregar();
+        saida.write(gzip ? comprimir(cabecalho) : cabecalho.toByteArray());
+
+        Optional<long[]> intervalo = measureStreamRepository.buscarIntervaloUsuarios();
+        if (intervalo.isEmpty()) {
+            return;
+        }
+
+        List<long[]> intervalos = dividir(intervalo.get()[0], intervalo.get()[1], quantidadeParticoes);
+        // Dois blocos por partição: quem lê não espera quem escreve, e a memória fica limitada
+        BlockingQueue<Bloco> fila = new ArrayBlockingQueue<>(2 * intervalos.size());
+        List<Future<?>> tarefas = new ArrayList<>(intervalos.size());
+        try {
+            for (long[] particao : intervalos) {
+                tarefas.add(particoes.submit(() -> exportarParticao(formato, gzip, particao[0], particao[1], fila)));
+            }
+            int ativas = tarefas.size();
+            while (ativas > 0) {
+                Bloco bloco = fila.take();
+                if (bloco.erro() != null) {
+                    lancar(bloco.erro());
+                } else if (bloco == FIM) {
+                    ativas--;
+                } else {
+                    saida.write(bloco.bytes());
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Exportação interrompida");
+        } finally {
+            // Cliente desconectado ou falha em uma partição: as demais param e devolvem as conexões
+            tarefas.forEach(tarefa -> tarefa.cancel(true));
+        }
+    }
+
+    @PreDestroy
+    public void encerrar() {
+        particoes.shutdownNow();
+    }
+
+    // Intervalos [primeiro, último] de mesmo tamanho cobrindo [menor, maior], no máximo um por ID
+    static List<long[]> dividir(long menor, long maior, int quantidade) {
+        long total = maior - menor + 1;
+        long tamanho = (total + quantidade - 1) / quantidade;
+        List<long[]> intervalos = new ArrayList<>(quantidade);
+        for (long inicio = menor; inicio <= maior; inicio += tamanho) {
+            intervalos.add(new long[]{inicio, Math.min(inicio + tamanho - 1, maior)});
+        }
+        return intervalos;
+    }
+
+    private void exportarParticao(Formato formato, boolean gzip, long primeiro, long ultimo, BlockingQueue<Bloco> fila) {
+        Bloco fim = FIM;
+        try {
+            ByteArrayOutputStream bloco = new ByteArrayOutputStream(tamanhoBloco + 4096);
+            Escritor escritor = novoEscritor(formato, bloco);
+            measureStreamRepository.percorrerMedidasDosUsuarios(primeiro, ultimo, (usuario, id, data, valores) -> {
+                try {
+                    escritor.linha(usuario, id, data, valores);
+                    escritor.descarregar();
+                    if (bloco.size() >= tamanhoBloco) {
+                        enviar(bloco, gzip, fila);
+                    }
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            });
+            escritor.descarregar();
+            if (bloco.size() > 0) {
+                enviar(bloco, gzip, fila);
+            }
+        } catch (Throwable e) {
+            fim = new Bloco(null, e);
+        }
+        try {
+            fila.put(fim);
+        } catch (InterruptedException e) {
+            // Exportação cancelada: ninguém mais lê a fila
+        }
+    }
+
+    private void enviar(ByteArrayOutputStream bloco, boolean gzip, BlockingQueue<Bloco> fila) throws IOException {
+        byte[] bytes = gzip ? comprimir(bloco) : bloco.toByteArray();
+        bloco.reset();
+        try {
+            fila.put(new Bloco(bytes, null));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Exportação cancelada");
+        }
+    }
+
+    private static byte[] comprimir(ByteArrayOutputStream bloco) throws IOException {
+        ByteArrayOutputStream comprimido = new ByteArrayOutputStream(bloco.size() / 4 + 64);
+        try (GZIPOutputStream compactador = new GZIPOutputStream(comprimido)) {
+            bloco.writeTo(compactador);
+        }
+        return comprimido.toByteArray();
+    }
+
+    private static void lancar(Throwable erro) throws IOException {
+        if (erro instanceof UncheckedIOException e) {
+            throw e.getCause();
+        }
+        if (erro instanceof IOException e) {
+            throw e;
+        }
+        if (erro instanceof RuntimeException e) {
+            throw e;
+        }
+        if (erro instanceof Error e) {
+            throw e;
+        }
+        throw new IllegalStateException(erro);
+    }
+
+    private Escritor novoEscritor(Formato formato, OutputStream saida) throws IOException {
+        return formato == Formato.CSV ? new EscritorCsv(saida) : new EscritorNdjson(jsonFactory.createGenerator(saida));
+    }
+
+    // bytes == null: fim da partição (com erro, se houver)
+    private record Bloco(byte[] bytes, Throwable erro) {
+    }
+
+    private interface Escritor {
+
+        void cabecalho() throws IOException;
+
+        void linha(long userId, long id, LocalDateTime data, double[] valores) throws IOException;
+
+        // Passa para a saída o que estiver no buffer do escritor
+        void descarregar() throws IOException;
+    }
+
+    // Só números e datas ISO: tudo ASCII, sem aspas nem escapes
+    private static final class EscritorCsv implements Escritor {
+
+        private final OutputStream saida;
+        private final StringBuilder linha = new StringBuilder(160);
+
+        private EscritorCsv(OutputStream saida) {
+            this.saida = saida;
+        }
+
+        @Override
+        public void cabecalho() throws IOException {
+            linha.setLength(0);
+            linha.append("userId,id,measurementDate");
+            for (MetricaMedida metrica : METRICAS) {
+                linha.append(',').append(metrica.getCampo());
+            }
+            escreverLinha();
+        }
+
+        @Override
+        public void linha(long userId, long id, LocalDateTime data, double[] valores) throws IOException {
+            linha.setLength(0);
+            linha.append(userId).append(',').append(id).append(',');
+            DATA.formatTo(data, linha);
+            for (double valor : valores) {
+                linha.append(',');
+                if (!Double.isNaN(valor)) {
+                    linha.append(valor);
+                }
+            }
+            escreverLinha();
+        }
+
+        private void escreverLinha() throws IOException {
+            linha.append('\n');
+            saida.write(linha.toString().getBytes(StandardCharsets.US_ASCII));
+        }
+
+        @Override
+        public void descarregar() {
+            // Escreve cada linha direto na saída
+        }
+    }
+
+    private static final class EscritorNdjson implements Escritor {
+
+        private static final SerializedString USER_ID = new SerializedString("userId");
+        private static final SerializedString ID = new SerializedString("id");
+        private static final SerializedString DATA_MEDIDA = new SerializedString("measurementDate");
+        private static final SerializedString[] NOMES = new SerializedString[METRICAS.length];
+
+        static {
+            for (MetricaMedida metrica : METRICAS) {
+                NOMES[metrica.ordinal()] = new SerializedString(metrica.getCampo());
+            }
+        }
+
+        private final JsonGenerator gerador;
+
+        private EscritorNdjson(JsonGenerator gerador) {
+            this.gerador = gerador;
+            gerador.setRootValueSeparator(null); // a separação é a quebra de linha escrita abaixo
+        }
+
+        @Override
+        public void cabecalho() {
+            // NDJSON não tem cabeçalho
+        }
+
+        @Override
+        public void linha(long userId, long id, LocalDateTime data, double[] valores) throws IOException {
+            gerador.writeStartObject();
+            gerador.writeFieldName(USER_ID);
+            gerador.writeNumber(userId);
+            gerador.writeFieldName(ID);
+            gerador.writeNumber(id);
+            gerador.writeFieldName(DATA_MEDIDA);
+            gerador.writeString(DATA.format(data));
+            for (int i = 0; i < NOMES.length; i++) {
+                gerador.writeFieldName(NOMES[i]);
+                if (Double.isNaN(valores[i])) {
+                    gerador.writeNull();
+                } else {
+                    gerador.writeNumber(valores[i]);
+                }
+            }
+            gerador.writeEndObject();
+            gerador.writeRaw('\n');
+        }
+
+        @Override
+        public void descarregar() throws IOException {
+            gerador.flush();
+        }
+    }
+}
@@ -0,0 +1,575 @@
+package com.ProgWebII.biotrack.service;
+
+import com.ProgWebII.biotrack.config.MetricasConfig;
+import com.ProgWebII.biotrack.dto.request.MeasureRequest;
+import com.ProgWebII.biotrack.dto.request.MedidaImportacaoRequest;
+import com.ProgWebII.biotrack.dto.request.MedidaLoteRequest;
+import com.ProgWebII.biotrack.dto.response.ErroImportacaoResponse;
+import com.ProgWebII.biotrack.dto.response.RelatorioImportacaoResponse;
+import com.ProgWebII.biotrack.model.MetricaMedida;
+import com.ProgWebII.biotrack.model.User;
+import com.ProgWebII.biotrack.repository.ImportacaoMedidasRepository;
+import com.ProgWebII.biotrack.repository.UserRepository;
+import com.ProgWebII.biotrack.repository.projection.UsuarioEmailProjection;
+import com.ProgWebII.biotrack.store.MedidasAlteradasEvent;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import io.micrometer.core.annotation.Timed;
+import jakarta.persistence.EntityManagerFactory;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validator;
+import org.hibernate.Cache;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Importação de históricos de medidas a partir de um arquivo CSV ou NDJSON no diretório de importação,
+ * para cargas grandes demais para POST /medidas/batch (dezenas de milhões de linhas).
+ * O arquivo é dividido em blocos que terminam em fim de linha, mapeados em memória e processados em paralelo:
+ * cada thread lê, valida (regras de MeasureRequest) e grava um bloco por vez, em lotes JDBC, numa transação
+ * que também registra o bloco como concluído. Se a importação parar no meio, a próxima execução sobre o mesmo
+ * arquivo pula os blocos registrados e continua dos demais.
+ * As medidas entram por JDBC, sem passar pelo Hibernate: no fim, as projeções (última medida e agregados) dos
+ * usuários afetados são recalculadas, só no período importado de cada um, e os caches deles, invalidados.
+ */
+@Service
+@Timed(MetricasConfig.TIMER_SERVICOS)
+public class MeasureImportService {
+
+    private static final Logger log = LoggerFactory.getLogger(MeasureImportService.class);
+
+    private static final int MAXIMO_ERROS_NO_RELATORIO = 100;
+    private static final int IDS_POR_ATUALIZACAO = 1000;
+    // Valor guardado no cache de e-mails para "usuário não existe" (os IDs começam em 1)
+    private static final long NAO_ENCONTRADO = 0L;
+
+    private final ImportacaoMedidasRepository importacaoMedidasRepository;
+    private final UserRepository userRepository;
+    private final LatestMeasureService latestMeasureService;
+    private final MeasureRollupService measureRollupService;
+    private final Validator validator;
+    private final ObjectReader leitorNdjson;
+    private final TransactionTemplate transactionTemplate;
+    private final EntityManagerFactory entityManagerFactory;
+    private final ApplicationEventPublisher eventPublisher;
+    private final Path diretorio;
+    private final int threads;
+    private final long tamanhoBloco;
+    private final int tamanhoBatch;
+    private final Set<String> emAndamento = ConcurrentHashMap.newKeySet();
+
+    public MeasureImportService(ImportacaoMedidasRepository importacaoMedidasRepository, UserRepository userRepository,
+                                LatestMeasureService latestMeasureService, MeasureRollupService measureRollupService,
+                                Validator validator, ObjectMapper objectMapper,
+                                PlatformTransactionManager transactionManager, EntityManagerFactory entityManagerFactory,
+                                ApplicationEventPublisher eventPublisher,
+                                @Value("${biotrack.medidas.importacao.diretorio:./importacao}") Path diretorio,
+                                @Value("${biotrack.medidas.importacao.threads:0}") int threads,
+                                @Value("${biotrack.medidas.importacao.tamanho-bloco-kb:4096}") int tamanhoBlocoKb,
+                                @Value("${biotrack.medidas.importacao.tamanho-batch:1000}") int tamanhoBatch) {
+        if (threads < 0 || tamanhoBlocoKb <= 0 || tamanhoBatch <= 0) {
+            throw new IllegalArgumentException("Threads, tamanho do bloco e tamanho do batch da importação devem ser positivos.");
+        }
+        this.importacaoMedidasRepository = importacaoMedidasRepository;
+        this.userRepository = userRepository;
+        this.latestMeasureService = latestMeasureService;
+        this.measureRollupService = measureRollupService;
+        this.validator = validator;
+        this.leitorNdjson = objectMapper.readerFor(MedidaImportacaoRequest.class);
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.entityManagerFactory = entityManagerFactory;
+        this.eventPublisher = eventPublisher;
+        this.diretorio = diretorio.toAbsolutePath().normalize();
+        this.threads = threads == 0 ? Runtime.getRuntime().availableProcessors() : threads;
+        this.tamanhoBloco = tamanhoBlocoKb * 1024L;
+        this.tamanhoBatch = tamanhoBatch;
+    }
+
+    /**
+     * Importa (ou continua importando) um arquivo do diretório de importação.
+     * O formato vem da extensão: .csv, com cabeçalho (as colunas da exportação; o dono pela coluna userId ou email),
+     * ou .ndjson, um objeto por linha com os mesmos campos. Linhas inválidas são rejeitadas sem parar a importação.
+     *
+     * @param nomeArquivo Caminho do arquivo relativo ao diretório de importação.
+     */
+    public RelatorioImportacaoResponse importar(String nomeArquivo) throws IOException {
+        Path caminho = resolver(nomeArquivo);
+        String nome = diretorio.relativize(caminho).toString();
+        MeasureExportService.Formato formato = MeasureExportService.Formato.porNome(extensao(nome));
+        if (!emAndamento.add(nome)) {
+            throw new IllegalStateException("A importação de " + nome + " já está em andamento.");
+        }
+        try (FileChannel canal = FileChannel.open(caminho, StandardOpenOption.READ)) {
+            return importar(nome, formato, canal);
+        } finally {
+            emAndamento.remove(nome);
+        }
+    }
+
+    private RelatorioImportacaoResponse importar(String nome, MeasureExportService.Formato formato, FileChannel canal)
+            throws IOException {
+        long inicio = System.nanoTime();
+        long tamanhoArquivo = canal.size();
+
+        long inicioDados = 0;
+        LeitorLinha leitor;
+        if (formato == MeasureExportService.Formato.CSV) {
+            String cabecalho = lerLinha(canal, 0);
+            inicioDados = Math.min(cabecalho.getBytes(StandardCharsets.UTF_8).length + 1L, tamanhoArquivo);
+            leitor = new LeitorCsv(cabecalho);
+        } else {
+            leitor = leitorNdjson::readValue;
+        }
+
+        // Os limites dos blocos dependem do tamanho do bloco: a retomada usa o da primeira execução
+        long bloco = importacaoMedidasRepository.buscarImportacao(nome).map(registrada -> {
+            if (registrada[0] != tamanhoArquivo) {
+                throw new IllegalStateException("O arquivo " + nome + " mudou desde a importação anterior ("
+                        + registrada[0] + " bytes, agora " + tamanhoArquivo + ").");
+            }
+            return registrada[1];
+        }).orElseGet(() -> {
+            importacaoMedidasRepository.registrarImportacao(nome, tamanhoArquivo, tamanhoBloco, Instant.now());
+            return tamanhoBloco;
+        });
+
+        List<long[]> blocos = dividir(canal, inicioDados, tamanhoArquivo, bloco);
+        Set<Long> concluidos = importacaoMedidasRepository.buscarBlocosConcluidos(nome);
+        List<long[]> pendentes = blocos.stream().filter(intervalo -> !concluidos.contains(intervalo[0])).toList();
+
+        Importacao importacao = new Importacao(nome, canal, leitor);
+        List<ResultadoBloco> resultados = new ArrayList<>(pendentes.size());
+        try (ExecutorService executor = Executors.newFixedThreadPool(Math.min(threads, Math.max(pendentes.size(), 1)),
+                Thread.ofPlatform().name("importacao-medidas-", 0).factory())) {
+            List<Future<ResultadoBloco>> tarefas = new ArrayList<>(pendentes.size());
+            for (long[] intervalo : pendentes) {
+                tarefas.add(executor.submit(() -> importarBloco(importacao, intervalo[0], intervalo[1])));
+            }
+            try {
+                for (Future<ResultadoBloco> tarefa : tarefas) {
+                    resultados.add(tarefa.get());
+                }
+            } catch (ExecutionException e) {
+                // Os blocos já gravados ficam registrados; a próxima execução continua dos demais
+                executor.shutdownNow();
+                atualizarProjecoes(importacao.periodosAfetados);
+                lancar(e.getCause());
+            } catch (InterruptedException e) {
+                executor.shutdownNow();
+                Thread.currentThread().interrupt();
+                throw new IllegalStateException("Importação interrompida", e);
+            }
+        }
+
+        atualizarProjecoes(importacao.periodosAfetados);
+
+        long duracaoNanos = Math.max(System.nanoTime() - inicio, 1);
+        double segundos = duracaoNanos / 1e9;
+        long linhas = resultados.stream().mapToLong(ResultadoBloco::linhas).sum();
+        long inseridas = resultados.stream().mapToLong(ResultadoBloco::inseridas).sum();
+        long bytes = pendentes.stream().mapToLong(intervalo -> intervalo[1] - intervalo[0]).sum();
+        RelatorioImportacaoResponse relatorio = new RelatorioImportacaoResponse(nome, blocos.size(),
+                blocos.size() - pendentes.size(), linhas, inseridas, linhas - inseridas, bytes,
+                duracaoNanos / 1_000_000, linhas / segundos, bytes / 1e6 / segundos, List.copyOf(importacao.erros));
+        log.info("Importação de {}: {} linha(s), {} inserida(s), {} rejeitada(s), {} bloco(s) já importado(s), "
+                        + "{} ms ({} linhas/s, {} MB/s)", nome, linhas, inseridas, relatorio.rejeitadas(),
+                relatorio.blocosJaImportados(), relatorio.duracaoMs(), Math.round(relatorio.linhasPorSegundo()),
+                String.format("%.1f", relatorio.megabytesPorSegundo()));
+        return relatorio;
+    }
+
+    // O arquivo precisa estar dentro do diretório de importação (sem ../ nem caminho absoluto para fora dele)
+    private Path resolver(String nomeArquivo) {
+        if (nomeArquivo == null || nomeArquivo.isBlank()) {
+            throw new IllegalArgumentException("O nome do arquivo é obrigatório.");
+        }
+        Path caminho = diretorio.resolve(nomeArquivo).normalize();
+        if (!caminho.startsWith(diretorio) || !Files.isRegularFile(caminho)) {
+            throw new IllegalArgumentException("Arquivo não encontrado no diretório de importação: " + nomeArquivo);
+        }
+        return caminho;
+    }
+
+    private static String extensao(String nome) {
+        int ponto = nome.lastIndexOf('.');
+        return ponto < 0 ? "" : nome.substring(ponto + 1);
+    }
+
+    /**
+     * Divide [inicio, fim) em blocos de aproximadamente tamanhoBloco bytes, cada um terminando logo depois de uma
+     * quebra de linha (ou no fim do arquivo). Os limites só dependem do conteúdo e do tamanho do bloco,
+     * então são os mesmos em todas as execuções sobre o mesmo arquivo.
+     */
+    static List<long[]> dividir(FileChannel canal, long inicio, long fim, long tamanhoBloco) throws IOException {
+        List<long[]> blocos = new ArrayList<>();
+        ByteBuffer leitura = ByteBuffer.allocate(8192);
+        long atual = inicio;
+        while (atual < fim) {
+            long limite = Math.min(atual + tamanhoBloco, fim);
+            // Avança até depois da próxima quebra de linha
+            while (limite < fim) {
+                leitura.clear();
+                int lidos = canal.read(leitura, limite - 1);
+                int quebra = -1;
+                for (int i = 0; i < lidos && quebra < 0; i++) {
+                    if (leitura.get(i) == '\n') {
+                        quebra = i;
+                    }
+                }
+                if (quebra >= 0) {
+                    limite = limite - 1 + quebra + 1;
+                    break;
+                }
+                limite = Math.min(limite - 1 + lidos + 1, fim);
+            }
+            blocos.add(new long[]{atual, limite});
+            atual = limite;
+        }
+        return blocos;
+    }
+
+    private static String lerLinha(FileChannel canal, long posicao) throws IOException {
+        ByteBuffer leitura = ByteBuffer.allocate(64 * 1024);
+        int lidos = Math.max(canal.read(leitura, posicao), 0);
+        int fim = 0;
+        while (fim < lidos && leitura.get(fim) != '\n') {
+            fim++;
+        }
+        return new String(leitura.array(), 0, fim, StandardCharsets.UTF_8);
+    }
+
+    private ResultadoBloco importarBloco(Importacao importacao, long inicio, long fim) throws IOException {
+        MappedByteBuffer mapa = importacao.canal.map(FileChannel.MapMode.READ_ONLY, inicio, fim - inicio);
+        ResultadoBloco resultado = transactionTemplate.execute(status -> {
+            ProcessamentoBloco bloco = new ProcessamentoBloco(importacao);
+            byte[] linha = new byte[512];
+            int tamanho = 0;
+            long inicioLinha = inicio;
+            while (mapa.hasRemaining()) {
+                byte b = mapa.get();
+                if (b == '\n') {
+                    bloco.processar(linha, tamanho, inicioLinha);
+                    tamanho = 0;
+                    inicioLinha = inicio + mapa.position();
+                    continue;
+                }
+                if (tamanho == linha.length) {
+                    linha = Arrays.copyOf(linha, linha.length * 2);
+                }
+                linha[tamanho++] = b;
+            }
+            bloco.processar(linha, tamanho, inicioLinha); // última linha do arquivo, sem quebra
+            bloco.gravar();
+            importacaoMedidasRepository.registrarBloco(importacao.nome, inicio, fim, bloco.inseridas, bloco.rejeitadas);
+            return new ResultadoBloco(bloco.inseridas + bloco.rejeitadas, bloco.inseridas, bloco.periodos);
+        });
+        // Só depois do commit: um bloco desfeito não conta como alteração dos usuários
+        resultado.periodos().forEach((userId, periodo) -> importacao.periodosAfetados.merge(userId, periodo, Periodo::unir));
+        return resultado;
+    }
+
+    /**
+     * Depois da carga por JDBC: avança a revisão dos usuários afetados (ETag), recalcula a última medida e os
+     * agregados do período importado de cada um e invalida o que o Hibernate e os caches da aplicação guardam
+     * sobre as medidas deles. Os demais usuários não são tocados, então escritas simultâneas deles não disputam
+     * com a importação.
+     */
+    private void atualizarProjecoes(Map<Long, Periodo> periodos) {
+        if (periodos.isEmpty()) {
+            return;
+        }
+        List<Long> ids = List.copyOf(periodos.keySet());
+        Instant agora = Instant.now();
+        for (int i = 0; i < ids.size(); i += IDS_POR_ATUALIZACAO) {
+            List<Long> parte = ids.subList(i, Math.min(i + IDS_POR_ATUALIZACAO, ids.size()));
+            // Como no lote: a versão avança antes, e as linhas dos usuários ficam travadas até o commit,
+            // serializando o recálculo com outras escritas dos mesmos usuários
+            transactionTemplate.executeWithoutResult(status -> {
+                userRepository.incrementarRevisao(parte, agora);
+                for (Long userId : parte) {
+                    Periodo periodo = periodos.get(userId);
+                    latestMeasureService.recalcular(userId);
+                    measureRollupService.medidasCriadas(userId, List.of(periodo.primeira(), periodo.ultima()));
+                }
+            });
+        }
+
+        // Os INSERTs por JDBC não passam pelo Hibernate: a coleção User.measures em cache e as consultas
+        // em cache que leem tb_measure não seriam invalidadas sozinhas
+        Cache cache = entityManagerFactory.getCache().unwrap(Cache.class);
+        ids.forEach(id -> cache.evictCollectionData(User.class.getName() + ".measures", id));
+        cache.evictQueryRegions();
+        // Caches de leitura, histórico colunar e distribuição da população
+        ids.forEach(id -> eventPublisher.publishEvent(new MedidasAlteradasEvent(id)));
+    }
+
+    private static void lancar(Throwable erro) throws IOException {
+        if (erro instanceof UncheckedIOException e) {
+            throw e.getCause();
+        }
+        if (erro instanceof IOException e) {
+            throw e;
+        }
+        if (erro instanceof RuntimeException e) {
+            throw e;
+        }
+        if (erro instanceof Error e) {
+            throw e;
+        }
+        throw new IllegalStateException(erro);
+    }
+
+    // Uma linha do arquivo para o request; exceções viram a mensagem de rejeição da linha
+    @FunctionalInterface
+    private interface LeitorLinha {
+        MedidaImportacaoRequest ler(String linha) throws IOException;
+    }
+
+    // Estado compartilhado pelas threads de uma execução
+    private static final class Importacao {
+
+        private final String nome;
+        private final FileChannel canal;
+        private final LeitorLinha leitor;
+        // Donos já resolvidos nesta importação: cada ID ou e-mail vai ao banco uma vez só
+        private final Map<Long, Boolean> idsExistentes = new ConcurrentHashMap<>();
+        private final Map<String, Long> idsPorEmail = new ConcurrentHashMap<>();
+        // Período importado de cada usuário, para recalcular só os baldes de agregados que ele cobre
+        private final Map<Long, Periodo> periodosAfetados = new ConcurrentHashMap<>();
+        private final List<ErroImportacaoResponse> erros = Collections.synchronizedList(new ArrayList<>());
+        private final AtomicInteger totalErros = new AtomicInteger();
+
+        private Importacao(String nome, FileChannel canal, LeitorLinha leitor) {
+            this.nome = nome;
+            this.canal = canal;
+            this.leitor = leitor;
+        }
+
+        private void rejeitar(long posicao, String mensagem) {
+            if (totalErros.incrementAndGet() <= MAXIMO_ERROS_NO_RELATORIO) {
+                erros.add(new ErroImportacaoResponse(posicao, mensagem));
+            }
+        }
+    }
+
+    private record ResultadoBloco(long linhas, long inseridas, Map<Long, Periodo> periodos) {
+    }
+
+    // Primeira e última data de medição importadas para um usuário
+    private record Periodo(LocalDateTime primeira, LocalDateTime ultima) {
+
+        private Periodo unir(Periodo outro) {
+            return new Periodo(primeira.isBefore(outro.primeira) ? primeira : outro.primeira,
+                    ultima.isAfter(outro.ultima) ? ultima : outro.ultima);
+        }
+    }
+
+    private record LinhaValida(long posicao, MedidaImportacaoRequest request) {
+    }
+
+    // Leitura, validação e gravação das linhas de um bloco, dentro da transação do bloco
+    private final class ProcessamentoBloco {
+
+        private final Importacao importacao;
+        private final List<LinhaValida> pendentes = new ArrayList<>(tamanhoBatch);
+        private final Map<Long, Periodo> periodos = new HashMap<>();
+        private int inseridas;
+        private int rejeitadas;
+
+        private ProcessamentoBloco(Importacao importacao) {
+            this.importacao = importacao;
+        }
+
+        private void processar(byte[] bytes, int tamanho, long posicao) {
+            if (tamanho > 0 && bytes[tamanho - 1] == '\r') {
+                tamanho--;
+            }
+            String texto = new String(bytes, 0, tamanho, StandardCharsets.UTF_8);
+            if (texto.isBlank()) {
+                return;
+            }
+            MedidaImportacaoRequest request;
+            try {
+                request = importacao.leitor.ler(texto);
+            } catch (JsonProcessingException e) {
+                rejeitar(posicao, "JSON inválido: " + e.getOriginalMessage());
+                return;
+            } catch (IOException | RuntimeException e) {
+                rejeitar(posicao, e.getMessage());
+                return;
+            }
+            List<String> erros = new ArrayList<>();
+            if (request.userId() == null && (request.email() == null || request.email().isBlank())) {
+                erros.add("O usuário (userId ou email) é obrigatório.");
+            }
+            for (ConstraintViolation<MeasureRequest> violacao : validator.validate(request.medida())) {
+                erros.add(violacao.getPropertyPath() + ": " + violacao.getMessage());
+            }
+            if (!erros.isEmpty()) {
+                rejeitar(posicao, String.join("; ", erros));
+                return;
+            }
+            pendentes.add(new LinhaValida(posicao, request));
+            if (pendentes.size() == tamanhoBatch) {
+                gravar();
+            }
+        }
+
+        private void gravar() {
+            if (pendentes.isEmpty()) {
+                return;
+            }
+            resolverUsuarios();
+            List<MedidaLoteRequest> medidas = new ArrayList<>(pendentes.size());
+            for (LinhaValida linha : pendentes) {
+                Long userId = donoDe(linha.request());
+                if (userId == null) {
+                    rejeitar(linha.posicao(), "Usuário não encontrado: "
+                            + (linha.request().userId() != null ? linha.request().userId() : linha.request().email()));
+                } else {
+                    MeasureRequest medida = linha.request().medida();
+                    medidas.add(new MedidaLoteRequest(userId, medida));
+                    periodos.merge(userId, new Periodo(medida.measurementDate(), medida.measurementDate()), Periodo::unir);
+                }
+            }
+            if (!medidas.isEmpty()) {
+                importacaoMedidasRepository.inserirMedidas(medidas);
+                inseridas += medidas.size();
+            }
+            pendentes.clear();
+        }
+
+        // Busca de uma vez os IDs e e-mails do lote que ainda não estão no cache da importação
+        private void resolverUsuarios() {
+            Set<Long> ids = new HashSet<>();
+            Set<String> emails = new HashSet<>();
+            for (LinhaValida linha : pendentes) {
+                Long userId = linha.request().userId();
+                if (userId != null) {
+                    if (!importacao.idsExistentes.containsKey(userId)) {
+                        ids.add(userId);
+                    }
+                } else if (!importacao.idsPorEmail.containsKey(linha.request().email())) {
+                    emails.add(linha.request().email());
+                }
+            }
+            if (!ids.isEmpty()) {
+                Set<Long> existentes = userRepository.findIdsExistentes(ids);
+                ids.forEach(id -> importacao.idsExistentes.put(id, existentes.contains(id)));
+            }
+            if (!emails.isEmpty()) {
+                Map<String, Long> encontrados = new HashMap<>();
+                for (UsuarioEmailProjection usuario : userRepository.findIdsPorEmails(emails)) {
+                    encontrados.put(usuario.getEmail(), usuario.getId());
+                }
+                emails.forEach(email -> importacao.idsPorEmail.put(email, encontrados.getOrDefault(email, NAO_ENCONTRADO)));
+            }
+        }
+
+        private Long donoDe(MedidaImportacaoRequest request) {
+            if (request.userId() != null) {
+                return importacao.idsExistentes.get(request.userId()) ? request.userId() : null;
+            }
+            long id = importacao.idsPorEmail.get(request.email());
+            return id == NAO_ENCONTRADO ? null : id;
+        }
+
+        private void rejeitar(long posicao, String mensagem) {
+            rejeitadas++;
+            importacao.rejeitar(posicao, mensagem);
+        }
+    }
+
+    /**
+     * CSV com cabeçalho: as colunas são localizadas pelo nome (os campos da API), em qualquer ordem.
+     * Valores sem aspas, vazios quando ausentes, datas em ISO (2024-06-10T08:00:00).
+     */
+    private static final class LeitorCsv implements LeitorLinha {
+
+        private static final MetricaMedida[] METRICAS = MetricaMedida.values();
+
+        private final int colunaUserId;
+        private final int colunaEmail;
+        private final int colunaData;
+        private final int[] colunasMetricas = new int[METRICAS.length];
+
+        private LeitorCsv(String cabecalho) {
+            List<String> colunas = new ArrayList<>();
+            for (String coluna : cabecalho.replace("\uFEFF", "").strip().split(",", -1)) {
+                colunas.add(coluna.strip().replace("\"", ""));
+            }
+            colunaUserId = colunas.indexOf("userId");
+            colunaEmail = colunas.indexOf("email");
+            colunaData = colunas.indexOf("measurementDate");
+            for (MetricaMedida metrica : METRICAS) {
+                colunasMetricas[metrica.ordinal()] = colunas.indexOf(metrica.getCampo());
+            }
+            if ((colunaUserId < 0 && colunaEmail < 0) || colunaData < 0
+                    || colunasMetricas[MetricaMedida.PESO.ordinal()] < 0) {
+                throw new IllegalArgumentException("O cabeçalho do CSV precisa das colunas userId ou email, "
+                        + "measurementDate e weightKg: " + cabecalho);
+            }
+        }
+
+        @Override
+        public MedidaImportacaoRequest ler(String linha) {
+            String[] valores = linha.split(",", -1);
+            Double[] metricas = new Double[METRICAS.length];
+            for (int i = 0; i < METRICAS.length; i++) {
+                String valor = valor(valores, colunasMetricas[i]);
+                metricas[i] = valor == null ? null : Double.valueOf(valor);
+            }
+            String userId = valor(valores, colunaUserId);
+            String data = valor(valores, colunaData);
+            return new MedidaImportacaoRequest(
+                    userId == null ? null : Long.valueOf(userId),
+                    valor(valores, colunaEmail),
+                    data == null ? null : LocalDateTime.parse(data),
+                    metricas[0], metricas[1], metricas[2], metricas[3], metricas[4],
+                    metricas[5], metricas[6], metricas[7], metricas[8], metricas[9]);
+        }
+
+        private static String valor(String[] valores, int coluna) {
+            if (coluna < 0 || coluna >= valores.length) {
+                return null;
+            }
+            String valor = valores[coluna].strip();
+            if (valor.length() >= 2 && valor.startsWith("\"") && valor.endsWith("\"")) {
+                valor = valor.substring(1, valor.length() - 1);
+            }
+            return valor.isEmpty() ? null : valor;
+        }
+    }
+}
@@ -0,0 +1,125 @@
+package com.ProgWebII.biotrack.service;
+
+import com.ProgWebII.biotrack.dto.response.PontoAgregadoResponse;
+import com.ProgWebII.biotrack.dto.response.SerieAgregadaResponse;
+import com.ProgWebII.biotrack.model.GranularidadeRollup;
+import com.ProgWebII.biotrack.model.MetricaMedida;
+import com.ProgWebII.biotrack.repository.MeasureRollupRepository;
+import com.ProgWebII.biotrack.repository.UserRepository;
+import jakarta.persistence.EntityNotFoundException;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * Mantém e consulta os agregados de medidas por dia, semana e mês (tb_measure_rollup).
+ * Os métodos de atualização são chamados pelo MeasureService e pelo MeasureBatchService dentro da mesma
+ * transação da escrita e recalculam, em cada granularidade, só os baldes que contêm as datas alteradas.
+ * Mínimo e máximo não podem ser desfeitos quando uma medida sai do balde, por isso o balde inteiro é
+ * recalculado a partir de tb_measure em vez de somar e subtrair valores.
+ */
+@Service
+public class MeasureRollupService {
+
+    public static final int MAXIMO_PONTOS = 5000;
+
+    private final MeasureRollupRepository measureRollupRepository;
+    private final UserRepository userRepository;
+
+    public MeasureRollupService(MeasureRollupRepository measureRollupRepository, UserRepository userRepository) {
+        this.measureRollupRepository = measureRollupRepository;
+        this.userRepository = userRepository;
+    }
+
+    //Série agregada de uma métrica no intervalo [de, ate]; sem granularidade, usa a mais fina que cabe em maximoPontos
+    public SerieAgregadaResponse buscarSerie(Long idUsuario, String metrica, LocalDate de, LocalDate ate,
+                                             int maximoPontos, String granularidade) {
+        MetricaMedida metricaMedida = MetricaMedida.porCampo(metrica);
+        if (de == null || ate == null || de.isAfter(ate)) {
+            throw new IllegalArgumentException("Informe um intervalo válido: 'de' deve ser anterior ou igual a 'ate'.");
+        }
+        if (maximoPontos < 1 || maximoPontos > MAXIMO_PONTOS) {
+            throw new IllegalArgumentException("O número de pontos deve estar entre 1 e " + MAXIMO_PONTOS + ".");
+        }
+
+        GranularidadeRollup escolhida = granularidade == null || granularidade.isBlank()
+                ? GranularidadeRollup.paraIntervalo(de, ate, maximoPontos)
+                : granularidadePorNome(granularidade);
+
+        List<PontoAgregadoResponse> pontos = measureRollupRepository.findPontos(
+                idUsuario, escolhida, metricaMedida, escolhida.inicio(de), ate);
+        if (pontos.isEmpty() && !userRepository.existsById(idUsuario)) {
+            throw new EntityNotFoundException("Usuário não encontrado");
+        }
+
+        return new SerieAgregadaResponse(idUsuario, metricaMedida.getCampo(), escolhida.name(), de, ate, pontos);
+    }
+
+    //Chamado após a criação de uma medida
+    public void medidaCriada(Long userId, LocalDateTime dataMedicao) {
+        recalcular(userId, List.of(dataMedicao));
+    }
+
+    //Chamado após a criação de várias medidas de um usuário (ingestão em lote)
+    public void medidasCriadas(Long userId, Collection<LocalDateTime> datasMedicao) {
+        recalcular(userId, datasMedicao);
+    }
+
+    //Chamado após a atualização de uma medida; a data pode ter mudado de balde
+    public void medidaAtualizada(Long userId, LocalDateTime dataAnterior, LocalDateTime dataAtual) {
+        // Separados: um intervalo único entre datas distantes recalcularia todos os baldes entre elas
+        recalcular(userId, List.of(dataAnterior));
+        if (!dataAnterior.toLocalDate().equals(dataAtual.toLocalDate())) {
+            recalcular(userId, List.of(dataAtual));
+        }
+    }
+
+    //Chamado após a remoção de uma medida
+    public void medidaRemovida(Long userId, LocalDateTime dataMedicao) {
+        recalcular(userId, List.of(dataMedicao));
+    }
+
+    //Chamado após a remoção de um usuário
+    public void usuarioRemovido(Long userId) {
+        measureRollupRepository.deleteByUserId(userId);
+    }
+
+    //Reconstrói todos os agregados a partir de tb_measure
+    @Transactional
+    public int reconstruir() {
+        measureRollupRepository.deleteAllInBatch();
+        int total = 0;
+        for (GranularidadeRollup granularidade : GranularidadeRollup.values()) {
+            total += measureRollupRepository.reconstruir(granularidade);
+        }
+        return total;
+    }
+
+    // Em cada granularidade, recalcula de uma vez o intervalo de baldes que cobre todas as datas
+    private void recalcular(Long userId, Collection<LocalDateTime> datas) {
+        if (datas.isEmpty()) {
+            return;
+        }
+        LocalDate primeira = datas.stream().map(LocalDateTime::toLocalDate).min(LocalDate::compareTo).orElseThrow();
+        LocalDate ultima = datas.stream().map(LocalDateTime::toLocalDate).max(LocalDate::compareTo).orElseThrow();
+
+        for (GranularidadeRollup granularidade : GranularidadeRollup.values()) {
+            LocalDate inicio = granularidade.inicio(primeira);
+            LocalDate fim = granularidade.proximo(granularidade.inicio(ultima));
+            measureRollupRepository.recalcular(userId, granularidade, inicio, fim);
+        }
+    }
+
+    private GranularidadeRollup granularidadePorNome(String nome) {
+        for (GranularidadeRollup granularidade : GranularidadeRollup.values()) {
+            if (granularidade.name().equalsIgnoreCase(nome.trim())) {
+                return granularidade;
+            }
+        }
+        throw new IllegalArgumentException("Granularidade inválida: " + nome);
+    }
+}
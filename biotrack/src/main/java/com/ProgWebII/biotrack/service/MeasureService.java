@@ -1,72 +1,128 @@
 package com.ProgWebII.biotrack.service;
 
+import com.ProgWebII.biotrack.config.CacheConfig;
+import com.ProgWebII.biotrack.config.MetricasConfig;
 import com.ProgWebII.biotrack.dto.response.MedidaResponse;
 import com.ProgWebII.biotrack.dto.request.MeasureRequest;
 import com.ProgWebII.biotrack.dto.response.UsuarioResponse;
+import com.ProgWebII.biotrack.mapper.MedidaMapper;
 import com.ProgWebII.biotrack.model.Measure;
+import com.ProgWebII.biotrack.model.MetricaMedida;
 import com.ProgWebII.biotrack.model.User;
 import com.ProgWebII.biotrack.repository.MeasureRepository;
+import com.ProgWebII.biotrack.repository.MeasureSeriesRepository;
 import com.ProgWebII.biotrack.repository.UserRepository;
+import com.ProgWebII.biotrack.repository.projection.MedidaReferenciaProjection;
+import com.ProgWebII.biotrack.store.MeasureColumnStore;
+import com.ProgWebII.biotrack.store.MedidaGravadaEvent;
+import com.ProgWebII.biotrack.store.MedidasAlteradasEvent;
+import com.ProgWebII.biotrack.store.SerieMedidas;
+import io.micrometer.core.annotation.Timed;
 import jakarta.persistence.EntityNotFoundException;
+import org.springframework.cache.annotation.Cacheable;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.util.EnumSet;
 import java.util.List;
+import java.util.Set;
 
 @Service
+@Timed(MetricasConfig.TIMER_SERVICOS)
 public class MeasureService {
 
+    public static final int LIMITE_MAXIMO_MEDIDAS = 5000;
+
     private final MeasureRepository measureRepository;
+    private final MeasureSeriesRepository measureSeriesRepository;
     private final UserRepository userRepository;
+    private final LatestMeasureService latestMeasureService;
+    private final MeasureRollupService measureRollupService;
+    private final MeasureColumnStore measureColumnStore;
+    private final ApplicationEventPublisher eventPublisher;
+    private final MedidaMapper medidaMapper;
 
-    public MeasureService(MeasureRepository measureRepository, UserRepository userRepository) {
+    public MeasureService(MeasureRepository measureRepository, MeasureSeriesRepository measureSeriesRepository,
+                          UserRepository userRepository, LatestMeasureService latestMeasureService,
+                          MeasureRollupService measureRollupService, MeasureColumnStore measureColumnStore,
+                          ApplicationEventPublisher eventPublisher, MedidaMapper medidaMapper) {
         this.measureRepository = measureRepository;
+        this.measureSeriesRepository = measureSeriesRepository;
         this.userRepository = userRepository;
+        this.latestMeasureService = latestMeasureService;
+        this.measureRollupService = measureRollupService;
+        this.measureColumnStore = measureColumnStore;
+        this.eventPublisher = eventPublisher;
+        this.medidaMapper = medidaMapper;
     }
 
-    //Lista todas as medidas de um usuário específico
+    //Lista todas as medidas de um usuário específico, da mais antiga para a mais recente
+    @Cacheable(cacheNames = CacheConfig.MEDIDAS_DO_USUARIO, key = "#idUsuario", condition = "#idUsuario != null")
     public List<MedidaResponse> listarTodasAsMedidasDeUmUsuario(Long idUsuario) {
-        User user = userRepository.findById(idUsuario)
-                .orElseThrow(() -> new EntityNotFoundException("Usuário não encontrado"));
+        // Lê o histórico colunar em memória, sem montar as entidades User/Measure
+        SerieMedidas serie = measureColumnStore.serieDoUsuario(idUsuario);
+        if (serie.isVazia() && !userRepository.existsById(idUsuario)) {
+            throw new EntityNotFoundException("Usuário não encontrado");
+        }
 
-        return user.getMeasures().stream()
-                .map(this::mapToMedidaResponse)
-                .toList();
+        return medidaMapper.toResponses(serie);
     }
 
-    //Busca uma medida específica de um usuário.
-    public MedidaResponse buscarMedidaPorId(Long idUsuario, Long medidaId) {
-        User user = userRepository.findById(idUsuario)
-                .orElseThrow(() -> new EntityNotFoundException("Usuário não encontrado"));
+    /**
+     * Lista as medidas do usuário no intervalo [de, ate], com apenas as métricas pedidas.
+     * Intervalo, limite e colunas vão para a consulta (não passa pelo cache nem pelo histórico em memória),
+     * e as métricas não pedidas ficam fora do JSON.
+     *
+     * @param campos Campos das métricas (ex.: weightKg, waistCm); vazio ou null traz todas.
+     * @param limite Máximo de medidas, a partir da mais antiga do intervalo (null para não limitar).
+     */
+    public List<MedidaResponse> listarMedidasFiltradas(Long idUsuario, LocalDateTime de, LocalDateTime ate,
+                                                       List<String> campos, Integer limite) {
+        if (de != null && ate != null && de.isAfter(ate)) {
+            throw new IllegalArgumentException("Informe um intervalo válido: 'from' deve ser anterior ou igual a 'to'.");
+        }
+        if (limite != null && (limite < 1 || limite > LIMITE_MAXIMO_MEDIDAS)) {
+            throw new IllegalArgumentException("O limite deve estar entre 1 e " + LIMITE_MAXIMO_MEDIDAS + ".");
+        }
+        Set<MetricaMedida> metricas = metricasPorCampos(campos);
 
-        Measure medida = user.getMeasures().stream()
-                .filter(m -> m.getId().equals(medidaId))
-                .findFirst()
-                .orElseThrow(() -> new EntityNotFoundException("Medida não encontrada para este usuário"));
+        SerieMedidas serie = measureSeriesRepository.carregarSerie(idUsuario, de, ate, metricas, limite);
+        if (serie.isVazia() && !userRepository.existsById(idUsuario)) {
+            throw new EntityNotFoundException("Usuário não encontrado");
+        }
 
-        return mapToMedidaResponse(medida);
+        return medidaMapper.toResponses(serie, metricas);
     }
 
-    //Converte entidade Measure → DTO MedidaResponse.
-    private MedidaResponse mapToMedidaResponse(Measure m) {
-        return new MedidaResponse(
-                m.getId(),
-                m.getMeasurementDate(),
-                m.getWeightKg(),
-                m.getHeightCm(),
-                m.getWaistCm(),
-                m.getHipCm(),
-                m.getChestCm(),
-                m.getArmRightCm(),
-                m.getArmLeftCm(),
-                m.getThighRightCm(),
-                m.getThighLeftCm(),
-                m.getBodyFatPercentage()
-        );
+    private Set<MetricaMedida> metricasPorCampos(List<String> campos) {
+        if (campos == null || campos.isEmpty()) {
+            return EnumSet.allOf(MetricaMedida.class);
+        }
+        Set<MetricaMedida> metricas = EnumSet.noneOf(MetricaMedida.class);
+        for (String campo : campos) {
+            metricas.add(MetricaMedida.porCampo(campo.trim()));
+        }
+        return metricas;
     }
 
+    //Busca uma medida específica de um usuário.
+    public MedidaResponse buscarMedidaPorId(Long idUsuario, Long medidaId) {
+        // Consulta única por (medida, usuário); só vai ao usuário para diferenciar a mensagem de erro
+        return measureRepository.findMedidaResponseByIdAndUserId(medidaId, idUsuario)
+                .orElseThrow(() -> userRepository.existsById(idUsuario)
+                        ? new EntityNotFoundException("Medida não encontrada para este usuário")
+                        : new EntityNotFoundException("Usuário não encontrado"));
+    }
+
+    @Transactional
     public void CreateMeasure(MeasureRequest measureRequest, Long userId) {
         try {
-            User user = userRepository.findById(userId)
+            // Trava o usuário antes de qualquer escrita: as escritas simultâneas do mesmo usuário esperam aqui, em fila,
+            // até o commit da anterior, e nenhuma recalcula a projeção e os agregados a partir de um estado antigo
+            User user = userRepository.travar(userId)
                     .orElseThrow(() -> new EntityNotFoundException("Usuário não encontrado"));
 
             Measure measure = Measure.builder()
@@ -83,17 +139,32 @@ public class MeasureService {
                     .bodyFatPercentage(measureRequest.bodyFatPercentage())
                     .user(user)
                     .build();
-            measureRepository.save(measure);
+            Measure salva = measureRepository.save(measure);
+            user.registrarAlteracao(Instant.now());
+
+            // Mantém a projeção da última medida e os agregados na mesma transação
+            latestMeasureService.medidaCriada(salva);
+            measureRollupService.medidaCriada(userId, salva.getMeasurementDate());
+            eventPublisher.publishEvent(new MedidasAlteradasEvent(userId));
+            eventPublisher.publishEvent(new MedidaGravadaEvent(userId, medidaMapper.toResponse(salva), true));
         } catch (Exception e) {
             throw new RuntimeException("Erro ao criar medida: " + e.getMessage());
         }
     }
     
     // Atualiza uma medida existente
+    @Transactional
     public void atualizarMedida(Long medidaId, MeasureRequest medidaRequest) {
         try {
+            // Descobre o dono sem carregar a medida e o trava antes de lê-la (ver CreateMeasure)
+            Long userId = measureRepository.findReferenciaById(medidaId)
+                    .orElseThrow(() -> new EntityNotFoundException("Medida não encontrada com o ID: " + medidaId))
+                    .getUserId();
+            User user = userRepository.travar(userId)
+                    .orElseThrow(() -> new EntityNotFoundException("Usuário não encontrado"));
             Measure medida = measureRepository.findById(medidaId)
                     .orElseThrow(() -> new EntityNotFoundException("Medida não encontrada com o ID: " + medidaId));
+            LocalDateTime dataAnterior = medida.getMeasurementDate();
             
             // Atualiza os campos da medida com os novos valores
             medida.setMeasurementDate(medidaRequest.measurementDate());
@@ -108,23 +179,35 @@ public class MeasureService {
             medida.setThighLeftCm(medidaRequest.thighLeftCm());
             medida.setBodyFatPercentage(medidaRequest.bodyFatPercentage());
             
-            // Salva as alterações
+            // Salva as alterações e avança a versão do usuário
             measureRepository.save(medida);
+            user.registrarAlteracao(Instant.now());
+            latestMeasureService.medidaAtualizada(medida);
+            measureRollupService.medidaAtualizada(userId, dataAnterior, medida.getMeasurementDate());
+            eventPublisher.publishEvent(new MedidasAlteradasEvent(userId));
+            eventPublisher.publishEvent(new MedidaGravadaEvent(userId, medidaMapper.toResponse(medida), false));
         } catch (Exception e) {
             throw new RuntimeException("Erro ao atualizar medida: " + e.getMessage());
         }
     }
     
     // Remove uma medida pelo ID
+    @Transactional
     public void removerMedida(Long medidaId) {
         try {
-            // Verifica se a medida existe
-            if (!measureRepository.existsById(medidaId)) {
-                throw new EntityNotFoundException("Medida não encontrada com o ID: " + medidaId);
-            }
+            // Verifica se a medida existe (e descobre o dono e a data dela)
+            MedidaReferenciaProjection referencia = measureRepository.findReferenciaById(medidaId)
+                    .orElseThrow(() -> new EntityNotFoundException("Medida não encontrada com o ID: " + medidaId));
+            Long userId = referencia.getUserId();
             
-            // Remove a medida
+            // Trava o dono antes de remover (ver CreateMeasure), remove a medida e avança a versão do usuário
+            User user = userRepository.travar(userId)
+                    .orElseThrow(() -> new EntityNotFoundException("Usuário não encontrado"));
             measureRepository.deleteById(medidaId);
+            user.registrarAlteracao(Instant.now());
+            latestMeasureService.medidaRemovida(medidaId);
+            measureRollupService.medidaRemovida(userId, referencia.getMeasurementDate());
+            eventPublisher.publishEvent(new MedidasAlteradasEvent(userId));
         } catch (Exception e) {
             throw new RuntimeException("Erro ao remover medida: " + e.getMessage());
         }
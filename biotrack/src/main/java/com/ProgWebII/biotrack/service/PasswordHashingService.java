@@ -0,0 +1,78 @@
+package com.ProgWebII.biotrack.service;
+
+import com.ProgWebII.biotrack.exception.ServicoSobrecarregadoException;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.stereotype.Service;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Gera os hashes BCrypt fora das threads do Tomcat.
+ * O pool tem tamanho fixo (CPU) e fila limitada: com a fila cheia a tarefa é recusada na hora
+ * e o cliente recebe 503 com Retry-After, em vez de a fila crescer e a latência junto.
+ *
+ * O pool não é exposto como bean para não substituir o executor padrão do Spring (applicationTaskExecutor).
+ */
+@Service
+public class PasswordHashingService {
+
+    private final PasswordEncoder passwordEncoder;
+    private final ThreadPoolExecutor executor;
+    private final long retryAfterSegundos;
+
+    public PasswordHashingService(PasswordEncoder passwordEncoder,
+                                  @Value("${biotrack.senhas.hash.threads:0}") int threads,
+                                  @Value("${biotrack.senhas.hash.capacidade-fila:64}") int capacidadeFila,
+                                  @Value("${biotrack.senhas.hash.retry-after-segundos:2}") long retryAfterSegundos) {
+        int tamanhoPool = threads > 0 ? threads : Runtime.getRuntime().availableProcessors();
+        this.passwordEncoder = passwordEncoder;
+        this.retryAfterSegundos = retryAfterSegundos;
+        this.executor = new ThreadPoolExecutor(tamanhoPool, tamanhoPool, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(capacidadeFila), novaThreadFactory(), new ThreadPoolExecutor.AbortPolicy());
+    }
+
+    //Gera o hash da senha no pool dedicado
+    public CompletableFuture<String> gerarHash(String senha) {
+        try {
+            return CompletableFuture.supplyAsync(() -> passwordEncoder.encode(senha), executor);
+        } catch (RejectedExecutionException e) {
+            throw new ServicoSobrecarregadoException(
+                    "Muitas requisições de cadastro em andamento. Tente novamente em instantes.", retryAfterSegundos);
+        }
+    }
+
+    //Igual a gerarHash, mas conclui na hora com null quando a senha não foi informada
+    public CompletableFuture<String> gerarHashSeInformada(String senha) {
+        if (senha == null || senha.isBlank()) {
+            return CompletableFuture.completedFuture(null);
+        }
+        return gerarHash(senha);
+    }
+
+    // Tarefas aguardando na fila (útil para monitorar a pressão sobre o pool)
+    public int tarefasNaFila() {
+        return executor.getQueue().size();
+    }
+
+    @PreDestroy
+    public void encerrar() {
+        executor.shutdown();
+    }
+
+    private static ThreadFactory novaThreadFactory() {
+        AtomicInteger contador = new AtomicInteger();
+        return tarefa -> {
+            Thread thread = new Thread(tarefa, "hash-senha-" + contador.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        };
+    }
+}
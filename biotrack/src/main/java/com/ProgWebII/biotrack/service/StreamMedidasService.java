@@ -0,0 +1,250 @@
+package com.ProgWebII.biotrack.service;
+
+import com.ProgWebII.biotrack.exception.ServicoSobrecarregadoException;
+import com.ProgWebII.biotrack.repository.UserStreamRepository;
+import com.ProgWebII.biotrack.store.MedidaGravadaEvent;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.annotation.PreDestroy;
+import jakarta.persistence.EntityNotFoundException;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.web.servlet.mvc.method.annotation.ResponseBodyEmitter.DataWithMediaType;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Distribui as medidas gravadas para os assinantes do stream SSE de cada usuário.
+ *
+ * Cada assinante é um SseEmitter (servlet assíncrono): parado, ele não ocupa thread nenhuma, só a conexão.
+ * O evento chega depois do commit, é serializado uma vez e colocado na fila de cada assinante do usuário;
+ * a fila é limitada e, cheia, descarta o evento mais antigo, para que um cliente lento não segure memória
+ * nem atrase os demais. A escrita na conexão roda em uma thread virtual por assinante com eventos pendentes.
+ * Um comentário periódico (batimento) mantém a conexão viva e revela clientes que já foram embora.
+ */
+@Service
+public class StreamMedidasService {
+
+    public static final String EVENTO_CRIADA = "medida-criada";
+    public static final String EVENTO_ATUALIZADA = "medida-atualizada";
+    // Avisa o cliente de que perdeu eventos (data = quantidade) e deve recarregar as medidas
+    public static final String EVENTO_DESCARTADAS = "medidas-descartadas";
+
+    private static final Set<DataWithMediaType> BATIMENTO = SseEmitter.event().comment("ping").build();
+
+    private final UserStreamRepository userStreamRepository;
+    private final ObjectMapper objectMapper;
+    private final ConcurrentHashMap<Long, Set<Assinante>> assinantesPorUsuario = new ConcurrentHashMap<>();
+    private final AtomicInteger totalAssinantes = new AtomicInteger();
+    private final AtomicLong totalDescartados = new AtomicLong();
+    private final ExecutorService envios = Executors.newThreadPerTaskExecutor(
+            Thread.ofVirtual().name("stream-medidas-", 0).factory());
+    private final ScheduledExecutorService batimentos = Executors.newSingleThreadScheduledExecutor(
+            Thread.ofPlatform().name("stream-medidas-batimento").daemon().factory());
+    private final int capacidadeBuffer;
+    private final int maximoAssinantes;
+    private final long timeoutMillis;
+    private final long retryAfterSegundos;
+
+    public StreamMedidasService(UserStreamRepository userStreamRepository, ObjectMapper objectMapper,
+                                @Value("${biotrack.medidas.stream.capacidade-buffer:64}") int capacidadeBuffer,
+                                @Value("${biotrack.medidas.stream.maximo-assinantes:20000}") int maximoAssinantes,
+                                @Value("${biotrack.medidas.stream.timeout-minutos:30}") long timeoutMinutos,
+                                @Value("${biotrack.medidas.stream.intervalo-batimento-segundos:25}") long intervaloBatimentoSegundos,
+                                @Value("${biotrack.medidas.stream.retry-after-segundos:5}") long retryAfterSegundos) {
+        if (capacidadeBuffer <= 0) {
+            throw new IllegalArgumentException("A capacidade do buffer do stream deve ser maior que zero.");
+        }
+        this.userStreamRepository = userStreamRepository;
+        this.objectMapper = objectMapper;
+        this.capacidadeBuffer = capacidadeBuffer;
+        this.maximoAssinantes = maximoAssinantes;
+        this.timeoutMillis = TimeUnit.MINUTES.toMillis(timeoutMinutos);
+        this.retryAfterSegundos = retryAfterSegundos;
+        batimentos.scheduleAtFixedRate(this::enviarBatimentos,
+                intervaloBatimentoSegundos, intervaloBatimentoSegundos, TimeUnit.SECONDS);
+    }
+
+    //Abre um stream com as medidas criadas ou atualizadas do usuário a partir de agora
+    public SseEmitter assinar(Long userId) {
+        if (!userStreamRepository.existe(userId)) {
+            throw new EntityNotFoundException("Usuário não encontrado");
+        }
+        SseEmitter emitter = new SseEmitter(timeoutMillis);
+        registrar(userId, emitter);
+        return emitter;
+    }
+
+    // Separado de assinar() para os testes usarem um emitter próprio
+    Assinante registrar(Long userId, SseEmitter emitter) {
+        if (totalAssinantes.incrementAndGet() > maximoAssinantes) {
+            totalAssinantes.decrementAndGet();
+            throw new ServicoSobrecarregadoException(
+                    "Limite de streams de medidas atingido. Tente novamente em instantes.", retryAfterSegundos);
+        }
+        Assinante assinante = new Assinante(userId, emitter, capacidadeBuffer);
+        // compute() em vez de computeIfAbsent().add(): não corre com a remoção do último assinante do usuário
+        assinantesPorUsuario.compute(userId, (id, assinantes) -> {
+            Set<Assinante> conjunto = assinantes != null ? assinantes : ConcurrentHashMap.newKeySet();
+            conjunto.add(assinante);
+            return conjunto;
+        });
+        emitter.onCompletion(assinante::cancelar);
+        emitter.onError(erro -> assinante.cancelar());
+        emitter.onTimeout(() -> {
+            assinante.cancelar();
+            emitter.complete();
+        });
+        return assinante;
+    }
+
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public void aoGravarMedida(MedidaGravadaEvent evento) {
+        Set<Assinante> assinantes = assinantesPorUsuario.get(evento.userId());
+        if (assinantes == null || assinantes.isEmpty()) {
+            return;
+        }
+        // Serializado uma vez e compartilhado por todos os assinantes do usuário
+        Set<DataWithMediaType> dados = SseEmitter.event()
+                .name(evento.nova() ? EVENTO_CRIADA : EVENTO_ATUALIZADA)
+                .data(json(evento), MediaType.APPLICATION_JSON)
+                .build();
+        for (Assinante assinante : assinantes) {
+            assinante.oferecer(dados);
+        }
+    }
+
+    public int assinantesAtivos() {
+        return totalAssinantes.get();
+    }
+
+    // Eventos descartados por buffers cheios desde a inicialização (todos os assinantes)
+    public long eventosDescartados() {
+        return totalDescartados.get();
+    }
+
+    @PreDestroy
+    public void encerrar() {
+        batimentos.shutdownNow();
+        assinantesPorUsuario.values().forEach(assinantes -> assinantes.forEach(assinante -> assinante.emitter.complete()));
+        envios.shutdown();
+    }
+
+    private void enviarBatimentos() {
+        for (Set<Assinante> assinantes : assinantesPorUsuario.values()) {
+            for (Assinante assinante : assinantes) {
+                // Quem já tem eventos na fila não precisa do batimento
+                if (assinante.fila.isEmpty()) {
+                    assinante.oferecer(BATIMENTO);
+                }
+            }
+        }
+    }
+
+    private String json(MedidaGravadaEvent evento) {
+        try {
+            return objectMapper.writeValueAsString(evento.medida());
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Erro ao serializar a medida do stream: " + e.getMessage(), e);
+        }
+    }
+
+    final class Assinante {
+
+        private final Long userId;
+        private final SseEmitter emitter;
+        private final ArrayBlockingQueue<Set<DataWithMediaType>> fila;
+        private final AtomicBoolean enviando = new AtomicBoolean();
+        private final AtomicBoolean encerrado = new AtomicBoolean();
+        private final AtomicInteger descartados = new AtomicInteger();
+
+        private Assinante(Long userId, SseEmitter emitter, int capacidade) {
+            this.userId = userId;
+            this.emitter = emitter;
+            this.fila = new ArrayBlockingQueue<>(capacidade);
+        }
+
+        // Enfileira sem bloquear quem publica; com a fila cheia, o evento mais antigo sai
+        void oferecer(Set<DataWithMediaType> dados) {
+            if (encerrado.get()) {
+                return;
+            }
+            while (!fila.offer(dados)) {
+                if (fila.poll() != null) {
+                    descartados.incrementAndGet();
+                    totalDescartados.incrementAndGet();
+                }
+            }
+            agendarEnvio();
+        }
+
+        private void agendarEnvio() {
+            if (enviando.compareAndSet(false, true)) {
+                try {
+                    envios.execute(this::enviarPendentes);
+                } catch (RuntimeException e) {
+                    // Executor encerrado (aplicação parando)
+                    enviando.set(false);
+                }
+            }
+        }
+
+        // Uma thread virtual por vez por assinante: a escrita pode bloquear enquanto o cliente não lê
+        private void enviarPendentes() {
+            try {
+                while (!encerrado.get()) {
+                    // O aviso de descarte sai antes dos eventos que sobraram na fila
+                    int perdidos = descartados.getAndSet(0);
+                    if (perdidos > 0) {
+                        emitter.send(SseEmitter.event().name(EVENTO_DESCARTADAS).data(String.valueOf(perdidos)).build());
+                    }
+                    Set<DataWithMediaType> dados = fila.poll();
+                    if (dados == null) {
+                        break;
+                    }
+                    emitter.send(dados);
+                }
+            } catch (IOException e) {
+                // Cliente desconectado: conclui a requisição assíncrona em vez de esperar o timeout
+                cancelar();
+                emitter.completeWithError(e);
+                return;
+            } catch (IllegalStateException e) {
+                // Emitter já concluído (timeout ou encerramento da aplicação)
+                cancelar();
+                return;
+            } finally {
+                enviando.set(false);
+            }
+            // Evento que chegou entre o último poll e a liberação do envio
+            if (!fila.isEmpty() && !encerrado.get()) {
+                agendarEnvio();
+            }
+        }
+
+        void cancelar() {
+            if (encerrado.compareAndSet(false, true)) {
+                fila.clear();
+                totalAssinantes.decrementAndGet();
+                assinantesPorUsuario.computeIfPresent(userId, (id, assinantes) -> {
+                    assinantes.remove(this);
+                    return assinantes.isEmpty() ? null : assinantes;
+                });
+            }
+        }
+    }
+}
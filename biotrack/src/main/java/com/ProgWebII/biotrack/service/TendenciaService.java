@@ -0,0 +1,201 @@
+package com.ProgWebII.biotrack.service;
+
+import com.ProgWebII.biotrack.config.MetricasConfig;
+import com.ProgWebII.biotrack.dto.response.TendenciaJanelaResponse;
+import com.ProgWebII.biotrack.dto.response.TendenciaMetricaResponse;
+import com.ProgWebII.biotrack.dto.response.TendenciasResponse;
+import com.ProgWebII.biotrack.model.MetricaMedida;
+import com.ProgWebII.biotrack.repository.MeasureStreamRepository;
+import com.ProgWebII.biotrack.repository.UserRepository;
+import com.ProgWebII.biotrack.store.MeasureColumnStore;
+import com.ProgWebII.biotrack.store.SerieMedidas;
+import io.micrometer.core.annotation.Timed;
+import jakarta.persistence.EntityNotFoundException;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Tendências das métricas de um usuário (média móvel, inclinação da regressão linear e variação)
+ * em janelas de N dias contadas a partir da medição mais recente.
+ *
+ * Tudo é calculado em uma única passada da medida mais recente para a mais antiga, com somas acumuladas por
+ * (métrica, janela): a memória usada não depende do tamanho do histórico.
+ * Se a série colunar do usuário já está em memória, a passada é sobre ela e para assim que sai da maior janela.
+ * Senão, as medidas vêm de um cursor que já corta no banco em (mais recente - maior janela): o histórico
+ * completo não é carregado para o heap só para ler a janela (benchmark "tendenciasSemSerieCarregada").
+ */
+@Service
+@Timed(MetricasConfig.TIMER_SERVICOS)
+public class TendenciaService {
+
+    public static final int MAXIMO_JANELAS = 10;
+    public static final int MAXIMO_DIAS_JANELA = 3650;
+
+    private static final double MILIS_POR_DIA = 86_400_000.0;
+
+    private final MeasureColumnStore measureColumnStore;
+    private final MeasureStreamRepository measureStreamRepository;
+    private final UserRepository userRepository;
+
+    public TendenciaService(MeasureColumnStore measureColumnStore, MeasureStreamRepository measureStreamRepository,
+                            UserRepository userRepository) {
+        this.measureColumnStore = measureColumnStore;
+        this.measureStreamRepository = measureStreamRepository;
+        this.userRepository = userRepository;
+    }
+
+    //Calcula as tendências das métricas informadas (nomes dos campos da API) para cada janela em dias
+    public TendenciasResponse calcularTendencias(Long idUsuario, List<String> metricas, List<Integer> janelas) {
+        List<MetricaMedida> metricasSelecionadas = validarMetricas(metricas);
+        int[] dias = validarJanelas(janelas);
+
+        Acumulador[][] acumuladores = new Acumulador[metricasSelecionadas.size()][dias.length];
+        for (Acumulador[] linha : acumuladores) {
+            for (int j = 0; j < linha.length; j++) {
+                linha[j] = new Acumulador();
+            }
+        }
+
+        Optional<SerieMedidas> serieEmMemoria = measureColumnStore.serieEmMemoria(idUsuario);
+        LocalDateTime maisRecente = serieEmMemoria.isPresent()
+                ? acumular(serieEmMemoria.get(), metricasSelecionadas, dias, acumuladores)
+                : acumular(idUsuario, metricasSelecionadas, dias, acumuladores);
+        if (maisRecente == null && !userRepository.existsById(idUsuario)) {
+            throw new EntityNotFoundException("Usuário não encontrado");
+        }
+
+        List<TendenciaMetricaResponse> resposta = new ArrayList<>(metricasSelecionadas.size());
+        for (int m = 0; m < metricasSelecionadas.size(); m++) {
+            List<TendenciaJanelaResponse> porJanela = new ArrayList<>(dias.length);
+            for (int j = 0; j < dias.length; j++) {
+                porJanela.add(acumuladores[m][j].resumo(dias[j]));
+            }
+            resposta.add(new TendenciaMetricaResponse(metricasSelecionadas.get(m).getCampo(), porJanela));
+        }
+
+        return new TendenciasResponse(idUsuario, maisRecente, resposta);
+    }
+
+    // Passada sobre a série em memória; retorna a data da medida mais recente (null se não há medidas)
+    private LocalDateTime acumular(SerieMedidas serie, List<MetricaMedida> metricas, int[] dias,
+                                   Acumulador[][] acumuladores) {
+        if (serie.isVazia()) {
+            return null;
+        }
+        long referencia = serie.instante(serie.tamanho() - 1);
+        int maiorJanela = dias[dias.length - 1];
+
+        for (int i = serie.tamanho() - 1; i >= 0; i--) {
+            double x = (serie.instante(i) - referencia) / MILIS_POR_DIA;
+            if (x < -maiorJanela) {
+                break;
+            }
+            for (int m = 0; m < metricas.size(); m++) {
+                adicionarPonto(acumuladores[m], dias, x, serie.valor(metricas.get(m), i));
+            }
+        }
+        return serie.dataMedicao(serie.tamanho() - 1);
+    }
+
+    // Passada sobre o cursor: o banco só devolve as medidas da maior janela, a primeira linha é a referência
+    private LocalDateTime acumular(Long idUsuario, List<MetricaMedida> metricas, int[] dias,
+                                   Acumulador[][] acumuladores) {
+        LocalDateTime[] maisRecente = new LocalDateTime[1];
+        long[] referencia = new long[1];
+        measureStreamRepository.percorrerMedidasRecentes(idUsuario, dias[dias.length - 1],
+                (userId, id, data, valores) -> {
+                    long instante = SerieMedidas.paraInstante(data);
+                    if (maisRecente[0] == null) {
+                        maisRecente[0] = data;
+                        referencia[0] = instante;
+                    }
+                    double x = (instante - referencia[0]) / MILIS_POR_DIA;
+                    for (int m = 0; m < metricas.size(); m++) {
+                        adicionarPonto(acumuladores[m], dias, x, valores[metricas.get(m).ordinal()]);
+                    }
+                });
+        return maisRecente[0];
+    }
+
+    // x = dias até a referência (sempre <= 0); y = NaN quando a métrica não foi informada
+    private static void adicionarPonto(Acumulador[] porJanela, int[] dias, double x, double y) {
+        if (Double.isNaN(y)) {
+            return;
+        }
+        // Janelas em ordem crescente: vai da maior para a menor e para na primeira que não contém o ponto
+        for (int j = dias.length - 1; j >= 0 && x >= -dias[j]; j--) {
+            porJanela[j].adicionar(x, y);
+        }
+    }
+
+    private List<MetricaMedida> validarMetricas(List<String> metricas) {
+        if (metricas == null || metricas.isEmpty()) {
+            throw new IllegalArgumentException("Informe ao menos uma métrica.");
+        }
+        List<MetricaMedida> selecionadas = new ArrayList<>(metricas.size());
+        for (String campo : metricas) {
+            MetricaMedida metrica = MetricaMedida.porCampo(campo.trim());
+            if (!selecionadas.contains(metrica)) {
+                selecionadas.add(metrica);
+            }
+        }
+        return selecionadas;
+    }
+
+    // Retorna as janelas sem repetição e em ordem crescente
+    private int[] validarJanelas(List<Integer> janelas) {
+        if (janelas == null || janelas.isEmpty()) {
+            throw new IllegalArgumentException("Informe ao menos uma janela em dias.");
+        }
+        int[] dias = janelas.stream().mapToInt(Integer::intValue).distinct().sorted().toArray();
+        if (dias.length > MAXIMO_JANELAS) {
+            throw new IllegalArgumentException("No máximo " + MAXIMO_JANELAS + " janelas por consulta.");
+        }
+        if (dias[0] < 1 || dias[dias.length - 1] > MAXIMO_DIAS_JANELA) {
+            throw new IllegalArgumentException("As janelas devem ter entre 1 e " + MAXIMO_DIAS_JANELA + " dias.");
+        }
+        return dias;
+    }
+
+    // Somas da regressão linear de uma (métrica, janela); os pontos chegam do mais recente para o mais antigo
+    private static final class Acumulador {
+        private int quantidade;
+        private double somaX;
+        private double somaY;
+        private double somaXX;
+        private double somaXY;
+        private double maisRecente;
+        private double maisAntigo;
+        private double xMaisRecente;
+        private double xMaisAntigo;
+
+        void adicionar(double x, double y) {
+            if (quantidade == 0) {
+                maisRecente = y;
+                xMaisRecente = x;
+            }
+            maisAntigo = y;
+            xMaisAntigo = x;
+            quantidade++;
+            somaX += x;
+            somaY += y;
+            somaXX += x * x;
+            somaXY += x * y;
+        }
+
+        TendenciaJanelaResponse resumo(int dias) {
+            if (quantidade == 0) {
+                return new TendenciaJanelaResponse(dias, 0, null, null, null);
+            }
+            // Sem pelo menos duas datas distintas não há reta a ajustar
+            Double inclinacao = xMaisAntigo == xMaisRecente
+                    ? null
+                    : (quantidade * somaXY - somaX * somaY) / (quantidade * somaXX - somaX * somaX);
+            return new TendenciaJanelaResponse(dias, quantidade, somaY / quantidade, inclinacao, maisRecente - maisAntigo);
+        }
+    }
+}
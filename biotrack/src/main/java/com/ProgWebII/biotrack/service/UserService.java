@@ -1,72 +1,143 @@
 package com.ProgWebII.biotrack.service;
 
+import com.ProgWebII.biotrack.config.CacheConfig;
+import com.ProgWebII.biotrack.config.MetricasConfig;
 import com.ProgWebII.biotrack.dto.request.UserRequest;
 import com.ProgWebII.biotrack.dto.request.UserPatchRequest;
 import com.ProgWebII.biotrack.dto.response.*;
-import com.ProgWebII.biotrack.model.Measure;
+import com.ProgWebII.biotrack.mapper.MedidaMapper;
+import com.ProgWebII.biotrack.model.FaixaImc;
+import com.ProgWebII.biotrack.model.LatestMeasure;
 import com.ProgWebII.biotrack.model.User;
 import com.ProgWebII.biotrack.repository.UserRepository;
+import com.ProgWebII.biotrack.repository.UserStreamRepository;
+import com.ProgWebII.biotrack.repository.projection.VersaoUsuarioProjection;
+import com.ProgWebII.biotrack.store.MeasureColumnStore;
+import com.ProgWebII.biotrack.store.MedidasAlteradasEvent;
+import com.ProgWebII.biotrack.store.SerieMedidas;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import io.micrometer.core.annotation.Timed;
 import jakarta.persistence.EntityNotFoundException;
-import org.springframework.security.crypto.password.PasswordEncoder;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.cache.annotation.CacheEvict;
+import org.springframework.cache.annotation.Cacheable;
+import org.springframework.cache.annotation.Caching;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Service;
-import org.springframework.util.Assert;
+import org.springframework.transaction.annotation.Transactional;
 
-import java.util.Comparator;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.time.Instant;
 import java.util.List;
-import java.util.Objects;
 
 @Service
+@Timed(MetricasConfig.TIMER_SERVICOS)
 public class UserService {
 
+    private static final Logger log = LoggerFactory.getLogger(UserService.class);
+
+    public static final int LIMITE_MAXIMO_PAGINA = 1000;
+
     private final UserRepository userRepository;
 
-    private PasswordEncoder passwordEncoder;
+    private final LatestMeasureService latestMeasureService;
+    private final MeasureRollupService measureRollupService;
+    private final UserStreamRepository userStreamRepository;
+    private final ObjectMapper objectMapper;
+    private final MeasureColumnStore measureColumnStore;
+    private final MedidaMapper medidaMapper;
+    private final ApplicationEventPublisher eventPublisher;
 
-    public UserService(UserRepository userRepository, PasswordEncoder passwordEncoder) {
+    public UserService(UserRepository userRepository,
+                       LatestMeasureService latestMeasureService, MeasureRollupService measureRollupService,
+                       UserStreamRepository userStreamRepository, ObjectMapper objectMapper, MeasureColumnStore measureColumnStore, MedidaMapper medidaMapper,
+                       ApplicationEventPublisher eventPublisher) {
         this.userRepository = userRepository;
-        this.passwordEncoder = passwordEncoder;
+        this.latestMeasureService = latestMeasureService;
+        this.measureRollupService = measureRollupService;
+        this.userStreamRepository = userStreamRepository;
+        this.objectMapper = objectMapper;
+        this.measureColumnStore = measureColumnStore;
+        this.medidaMapper = medidaMapper;
+        this.eventPublisher = eventPublisher;
     }
 
-    public void createUser(UserRequest userRequest) {
+    // O hash da senha chega pronto (gerado pelo PasswordHashingService fora da thread da requisição)
+    public void createUser(UserRequest userRequest, String senhaHash) {
         try{
             User user = User.builder()
                 .name(userRequest.name())
                 .birthDate(userRequest.birthDate())
                 .zipCode(userRequest.zipCode())
                 .email(userRequest.email())
-                .password(hashPassword(userRequest.password())) // O hash aqui
+                .password(senhaHash)
                 .build(); // Finaliza a construção do objeto
             userRepository.save(user);
         } catch (Exception e) {
-            System.err.println("Erro ao criar usuário: " + e.getMessage());
+            log.error("Erro ao criar usuário: {}", e.getMessage(), e);
             throw new RuntimeException("Falha ao processar a criação do usuário.");
         }
     }
-    private String hashPassword(String password) {
-        return passwordEncoder.encode(password);
-    }
 
-    //Lista todos os usuários (sem medidas)
-    public List<ListarTodosUsuariosResponse> listarTodos() {
-        List<User> usuarios = userRepository.findAll();
+    //Lista os usuários (sem medidas) com paginação por cursor: a página começa após o ID "after"
+    public List<ListarTodosUsuariosResponse> listarTodos(Long after, int limit) {
+        if (after != null && after < 0) {
+            throw new IllegalArgumentException("O cursor 'after' não pode ser negativo.");
+        }
+        if (limit <= 0) {
+            throw new IllegalArgumentException("O parâmetro 'limit' deve ser um número positivo.");
+        }
 
-        if (usuarios.isEmpty()) {
+        List<ListarTodosUsuariosResponse> usuarios = userRepository.findPaginaAposId(
+                after == null ? 0L : after, Limit.of(Math.min(limit, LIMITE_MAXIMO_PAGINA)));
+
+        // Só a primeira página vazia indica que não há usuários; nas demais é o fim da listagem
+        if (usuarios.isEmpty() && after == null) {
             throw new EntityNotFoundException("Nenhum usuário encontrado no sistema.");
         }
 
-        return usuarios.stream()
-                .filter(Objects::nonNull)
-                .map(user -> new ListarTodosUsuariosResponse(
-                        user.getId(),
-                        user.getName(),
-                        user.getBirthDate(),
-                        user.getZipCode(),
-                        user.getEmail()
-                ))
-                .toList();
+        return usuarios;
+    }
+
+    //Escreve os usuários (sem medidas) em NDJSON, um por linha, direto do cursor JDBC
+    public void exportarUsuariosNdjson(Long after, OutputStream saida) throws IOException {
+        ObjectWriter writer = objectMapper.writerFor(ListarTodosUsuariosResponse.class)
+                .without(SerializationFeature.FLUSH_AFTER_WRITE_VALUE);
+
+        try (JsonGenerator gerador = objectMapper.createGenerator(saida)) {
+            gerador.setRootValueSeparator(null); // a separação é a quebra de linha escrita abaixo
+            userStreamRepository.percorrerUsuarios(after == null ? 0L : after, usuario -> {
+                try {
+                    writer.writeValue(gerador, usuario);
+                    gerador.writeRaw('\n');
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            });
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+    }
+
+    //Versão atual dos dados do usuário, lida pela chave primária sem carregar as medidas
+    public VersaoUsuarioProjection buscarVersao(Long id) {
+        validarId(id, "ID do usuário");
+        return userRepository.findVersaoById(id)
+                .orElseThrow(() -> new EntityNotFoundException("Usuário não encontrado com o ID: " + id));
     }
 
     //Busca um usuário por ID (sem medidas)
+    @Cacheable(cacheNames = CacheConfig.USUARIOS, key = "#id", condition = "#id != null")
     public BuscarUsuarioPorIdResponse buscarPorId(Long id) {
         validarId(id, "ID do usuário");
 
@@ -96,7 +167,27 @@ public class UserService {
                 .toList();
     }
 
+    //Filtra os usuários pela faixa de IMC da última medida, com paginação
+    public Page<UsuarioImcResponse> filtrarUsuariosPorFaixaImc(String faixa, Pageable pageable) {
+        FaixaImc faixaImc = FaixaImc.porDescricao(faixa);
+
+        // A consulta já ordena pelo ID do usuário; qualquer ordenação recebida é descartada
+        Pageable pagina = PageRequest.of(pageable.getPageNumber(), pageable.getPageSize());
+
+        return userRepository.findUsuariosPorFaixaImc(faixaImc.getImcMinimo(), faixaImc.getImcMaximo(), pagina)
+                .map(usuario -> new UsuarioImcResponse(
+                        usuario.getId(),
+                        usuario.getName(),
+                        usuario.getBirthDate(),
+                        usuario.getZipCode(),
+                        usuario.getEmail(),
+                        usuario.getImc(),
+                        faixaImc.getDescricao()
+                ));
+    }
+
     //Traz um usuário com todas as suas medidas
+    @Cacheable(cacheNames = CacheConfig.USUARIOS_COM_MEDIDAS, key = "#idUsuario", condition = "#idUsuario != null")
     public UsuarioResponse trazerUsuarioPorIdComTodasAsMedidas(Long idUsuario) {
         validarId(idUsuario, "ID do usuário");
 
@@ -105,15 +196,13 @@ public class UserService {
 
         validarCamposObrigatorios(user);
 
-        List<Measure> medidasUsuario = user.getMeasures();
-        if (medidasUsuario == null || medidasUsuario.isEmpty()) {
+        // O histórico vem do armazenamento colunar, sem inicializar a coleção user.measures
+        SerieMedidas serie = measureColumnStore.serieDoUsuario(idUsuario);
+        if (serie.isVazia()) {
             throw new EntityNotFoundException("Nenhuma medida encontrada para o usuário: " + user.getName());
         }
 
-        List<MedidaResponse> medidas = medidasUsuario.stream()
-                .filter(Objects::nonNull)
-                .map(this::mapToMedidaResponse)
-                .toList();
+        List<MedidaResponse> medidas = medidaMapper.toResponses(serie);
 
         return new UsuarioResponse(
                 user.getId(),
@@ -134,16 +223,11 @@ public class UserService {
 
         validarCamposObrigatorios(user);
 
-        Measure ultima = user.getMeasures().stream()
-                .filter(Objects::nonNull)
-                .max(Comparator.comparing(Measure::getMeasurementDate))
-                .orElse(null);
-
-        if (ultima == null) {
-            throw new EntityNotFoundException("Nenhuma medida registrada para o usuário " + user.getName());
-        }
+        // Lê a projeção tb_latest_measure pela chave primária, sem carregar a coleção de medidas
+        LatestMeasure ultima = latestMeasureService.buscarUltimaMedida(user.getId())
+                .orElseThrow(() -> new EntityNotFoundException("Nenhuma medida registrada para o usuário " + user.getName()));
 
-        List<MedidaResponse> ultimaMedida = List.of(mapToMedidaResponse(ultima));
+        List<MedidaResponse> ultimaMedida = List.of(medidaMapper.toResponse(ultima));
 
         return new UsuarioResponse(
                 user.getId(),
@@ -155,27 +239,6 @@ public class UserService {
         );
     }
 
-    // Conversão de entidade → DTO (com validação de campos nulos)
-    private MedidaResponse mapToMedidaResponse(Measure m) {
-        Assert.notNull(m, "A medida não pode ser nula.");
-        Assert.notNull(m.getMeasurementDate(), "Data da medição não pode ser nula.");
-
-        return new MedidaResponse(
-                m.getId(),
-                m.getMeasurementDate(),
-                m.getWeightKg(),
-                m.getHeightCm(),
-                m.getWaistCm(),
-                m.getHipCm(),
-                m.getChestCm(),
-                m.getArmRightCm(),
-                m.getArmLeftCm(),
-                m.getThighRightCm(),
-                m.getThighLeftCm(),
-                m.getBodyFatPercentage()
-        );
-    }
-
     //Métodos auxiliares de validação
     private void validarId(Long id, String nomeCampo) {
         if (id == null || id <= 0) {
@@ -184,10 +247,17 @@ public class UserService {
     }
 
     // Atualiza um usuário existente
-    public void atualizarUsuario(Long id, UserRequest userRequest) {
+    @Transactional
+    @Caching(evict = {
+            @CacheEvict(cacheNames = CacheConfig.USUARIOS, key = "#id"),
+            @CacheEvict(cacheNames = CacheConfig.USUARIOS_COM_MEDIDAS, key = "#id")
+    })
+    public void atualizarUsuario(Long id, UserRequest userRequest, String senhaHash) {
         validarId(id, "ID do usuário");
         
-        User user = userRepository.findById(id)
+        // Trava o usuário antes de alterá-lo: PUTs e PATCHes simultâneos do mesmo usuário esperam em fila e cada um
+        // parte da versão gravada pelo anterior
+        User user = userRepository.travar(id)
                 .orElseThrow(() -> new EntityNotFoundException("Usuário não encontrado com o ID: " + id));
         
         // Atualiza os campos do usuário com os novos valores
@@ -196,23 +266,31 @@ public class UserService {
         user.setZipCode(userRequest.zipCode());
         user.setEmail(userRequest.email());
         
-        // Se a senha foi fornecida, atualiza a senha com hash
-        if (userRequest.password() != null && !userRequest.password().isBlank()) {
-            user.setPassword(hashPassword(userRequest.password()));
+        // Se a senha foi fornecida, o hash já vem calculado
+        if (senhaHash != null) {
+            user.setPassword(senhaHash);
         }
         
         // Valida os campos obrigatórios
         validarCamposObrigatorios(user);
         
-        // Salva as alterações
+        // Salva as alterações e avança a versão (ETag das leituras) na mesma transação, antes da remoção do cache:
+        // campos e instante vão no mesmo UPDATE, e a versão avança uma vez
+        user.registrarAlteracao(Instant.now());
         userRepository.save(user);
     }
     
     // Atualiza parcialmente um usuário existente (PATCH)
-    public void atualizarParcialUsuario(Long id, UserPatchRequest userPatchRequest) {
+    @Transactional
+    @Caching(evict = {
+            @CacheEvict(cacheNames = CacheConfig.USUARIOS, key = "#id"),
+            @CacheEvict(cacheNames = CacheConfig.USUARIOS_COM_MEDIDAS, key = "#id")
+    })
+    public void atualizarParcialUsuario(Long id, UserPatchRequest userPatchRequest, String senhaHash) {
         validarId(id, "ID do usuário");
         
-        User user = userRepository.findById(id)
+        // Trava o usuário antes de alterá-lo (ver atualizarUsuario)
+        User user = userRepository.travar(id)
                 .orElseThrow(() -> new EntityNotFoundException("Usuário não encontrado com o ID: " + id));
         
         // Atualiza apenas os campos fornecidos (não nulos)
@@ -232,19 +310,27 @@ public class UserService {
             user.setEmail(userPatchRequest.email());
         }
         
-        // Se a senha foi fornecida, atualiza a senha com hash
-        if (userPatchRequest.password() != null && !userPatchRequest.password().isBlank()) {
-            user.setPassword(hashPassword(userPatchRequest.password()));
+        // Se a senha foi fornecida, o hash já vem calculado
+        if (senhaHash != null) {
+            user.setPassword(senhaHash);
         }
         
         // Valida os campos obrigatórios após a atualização parcial
         validarCamposObrigatorios(user);
         
-        // Salva as alterações
+        // Salva as alterações e avança a versão (ETag das leituras) na mesma transação, antes da remoção do cache:
+        // campos e instante vão no mesmo UPDATE, e a versão avança uma vez
+        user.registrarAlteracao(Instant.now());
         userRepository.save(user);
     }
     
     // Remove um usuário pelo ID
+    @Transactional
+    @Caching(evict = {
+            @CacheEvict(cacheNames = CacheConfig.USUARIOS, key = "#id"),
+            @CacheEvict(cacheNames = CacheConfig.USUARIOS_COM_MEDIDAS, key = "#id"),
+            @CacheEvict(cacheNames = CacheConfig.MEDIDAS_DO_USUARIO, key = "#id")
+    })
     public void removerUsuario(Long id) {
         validarId(id, "ID do usuário");
         
@@ -253,8 +339,11 @@ public class UserService {
             throw new EntityNotFoundException("Usuário não encontrado com o ID: " + id);
         }
         
-        // Remove o usuário
+        // Remove o usuário, a sua projeção de última medida e os seus agregados
         userRepository.deleteById(id);
+        latestMeasureService.usuarioRemovido(id);
+        measureRollupService.usuarioRemovido(id);
+        eventPublisher.publishEvent(new MedidasAlteradasEvent(id));
     }
     
     private void validarCamposObrigatorios(User user) {
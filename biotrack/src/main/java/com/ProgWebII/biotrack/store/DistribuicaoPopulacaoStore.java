@@ -0,0 +1,209 @@
+package com.ProgWebII.biotrack.store;
+
+import com.ProgWebII.biotrack.model.FaixaImc;
+import com.ProgWebII.biotrack.model.Imc;
+import com.ProgWebII.biotrack.model.LatestMeasure;
+import com.ProgWebII.biotrack.repository.LatestMeasureRepository;
+import com.ProgWebII.biotrack.repository.LatestMeasureStreamRepository;
+import com.ProgWebII.biotrack.repository.UserRepository;
+import com.ProgWebII.biotrack.repository.projection.VersaoUsuarioProjection;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.Arrays;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Distribuição da população pela última medida de cada usuário: quantidade por {@link FaixaImc}
+ * e histogramas de IMC e gordura corporal para os percentis.
+ * É carregada de tb_latest_measure na inicialização (ou no primeiro acesso) e, depois disso, atualizada
+ * de forma incremental a cada commit que altera as medidas de um usuário: a contribuição antiga do usuário
+ * sai dos contadores e a nova entra. Nenhuma consulta percorre os usuários.
+ * A leitura do banco acontece fora do bloqueio; a revisão do usuário (lida antes da última medida) decide
+ * se o valor lido ainda é o mais novo quando chega a vez de aplicá-lo.
+ * Commits que chegam durante a carga não sabem se o cursor já passou pelo usuário: os IDs ficam guardados
+ * e são relidos ao fim da carga.
+ */
+@Component
+public class DistribuicaoPopulacaoStore {
+
+    // Baldes de 0,1 ponto: percentis com erro máximo de 0,05
+    public static final double RESOLUCAO = 0.1;
+
+    private static final int SEM_VALOR = -1;
+
+    private final LatestMeasureRepository latestMeasureRepository;
+    private final LatestMeasureStreamRepository latestMeasureStreamRepository;
+    private final UserRepository userRepository;
+    private final Imc imc;
+
+    // Contribuição atual de cada usuário, para que possa ser retirada quando a última medida mudar
+    private final Map<Long, Contribuicao> contribuicoes = new HashMap<>();
+    // Revisão do usuário cuja leitura foi aplicada por último; leituras de revisões anteriores são descartadas
+    private final Map<Long, Long> revisoesAplicadas = new HashMap<>();
+    private final long[] usuariosPorFaixa = new long[FaixaImc.values().length];
+    private final HistogramaFixo histogramaImc = new HistogramaFixo(0, 100, RESOLUCAO);
+    private final HistogramaFixo histogramaGordura = new HistogramaFixo(0, 100, RESOLUCAO);
+    private volatile boolean carregada;
+    // Usuários alterados enquanto a carga percorre tb_latest_measure (null fora da carga), protegido por lockCarga
+    private final Object lockCarga = new Object();
+    private Set<Long> alteradosDuranteCarga;
+    // Muda a cada carga: leituras feitas antes dela já estão contidas na carga
+    private volatile long geracao;
+
+    public DistribuicaoPopulacaoStore(LatestMeasureRepository latestMeasureRepository,
+                                      LatestMeasureStreamRepository latestMeasureStreamRepository,
+                                      UserRepository userRepository, Imc imc) {
+        this.latestMeasureRepository = latestMeasureRepository;
+        this.latestMeasureStreamRepository = latestMeasureStreamRepository;
+        this.userRepository = userRepository;
+        this.imc = imc;
+    }
+
+    //Resumo da população com os percentis pedidos (valores em (0, 100])
+    public synchronized ResumoPopulacao resumir(List<Double> percentis) {
+        if (!carregada) {
+            carregar();
+        }
+
+        Map<FaixaImc, Long> porFaixa = new EnumMap<>(FaixaImc.class);
+        for (FaixaImc faixa : FaixaImc.values()) {
+            porFaixa.put(faixa, usuariosPorFaixa[faixa.ordinal()]);
+        }
+        return new ResumoPopulacao(
+                porFaixa,
+                histogramaImc.total(),
+                histogramaGordura.total(),
+                percentis.stream().map(histogramaImc::percentil).toList(),
+                percentis.stream().map(histogramaGordura::percentil).toList());
+    }
+
+    //Descarta os contadores e recarrega a partir de tb_latest_measure
+    public synchronized int reconstruir() {
+        carregar();
+        return contribuicoes.size();
+    }
+
+    // fallbackExecution: escritas feitas fora de transação também atualizam a distribuição
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public void aoAlterarMedidas(MedidasAlteradasEvent evento) {
+        Long userId = evento.userId();
+        if (!carregada) {
+            synchronized (lockCarga) {
+                if (!carregada) {
+                    if (alteradosDuranteCarga != null) {
+                        alteradosDuranteCarga.add(userId); // Relido ao fim da carga
+                    }
+                    return; // Sem carga em andamento, a próxima vai ler o estado já commitado
+                }
+            }
+        }
+        atualizar(userId);
+    }
+
+    private void atualizar(Long userId) {
+        long geracaoLida = geracao;
+        // A revisão é lida antes da medida: o valor lido é pelo menos tão novo quanto ela.
+        // Usuário removido não volta, então a remoção vence qualquer leitura atrasada.
+        long revisao = userRepository.findVersaoById(userId)
+                .map(VersaoUsuarioProjection::getRevisao)
+                .orElse(Long.MAX_VALUE);
+        LatestMeasure ultima = latestMeasureRepository.findById(userId).orElse(null);
+
+        synchronized (this) {
+            if (geracaoLida != geracao || revisao < revisoesAplicadas.getOrDefault(userId, Long.MIN_VALUE)) {
+                return; // Outra leitura mais nova (ou a recarga) já cobre este commit
+            }
+            revisoesAplicadas.put(userId, revisao);
+            retirar(contribuicoes.remove(userId));
+            if (ultima != null) {
+                registrar(userId, ultima.getWeightKg(), ultima.getHeightCm(), ultima.getBodyFatPercentage());
+            }
+        }
+    }
+
+    // Chamado com o lock da instância: as atualizações esperam o fim da carga
+    private void carregar() {
+        synchronized (lockCarga) {
+            carregada = false;
+            alteradosDuranteCarga = new HashSet<>();
+        }
+        geracao++;
+        contribuicoes.clear();
+        revisoesAplicadas.clear();
+        Arrays.fill(usuariosPorFaixa, 0);
+        histogramaImc.limpar();
+        histogramaGordura.limpar();
+        latestMeasureStreamRepository.percorrerValores(this::registrar);
+
+        Set<Long> alterados;
+        synchronized (lockCarga) {
+            alterados = alteradosDuranteCarga;
+            alteradosDuranteCarga = null;
+            carregada = true;
+        }
+        // O cursor pode ter lido esses usuários antes do commit: relê a última medida de cada um
+        alterados.forEach(this::atualizar);
+    }
+
+    private void registrar(long userId, Double weightKg, Double heightCm, Double bodyFatPercentage) {
+        Double valorImc = imc.calcularImc(weightKg, heightCm);
+        FaixaImc faixa = FaixaImc.deImc(valorImc);
+        boolean temGordura = bodyFatPercentage != null && bodyFatPercentage >= 0;
+        if (faixa == null && !temGordura) {
+            return;
+        }
+
+        Contribuicao contribuicao = new Contribuicao(
+                faixa != null ? faixa.ordinal() : SEM_VALOR,
+                faixa != null ? histogramaImc.balde(valorImc) : SEM_VALOR,
+                temGordura ? histogramaGordura.balde(bodyFatPercentage) : SEM_VALOR);
+        if (contribuicao.faixa() != SEM_VALOR) {
+            usuariosPorFaixa[contribuicao.faixa()]++;
+            histogramaImc.adicionar(contribuicao.baldeImc());
+        }
+        if (contribuicao.baldeGordura() != SEM_VALOR) {
+            histogramaGordura.adicionar(contribuicao.baldeGordura());
+        }
+        contribuicoes.put(userId, contribuicao);
+    }
+
+    private void retirar(Contribuicao contribuicao) {
+        if (contribuicao == null) {
+            return;
+        }
+        if (contribuicao.faixa() != SEM_VALOR) {
+            usuariosPorFaixa[contribuicao.faixa()]--;
+            histogramaImc.remover(contribuicao.baldeImc());
+        }
+        if (contribuicao.baldeGordura() != SEM_VALOR) {
+            histogramaGordura.remover(contribuicao.baldeGordura());
+        }
+    }
+
+    // Guarda a faixa e os baldes (não os valores), que é o necessário para desfazer a contribuição
+    private record Contribuicao(int faixa, int baldeImc, int baldeGordura) {
+    }
+
+    /**
+     * Fotografia da distribuição em um instante.
+     *
+     * @param usuariosPorFaixa   Quantidade de usuários em cada faixa de IMC.
+     * @param usuariosComImc     Usuários cuja última medida tem peso e altura.
+     * @param usuariosComGordura Usuários cuja última medida tem gordura corporal.
+     * @param percentisImc       IMC em cada percentil pedido (null sem usuários).
+     * @param percentisGordura   Gordura corporal em cada percentil pedido (null sem usuários).
+     */
+    public record ResumoPopulacao(Map<FaixaImc, Long> usuariosPorFaixa,
+                                  long usuariosComImc,
+                                  long usuariosComGordura,
+                                  List<Double> percentisImc,
+                                  List<Double> percentisGordura) {
+    }
+}
@@ -0,0 +1,80 @@
+package com.ProgWebII.biotrack.store;
+
+import java.util.Arrays;
+
+/**
+ * Histograma de baldes de largura fixa em [minimo, maximo); valores fora do intervalo caem no primeiro ou no último balde.
+ * Ao contrário de sketches como t-digest ou KLL, aceita remoção exata de um valor (basta decrementar o balde),
+ * o que permite trocar a contribuição de um usuário quando a sua última medida muda.
+ * O custo de um percentil depende só do número de baldes, não da quantidade de valores. Não é thread-safe.
+ */
+public final class HistogramaFixo {
+
+    private final double minimo;
+    private final double largura;
+    private final long[] contagens;
+    private long total;
+
+    public HistogramaFixo(double minimo, double maximo, double largura) {
+        if (!(maximo > minimo) || !(largura > 0)) {
+            throw new IllegalArgumentException("Intervalo ou largura de balde inválidos.");
+        }
+        this.minimo = minimo;
+        this.largura = largura;
+        this.contagens = new long[(int) Math.ceil((maximo - minimo) / largura)];
+    }
+
+    // Índice do balde que recebe o valor
+    public int balde(double valor) {
+        int indice = (int) Math.floor((valor - minimo) / largura);
+        return Math.max(0, Math.min(contagens.length - 1, indice));
+    }
+
+    public void adicionar(int balde) {
+        contagens[balde]++;
+        total++;
+    }
+
+    public void remover(int balde) {
+        if (contagens[balde] == 0) {
+            throw new IllegalStateException("Balde " + balde + " já está vazio.");
+        }
+        contagens[balde]--;
+        total--;
+    }
+
+    public void limpar() {
+        Arrays.fill(contagens, 0);
+        total = 0;
+    }
+
+    public long total() {
+        return total;
+    }
+
+    public double resolucao() {
+        return largura;
+    }
+
+    /**
+     * Percentil pelo critério do posto mais próximo, devolvendo o centro do balde encontrado
+     * (erro máximo de meia largura de balde).
+     *
+     * @param percentil Valor em (0, 100].
+     * @return O valor aproximado do percentil, ou null se o histograma estiver vazio.
+     */
+    public Double percentil(double percentil) {
+        if (total == 0) {
+            return null;
+        }
+        long posto = Math.max(1, (long) Math.ceil(percentil / 100.0 * total));
+        long acumulado = 0;
+        for (int i = 0; i < contagens.length; i++) {
+            acumulado += contagens[i];
+            if (acumulado >= posto) {
+                return minimo + (i + 0.5) * largura;
+            }
+        }
+        return minimo + (contagens.length - 0.5) * largura;
+    }
+}
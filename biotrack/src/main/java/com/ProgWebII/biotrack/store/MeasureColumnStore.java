@@ -0,0 +1,93 @@
+package com.ProgWebII.biotrack.store;
+
+import com.ProgWebII.biotrack.repository.MeasureSeriesRepository;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Armazena em memória o histórico colunar ({@link SerieMedidas}) de cada usuário.
+ * A série é carregada do banco no primeiro acesso e descartada depois do commit de qualquer escrita
+ * nas medidas do usuário; o número de usuários mantidos é limitado (os menos acessados saem primeiro).
+ */
+@Component
+public class MeasureColumnStore {
+
+    private final MeasureSeriesRepository measureSeriesRepository;
+    private final Map<Long, SerieMedidas> series;
+
+    // Incrementado a cada invalidação: uma carga que começou antes dela não pode ser guardada
+    private final AtomicLong geracao = new AtomicLong();
+
+    public MeasureColumnStore(MeasureSeriesRepository measureSeriesRepository,
+                              @Value("${biotrack.medidas.serie.maximo-usuarios:10000}") int maximoUsuarios) {
+        this.measureSeriesRepository = measureSeriesRepository;
+        this.series = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Long, SerieMedidas> maisAntiga) {
+                return size() > maximoUsuarios;
+            }
+        };
+    }
+
+    //Retorna o histórico do usuário, carregando do banco se ainda não estiver em memória
+    public SerieMedidas serieDoUsuario(Long userId) {
+        synchronized (series) {
+            SerieMedidas serie = series.get(userId);
+            if (serie != null) {
+                return serie;
+            }
+        }
+
+        long geracaoAntesDaCarga = geracao.get();
+        SerieMedidas carregada = measureSeriesRepository.carregarSerie(userId);
+
+        synchronized (series) {
+            if (geracao.get() == geracaoAntesDaCarga) {
+                series.put(userId, carregada);
+            }
+        }
+        return carregada;
+    }
+
+    //Retorna o histórico do usuário só se ele já estiver em memória, sem ir ao banco
+    public Optional<SerieMedidas> serieEmMemoria(Long userId) {
+        synchronized (series) {
+            return Optional.ofNullable(series.get(userId));
+        }
+    }
+
+    //Descarta a série de um usuário; a próxima leitura vai ao banco
+    public void invalidar(Long userId) {
+        synchronized (series) {
+            geracao.incrementAndGet();
+            series.remove(userId);
+        }
+    }
+
+    //Descarta todas as séries
+    public void limpar() {
+        synchronized (series) {
+            geracao.incrementAndGet();
+            series.clear();
+        }
+    }
+
+    public int quantidadeDeUsuarios() {
+        synchronized (series) {
+            return series.size();
+        }
+    }
+
+    // fallbackExecution: escritas feitas fora de transação também invalidam a série
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public void aoAlterarMedidas(MedidasAlteradasEvent evento) {
+        invalidar(evento.userId());
+    }
+}
@@ -0,0 +1,15 @@
+package com.ProgWebII.biotrack.store;
+
+import com.ProgWebII.biotrack.dto.response.MedidaResponse;
+
+/**
+ * Publicado pelo MeasureService e pelo MeasureBatchService a cada medida criada ou atualizada, já com a resposta montada.
+ * Alimenta o stream SSE de medidas do usuário; assim como o {@link MedidasAlteradasEvent},
+ * os consumidores reagem depois do commit.
+ *
+ * @param userId O ID do dono da medida.
+ * @param medida A medida como sai na API.
+ * @param nova   true para medida criada, false para medida atualizada.
+ */
+public record MedidaGravadaEvent(Long userId, MedidaResponse medida, boolean nova) {
+}
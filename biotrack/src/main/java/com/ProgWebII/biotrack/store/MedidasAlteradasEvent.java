@@ -0,0 +1,10 @@
+package com.ProgWebII.biotrack.store;
+
+/**
+ * Publicado sempre que as medidas de um usuário mudam (criação, edição, remoção ou remoção do usuário).
+ * Os consumidores reagem depois do commit, para nunca enxergar dados de uma transação desfeita.
+ *
+ * @param userId O ID do usuário afetado.
+ */
+public record MedidasAlteradasEvent(Long userId) {
+}
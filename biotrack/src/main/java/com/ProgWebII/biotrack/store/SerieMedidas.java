@@ -0,0 +1,134 @@
+package com.ProgWebII.biotrack.store;
+
+import com.ProgWebII.biotrack.model.MetricaMedida;
+
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.Arrays;
+
+/**
+ * Histórico de medidas de um usuário em formato colunar.
+ * Cada métrica é um double[] e as datas são epoch millis em um long[], todos alinhados pela mesma posição
+ * e ordenados da medida mais antiga para a mais recente (desempate pelo ID).
+ * Valores não informados ficam como NaN. A instância é imutável depois de construída.
+ */
+public final class SerieMedidas {
+
+    private static final SerieMedidas VAZIA = new SerieMedidas(0, new long[0], new long[0], new double[MetricaMedida.values().length][0]);
+
+    private final int tamanho;
+    private final long[] ids;
+    private final long[] instantes;
+    private final double[][] colunas;
+
+    private SerieMedidas(int tamanho, long[] ids, long[] instantes, double[][] colunas) {
+        this.tamanho = tamanho;
+        this.ids = ids;
+        this.instantes = instantes;
+        this.colunas = colunas;
+    }
+
+    public static SerieMedidas vazia() {
+        return VAZIA;
+    }
+
+    public int tamanho() {
+        return tamanho;
+    }
+
+    public boolean isVazia() {
+        return tamanho == 0;
+    }
+
+    public long id(int posicao) {
+        return ids[posicao];
+    }
+
+    // Data da medição em epoch millis (a data local é tratada como UTC, sem conversão de fuso)
+    public long instante(int posicao) {
+        return instantes[posicao];
+    }
+
+    public LocalDateTime dataMedicao(int posicao) {
+        return LocalDateTime.ofInstant(Instant.ofEpochMilli(instantes[posicao]), ZoneOffset.UTC);
+    }
+
+    // Valor primitivo da métrica; NaN quando não informado
+    public double valor(MetricaMedida metrica, int posicao) {
+        return colunas[metrica.ordinal()][posicao];
+    }
+
+    // Mesmo valor, convertido para o formato das respostas da API
+    public Double valorOuNull(MetricaMedida metrica, int posicao) {
+        double valor = colunas[metrica.ordinal()][posicao];
+        return Double.isNaN(valor) ? null : valor;
+    }
+
+    public static long paraInstante(LocalDateTime data) {
+        return data.toInstant(ZoneOffset.UTC).toEpochMilli();
+    }
+
+    /**
+     * Monta a série linha a linha, crescendo os arrays sob demanda.
+     * As linhas precisam chegar na ordem da série (data e ID crescentes).
+     */
+    public static final class Construtor {
+
+        private int tamanho;
+        private long[] ids;
+        private long[] instantes;
+        private final double[][] colunas;
+
+        public Construtor() {
+            this(16);
+        }
+
+        public Construtor(int capacidadeInicial) {
+            int capacidade = Math.max(capacidadeInicial, 1);
+            this.ids = new long[capacidade];
+            this.instantes = new long[capacidade];
+            this.colunas = new double[MetricaMedida.values().length][capacidade];
+        }
+
+        // Abre uma nova linha com todas as métricas em NaN
+        public Construtor novaLinha(long id, long instante) {
+            if (tamanho == ids.length) {
+                crescer();
+            }
+            ids[tamanho] = id;
+            instantes[tamanho] = instante;
+            for (double[] coluna : colunas) {
+                coluna[tamanho] = Double.NaN;
+            }
+            tamanho++;
+            return this;
+        }
+
+        // Define o valor de uma métrica na linha aberta por último
+        public Construtor valor(MetricaMedida metrica, double valor) {
+            colunas[metrica.ordinal()][tamanho - 1] = valor;
+            return this;
+        }
+
+        public SerieMedidas construir() {
+            if (tamanho == 0) {
+                return VAZIA;
+            }
+            double[][] ajustadas = new double[colunas.length][];
+            for (int i = 0; i < colunas.length; i++) {
+                ajustadas[i] = Arrays.copyOf(colunas[i], tamanho);
+            }
+            return new SerieMedidas(tamanho, Arrays.copyOf(ids, tamanho), Arrays.copyOf(instantes, tamanho), ajustadas);
+        }
+
+        private void crescer() {
+            int capacidade = ids.length * 2;
+            ids = Arrays.copyOf(ids, capacidade);
+            instantes = Arrays.copyOf(instantes, capacidade);
+            for (int i = 0; i < colunas.length; i++) {
+                colunas[i] = Arrays.copyOf(colunas[i], capacidade);
+            }
+        }
+    }
+}
@@ -0,0 +1,82 @@
+-- Schema inicial: usuários, medidas e as projeções derivadas de tb_measure (última medida e agregados).
+-- Os nomes e tipos seguem o mapeamento das entidades, que o Hibernate confere na inicialização (ddl-auto=validate).
+
+-- IDs das medidas alocados em blocos de 50 pelo Hibernate (allocationSize de Measure)
+create sequence seq_measure start with 1 increment by 50;
+
+create table tb_users (
+    id               bigint generated by default as identity,
+    name             varchar(100) not null,
+    birth_date       date not null,
+    zip_code         varchar(9),
+    email            varchar(100) not null,
+    password         varchar(255) not null,
+    -- Versão e instante da última escrita do usuário ou das medidas dele (ETag e Last-Modified)
+    revisao          bigint not null default 0,
+    ultima_alteracao timestamp(6) with time zone,
+    constraint pk_users primary key (id),
+    constraint uk_users_email unique (email)
+);
+
+create table tb_measure (
+    id                  bigint not null,
+    user_id             bigint not null,
+    measurement_date    timestamp(6) not null,
+    weight_kg           float(53) not null,
+    height_cm           float(53),
+    waist_cm            float(53),
+    hip_cm              float(53),
+    chest_cm            float(53),
+    arm_right_cm        float(53),
+    arm_left_cm         float(53),
+    thigh_right_cm      float(53),
+    thigh_left_cm       float(53),
+    body_fat_percentage float(53),
+    constraint pk_measure primary key (id)
+);
+
+-- Histórico de um usuário da medida mais recente para a mais antiga
+create index idx_measure_user_data on tb_measure (user_id, measurement_date desc, id desc);
+
+-- Chave estrangeira depois do índice: o H2 usa o índice acima (que começa por user_id) para ela,
+-- em vez de criar um índice só de user_id que o otimizador passaria a preferir nas consultas por intervalo de datas
+alter table tb_measure add constraint fk_measure_user foreign key (user_id) references tb_users (id);
+
+-- Projeção com a medida mais recente de cada usuário (LatestMeasure)
+create table tb_latest_measure (
+    user_id             bigint not null,
+    measure_id          bigint not null,
+    measurement_date    timestamp(6) not null,
+    weight_kg           float(53) not null,
+    height_cm           float(53),
+    waist_cm            float(53),
+    hip_cm              float(53),
+    chest_cm            float(53),
+    arm_right_cm        float(53),
+    arm_left_cm         float(53),
+    thigh_right_cm      float(53),
+    thigh_left_cm       float(53),
+    body_fat_percentage float(53),
+    imc                 float(53),
+    constraint pk_latest_measure primary key (user_id),
+    constraint idx_latest_measure_measure unique (measure_id)
+);
+
+-- Filtro por faixa de IMC: lê só o intervalo do índice
+create index idx_latest_measure_imc on tb_latest_measure (imc, user_id);
+
+-- Agregados por métrica e balde de tempo (MeasureRollup); granularidade e métrica gravadas pelo nome do enum
+create table tb_measure_rollup (
+    user_id       bigint not null,
+    granularidade varchar(10) not null,
+    inicio        date not null,
+    metrica       varchar(20) not null,
+    quantidade    bigint not null,
+    soma          float(53) not null,
+    minimo        float(53) not null,
+    maximo        float(53) not null,
+    constraint pk_measure_rollup primary key (user_id, granularidade, inicio, metrica)
+);
+
+-- Série de uma métrica de um usuário em uma granularidade, em ordem de início
+create index idx_measure_rollup_serie on tb_measure_rollup (user_id, granularidade, metrica, inicio);
@@ -0,0 +1,22 @@
+-- Pontos de retomada da importação de medidas em arquivo (MeasureImportService).
+-- Cada bloco do arquivo é gravado na mesma transação das suas medidas: um bloco registrado aqui já está inteiro
+-- em tb_measure, e a importação reiniciada pula os blocos registrados.
+
+-- Uma linha por arquivo, com o tamanho do bloco usado na primeira execução (os limites dos blocos dependem dele)
+create table tb_importacao_medidas (
+    arquivo         varchar(500) not null,
+    tamanho_arquivo bigint not null,
+    tamanho_bloco   bigint not null,
+    iniciada_em     timestamp(6) with time zone not null,
+    constraint pk_importacao_medidas primary key (arquivo)
+);
+
+create table tb_importacao_medidas_bloco (
+    arquivo    varchar(500) not null,
+    inicio     bigint not null,
+    fim        bigint not null,
+    inseridas  integer not null,
+    rejeitadas integer not null,
+    constraint pk_importacao_medidas_bloco primary key (arquivo, inicio),
+    constraint fk_importacao_medidas_bloco foreign key (arquivo) references tb_importacao_medidas (arquivo)
+);
@@ -0,0 +1,38 @@
+package com.ProgWebII.biotrack.repository;
+
+import com.ProgWebII.biotrack.model.Measure;
+import com.ProgWebII.biotrack.model.User;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+/**
+ * Entidades de teste compartilhadas pelos testes de repositório.
+ * Só os campos obrigatórios são preenchidos; a altura fixa em 175 cm deixa o IMC em função do peso.
+ */
+final class DadosRepositorio {
+
+    static final LocalDate DATA_NASCIMENTO = LocalDate.of(1990, 5, 15);
+
+    private DadosRepositorio() {
+    }
+
+    static User usuario(String nome, String email) {
+        return User.builder()
+                .name(nome)
+                .birthDate(DATA_NASCIMENTO)
+                .zipCode("12345-678")
+                .email(email)
+                .password("senhaHasheada123")
+                .build();
+    }
+
+    static Measure medida(User usuario, LocalDateTime data, double pesoKg) {
+        return Measure.builder()
+                .measurementDate(data)
+                .weightKg(pesoKg)
+                .heightCm(175.0)
+                .user(usuario)
+                .build();
+    }
+}
@@ -0,0 +1,78 @@
+package com.ProgWebII.biotrack.repository;
+
+import com.ProgWebII.biotrack.model.LatestMeasure;
+import com.ProgWebII.biotrack.model.User;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+
+import java.time.LocalDateTime;
+import java.util.Optional;
+
+import static com.ProgWebII.biotrack.repository.DadosRepositorio.medida;
+import static com.ProgWebII.biotrack.repository.DadosRepositorio.usuario;
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Testes de integração para LatestMeasureRepository.
+ */
+@DataJpaTest
+@DisplayName("Testes de Integração - LatestMeasureRepository")
+class LatestMeasureRepositoryTest {
+
+    @Autowired
+    private LatestMeasureRepository latestMeasureRepository;
+
+    @Autowired
+    private TestEntityManager entityManager;
+
+    private User joao;
+    private User maria;
+
+    @BeforeEach
+    void setUp() {
+        joao = entityManager.persist(usuario("João Silva", "joao.silva@email.com"));
+        maria = entityManager.persist(usuario("Maria Santos", "maria.santos@email.com"));
+        entityManager.persist(usuario("Sem Medidas", "sem.medidas@email.com"));
+
+        entityManager.persist(medida(joao, LocalDateTime.of(2024, 1, 10, 10, 0), 75.0));
+        entityManager.persist(medida(joao, LocalDateTime.of(2024, 3, 10, 10, 0), 77.0));
+        entityManager.persist(medida(joao, LocalDateTime.of(2024, 2, 10, 10, 0), 76.0));
+        entityManager.persist(medida(maria, LocalDateTime.of(2024, 5, 1, 8, 0), 60.0));
+        entityManager.flush();
+    }
+
+    @Test
+    @DisplayName("Deve reconstruir a projeção com a medida mais recente de cada usuário")
+    void deveReconstruirProjecaoComMedidaMaisRecente() {
+        // When
+        int inseridos = latestMeasureRepository.reconstruirAPartirDasMedidas();
+        entityManager.clear();
+
+        // Then
+        assertThat(inseridos).isEqualTo(2);
+        Optional<LatestMeasure> ultimaJoao = latestMeasureRepository.findById(joao.getId());
+        assertThat(ultimaJoao).isPresent();
+        assertThat(ultimaJoao.get().getWeightKg()).isEqualTo(77.0);
+        assertThat(ultimaJoao.get().getMeasurementDate()).isEqualTo(LocalDateTime.of(2024, 3, 10, 10, 0));
+        assertThat(latestMeasureRepository.findById(maria.getId()).get().getWeightKg()).isEqualTo(60.0);
+    }
+
+    @Test
+    @DisplayName("Deve buscar a projeção pelo ID da medida")
+    void deveBuscarProjecaoPeloIdDaMedida() {
+        // Given
+        latestMeasureRepository.reconstruirAPartirDasMedidas();
+        Long medidaId = latestMeasureRepository.findById(maria.getId()).get().getMeasureId();
+
+        // When
+        Optional<LatestMeasure> resultado = latestMeasureRepository.findByMeasureId(medidaId);
+
+        // Then
+        assertThat(resultado).isPresent();
+        assertThat(resultado.get().getUserId()).isEqualTo(maria.getId());
+    }
+}
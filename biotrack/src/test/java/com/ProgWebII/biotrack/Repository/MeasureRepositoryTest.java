@@ -1,16 +1,21 @@
 package com.ProgWebII.biotrack.repository;
 
 import com.ProgWebII.biotrack.model.Measure;
+import com.ProgWebII.biotrack.model.MetricaMedida;
 import com.ProgWebII.biotrack.model.User;
+import com.ProgWebII.biotrack.repository.projection.MedidaReferenciaProjection;
+import com.ProgWebII.biotrack.store.SerieMedidas;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
 import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.context.annotation.Import;
 
 import java.time.LocalDate;
 import java.time.LocalDateTime;
+import java.util.EnumSet;
 import java.util.List;
 import java.util.Optional;
 
@@ -20,12 +25,16 @@ import static org.assertj.core.api.Assertions.assertThat;
  * Testes de integração para MeasureRepository.
  */
 @DataJpaTest
+@Import(MeasureSeriesRepository.class)
 @DisplayName("Testes de Integração - MeasureRepository")
 class MeasureRepositoryTest {
 
     @Autowired
     private MeasureRepository measureRepository;
 
+    @Autowired
+    private MeasureSeriesRepository measureSeriesRepository;
+
     @Autowired
     private TestEntityManager entityManager;
 
@@ -243,4 +252,73 @@ class MeasureRepositoryTest {
         // Then
         assertThat(medidas).isEmpty();
     }
-}
\ No newline at end of file
+
+    @Test
+    @DisplayName("Deve buscar o usuário dono e a data da medida")
+    void deveBuscarUsuarioDonoEDataDaMedida() {
+        // Given
+        Measure medidaSalva = entityManager.persistAndFlush(medidaTeste);
+
+        // When
+        Optional<MedidaReferenciaProjection> referencia = measureRepository.findReferenciaById(medidaSalva.getId());
+
+        // Then
+        assertThat(referencia).isPresent();
+        assertThat(referencia.get().getUserId()).isEqualTo(usuarioTeste.getId());
+        assertThat(referencia.get().getMeasurementDate()).isEqualTo(medidaTeste.getMeasurementDate());
+        assertThat(measureRepository.findReferenciaById(999L)).isEmpty();
+    }
+
+    @Test
+    @DisplayName("Deve carregar a série colunar em ordem cronológica com NaN nos valores ausentes")
+    void deveCarregarSerieColunarEmOrdemCronologica() {
+        // Given
+        entityManager.persist(medidaTeste);
+        Measure anterior = entityManager.persist(Measure.builder()
+                .measurementDate(LocalDateTime.of(2023, 12, 1, 8, 0))
+                .weightKg(77.0)
+                .user(usuarioTeste)
+                .build());
+        entityManager.flush();
+
+        // When
+        SerieMedidas serie = measureSeriesRepository.carregarSerie(usuarioTeste.getId());
+
+        // Then
+        assertThat(serie.tamanho()).isEqualTo(2);
+        assertThat(serie.id(0)).isEqualTo(anterior.getId());
+        assertThat(serie.dataMedicao(0)).isEqualTo(LocalDateTime.of(2023, 12, 1, 8, 0));
+        assertThat(serie.valor(MetricaMedida.PESO, 0)).isEqualTo(77.0);
+        assertThat(serie.valor(MetricaMedida.CINTURA, 0)).isNaN();
+        assertThat(serie.valor(MetricaMedida.GORDURA_CORPORAL, 1)).isEqualTo(18.5);
+        assertThat(measureSeriesRepository.carregarSerie(999L).isVazia()).isTrue();
+    }
+
+    @Test
+    @DisplayName("Deve carregar só o intervalo, as métricas pedidas e até o limite de linhas")
+    void deveCarregarSerieFiltradaPorIntervaloEMetricas() {
+        // Given
+        for (int dia = 1; dia <= 5; dia++) {
+            entityManager.persist(Measure.builder()
+                    .measurementDate(LocalDateTime.of(2024, 3, dia, 8, 0))
+                    .weightKg(70.0 + dia)
+                    .waistCm(80.0 + dia)
+                    .heightCm(175.0)
+                    .user(usuarioTeste)
+                    .build());
+        }
+        entityManager.flush();
+
+        // When
+        SerieMedidas serie = measureSeriesRepository.carregarSerie(usuarioTeste.getId(),
+                LocalDateTime.of(2024, 3, 2, 0, 0), LocalDateTime.of(2024, 3, 4, 8, 0),
+                EnumSet.of(MetricaMedida.PESO), 2);
+
+        // Then: dias 2 e 3 (o limite corta o dia 4), sem as colunas não pedidas
+        assertThat(serie.tamanho()).isEqualTo(2);
+        assertThat(serie.dataMedicao(0)).isEqualTo(LocalDateTime.of(2024, 3, 2, 8, 0));
+        assertThat(serie.valor(MetricaMedida.PESO, 1)).isEqualTo(73.0);
+        assertThat(serie.valor(MetricaMedida.CINTURA, 0)).isNaN();
+        assertThat(serie.valor(MetricaMedida.ALTURA, 0)).isNaN();
+    }
+}
@@ -0,0 +1,147 @@
+package com.ProgWebII.biotrack.repository;
+
+import com.ProgWebII.biotrack.dto.response.PontoAgregadoResponse;
+import com.ProgWebII.biotrack.model.GranularidadeRollup;
+import com.ProgWebII.biotrack.model.Measure;
+import com.ProgWebII.biotrack.model.MetricaMedida;
+import com.ProgWebII.biotrack.model.User;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static com.ProgWebII.biotrack.repository.DadosRepositorio.medida;
+import static com.ProgWebII.biotrack.repository.DadosRepositorio.usuario;
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Testes de integração para MeasureRollupRepository.
+ * Confere que os baldes gerados pelo DATE_TRUNC do banco coincidem com os de GranularidadeRollup.
+ */
+@DataJpaTest
+@DisplayName("Testes de Integração - MeasureRollupRepository")
+class MeasureRollupRepositoryTest {
+
+    @Autowired
+    private MeasureRollupRepository measureRollupRepository;
+
+    @Autowired
+    private TestEntityManager entityManager;
+
+    private User joao;
+    private User maria;
+    private Measure medidaDoMaximo;
+
+    @BeforeEach
+    void setUp() {
+        joao = entityManager.persist(usuario("João Silva", "joao.silva@email.com"));
+        maria = entityManager.persist(usuario("Maria Santos", "maria.santos@email.com"));
+
+        // 2024-01-01 é uma segunda-feira
+        entityManager.persist(medida(joao, LocalDateTime.of(2024, 1, 1, 8, 0), 70.0));
+        entityManager.persist(medida(joao, LocalDateTime.of(2024, 1, 3, 8, 0), 72.0));
+        medidaDoMaximo = entityManager.persist(medida(joao, LocalDateTime.of(2024, 1, 3, 20, 0), 74.0));
+        entityManager.persist(medida(joao, LocalDateTime.of(2024, 1, 10, 8, 0), 76.0));
+        entityManager.persist(medida(joao, LocalDateTime.of(2024, 2, 5, 8, 0), 80.0));
+        entityManager.persist(medida(maria, LocalDateTime.of(2024, 1, 2, 8, 0), 60.0));
+        entityManager.flush();
+    }
+
+    @Test
+    @DisplayName("Deve reconstruir um agregado por usuário, balde e métrica preenchida")
+    void deveReconstruirAgregadosPorGranularidade() {
+        // When
+        int dias = measureRollupRepository.reconstruir(GranularidadeRollup.DIA);
+        int semanas = measureRollupRepository.reconstruir(GranularidadeRollup.SEMANA);
+        int meses = measureRollupRepository.reconstruir(GranularidadeRollup.MES);
+
+        // Then: só peso e altura estão preenchidos, então cada balde gera dois agregados
+        assertThat(dias).isEqualTo(2 * 5);
+        assertThat(semanas).isEqualTo(2 * 4);
+        assertThat(meses).isEqualTo(2 * 3);
+        assertThat(measureRollupRepository.count()).isEqualTo(24);
+    }
+
+    @Test
+    @DisplayName("Deve agregar por semana ISO começando na segunda-feira")
+    void deveAgregarPorSemanaIso() {
+        // Given
+        measureRollupRepository.reconstruir(GranularidadeRollup.SEMANA);
+
+        // When
+        List<PontoAgregadoResponse> pontos = measureRollupRepository.findPontos(joao.getId(),
+                GranularidadeRollup.SEMANA, MetricaMedida.PESO, LocalDate.of(2024, 1, 1), LocalDate.of(2024, 12, 31));
+
+        // Then
+        assertThat(pontos).containsExactly(
+                new PontoAgregadoResponse(LocalDate.of(2024, 1, 1), 3, 72.0, 70.0, 74.0),
+                new PontoAgregadoResponse(LocalDate.of(2024, 1, 8), 1, 76.0, 76.0, 76.0),
+                new PontoAgregadoResponse(LocalDate.of(2024, 2, 5), 1, 80.0, 80.0, 80.0));
+    }
+
+    @Test
+    @DisplayName("Deve agregar por mês e respeitar o intervalo consultado")
+    void deveAgregarPorMesNoIntervalo() {
+        // Given
+        measureRollupRepository.reconstruir(GranularidadeRollup.MES);
+
+        // When
+        List<PontoAgregadoResponse> pontos = measureRollupRepository.findPontos(joao.getId(),
+                GranularidadeRollup.MES, MetricaMedida.PESO, LocalDate.of(2024, 1, 1), LocalDate.of(2024, 1, 31));
+
+        // Then
+        assertThat(pontos).containsExactly(new PontoAgregadoResponse(LocalDate.of(2024, 1, 1), 4, 73.0, 70.0, 76.0));
+    }
+
+    @Test
+    @DisplayName("Deve recalcular o balde após remoção sem afetar outros usuários e baldes")
+    void deveRecalcularBaldeAposRemocao() {
+        // Given
+        measureRollupRepository.reconstruir(GranularidadeRollup.DIA);
+        entityManager.remove(medidaDoMaximo);
+
+        // When
+        int gravados = measureRollupRepository.recalcular(joao.getId(), GranularidadeRollup.DIA,
+                LocalDate.of(2024, 1, 3), LocalDate.of(2024, 1, 4));
+
+        // Then: o máximo do dia volta a ser a medida restante
+        assertThat(gravados).isEqualTo(2);
+        assertThat(measureRollupRepository.findPontos(joao.getId(), GranularidadeRollup.DIA, MetricaMedida.PESO,
+                LocalDate.of(2024, 1, 1), LocalDate.of(2024, 1, 31)))
+                .containsExactly(
+                        new PontoAgregadoResponse(LocalDate.of(2024, 1, 1), 1, 70.0, 70.0, 70.0),
+                        new PontoAgregadoResponse(LocalDate.of(2024, 1, 3), 1, 72.0, 72.0, 72.0),
+                        new PontoAgregadoResponse(LocalDate.of(2024, 1, 10), 1, 76.0, 76.0, 76.0));
+        assertThat(measureRollupRepository.findPontos(maria.getId(), GranularidadeRollup.DIA, MetricaMedida.PESO,
+                LocalDate.of(2024, 1, 1), LocalDate.of(2024, 1, 31))).hasSize(1);
+    }
+
+    @Test
+    @DisplayName("Deve remover o balde quando a última medida dele é removida")
+    void deveRemoverBaldeVazio() {
+        // Given
+        measureRollupRepository.reconstruir(GranularidadeRollup.MES);
+        entityManager.getEntityManager()
+                .createQuery("DELETE FROM Measure m WHERE m.user.id = :userId AND m.measurementDate >= :inicio")
+                .setParameter("userId", joao.getId())
+                .setParameter("inicio", LocalDateTime.of(2024, 2, 1, 0, 0))
+                .executeUpdate();
+
+        // When
+        int gravados = measureRollupRepository.recalcular(joao.getId(), GranularidadeRollup.MES,
+                LocalDate.of(2024, 2, 1), LocalDate.of(2024, 3, 1));
+
+        // Then
+        assertThat(gravados).isZero();
+        assertThat(measureRollupRepository.findPontos(joao.getId(), GranularidadeRollup.MES, MetricaMedida.PESO,
+                LocalDate.of(2024, 1, 1), LocalDate.of(2024, 12, 31)))
+                .extracting(PontoAgregadoResponse::inicio)
+                .containsExactly(LocalDate.of(2024, 1, 1));
+    }
+}
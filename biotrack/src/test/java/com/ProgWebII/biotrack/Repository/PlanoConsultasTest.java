@@ -0,0 +1,241 @@
+package com.ProgWebII.biotrack.repository;
+
+import com.ProgWebII.biotrack.config.ContadorSqlConfig;
+import com.ProgWebII.biotrack.config.ContadorSqlConfig.ContadorSql;
+import com.ProgWebII.biotrack.model.FaixaImc;
+import com.ProgWebII.biotrack.model.GranularidadeRollup;
+import com.ProgWebII.biotrack.model.Measure;
+import com.ProgWebII.biotrack.model.MetricaMedida;
+import com.ProgWebII.biotrack.model.User;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.context.annotation.Import;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Set;
+
+import static com.ProgWebII.biotrack.repository.DadosRepositorio.medida;
+import static com.ProgWebII.biotrack.repository.DadosRepositorio.usuario;
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Confere os planos de execução do H2 das consultas dos repositórios.
+ * Cada teste executa as consultas de um caminho, captura o SQL gerado (Hibernate ou JDBC) com o
+ * {@link ContadorSqlConfig}, imprime o EXPLAIN de cada comando e falha se algum deles varrer uma tabela inteira.
+ * Leituras que por natureza percorrem a tabela toda (carga da distribuição, reconstruções) não entram nos testes.
+ */
+@DataJpaTest
+@Import({ContadorSqlConfig.class, MeasureSeriesRepository.class, UserStreamRepository.class,
+        MeasureStreamRepository.class})
+@DisplayName("Testes de Integração - Planos de execução das consultas")
+class PlanoConsultasTest {
+
+    private static final String VARREDURA_COMPLETA = "tableScan";
+
+    @Autowired
+    private MeasureRepository measureRepository;
+
+    @Autowired
+    private MeasureSeriesRepository measureSeriesRepository;
+
+    @Autowired
+    private MeasureStreamRepository measureStreamRepository;
+
+    @Autowired
+    private LatestMeasureRepository latestMeasureRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private UserStreamRepository userStreamRepository;
+
+    @Autowired
+    private MeasureRollupRepository measureRollupRepository;
+
+    @Autowired
+    private TestEntityManager entityManager;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private ContadorSql contadorSql;
+
+    private User usuario;
+    private Measure medida;
+
+    @BeforeEach
+    void setUp() {
+        for (int i = 1; i <= 20; i++) {
+            User outro = entityManager.persist(usuario("Usuário " + i, "usuario" + i + "@email.com"));
+            entityManager.persist(medida(outro, LocalDateTime.of(2024, 1, 1, 8, 0).plusDays(i), 60.0 + i));
+        }
+        usuario = entityManager.persist(usuario("João Silva", "joao.silva@email.com"));
+        for (int i = 0; i < 20; i++) {
+            medida = entityManager.persist(medida(usuario, LocalDateTime.of(2024, 1, 1, 8, 0).plusDays(i), 75.0));
+        }
+        entityManager.flush();
+        latestMeasureRepository.reconstruirAPartirDasMedidas();
+        for (GranularidadeRollup granularidade : GranularidadeRollup.values()) {
+            measureRollupRepository.reconstruir(granularidade);
+        }
+        entityManager.clear();
+        contadorSql.limpar();
+    }
+
+    @Test
+    @DisplayName("Consultas de medidas por usuário devem usar índices")
+    void consultasDeMedidasDevemUsarIndices() {
+        // When
+        measureRepository.findByUserIdOrderByMeasurementDateDesc(usuario.getId());
+        measureRepository.findTopByUserIdOrderByMeasurementDateDesc(usuario.getId());
+        measureRepository.findFirstByUserIdOrderByMeasurementDateDescIdDesc(usuario.getId());
+        measureRepository.findReferenciaById(medida.getId());
+        measureRepository.findMedidaResponseByIdAndUserId(medida.getId(), usuario.getId());
+        measureSeriesRepository.carregarSerie(usuario.getId());
+
+        // Then
+        List<String> planos = planosDosComandosCapturados();
+        assertThat(planos).hasSizeGreaterThanOrEqualTo(6).noneMatch(plano -> plano.contains(VARREDURA_COMPLETA));
+    }
+
+    @Test
+    @DisplayName("Listagem filtrada deve ler o intervalo pelo índice composto e só as colunas pedidas")
+    void listagemFiltradaDeveUsarIndiceComposto() {
+        // When
+        measureSeriesRepository.carregarSerie(usuario.getId(), LocalDateTime.of(2024, 1, 5, 0, 0),
+                LocalDateTime.of(2024, 1, 10, 0, 0), EnumSet.of(MetricaMedida.PESO, MetricaMedida.CINTURA), 3);
+
+        // Then
+        assertThat(contadorSql.comandos()).singleElement().satisfies(sql -> assertThat(sql)
+                .contains("weight_kg", "waist_cm").doesNotContain("height_cm", "body_fat_percentage"));
+        List<String> planos = planosDosComandosCapturados();
+        assertThat(planos.get(0)).doesNotContain(VARREDURA_COMPLETA)
+                .contains("IDX_MEASURE_USER_DATA:", "MEASUREMENT_DATE >= ?2");
+    }
+
+    @Test
+    @DisplayName("Cursores da exportação devem sair na ordem do índice composto, sem ordenação no banco")
+    void cursoresDaExportacaoDevemSeguirOIndice() {
+        // When
+        measureStreamRepository.percorrerMedidas(usuario.getId(), (userId, id, data, valores) -> { });
+        measureStreamRepository.percorrerMedidasDosUsuarios(1, usuario.getId(), (userId, id, data, valores) -> { });
+
+        // Then: com o índice já na ordem pedida, o H2 entrega as linhas conforme lê, sem juntar tudo para ordenar
+        List<String> planos = planosDosComandosCapturados();
+        assertThat(planos).hasSize(2).allSatisfy(plano -> assertThat(plano)
+                .contains("IDX_MEASURE_USER_DATA:").endsWith("/* index sorted */"));
+    }
+
+    @Test
+    @DisplayName("Cursor das tendências deve cortar a maior janela no índice composto")
+    void cursorDasTendenciasDeveCortarAJanelaNoIndice() {
+        // When
+        List<LocalDateTime> datas = new ArrayList<>();
+        measureStreamRepository.percorrerMedidasRecentes(usuario.getId(), 5, (userId, id, data, valores) -> datas.add(data));
+
+        // Then: de 01/01 a 20/01, só os 5 dias antes da mais recente (inclusive) saem do banco
+        assertThat(datas).hasSize(6).first().isEqualTo(LocalDateTime.of(2024, 1, 20, 8, 0));
+        assertThat(datas).last().isEqualTo(LocalDateTime.of(2024, 1, 15, 8, 0));
+        List<String> planos = planosDosComandosCapturados();
+        assertThat(planos).singleElement().satisfies(plano -> assertThat(plano)
+                .doesNotContain(VARREDURA_COMPLETA).contains("IDX_MEASURE_USER_DATA: USER_ID = ?1")
+                .contains("MEASUREMENT_DATE >=").endsWith("/* index sorted */"));
+    }
+
+    @Test
+    @DisplayName("Consultas da última medida e de usuários devem usar índices")
+    void consultasDaUltimaMedidaEDeUsuariosDevemUsarIndices() {
+        // When
+        latestMeasureRepository.findById(usuario.getId());
+        latestMeasureRepository.findByMeasureId(medida.getId());
+        userRepository.findById(usuario.getId());
+        userRepository.existsById(usuario.getId());
+        userRepository.findVersaoById(usuario.getId());
+        userRepository.findIdsExistentes(Set.of(usuario.getId(), 999L));
+        userRepository.findPaginaAposId(0, Limit.of(5));
+        userRepository.findUsuariosPorFaixaImc(FaixaImc.SOBREPESO.getImcMinimo(), FaixaImc.SOBREPESO.getImcMaximo(),
+                PageRequest.of(1, 2));
+        userStreamRepository.percorrerUsuarios(usuario.getId() - 5, usuarioLido -> { });
+        userStreamRepository.existe(usuario.getId());
+
+        // Then
+        List<String> planos = planosDosComandosCapturados();
+        assertThat(planos).hasSizeGreaterThanOrEqualTo(10).noneMatch(plano -> plano.contains(VARREDURA_COMPLETA));
+    }
+
+    @Test
+    @DisplayName("Consultas e recálculo dos agregados devem usar índices")
+    void consultasDosAgregadosDevemUsarIndices() {
+        // When
+        measureRollupRepository.findPontos(usuario.getId(), GranularidadeRollup.SEMANA, MetricaMedida.PESO,
+                LocalDate.of(2024, 1, 1), LocalDate.of(2024, 12, 31));
+        measureRollupRepository.recalcular(usuario.getId(), GranularidadeRollup.MES,
+                LocalDate.of(2024, 1, 1), LocalDate.of(2024, 2, 1));
+
+        // Then
+        List<String> planos = planosDosComandosCapturados();
+        assertThat(planos).hasSizeGreaterThanOrEqualTo(3).noneMatch(plano -> plano.contains(VARREDURA_COMPLETA));
+        // O intervalo de datas do usuário é lido pelo índice composto (user_id, measurement_date)
+        assertThat(planos).anyMatch(plano -> plano.contains("IDX_MEASURE_USER_DATA: MEASUREMENT_DATE >="));
+    }
+
+    @Test
+    @DisplayName("Usuários sem medidas: varre tb_users por natureza, mas consulta tb_measure pelo índice")
+    void usuariosSemMedidasDevemConsultarMedidasPeloIndice() {
+        // When
+        userRepository.findUsersWithoutMeasures();
+
+        // Then: a anti-junção percorre todos os usuários; cada verificação em tb_measure é uma busca no índice
+        List<String> planos = planosDosComandosCapturados();
+        assertThat(planos).hasSize(1);
+        assertThat(planos.get(0)).contains("TB_USERS." + VARREDURA_COMPLETA)
+                .doesNotContain("TB_MEASURE." + VARREDURA_COMPLETA);
+    }
+
+    // Executa EXPLAIN para cada comando capturado desde o último limpar() e imprime o plano
+    private List<String> planosDosComandosCapturados() {
+        List<String> comandos = contadorSql.comandos();
+        List<String> planos = new ArrayList<>();
+        for (String comando : comandos) {
+            String plano = explicar(comando);
+            System.out.println("EXPLAIN " + comando + System.lineSeparator() + "    -> " + plano.replace("\n", " "));
+            planos.add(plano);
+        }
+        contadorSql.limpar();
+        return planos;
+    }
+
+    // Os parâmetros ficam sem valor: o H2 monta o plano na preparação do comando
+    private String explicar(String comando) {
+        return jdbcTemplate.execute((java.sql.Connection conexao) -> {
+            try (PreparedStatement ps = conexao.prepareStatement("EXPLAIN " + comando)) {
+                int parametros = ps.getParameterMetaData().getParameterCount();
+                for (int i = 1; i <= parametros; i++) {
+                    ps.setObject(i, null);
+                }
+                try (ResultSet rs = ps.executeQuery()) {
+                    StringBuilder plano = new StringBuilder();
+                    while (rs.next()) {
+                        plano.append(rs.getString(1));
+                    }
+                    return plano.toString();
+                }
+            }
+        });
+    }
+}
@@ -0,0 +1,121 @@
+package com.ProgWebII.biotrack.repository;
+
+import com.ProgWebII.biotrack.model.FaixaImc;
+import com.ProgWebII.biotrack.model.User;
+import com.ProgWebII.biotrack.repository.projection.UsuarioImcProjection;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+
+import java.time.LocalDateTime;
+
+import static com.ProgWebII.biotrack.repository.DadosRepositorio.DATA_NASCIMENTO;
+import static com.ProgWebII.biotrack.repository.DadosRepositorio.medida;
+import static com.ProgWebII.biotrack.repository.DadosRepositorio.usuario;
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Testes de integração da consulta de usuários por faixa de IMC.
+ * As estatísticas do Hibernate são usadas para garantir que a consulta não faz uma ida ao banco por usuário.
+ * A projeção tb_latest_measure é reconstruída no setUp, já que as medidas são gravadas direto pelo EntityManager.
+ */
+@DataJpaTest(properties = "spring.jpa.properties.hibernate.generate_statistics=true")
+@DisplayName("Testes de Integração - UserRepository (filtro por IMC)")
+class UserRepositoryFiltroImcTest {
+
+    private static final int TOTAL_USUARIOS = 50;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private LatestMeasureRepository latestMeasureRepository;
+
+    @Autowired
+    private TestEntityManager entityManager;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    private Statistics statistics;
+
+    @BeforeEach
+    void setUp() {
+        // Usuários com ID par terminam com peso normal (IMC ~22,9); os ímpares terminam com sobrepeso (IMC ~27,8).
+        // A medida mais antiga de cada usuário tem a faixa oposta, para garantir que apenas a mais recente conta.
+        for (int i = 1; i <= TOTAL_USUARIOS; i++) {
+            User usuario = entityManager.persist(usuario("Usuário " + i, "usuario" + i + "@email.com"));
+
+            boolean pesoNormal = i % 2 == 0;
+            entityManager.persist(medida(usuario, LocalDateTime.of(2024, 1, 10, 10, 0), pesoNormal ? 85.0 : 70.0));
+            entityManager.persist(medida(usuario, LocalDateTime.of(2024, 6, 10, 10, 0), pesoNormal ? 70.0 : 85.0));
+        }
+
+        // Usuário sem medidas não deve aparecer em nenhuma faixa
+        entityManager.persist(usuario("Sem Medidas", "sem.medidas@email.com"));
+
+        entityManager.flush();
+        latestMeasureRepository.reconstruirAPartirDasMedidas();
+        entityManager.clear();
+
+        statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+    }
+
+    @Test
+    @DisplayName("Deve filtrar pela última medida usando apenas a consulta e a contagem")
+    void deveFiltrarPelaUltimaMedidaComConsultaUnica() {
+        // When
+        Page<UsuarioImcProjection> pagina = userRepository.findUsuariosPorFaixaImc(
+                FaixaImc.PESO_NORMAL.getImcMinimo(), FaixaImc.PESO_NORMAL.getImcMaximo(), PageRequest.of(0, 10));
+
+        // Then
+        assertThat(pagina.getTotalElements()).isEqualTo(TOTAL_USUARIOS / 2);
+        assertThat(pagina.getContent()).hasSize(10);
+        assertThat(pagina.getContent())
+                .allSatisfy(usuario -> assertThat(usuario.getImc()).isBetween(18.5, 25.0));
+        assertThat(pagina.getContent().get(0).getName()).isEqualTo("Usuário 2");
+        assertThat(pagina.getContent().get(0).getBirthDate()).isEqualTo(DATA_NASCIMENTO);
+
+        // Uma consulta para a página e outra para o total, independente do número de usuários
+        assertThat(statistics.getPrepareStatementCount()).isEqualTo(2);
+        assertThat(statistics.getEntityLoadCount()).isZero();
+        assertThat(statistics.getCollectionLoadCount()).isZero();
+    }
+
+    @Test
+    @DisplayName("Deve paginar o resultado ordenado pelo ID do usuário")
+    void devePaginarResultadoOrdenadoPorId() {
+        // When
+        Page<UsuarioImcProjection> primeira = userRepository.findUsuariosPorFaixaImc(
+                FaixaImc.SOBREPESO.getImcMinimo(), FaixaImc.SOBREPESO.getImcMaximo(), PageRequest.of(0, 20));
+        Page<UsuarioImcProjection> ultima = userRepository.findUsuariosPorFaixaImc(
+                FaixaImc.SOBREPESO.getImcMinimo(), FaixaImc.SOBREPESO.getImcMaximo(), PageRequest.of(1, 20));
+
+        // Then
+        assertThat(primeira.getTotalPages()).isEqualTo(2);
+        assertThat(primeira.getContent()).extracting(UsuarioImcProjection::getId).isSorted();
+        assertThat(ultima.getContent()).hasSize(5);
+        assertThat(ultima.getContent().get(0).getId()).isGreaterThan(primeira.getContent().get(19).getId());
+    }
+
+    @Test
+    @DisplayName("Deve retornar página vazia para faixa sem usuários")
+    void deveRetornarPaginaVaziaParaFaixaSemUsuarios() {
+        // When
+        Page<UsuarioImcProjection> pagina = userRepository.findUsuariosPorFaixaImc(
+                FaixaImc.OBESIDADE.getImcMinimo(), FaixaImc.OBESIDADE.getImcMaximo(), PageRequest.of(0, 10));
+
+        // Then
+        assertThat(pagina.getTotalElements()).isZero();
+        assertThat(pagina.getContent()).isEmpty();
+    }
+}
@@ -1,5 +1,6 @@
 package com.ProgWebII.biotrack.repository;
 
+import com.ProgWebII.biotrack.dto.response.ListarTodosUsuariosResponse;
 import com.ProgWebII.biotrack.model.User;
 import com.ProgWebII.biotrack.model.Measure;
 import org.junit.jupiter.api.BeforeEach;
@@ -8,9 +9,12 @@ import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
 import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.data.domain.Limit;
+import org.springframework.jdbc.core.JdbcTemplate;
 
 import java.time.LocalDate;
 import java.time.LocalDateTime;
+import java.util.ArrayList;
 import java.util.List;
 import java.util.Optional;
 
@@ -30,6 +34,9 @@ class UserRepositoryTest {
     @Autowired
     private TestEntityManager entityManager;
 
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
     private User usuarioTeste;
 
     @BeforeEach
@@ -209,4 +216,57 @@ class UserRepositoryTest {
         assertThat(existe).isTrue();
         assertThat(naoExiste).isFalse();
     }
-}
\ No newline at end of file
+
+    @Test
+    @DisplayName("Deve paginar usuários por cursor de ID")
+    void devePaginarUsuariosPorCursorDeId() {
+        // Given
+        for (int i = 1; i <= 5; i++) {
+            entityManager.persist(User.builder()
+                    .name("Usuário " + i)
+                    .birthDate(LocalDate.of(1990, 1, i))
+                    .zipCode("12345-678")
+                    .email("usuario" + i + "@email.com")
+                    .password("senhaHasheada")
+                    .build());
+        }
+        entityManager.flush();
+
+        // When
+        List<ListarTodosUsuariosResponse> primeira = userRepository.findPaginaAposId(0L, Limit.of(2));
+        List<ListarTodosUsuariosResponse> segunda = userRepository.findPaginaAposId(primeira.get(1).id(), Limit.of(2));
+        List<ListarTodosUsuariosResponse> ultima = userRepository.findPaginaAposId(segunda.get(1).id(), Limit.of(2));
+
+        // Then
+        assertThat(primeira).extracting(ListarTodosUsuariosResponse::name).containsExactly("Usuário 1", "Usuário 2");
+        assertThat(segunda).extracting(ListarTodosUsuariosResponse::name).containsExactly("Usuário 3", "Usuário 4");
+        assertThat(ultima).extracting(ListarTodosUsuariosResponse::name).containsExactly("Usuário 5");
+    }
+
+    @Test
+    @DisplayName("Deve percorrer usuários pelo cursor JDBC a partir do ID informado")
+    void devePercorrerUsuariosPeloCursorJdbc() {
+        // Given
+        User primeiro = entityManager.persist(usuarioTeste);
+        entityManager.persist(User.builder()
+                .name("Maria Santos")
+                .birthDate(LocalDate.of(1992, 8, 20))
+                .zipCode("98765-432")
+                .email("maria.santos@email.com")
+                .password("senhaHasheada456")
+                .build());
+        entityManager.flush();
+        UserStreamRepository userStreamRepository = new UserStreamRepository(jdbcTemplate);
+
+        // When
+        List<ListarTodosUsuariosResponse> todos = new ArrayList<>();
+        List<ListarTodosUsuariosResponse> aposPrimeiro = new ArrayList<>();
+        userStreamRepository.percorrerUsuarios(0L, todos::add);
+        userStreamRepository.percorrerUsuarios(primeiro.getId(), aposPrimeiro::add);
+
+        // Then
+        assertThat(todos).extracting(ListarTodosUsuariosResponse::name).containsExactly("João Silva", "Maria Santos");
+        assertThat(todos.get(0).birthDate()).isEqualTo(LocalDate.of(1990, 5, 15));
+        assertThat(aposPrimeiro).extracting(ListarTodosUsuariosResponse::name).containsExactly("Maria Santos");
+    }
+}
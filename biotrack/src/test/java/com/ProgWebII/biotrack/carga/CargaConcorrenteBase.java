@@ -0,0 +1,138 @@
+package com.ProgWebII.biotrack.carga;
+
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.test.web.server.LocalServerPort;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Teste de carga: N clientes simultâneos (padrão 1000) fazendo leituras que vão ao banco
+ * (GET /medidas/{usuarioId}/medidas/{medidaId}, que não passa pelo cache) e, quando a subclasse pedir,
+ * uma fração de escritas (POST /medidas/{usuarioId}).
+ * Imprime vazão e percentis de latência para comparar modos de thread e profiles do servidor.
+ *
+ * Fica fora do build normal (@Tag("load")); rode com: mvn test -Pcarga
+ * Ajuste a carga com -Dcarga.clientes=... e -Dcarga.requisicoes=... (requisições por cliente).
+ */
+@Tag("load")
+abstract class CargaConcorrenteBase {
+
+    private static final int CLIENTES = Integer.getInteger("carga.clientes", 1000);
+    private static final int REQUISICOES_POR_CLIENTE = Integer.getInteger("carga.requisicoes", 20);
+
+    @LocalServerPort
+    private int porta;
+
+    protected abstract String modo();
+
+    // Percentual das requisições que gravam uma medida nova em vez de ler
+    protected int percentualEscritas() {
+        return 0;
+    }
+
+    @Test
+    void deveAtenderClientesSimultaneos() throws Exception {
+        HttpClient cliente = HttpClient.newBuilder()
+                .executor(Executors.newVirtualThreadPerTaskExecutor())
+                .connectTimeout(Duration.ofSeconds(30))
+                .build();
+
+        // Aquecimento (JIT, pool de conexões)
+        executarRodada(cliente, 50, 20);
+
+        Resultado resultado = executarRodada(cliente, CLIENTES, REQUISICOES_POR_CLIENTE);
+
+        System.out.printf("[carga] modo=%s escritas=%d%% clientes=%d requisicoes=%d erros=%d duracao=%d ms vazao=%.0f req/s p50=%.1f ms p99=%.1f ms%n",
+                modo(), percentualEscritas(), CLIENTES, resultado.latenciasNanos.length, resultado.erros, resultado.duracaoMillis,
+                resultado.latenciasNanos.length * 1000.0 / resultado.duracaoMillis,
+                resultado.percentil(0.50), resultado.percentil(0.99));
+
+        assertThat(resultado.erros).isZero();
+    }
+
+    private Resultado executarRodada(HttpClient cliente, int clientes, int requisicoesPorCliente) throws Exception {
+        CountDownLatch largada = new CountDownLatch(1);
+        AtomicInteger erros = new AtomicInteger();
+        List<Future<long[]>> tarefas = new ArrayList<>(clientes);
+
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            for (int c = 0; c < clientes; c++) {
+                int medidaId = c % 2 + 1; // medidas 1 e 2 do DataLoader pertencem ao usuário 1
+                HttpRequest requisicao = HttpRequest.newBuilder(
+                                URI.create("http://localhost:" + porta + "/api/v1/medidas/1/medidas/" + medidaId))
+                        .timeout(Duration.ofSeconds(60))
+                        .GET()
+                        .build();
+                tarefas.add(executor.submit(() -> {
+                    largada.await();
+                    long[] latencias = new long[requisicoesPorCliente];
+                    for (int r = 0; r < requisicoesPorCliente; r++) {
+                        long inicio = System.nanoTime();
+                        try {
+                            boolean escreve = ThreadLocalRandom.current().nextInt(100) < percentualEscritas();
+                            HttpResponse<Void> resposta = cliente.send(escreve ? escrita() : requisicao,
+                                    HttpResponse.BodyHandlers.discarding());
+                            if (resposta.statusCode() != 200) {
+                                erros.incrementAndGet();
+                            }
+                        } catch (Exception e) {
+                            erros.incrementAndGet();
+                        }
+                        latencias[r] = System.nanoTime() - inicio;
+                    }
+                    return latencias;
+                }));
+            }
+
+            long inicio = System.nanoTime();
+            largada.countDown();
+            long[] todas = new long[clientes * requisicoesPorCliente];
+            int posicao = 0;
+            for (Future<long[]> tarefa : tarefas) {
+                long[] latencias = tarefa.get();
+                System.arraycopy(latencias, 0, todas, posicao, latencias.length);
+                posicao += latencias.length;
+            }
+            long duracaoMillis = Math.max(1, (System.nanoTime() - inicio) / 1_000_000);
+            Arrays.sort(todas);
+            return new Resultado(todas, erros.get(), duracaoMillis);
+        }
+    }
+
+    // Medida nova de um dos três usuários do DataLoader, em um dia qualquer de 2020 a 2024
+    private HttpRequest escrita() {
+        ThreadLocalRandom aleatorio = ThreadLocalRandom.current();
+        LocalDateTime data = LocalDateTime.of(2020, 1, 1, 8, 0).plusDays(aleatorio.nextInt(5 * 365));
+        return HttpRequest.newBuilder(URI.create("http://localhost:" + porta + "/api/v1/medidas/" + aleatorio.nextInt(1, 4)))
+                .timeout(Duration.ofSeconds(60))
+                .header("Content-Type", "application/json")
+                .POST(HttpRequest.BodyPublishers.ofString(
+                        "{\"measurementDate\":\"" + data + ":00\",\"weightKg\":70.0,\"heightCm\":170.0}"))
+                .build();
+    }
+
+    private record Resultado(long[] latenciasNanos, int erros, long duracaoMillis) {
+
+        double percentil(double p) {
+            int indice = (int) Math.min(latenciasNanos.length - 1, Math.ceil(p * latenciasNanos.length) - 1);
+            return latenciasNanos[Math.max(indice, 0)] / 1_000_000.0;
+        }
+    }
+}
@@ -0,0 +1,29 @@
+package com.ProgWebII.biotrack.carga;
+
+import org.junit.jupiter.api.DisplayName;
+import org.springframework.boot.test.context.SpringBootTest;
+
+/**
+ * Carga com as configurações padrão (application.properties): SQL formatado no stdout, pool padrão do Hikari
+ * e H2 em arquivo com as opções padrão. Compare com {@link CargaPerfilProdTest}.
+ * Banco em um arquivo novo a cada execução, em target/carga-perfis/dev; 5% das requisições gravam uma medida.
+ * Rode cada profile na sua própria JVM, para que o JIT aquecido por um não favoreça o outro:
+ *   mvn test -Pcarga -Dtest=CargaPerfilDevTest  e depois  mvn test -Pcarga -Dtest=CargaPerfilProdTest
+ */
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT,
+        properties = {
+                "biotrack.banco.arquivo=./target/carga-perfis/dev/${random.uuid}/biotrackdb"
+        })
+@DisplayName("Teste de Carga - profile dev")
+class CargaPerfilDevTest extends CargaConcorrenteBase {
+
+    @Override
+    protected String modo() {
+        return "dev";
+    }
+
+    @Override
+    protected int percentualEscritas() {
+        return 5;
+    }
+}
@@ -0,0 +1,30 @@
+package com.ProgWebII.biotrack.carga;
+
+import org.junit.jupiter.api.DisplayName;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+
+/**
+ * Carga com o profile "prod": sem log de SQL, pool dimensionado pelos núcleos e H2 ajustado (CACHE_SIZE,
+ * QUERY_CACHE_SIZE, WRITE_DELAY). Compare com {@link CargaPerfilDevTest}.
+ * O banco começa vazio a cada execução (um arquivo novo em target/carga-perfis/prod), e o profile "dev" entra
+ * junto só para a carga inicial do DataLoader, como no perfil padrão; 5% das requisições gravam uma medida.
+ */
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT,
+        properties = {
+                "biotrack.banco.arquivo=./target/carga-perfis/prod/${random.uuid}/biotrackdb"
+        })
+@ActiveProfiles({"dev", "prod"})
+@DisplayName("Teste de Carga - profile prod")
+class CargaPerfilProdTest extends CargaConcorrenteBase {
+
+    @Override
+    protected String modo() {
+        return "prod";
+    }
+
+    @Override
+    protected int percentualEscritas() {
+        return 5;
+    }
+}
@@ -0,0 +1,148 @@
+package com.ProgWebII.biotrack.carga;
+
+import com.ProgWebII.biotrack.service.StreamMedidasService;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.server.LocalServerPort;
+
+import java.lang.management.ManagementFactory;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.awaitility.Awaitility.await;
+
+/**
+ * Teste de carga do stream SSE: N assinantes simultâneos (padrão 10000) parados em
+ * GET /usuarios/{id}/medidas/stream, espalhados pelos três usuários do DataLoader; depois uma medida nova
+ * por usuário e o tempo até cada assinante receber a sua.
+ * Imprime o tempo para abrir as conexões, as threads de plataforma da JVM com todos os assinantes parados
+ * (cliente e servidor rodam no mesmo processo) e os percentis da latência de entrega.
+ *
+ * Fica fora do build normal (@Tag("load")); rode com: mvn test -Pcarga -Dtest=CargaStreamMedidasTest
+ * Cada assinante usa dois descritores de arquivo (as duas pontas da conexão): confira o ulimit -n
+ * e ajuste a carga com -Dcarga.assinantes=...
+ */
+@Tag("load")
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT,
+        properties = {
+                "spring.datasource.url=jdbc:h2:mem:carga-stream;DB_CLOSE_DELAY=-1",
+                "spring.jpa.show-sql=false"
+        })
+@DisplayName("Teste de Carga - stream SSE de medidas")
+class CargaStreamMedidasTest {
+
+    private static final int ASSINANTES = Integer.getInteger("carga.assinantes", 10000);
+    private static final int USUARIOS = 3;
+
+    @LocalServerPort
+    private int porta;
+
+    @Autowired
+    private StreamMedidasService streamMedidasService;
+
+    @Test
+    void deveManterAssinantesParadosEEntregarAsMedidas() throws Exception {
+        HttpClient cliente = HttpClient.newBuilder()
+                .version(HttpClient.Version.HTTP_1_1)
+                .executor(Executors.newVirtualThreadPerTaskExecutor())
+                .connectTimeout(Duration.ofSeconds(30))
+                .build();
+        CountDownLatch conectados = new CountDownLatch(ASSINANTES);
+        CountDownLatch entregues = new CountDownLatch(ASSINANTES);
+        AtomicInteger erros = new AtomicInteger();
+        AtomicLongArray publicadoEm = new AtomicLongArray(USUARIOS + 1);
+        long[] latencias = new long[ASSINANTES];
+
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            long inicio = System.nanoTime();
+            for (int i = 0; i < ASSINANTES; i++) {
+                int assinante = i;
+                int usuario = i % USUARIOS + 1;
+                executor.submit(() -> {
+                    HttpRequest requisicao = HttpRequest.newBuilder(
+                                    URI.create("http://localhost:" + porta + "/api/v1/usuarios/" + usuario + "/medidas/stream"))
+                            .header("Accept", "text/event-stream")
+                            .GET()
+                            .build();
+                    try {
+                        HttpResponse<Stream<String>> resposta = cliente.send(requisicao, HttpResponse.BodyHandlers.ofLines());
+                        conectados.countDown();
+                        if (resposta.statusCode() != 200) {
+                            erros.incrementAndGet();
+                            resposta.body().close();
+                            return null;
+                        }
+                        try (Stream<String> linhas = resposta.body()) {
+                            Iterator<String> iterador = linhas.iterator();
+                            while (iterador.hasNext()) {
+                                if (iterador.next().equals("event:" + StreamMedidasService.EVENTO_CRIADA)) {
+                                    latencias[assinante] = System.nanoTime() - publicadoEm.get(usuario);
+                                    entregues.countDown();
+                                    break;
+                                }
+                            }
+                        }
+                    } catch (Exception e) {
+                        erros.incrementAndGet();
+                        conectados.countDown();
+                    }
+                    return null;
+                });
+            }
+
+            assertThat(conectados.await(5, TimeUnit.MINUTES)).isTrue();
+            await().atMost(1, TimeUnit.MINUTES).until(() -> streamMedidasService.assinantesAtivos() == ASSINANTES);
+            long conexoesMillis = (System.nanoTime() - inicio) / 1_000_000;
+            System.gc();
+            Runtime runtime = Runtime.getRuntime();
+            System.out.printf("[carga-stream] assinantes=%d erros=%d conexoes=%d ms threadsPlataforma=%d heapUsado=%d MB%n",
+                    ASSINANTES, erros.get(), conexoesMillis, ManagementFactory.getThreadMXBean().getThreadCount(),
+                    (runtime.totalMemory() - runtime.freeMemory()) / (1024 * 1024));
+
+            // Uma medida nova por usuário; cada assinante espera a do seu usuário
+            long publicacao = System.nanoTime();
+            for (int usuario = 1; usuario <= USUARIOS; usuario++) {
+                publicadoEm.set(usuario, System.nanoTime());
+                HttpResponse<Void> resposta = cliente.send(HttpRequest.newBuilder(
+                                        URI.create("http://localhost:" + porta + "/api/v1/medidas/" + usuario))
+                                .header("Content-Type", "application/json")
+                                .POST(HttpRequest.BodyPublishers.ofString(
+                                        "{\"measurementDate\":\"2024-09-0" + usuario + "T08:00:00\",\"weightKg\":70.0}"))
+                                .build(),
+                        HttpResponse.BodyHandlers.discarding());
+                assertThat(resposta.statusCode()).isEqualTo(200);
+            }
+
+            assertThat(entregues.await(2, TimeUnit.MINUTES)).isTrue();
+            long entregaMillis = (System.nanoTime() - publicacao) / 1_000_000;
+            Arrays.sort(latencias);
+            System.out.printf("[carga-stream] entregues=%d em %d ms p50=%.1f ms p99=%.1f ms max=%.1f ms descartados=%d%n",
+                    ASSINANTES, entregaMillis, percentil(latencias, 0.50), percentil(latencias, 0.99),
+                    latencias[latencias.length - 1] / 1_000_000.0, streamMedidasService.eventosDescartados());
+
+            assertThat(erros.get()).isZero();
+            assertThat(streamMedidasService.eventosDescartados()).isZero();
+        }
+    }
+
+    private static double percentil(long[] ordenadas, double p) {
+        int indice = (int) Math.min(ordenadas.length - 1, Math.ceil(p * ordenadas.length) - 1);
+        return ordenadas[Math.max(indice, 0)] / 1_000_000.0;
+    }
+}
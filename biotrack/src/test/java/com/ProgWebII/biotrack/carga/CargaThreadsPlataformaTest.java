@@ -0,0 +1,21 @@
+package com.ProgWebII.biotrack.carga;
+
+import org.junit.jupiter.api.DisplayName;
+import org.springframework.boot.test.context.SpringBootTest;
+
+/**
+ * Carga com o modo padrão: pool de threads de plataforma do Tomcat (200 threads).
+ */
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT,
+        properties = {
+                "spring.datasource.url=jdbc:h2:mem:carga-plataforma;DB_CLOSE_DELAY=-1",
+                "spring.jpa.show-sql=false"
+        })
+@DisplayName("Teste de Carga - threads de plataforma")
+class CargaThreadsPlataformaTest extends CargaConcorrenteBase {
+
+    @Override
+    protected String modo() {
+        return "plataforma";
+    }
+}
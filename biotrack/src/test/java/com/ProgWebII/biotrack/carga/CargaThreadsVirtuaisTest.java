@@ -0,0 +1,24 @@
+package com.ProgWebII.biotrack.carga;
+
+import org.junit.jupiter.api.DisplayName;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+
+/**
+ * Carga com o profile "virtual": uma thread virtual por requisição, concorrência no banco limitada pelo Hikari.
+ * O profile "dev" entra junto para a carga inicial do DataLoader.
+ */
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT,
+        properties = {
+                "spring.datasource.url=jdbc:h2:mem:carga-virtual;DB_CLOSE_DELAY=-1",
+                "spring.jpa.show-sql=false"
+        })
+@ActiveProfiles({"dev", "virtual"})
+@DisplayName("Teste de Carga - threads virtuais")
+class CargaThreadsVirtuaisTest extends CargaConcorrenteBase {
+
+    @Override
+    protected String modo() {
+        return "virtual";
+    }
+}
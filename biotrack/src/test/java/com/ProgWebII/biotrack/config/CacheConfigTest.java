@@ -0,0 +1,167 @@
+package com.ProgWebII.biotrack.config;
+
+import com.ProgWebII.biotrack.dto.request.UserPatchRequest;
+import com.ProgWebII.biotrack.mapper.MedidaMapper;
+import com.ProgWebII.biotrack.model.MetricaMedida;
+import com.ProgWebII.biotrack.model.User;
+import com.ProgWebII.biotrack.repository.MeasureRepository;
+import com.ProgWebII.biotrack.repository.MeasureSeriesRepository;
+import com.ProgWebII.biotrack.repository.UserRepository;
+import com.ProgWebII.biotrack.repository.UserStreamRepository;
+import com.ProgWebII.biotrack.service.LatestMeasureService;
+import com.ProgWebII.biotrack.service.MeasureRollupService;
+import com.ProgWebII.biotrack.service.MeasureService;
+import com.ProgWebII.biotrack.service.UserService;
+import com.ProgWebII.biotrack.store.MeasureColumnStore;
+import com.ProgWebII.biotrack.store.MedidasAlteradasEvent;
+import com.ProgWebII.biotrack.store.SerieMedidas;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.ImportAutoConfiguration;
+import org.springframework.boot.autoconfigure.cache.CacheAutoConfiguration;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.caffeine.CaffeineCache;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.Optional;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.*;
+
+/**
+ * Testes de integração do cache de leitura.
+ * Sobe apenas os serviços, a configuração de cache e o Caffeine; os repositórios são mocks,
+ * então o número de chamadas a eles mostra quando a leitura veio do cache.
+ */
+@SpringBootTest(
+        classes = {CacheConfig.class, MedidasCacheListener.class, UserService.class, MeasureService.class, MedidaMapper.class},
+        properties = {
+                "spring.cache.type=caffeine",
+                "spring.cache.cache-names=usuarios,usuariosComMedidas,medidasDoUsuario",
+                "spring.cache.caffeine.spec=maximumSize=100,expireAfterWrite=10m,recordStats"
+        })
+@ImportAutoConfiguration(CacheAutoConfiguration.class)
+@DisplayName("Testes de Integração - Cache de leitura")
+class CacheConfigTest {
+
+    @Autowired
+    private UserService userService;
+
+    @Autowired
+    private MeasureService measureService;
+
+    @Autowired
+    private CacheManager cacheManager;
+
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+
+    @MockitoBean
+    private UserRepository userRepository;
+
+    @MockitoBean
+    private MeasureRepository measureRepository;
+
+    @MockitoBean
+    private MeasureSeriesRepository measureSeriesRepository;
+
+    @MockitoBean
+    private LatestMeasureService latestMeasureService;
+
+    @MockitoBean
+    private MeasureRollupService measureRollupService;
+
+    @MockitoBean
+    private UserStreamRepository userStreamRepository;
+
+    @MockitoBean
+    private ObjectMapper objectMapper;
+
+    @MockitoBean
+    private MeasureColumnStore measureColumnStore;
+
+    private User usuario;
+
+    @BeforeEach
+    void setUp() {
+        cacheManager.getCacheNames().forEach(nome -> cacheManager.getCache(nome).clear());
+
+        usuario = User.builder()
+                .id(1L)
+                .name("João Silva")
+                .birthDate(LocalDate.of(1990, 5, 15))
+                .zipCode("12345-678")
+                .email("joao.silva@email.com")
+                .password("senhaHasheada123")
+                .build();
+    }
+
+    @Test
+    @DisplayName("Deve servir buscarPorId do cache até a atualização do usuário")
+    void deveServirBuscarPorIdDoCacheAteAtualizacao() {
+        // Given
+        when(userRepository.findById(1L)).thenReturn(Optional.of(usuario));
+
+        // When
+        userService.buscarPorId(1L);
+        userService.buscarPorId(1L);
+
+        // Then
+        verify(userRepository, times(1)).findById(1L);
+
+        // When
+        when(userRepository.travar(1L)).thenReturn(Optional.of(usuario));
+        userService.atualizarParcialUsuario(1L, new UserPatchRequest("João S.", null, null, null, null), null);
+        String nome = userService.buscarPorId(1L).name();
+
+        // Then: nova leitura depois da remoção do cache (a atualização lê o usuário pela trava)
+        assertThat(nome).isEqualTo("João S.");
+        verify(userRepository, times(2)).findById(1L);
+    }
+
+    @Test
+    @DisplayName("Deve descartar o histórico em cache quando as medidas do usuário mudam")
+    void deveDescartarHistoricoQuandoMedidasMudam() {
+        // Given
+        SerieMedidas serie = new SerieMedidas.Construtor()
+                .novaLinha(1L, SerieMedidas.paraInstante(LocalDateTime.of(2024, 1, 10, 10, 0)))
+                .valor(MetricaMedida.PESO, 75.0)
+                .construir();
+        when(measureColumnStore.serieDoUsuario(1L)).thenReturn(serie);
+        measureService.listarTodasAsMedidasDeUmUsuario(1L);
+        measureService.listarTodasAsMedidasDeUmUsuario(1L);
+        verify(measureColumnStore, times(1)).serieDoUsuario(1L);
+
+        // When
+        eventPublisher.publishEvent(new MedidasAlteradasEvent(1L));
+        measureService.listarTodasAsMedidasDeUmUsuario(1L);
+
+        // Then
+        verify(measureColumnStore, times(2)).serieDoUsuario(1L);
+    }
+
+    @Test
+    @DisplayName("Deve registrar acertos e falhas nas estatísticas do Caffeine")
+    void deveRegistrarAcertosEFalhas() {
+        // Given
+        when(userRepository.findById(1L)).thenReturn(Optional.of(usuario));
+
+        // When
+        userService.buscarPorId(1L);
+        userService.buscarPorId(1L);
+        userService.buscarPorId(1L);
+
+        // Then
+        CacheStats stats = ((CaffeineCache) cacheManager.getCache(CacheConfig.USUARIOS)).getNativeCache().stats();
+        assertThat(stats.missCount()).isEqualTo(1);
+        assertThat(stats.hitCount()).isEqualTo(2);
+    }
+}
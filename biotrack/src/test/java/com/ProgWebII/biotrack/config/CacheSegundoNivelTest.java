@@ -0,0 +1,169 @@
+package com.ProgWebII.biotrack.config;
+
+import com.ProgWebII.biotrack.config.ContadorSqlConfig.ContadorSql;
+import com.ProgWebII.biotrack.dto.request.MeasureRequest;
+import com.ProgWebII.biotrack.model.Measure;
+import com.ProgWebII.biotrack.model.User;
+import com.ProgWebII.biotrack.repository.MeasureRepository;
+import com.ProgWebII.biotrack.repository.UserRepository;
+import com.ProgWebII.biotrack.service.MeasureService;
+import com.ProgWebII.biotrack.service.UserService;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.Cache;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.cache.CacheManager;
+import org.springframework.context.annotation.Import;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Testes de integração do cache de 2º nível do Hibernate.
+ * Sobe a aplicação inteira com banco em memória e os dados do DataLoader (João Silva: ID 2, Carla Mendes: ID 3).
+ * O cache de leitura do Spring é limpo a cada leitura, para que o serviço chegue de fato ao repositório.
+ */
+@SpringBootTest(properties = "spring.datasource.url=jdbc:h2:mem:cache-segundo-nivel;DB_CLOSE_DELAY=-1")
+@Import(ContadorSqlConfig.class)
+@DisplayName("Testes de Integração - Cache de 2º nível do Hibernate")
+class CacheSegundoNivelTest {
+
+    @Autowired
+    private UserService userService;
+
+    @Autowired
+    private MeasureService measureService;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private MeasureRepository measureRepository;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Autowired
+    private CacheManager cacheManager;
+
+    @Autowired
+    private ContadorSql contadorSql;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    private Cache cacheHibernate;
+    private Statistics estatisticas;
+
+    @BeforeEach
+    void setUp() {
+        SessionFactory sessionFactory = entityManagerFactory.unwrap(SessionFactory.class);
+        cacheHibernate = sessionFactory.getCache();
+        cacheHibernate.evictAllRegions();
+        estatisticas = sessionFactory.getStatistics();
+        limparCacheSpring();
+    }
+
+    private void limparCacheSpring() {
+        cacheManager.getCacheNames().forEach(nome -> cacheManager.getCache(nome).clear());
+    }
+
+    private List<Long> idsDasMedidas(Long userId) {
+        return transactionTemplate.execute(status -> userRepository.findById(userId).orElseThrow()
+                .getMeasures().stream().map(Measure::getId).toList());
+    }
+
+    @Test
+    @DisplayName("Leituras repetidas de usuário, medida e coleção de medidas não devem gerar SQL")
+    void leiturasRepetidasNaoDevemGerarSql() {
+        // Given: primeira leitura, que vai ao banco e preenche o cache
+        List<Long> medidas = idsDasMedidas(2L);
+        userService.buscarPorId(2L);
+        measureRepository.findById(medidas.get(0)).orElseThrow();
+        limparCacheSpring();
+        contadorSql.limpar();
+        long acertosAntes = estatisticas.getSecondLevelCacheHitCount();
+
+        // When
+        String nome = userService.buscarPorId(2L).name();
+        List<Long> medidasDeNovo = idsDasMedidas(2L);
+        Measure medida = measureRepository.findById(medidas.get(0)).orElseThrow();
+
+        // Then
+        assertThat(nome).isEqualTo("João Silva");
+        assertThat(medidasDeNovo).containsExactlyInAnyOrderElementsOf(medidas);
+        assertThat(medida.getWeightKg()).isNotNull();
+        assertThat(contadorSql.comandos()).isEmpty();
+        assertThat(estatisticas.getSecondLevelCacheHitCount() - acertosAntes).isGreaterThanOrEqualTo(4);
+    }
+
+    @Test
+    @DisplayName("Uma medida nova deve remover do cache a coleção de medidas do dono")
+    void novaMedidaDeveRemoverColecaoDoCache() {
+        // Given
+        List<Long> antes = idsDasMedidas(2L);
+        assertThat(cacheHibernate.containsCollection(CacheSegundoNivelRegionFactory.REGIAO_MEDIDAS_DO_USUARIO, 2L)).isTrue();
+
+        // When
+        measureService.CreateMeasure(new MeasureRequest(LocalDateTime.of(2024, 9, 20, 8, 0),
+                80.5, 180.0, null, null, null, null, null, null, null, null), 2L);
+
+        // Then: a coleção volta do banco, já com a medida nova
+        contadorSql.limpar();
+        assertThat(idsDasMedidas(2L)).hasSize(antes.size() + 1).containsAll(antes);
+        assertThat(contadorSql.comandos()).anyMatch(sql -> sql.toLowerCase().contains("from tb_measure"));
+    }
+
+    @Test
+    @DisplayName("A escrita de um usuário não deve tirar os outros usuários do cache")
+    void escritaDeUmUsuarioNaoDeveRemoverOutrosDoCache() {
+        // Given: Ana (ID 1) e João (ID 2) no cache, com a versão de cada um
+        userService.buscarPorId(1L);
+        long revisaoDaAna = userService.buscarVersao(1L).getRevisao();
+        long revisaoDoJoao = userService.buscarVersao(2L).getRevisao();
+
+        // When: medida nova do João
+        measureService.CreateMeasure(new MeasureRequest(LocalDateTime.of(2024, 9, 21, 8, 0),
+                80.0, 180.0, null, null, null, null, null, null, null, null), 2L);
+
+        // Then: a Ana continua no cache, e a versão nova do João já está nele
+        limparCacheSpring();
+        contadorSql.limpar();
+        assertThat(userService.buscarPorId(1L).name()).isEqualTo("Ana Costa");
+        assertThat(userService.buscarVersao(1L).getRevisao()).isEqualTo(revisaoDaAna);
+        assertThat(userService.buscarVersao(2L).getRevisao()).isEqualTo(revisaoDoJoao + 1);
+        assertThat(contadorSql.comandos()).isEmpty();
+    }
+
+    @Test
+    @DisplayName("removerUsuario deve tirar do cache o usuário, as medidas e a coleção removidas em cascata")
+    void removerUsuarioDeveRemoverDoCacheEmCascata() {
+        // Given
+        List<Long> medidas = idsDasMedidas(3L);
+        medidas.forEach(id -> measureRepository.findById(id).orElseThrow());
+        assertThat(medidas).isNotEmpty();
+        assertThat(cacheHibernate.containsEntity(User.class, 3L)).isTrue();
+        assertThat(medidas).allMatch(id -> cacheHibernate.containsEntity(Measure.class, id));
+        assertThat(cacheHibernate.containsCollection(CacheSegundoNivelRegionFactory.REGIAO_MEDIDAS_DO_USUARIO, 3L)).isTrue();
+
+        // When
+        userService.removerUsuario(3L);
+
+        // Then: o cache não responde mais por eles (no READ_WRITE a entrada vira uma trava até expirar,
+        // por isso a verificação é pela leitura, que precisa ir ao banco e não encontrar nada)
+        contadorSql.limpar();
+        long acertosAntes = estatisticas.getSecondLevelCacheHitCount();
+        assertThat(userRepository.findById(3L)).isEmpty();
+        assertThat(medidas).allMatch(id -> measureRepository.findById(id).isEmpty());
+        assertThat(estatisticas.getSecondLevelCacheHitCount()).isEqualTo(acertosAntes);
+        assertThat(contadorSql.quantidade()).isEqualTo(1 + medidas.size());
+    }
+}
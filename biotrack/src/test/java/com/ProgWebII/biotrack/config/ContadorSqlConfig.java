@@ -0,0 +1,86 @@
+package com.ProgWebII.biotrack.config;
+
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.annotation.Bean;
+
+import javax.sql.DataSource;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+/**
+ * Configuração de teste que registra todo SQL preparado pela aplicação, venha ele do Hibernate ou de JDBC puro.
+ * O DataSource é embrulhado em um proxy que anota cada Connection.prepareStatement.
+ */
+@TestConfiguration
+public class ContadorSqlConfig {
+
+    @Bean
+    public ContadorSql contadorSql() {
+        return new ContadorSql();
+    }
+
+    @Bean
+    public static BeanPostProcessor contadorSqlDataSourcePostProcessor(ObjectProvider<ContadorSql> contador) {
+        return new BeanPostProcessor() {
+            @Override
+            public Object postProcessAfterInitialization(Object bean, String beanName) {
+                if (bean instanceof DataSource dataSource) {
+                    return Proxy.newProxyInstance(DataSource.class.getClassLoader(), new Class<?>[]{DataSource.class},
+                            (proxy, metodo, args) -> {
+                                Object resultado = invocar(metodo, dataSource, args);
+                                return resultado instanceof Connection conexao ? conexaoContada(conexao, contador.getObject()) : resultado;
+                            });
+                }
+                return bean;
+            }
+        };
+    }
+
+    private static Connection conexaoContada(Connection conexao, ContadorSql contador) {
+        return (Connection) Proxy.newProxyInstance(Connection.class.getClassLoader(), new Class<?>[]{Connection.class},
+                (proxy, metodo, args) -> {
+                    if (metodo.getName().startsWith("prepare") && args != null && args[0] instanceof String sql) {
+                        contador.registrar(sql);
+                    }
+                    return invocar(metodo, conexao, args);
+                });
+    }
+
+    private static Object invocar(Method metodo, Object alvo, Object[] args) throws Throwable {
+        try {
+            return metodo.invoke(alvo, args);
+        } catch (InvocationTargetException e) {
+            throw e.getCause();
+        }
+    }
+
+    /**
+     * Lista dos comandos SQL preparados desde o último {@link #limpar()}.
+     */
+    public static class ContadorSql {
+
+        private final List<String> comandos = new CopyOnWriteArrayList<>();
+
+        void registrar(String sql) {
+            comandos.add(sql.replaceAll("\\s+", " ").trim());
+        }
+
+        public void limpar() {
+            comandos.clear();
+        }
+
+        public List<String> comandos() {
+            return List.copyOf(comandos);
+        }
+
+        public int quantidade() {
+            return comandos.size();
+        }
+    }
+}
@@ -0,0 +1,65 @@
+package com.ProgWebII.biotrack.config;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.actuate.observability.AutoConfigureObservability;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.delete;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Teste de integração das métricas: depois de uma leitura pela API, o scrape do Prometheus deve trazer
+ * a latência do endpoint, do serviço e do repositório, além das métricas do Hibernate e do Hikari.
+ * Sobe a aplicação inteira com banco em memória e os dados do DataLoader (João Silva: ID 2).
+ */
+@SpringBootTest(properties = "spring.datasource.url=jdbc:h2:mem:metricas;DB_CLOSE_DELAY=-1")
+@AutoConfigureMockMvc
+@AutoConfigureObservability(tracing = false) // Nos testes o Spring Boot troca o registro do Prometheus por um em memória
+@DisplayName("Testes de Integração - Métricas no formato Prometheus")
+class MetricasPrometheusTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Test
+    @DisplayName("Deve expor latências por endpoint, serviço e repositório, Hibernate e Hikari")
+    void deveExporMetricasNoScrape() throws Exception {
+        // Given
+        mockMvc.perform(get("/usuarios/2/todas-medidas")).andExpect(status().isOk());
+
+        // When
+        String scrape = mockMvc.perform(get("/actuator/prometheus"))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsString();
+
+        // Then
+        // Buckets do histograma: os percentis (p50/p95/p99) são calculados no Prometheus com histogram_quantile
+        assertThat(linhas(scrape, "http_server_requests_seconds_bucket{"))
+                .anyMatch(linha -> linha.contains("uri=\"/usuarios/{id}/todas-medidas\"") && linha.contains("application=\"biotrack\""));
+        assertThat(linhas(scrape, "biotrack_servicos_seconds_bucket{"))
+                .anyMatch(linha -> linha.contains("class=\"com.ProgWebII.biotrack.service.UserService\"")
+                        && linha.contains("method=\"trazerUsuarioPorIdComTodasAsMedidas\""));
+        assertThat(linhas(scrape, "spring_data_repository_invocations_seconds_count{"))
+                .anyMatch(linha -> linha.contains("repository=\"UserRepository\""));
+        assertThat(scrape).contains("hibernate_statements_total{", "hibernate_entities_loads_total{",
+                "hibernate_query_executions_total{", "hikaricp_connections_active{", "hikaricp_connections_pending{");
+    }
+
+    @Test
+    @DisplayName("Não deve expor o endpoint que esvazia os caches")
+    void naoDeveExporEndpointDeCaches() throws Exception {
+        mockMvc.perform(delete("/actuator/caches")).andExpect(status().isNotFound());
+    }
+
+    private static List<String> linhas(String scrape, String prefixo) {
+        return scrape.lines().filter(linha -> linha.startsWith(prefixo)).toList();
+    }
+}
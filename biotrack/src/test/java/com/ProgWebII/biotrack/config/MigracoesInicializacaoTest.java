@@ -0,0 +1,83 @@
+package com.ProgWebII.biotrack.config;
+
+import com.ProgWebII.biotrack.BiotrackApplication;
+import com.ProgWebII.biotrack.model.User;
+import com.ProgWebII.biotrack.repository.LatestMeasureRepository;
+import com.ProgWebII.biotrack.repository.MeasureRepository;
+import com.ProgWebII.biotrack.repository.UserRepository;
+import org.flywaydb.core.Flyway;
+import org.flywaydb.core.api.MigrationInfo;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestReporter;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Teste de inicialização com o schema das migrações do Flyway: sobe a aplicação duas vezes sobre o mesmo banco
+ * em arquivo (novo a cada execução, em target/inicializacao) e confere o tempo de cada partida contra um orçamento.
+ * A primeira aplica as migrações e faz a carga do DataLoader; a segunda encontra o schema e os dados prontos,
+ * sem recriar tabelas nem calcular o BCrypt das senhas de novo.
+ * Os tempos saem como entradas do relatório do JUnit (inicializacao.primeira-ms e inicializacao.segunda-ms). O orçamento
+ * padrão cobre a suíte inteira em uma máquina carregada; para medir a partida a frio, rode sozinho e aperte-o:
+ * mvn test -Dtest=MigracoesInicializacaoTest -Dinicializacao.orcamento-ms=8000
+ */
+@DisplayName("Testes de Integração - Inicialização com migrações")
+class MigracoesInicializacaoTest {
+
+    private static final long ORCAMENTO_MS = Long.getLong("inicializacao.orcamento-ms", 60_000);
+
+    private final String arquivo = "./target/inicializacao/" + UUID.randomUUID() + "/biotrackdb";
+
+    private ConfigurableApplicationContext subir() {
+        // Argumentos de linha de comando, como em produção: têm precedência sobre o application.properties
+        return new SpringApplicationBuilder(BiotrackApplication.class).run(
+                // Sem DB_CLOSE_DELAY: o H2 fecha o arquivo junto com o pool, e a segunda partida o abre de novo
+                "--spring.datasource.url=jdbc:h2:file:" + arquivo,
+                "--server.port=0",
+                "--spring.jpa.show-sql=false");
+    }
+
+    @Test
+    @DisplayName("A segunda inicialização deve manter o schema e os dados, sem migrar nem recarregar")
+    void deveManterSchemaEDadosEntreInicializacoes(TestReporter relatorio) {
+        // Given: primeira partida, com o banco vazio
+        long inicio = System.nanoTime();
+        List<String> senhas;
+        try (ConfigurableApplicationContext contexto = subir()) {
+            long primeira = (System.nanoTime() - inicio) / 1_000_000;
+            MigrationInfo[] aplicadas = contexto.getBean(Flyway.class).info().applied();
+            senhas = contexto.getBean(UserRepository.class).findAll().stream().map(User::getPassword).toList();
+            relatorio.publishEntry("inicializacao.primeira-ms", String.valueOf(primeira));
+
+            assertThat(primeira).as("primeira partida (migrações + DataLoader), em ms").isLessThanOrEqualTo(ORCAMENTO_MS);
+            assertThat(aplicadas).extracting(migracao -> migracao.getVersion().getVersion()).containsExactly("1", "2");
+            assertThat(senhas).hasSize(3);
+        }
+
+        // When: segunda partida sobre o mesmo arquivo
+        Instant antesDaSegunda = Instant.now();
+        inicio = System.nanoTime();
+        try (ConfigurableApplicationContext contexto = subir()) {
+            long segunda = (System.nanoTime() - inicio) / 1_000_000;
+            relatorio.publishEntry("inicializacao.segunda-ms", String.valueOf(segunda));
+
+            // Then
+            assertThat(segunda).as("segunda partida (banco existente), em ms").isLessThanOrEqualTo(ORCAMENTO_MS);
+            MigrationInfo[] aplicadas = contexto.getBean(Flyway.class).info().applied();
+            assertThat(aplicadas).hasSize(2)
+                    .allSatisfy(migracao -> assertThat(migracao.getInstalledOn().toInstant()).isBefore(antesDaSegunda));
+            assertThat(contexto.getBean(UserRepository.class).findAll())
+                    .extracting(User::getPassword).containsExactlyInAnyOrderElementsOf(senhas);
+            assertThat(contexto.getBean(MeasureRepository.class).count()).isEqualTo(5);
+            // As projeções montadas na primeira partida continuam lá (a segunda não as reconstrói)
+            assertThat(contexto.getBean(LatestMeasureRepository.class).count()).isEqualTo(3);
+        }
+    }
+}
@@ -0,0 +1,196 @@
+package com.ProgWebII.biotrack.controller;
+
+import com.ProgWebII.biotrack.dto.request.MeasureRequest;
+import com.ProgWebII.biotrack.dto.response.MedidaResponse;
+import com.ProgWebII.biotrack.dto.response.RelatorioImportacaoResponse;
+import com.ProgWebII.biotrack.service.MeasureService;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Testes de integração da importação de medidas em arquivo (CSV e NDJSON).
+ * Sobe a aplicação inteira com banco em memória e os dados do DataLoader (usuários 1 a 3);
+ * blocos de 1 KB, lotes de 7 medidas e 3 threads, para que cada arquivo passe por vários blocos e lotes em paralelo.
+ */
+@SpringBootTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:medidas-import;DB_CLOSE_DELAY=-1",
+        "biotrack.medidas.importacao.diretorio=target/importacao-teste",
+        "biotrack.medidas.importacao.threads=3",
+        "biotrack.medidas.importacao.tamanho-bloco-kb=1",
+        "biotrack.medidas.importacao.tamanho-batch=7"
+})
+@AutoConfigureMockMvc
+@DisplayName("Testes de Integração - Importação de medidas")
+class MeasureControllerImportTest {
+
+    private static final Path DIRETORIO = Path.of("target/importacao-teste");
+    private static final LocalDateTime INICIO = LocalDateTime.of(2025, 1, 1, 7, 0);
+    private static final String[] EMAILS = {"ana.costa@email.com", "joao.silva@email.com", "carla.mendes@email.com"};
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private MeasureService measureService;
+
+    @BeforeAll
+    static void criarDiretorio() throws IOException {
+        Files.createDirectories(DIRETORIO);
+    }
+
+    private RelatorioImportacaoResponse importar(String arquivo) throws Exception {
+        String corpo = mockMvc.perform(post("/medidas/import").param("arquivo", arquivo))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsString();
+        return objectMapper.readValue(corpo, RelatorioImportacaoResponse.class);
+    }
+
+    private static void escrever(String arquivo, List<String> linhas) throws IOException {
+        Files.write(DIRETORIO.resolve(arquivo), linhas, StandardCharsets.UTF_8);
+    }
+
+    private int contarMedidas(long userId) {
+        return jdbcTemplate.queryForObject("SELECT COUNT(*) FROM tb_measure WHERE user_id = ?", Integer.class, userId);
+    }
+
+    @Test
+    @DisplayName("Deve importar o CSV em blocos paralelos, rejeitando as linhas inválidas com a posição")
+    void deveImportarCsvRejeitandoLinhasInvalidas() throws Exception {
+        // Given: 300 linhas válidas (dono por ID ou por e-mail) e 3 inválidas no meio
+        List<String> linhas = new ArrayList<>();
+        linhas.add("\uFEFFuserId,email,measurementDate,weightKg,heightCm,bodyFatPercentage");
+        for (int i = 0; i < 300; i++) {
+            String dono = i % 2 == 0 ? (i % 3 + 1) + "," : "," + EMAILS[i % 3];
+            linhas.add(dono + "," + INICIO.plusHours(i) + "," + (60.0 + i % 40 / 2.0) + ",170.0,");
+            if (i == 100) {
+                linhas.add("2,," + INICIO + ",-1,170.0,");
+            }
+            if (i == 150) {
+                linhas.add("999999,," + INICIO + ",70.0,,");
+            }
+            if (i == 200) {
+                linhas.add(",ninguem@email.com,data-invalida,70.0,,");
+            }
+        }
+        escrever("historico.csv", linhas);
+        List<MedidaResponse> emCache = measureService.listarTodasAsMedidasDeUmUsuario(2L);
+        int antes = contarMedidas(1) + contarMedidas(2) + contarMedidas(3);
+
+        // When
+        RelatorioImportacaoResponse relatorio = importar("historico.csv");
+
+        // Then
+        assertThat(relatorio.blocos()).isGreaterThan(3);
+        assertThat(relatorio.linhas()).isEqualTo(303);
+        assertThat(relatorio.inseridas()).isEqualTo(300);
+        assertThat(relatorio.rejeitadas()).isEqualTo(3);
+        assertThat(relatorio.erros()).hasSize(3);
+        // A posição é o byte onde a linha começa (o BOM do início ocupa 3 bytes)
+        byte[] conteudo = Files.readAllBytes(DIRETORIO.resolve("historico.csv"));
+        assertThat(relatorio.erros().stream()
+                .map(erro -> new String(conteudo, (int) erro.posicao(), 60, StandardCharsets.UTF_8).lines().findFirst().orElseThrow()))
+                .containsExactlyInAnyOrder("2,," + INICIO + ",-1,170.0,", "999999,," + INICIO + ",70.0,,",
+                        ",ninguem@email.com,data-invalida,70.0,,");
+        assertThat(contarMedidas(1) + contarMedidas(2) + contarMedidas(3)).isEqualTo(antes + 300);
+
+        // Projeção da última medida recalculada e cache do histórico invalidado
+        LocalDateTime ultima = jdbcTemplate.queryForObject(
+                "SELECT measurement_date FROM tb_latest_measure WHERE user_id = 2", LocalDateTime.class);
+        assertThat(ultima).isAfterOrEqualTo(INICIO.plusHours(290));
+        assertThat(measureService.listarTodasAsMedidasDeUmUsuario(2L)).hasSize(contarMedidas(2))
+                .hasSizeGreaterThan(emCache.size());
+        // Agregados recalculados no período importado: os baldes mensais de peso somam todas as medidas do usuário
+        assertThat(jdbcTemplate.queryForObject("SELECT SUM(quantidade) FROM tb_measure_rollup "
+                + "WHERE user_id = 2 AND granularidade = 'MES' AND metrica = 'PESO'", Long.class))
+                .isEqualTo(jdbcTemplate.queryForObject(
+                        "SELECT COUNT(weight_kg) FROM tb_measure WHERE user_id = 2", Long.class));
+
+        // Os IDs reservados na sequência não colidem com os que o Hibernate gera depois
+        measureService.CreateMeasure(new MeasureRequest(INICIO.plusYears(1), 72.0, null, null, null, null,
+                null, null, null, null, null), 2L);
+        assertThat(jdbcTemplate.queryForObject("SELECT COUNT(DISTINCT id) = COUNT(*) FROM tb_measure", Boolean.class))
+                .isTrue();
+    }
+
+    @Test
+    @DisplayName("Deve retomar a importação pulando os blocos já gravados, sem duplicar medidas")
+    void deveRetomarImportacaoSemDuplicar() throws Exception {
+        // Given: arquivo já importado uma vez
+        List<String> linhas = new ArrayList<>();
+        for (int i = 0; i < 120; i++) {
+            linhas.add("{\"email\":\"" + EMAILS[2] + "\",\"measurementDate\":\"" + INICIO.plusDays(i)
+                    + "\",\"weightKg\":" + (55.0 + i % 10) + ",\"id\":" + i + "}");
+        }
+        linhas.add("{\"email\":\"" + EMAILS[2] + "\",\"measurementDate\":");
+        escrever("retomada.ndjson", linhas);
+        RelatorioImportacaoResponse primeira = importar("retomada.ndjson");
+        assertThat(primeira.inseridas()).isEqualTo(120);
+        assertThat(primeira.rejeitadas()).isEqualTo(1);
+        assertThat(primeira.erros().get(0).mensagem()).startsWith("JSON inválido");
+
+        // Simula uma interrupção: o último bloco não chegou a ser gravado
+        Long ultimoBloco = jdbcTemplate.queryForObject(
+                "SELECT MAX(inicio) FROM tb_importacao_medidas_bloco WHERE arquivo = 'retomada.ndjson'", Long.class);
+        long linhasNoBloco = jdbcTemplate.queryForObject(
+                "SELECT inseridas FROM tb_importacao_medidas_bloco WHERE arquivo = 'retomada.ndjson' AND inicio = ?",
+                Long.class, ultimoBloco);
+        jdbcTemplate.update("DELETE FROM tb_importacao_medidas_bloco WHERE arquivo = 'retomada.ndjson' AND inicio = ?",
+                ultimoBloco);
+        jdbcTemplate.update("DELETE FROM tb_measure WHERE user_id = 3 AND measurement_date >= ?",
+                INICIO.plusDays(120 - linhasNoBloco));
+        int antes = contarMedidas(3);
+
+        // When
+        RelatorioImportacaoResponse segunda = importar("retomada.ndjson");
+
+        // Then
+        assertThat(segunda.blocos()).isEqualTo(primeira.blocos());
+        assertThat(segunda.blocosJaImportados()).isEqualTo(primeira.blocos() - 1);
+        assertThat(segunda.inseridas()).isEqualTo(linhasNoBloco);
+        assertThat(contarMedidas(3)).isEqualTo(antes + linhasNoBloco);
+        assertThat(jdbcTemplate.queryForObject(
+                "SELECT COUNT(DISTINCT measurement_date) = COUNT(*) FROM tb_measure WHERE user_id = 3 AND measurement_date >= ?",
+                Boolean.class, INICIO)).isTrue();
+
+        // Uma terceira execução não tem mais nada a fazer
+        RelatorioImportacaoResponse terceira = importar("retomada.ndjson");
+        assertThat(terceira.blocosJaImportados()).isEqualTo(terceira.blocos());
+        assertThat(terceira.linhas()).isZero();
+    }
+
+    @Test
+    @DisplayName("Deve recusar arquivo fora do diretório de importação ou com cabeçalho sem as colunas obrigatórias")
+    void deveRecusarArquivoInvalido() throws Exception {
+        escrever("sem-data.csv", List.of("userId,weightKg", "2,70.0"));
+
+        mockMvc.perform(post("/medidas/import").param("arquivo", "../pom.xml"))
+                .andExpect(status().isBadRequest());
+        mockMvc.perform(post("/medidas/import").param("arquivo", "sem-data.csv"))
+                .andExpect(status().isBadRequest());
+    }
+}
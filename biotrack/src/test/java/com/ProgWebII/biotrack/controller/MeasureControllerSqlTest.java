@@ -0,0 +1,113 @@
+package com.ProgWebII.biotrack.controller;
+
+import com.ProgWebII.biotrack.config.ContadorSqlConfig;
+import com.ProgWebII.biotrack.config.ContadorSqlConfig.ContadorSql;
+import com.ProgWebII.biotrack.store.MeasureColumnStore;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.cache.CacheManager;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.web.servlet.MockMvc;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Testes de regressão do número de comandos SQL dos endpoints de leitura de medidas.
+ * Sobe a aplicação inteira com banco em memória e os dados do DataLoader (Ana Costa: ID 1, medidas 1 e 2).
+ * Caches e histórico colunar são limpos antes de cada teste para medir a leitura a frio.
+ */
+@SpringBootTest(properties = "spring.datasource.url=jdbc:h2:mem:medidas-sql;DB_CLOSE_DELAY=-1")
+@AutoConfigureMockMvc
+@Import(ContadorSqlConfig.class)
+@DisplayName("Testes de Regressão - SQL dos endpoints de medidas")
+class MeasureControllerSqlTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private ContadorSql contadorSql;
+
+    @Autowired
+    private CacheManager cacheManager;
+
+    @Autowired
+    private MeasureColumnStore measureColumnStore;
+
+    @BeforeEach
+    void setUp() {
+        cacheManager.getCacheNames().forEach(nome -> cacheManager.getCache(nome).clear());
+        measureColumnStore.limpar();
+        contadorSql.limpar();
+    }
+
+    @Test
+    @DisplayName("GET /medidas/{usuarioId}/medidas/{medidaId} deve usar um único SELECT sem tocar em tb_users")
+    void buscarMedidaPorIdDeveUsarUmUnicoSelect() throws Exception {
+        // When
+        mockMvc.perform(get("/medidas/1/medidas/2"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.id").value(2));
+
+        // Then
+        assertThat(contadorSql.comandos()).hasSize(1);
+        assertThat(contadorSql.comandos().get(0)).containsIgnoringCase("from tb_measure")
+                .doesNotContainIgnoringCase("tb_users");
+    }
+
+    @Test
+    @DisplayName("GET /medidas/{usuarioId}/medidas deve usar um único SELECT e nenhum na segunda chamada")
+    void listarMedidasDeveUsarUmUnicoSelect() throws Exception {
+        // When
+        mockMvc.perform(get("/medidas/1/medidas"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.length()").value(2));
+
+        // Then
+        assertThat(contadorSql.comandos()).hasSize(1);
+        assertThat(contadorSql.comandos().get(0)).containsIgnoringCase("from tb_measure")
+                .doesNotContainIgnoringCase("tb_users");
+
+        // When: a segunda leitura vem do cache
+        contadorSql.limpar();
+        mockMvc.perform(get("/medidas/1/medidas")).andExpect(status().isOk());
+
+        // Then
+        assertThat(contadorSql.quantidade()).isZero();
+    }
+
+    @Test
+    @DisplayName("GET /medidas/{usuarioId}/medidas/{medidaId} deve manter o formato JSON da medida")
+    void buscarMedidaPorIdDeveManterFormatoJson() throws Exception {
+        // When & Then: mesmos nomes, ordem e formato de data do DTO anterior
+        mockMvc.perform(get("/medidas/1/medidas/2"))
+                .andExpect(status().isOk())
+                .andExpect(content().string("{\"id\":2,\"measurementDate\":\"2024-06-10T00:00:00\",\"weightKg\":69.0,"
+                        + "\"heightCm\":165.0,\"waistCm\":69.5,\"hipCm\":94.5,\"chestCm\":88.5,\"armRightCm\":28.5,"
+                        + "\"armLeftCm\":27.8,\"thighRightCm\":55.2,\"thighLeftCm\":54.6,\"bodyFatPercentage\":21.8}"));
+    }
+
+    @Test
+    @DisplayName("GET /medidas/{usuarioId}/medidas com filtros deve ler e escrever só as colunas pedidas")
+    void listarMedidasFiltradasDeveLerSoAsColunasPedidas() throws Exception {
+        // When
+        mockMvc.perform(get("/medidas/1/medidas")
+                        .param("from", "2024-06-01T00:00:00")
+                        .param("fields", "weightKg,waistCm"))
+                .andExpect(status().isOk())
+                .andExpect(content().string("[{\"id\":2,\"measurementDate\":\"2024-06-10T00:00:00\","
+                        + "\"weightKg\":69.0,\"waistCm\":69.5}]"));
+
+        // Then
+        assertThat(contadorSql.comandos()).singleElement().satisfies(sql -> assertThat(sql)
+                .contains("weight_kg", "waist_cm", "measurement_date >= ?").doesNotContain("height_cm"));
+    }
+}
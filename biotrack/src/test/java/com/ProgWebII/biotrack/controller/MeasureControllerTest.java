@@ -2,6 +2,9 @@ package com.ProgWebII.biotrack.controller;
 
 import com.ProgWebII.biotrack.dto.request.MeasureRequest;
 import com.ProgWebII.biotrack.dto.response.MedidaResponse;
+import com.ProgWebII.biotrack.service.MeasureBatchService;
+import com.ProgWebII.biotrack.service.MeasureImportService;
+import com.ProgWebII.biotrack.service.MeasureRollupService;
 import com.ProgWebII.biotrack.service.MeasureService;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import jakarta.persistence.EntityNotFoundException;
@@ -9,6 +12,7 @@ import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
 import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
 import org.springframework.boot.test.mock.mockito.MockBean;
 import org.springframework.http.MediaType;
@@ -27,6 +31,8 @@ import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.
  * Testes de Controller para MeasureController.
  */
 @WebMvcTest(MeasureController.class)
+// O SecurityConfig (que libera tudo) fica fora do slice: sem os filtros, as requisições não esbarram no login padrão
+@AutoConfigureMockMvc(addFilters = false)
 @DisplayName("Testes de Controller - MeasureController")
 class MeasureControllerTest {
 
@@ -39,6 +45,15 @@ class MeasureControllerTest {
     @MockBean
     private MeasureService measureService;
 
+    @MockBean
+    private MeasureBatchService measureBatchService;
+
+    @MockBean
+    private MeasureRollupService measureRollupService;
+
+    @MockBean
+    private MeasureImportService measureImportService;
+
     private MeasureRequest measureRequest;
     private MedidaResponse medidaResponse;
 
@@ -0,0 +1,162 @@
+package com.ProgWebII.biotrack.controller;
+
+import com.ProgWebII.biotrack.config.ContadorSqlConfig;
+import com.ProgWebII.biotrack.config.ContadorSqlConfig.ContadorSql;
+import com.ProgWebII.biotrack.dto.request.MeasureRequest;
+import com.ProgWebII.biotrack.dto.request.UserPatchRequest;
+import com.ProgWebII.biotrack.repository.UserRepository;
+import com.ProgWebII.biotrack.service.MeasureService;
+import com.ProgWebII.biotrack.service.UserService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.cache.CacheManager;
+import org.springframework.context.annotation.Import;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.hamcrest.Matchers.not;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Testes das leituras condicionais (ETag / If-None-Match) de usuário com medidas.
+ * Sobe a aplicação inteira com banco em memória e os dados do DataLoader (João Silva: ID 2).
+ */
+@SpringBootTest(properties = "spring.datasource.url=jdbc:h2:mem:usuarios-etag;DB_CLOSE_DELAY=-1")
+@AutoConfigureMockMvc
+@Import(ContadorSqlConfig.class)
+@DisplayName("Testes de Integração - ETag das leituras de usuário")
+class UsuarioControllerEtagTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private ContadorSql contadorSql;
+
+    @Autowired
+    private CacheManager cacheManager;
+
+    @Autowired
+    private MeasureService measureService;
+
+    @Autowired
+    private UserService userService;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @BeforeEach
+    void setUp() {
+        cacheManager.getCacheNames().forEach(nome -> cacheManager.getCache(nome).clear());
+        contadorSql.limpar();
+    }
+
+    private String etagAtual(String caminho) throws Exception {
+        return mockMvc.perform(get(caminho))
+                .andExpect(status().isOk())
+                .andExpect(header().exists(HttpHeaders.LAST_MODIFIED))
+                .andExpect(header().string(HttpHeaders.CACHE_CONTROL, "no-cache"))
+                .andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+    }
+
+    @Test
+    @DisplayName("If-None-Match ainda válido deve responder 304 sem SQL, com a versão do cache de consultas")
+    void deveResponder304SemConsultarMedidas() throws Exception {
+        // Given
+        String etag = etagAtual("/usuarios/2/todas-medidas");
+        assertThat(etag).startsWith("W/\"2-");
+        contadorSql.limpar();
+
+        // When
+        mockMvc.perform(get("/usuarios/2/todas-medidas").header(HttpHeaders.IF_NONE_MATCH, etag))
+                .andExpect(status().isNotModified())
+                .andExpect(header().string(HttpHeaders.ETAG, etag))
+                .andExpect(content().string(""));
+
+        // Then: a versão vem do cache de consultas do Hibernate (nenhuma escrita em tb_users desde a 1ª leitura)
+        assertThat(contadorSql.comandos()).isEmpty();
+    }
+
+    @Test
+    @DisplayName("Uma nova medida deve mudar o ETag das duas leituras")
+    void novaMedidaDeveMudarOEtag() throws Exception {
+        // Given
+        String todas = etagAtual("/usuarios/2/todas-medidas");
+        String ultima = etagAtual("/usuarios/2/ultima-medida");
+        assertThat(ultima).isEqualTo(todas);
+
+        // When
+        mockMvc.perform(post("/medidas/2")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"measurementDate\":\"2024-09-01T08:00:00\",\"weightKg\":81.0,\"heightCm\":180.0}"))
+                .andExpect(status().isOk());
+
+        // Then: o ETag antigo não vale mais e a resposta completa volta
+        mockMvc.perform(get("/usuarios/2/ultima-medida").header(HttpHeaders.IF_NONE_MATCH, ultima))
+                .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.ETAG, not(ultima)));
+        mockMvc.perform(get("/usuarios/2/todas-medidas").header(HttpHeaders.IF_NONE_MATCH, todas))
+                .andExpect(status().isOk());
+    }
+
+    @Test
+    @DisplayName("Escritas simultâneas do mesmo usuário devem ser todas gravadas, cada uma avançando a versão uma vez")
+    void escritasSimultaneasDoMesmoUsuarioDevemSerTodasGravadas() throws Exception {
+        // Given
+        long revisaoInicial = userRepository.findById(2L).orElseThrow().getRevisao();
+        int medidas = 30;
+        int patches = 10;
+        CountDownLatch largada = new CountDownLatch(1);
+        List<Callable<Void>> escritas = new ArrayList<>();
+        for (int i = 0; i < medidas; i++) {
+            LocalDateTime data = LocalDateTime.of(2024, 10, 1, 8, 0).plusMinutes(i);
+            escritas.add(() -> {
+                largada.await();
+                measureService.CreateMeasure(new MeasureRequest(data,
+                        80.0, 180.0, null, null, null, null, null, null, null, null), 2L);
+                return null;
+            });
+        }
+        for (int i = 0; i < patches; i++) {
+            String nome = "João Silva " + i;
+            escritas.add(() -> {
+                largada.await();
+                userService.atualizarParcialUsuario(2L, new UserPatchRequest(nome, null, null, null, null), null);
+                return null;
+            });
+        }
+
+        // When: todas partem juntas e disputam a linha do mesmo usuário
+        List<Future<Void>> resultados = new ArrayList<>();
+        try (ExecutorService executor = Executors.newFixedThreadPool(escritas.size())) {
+            escritas.forEach(escrita -> resultados.add(executor.submit(escrita)));
+            largada.countDown();
+            // Then: nenhuma é recusada por conflito de versão
+            for (Future<Void> resultado : resultados) {
+                resultado.get();
+            }
+        }
+
+        // Then: a versão avança exatamente uma vez por escrita
+        assertThat(userRepository.findById(2L).orElseThrow().getRevisao()).isEqualTo(revisaoInicial + medidas + patches);
+    }
+}
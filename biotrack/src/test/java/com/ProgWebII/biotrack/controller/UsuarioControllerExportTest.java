@@ -0,0 +1,165 @@
+package com.ProgWebII.biotrack.controller;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpHeaders;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.test.web.servlet.request.MockHttpServletRequestBuilder;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.zip.GZIPInputStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Testes de integração da exportação de medidas em streaming (CSV e NDJSON, com e sem gzip).
+ * Sobe a aplicação inteira com banco em memória e os dados do DataLoader (João Silva: ID 2, com 3 medidas);
+ * blocos de 1 KB para que a exportação de todos os usuários passe por vários blocos em cada partição, que aqui
+ * fica habilitada.
+ */
+@SpringBootTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:usuarios-export;DB_CLOSE_DELAY=-1",
+        "biotrack.medidas.exportacao.tamanho-bloco-kb=1",
+        "biotrack.medidas.exportacao.todas.habilitada=true"
+})
+@AutoConfigureMockMvc
+@DisplayName("Testes de Integração - Exportação de medidas")
+class UsuarioControllerExportTest {
+
+    private static final String CABECALHO_CSV = "userId,id,measurementDate,weightKg,heightCm,waistCm,hipCm,chestCm,"
+            + "armRightCm,armLeftCm,thighRightCm,thighLeftCm,bodyFatPercentage";
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    private MockHttpServletResponse exportar(MockHttpServletRequestBuilder requisicao) throws Exception {
+        MvcResult resultado = mockMvc.perform(requisicao)
+                .andExpect(request().asyncStarted())
+                .andReturn();
+        return mockMvc.perform(asyncDispatch(resultado))
+                .andExpect(status().isOk())
+                .andReturn().getResponse();
+    }
+
+    private static List<String> linhas(byte[] corpo) {
+        return new String(corpo, StandardCharsets.UTF_8).lines().toList();
+    }
+
+    private static byte[] descomprimir(byte[] corpo) throws IOException {
+        try (GZIPInputStream entrada = new GZIPInputStream(new ByteArrayInputStream(corpo))) {
+            return entrada.readAllBytes();
+        }
+    }
+
+    @Test
+    @DisplayName("Deve exportar o histórico do usuário em CSV, da medida mais recente para a mais antiga")
+    void deveExportarHistoricoEmCsv() throws Exception {
+        // When
+        MockHttpServletResponse resposta = exportar(get("/usuarios/2/medidas/export").param("format", "csv"));
+
+        // Then
+        assertThat(resposta.getContentType()).startsWith("text/csv");
+        assertThat(resposta.getHeader(HttpHeaders.CONTENT_DISPOSITION)).contains("medidas-usuario-2.csv");
+        assertThat(resposta.getHeader(HttpHeaders.CONTENT_ENCODING)).isNull();
+        List<String> linhas = linhas(resposta.getContentAsByteArray());
+        Integer medidas = jdbcTemplate.queryForObject("SELECT COUNT(*) FROM tb_measure WHERE user_id = 2", Integer.class);
+        assertThat(linhas).hasSize(medidas + 1);
+        assertThat(linhas.get(0)).isEqualTo(CABECALHO_CSV);
+        List<String> datas = linhas.subList(1, linhas.size()).stream()
+                .peek(linha -> assertThat(linha).startsWith("2,"))
+                .map(linha -> linha.split(",", -1)[2])
+                .toList();
+        assertThat(datas).isSortedAccordingTo((a, b) -> b.compareTo(a));
+    }
+
+    @Test
+    @DisplayName("Deve exportar em NDJSON comprimido quando o cliente aceita gzip")
+    void deveExportarNdjsonComGzip() throws Exception {
+        // When
+        MockHttpServletResponse resposta = exportar(get("/usuarios/2/medidas/export")
+                .param("format", "ndjson")
+                .header(HttpHeaders.ACCEPT_ENCODING, "gzip, deflate"));
+
+        // Then
+        assertThat(resposta.getHeader(HttpHeaders.CONTENT_ENCODING)).isEqualTo("gzip");
+        assertThat(resposta.getHeaders(HttpHeaders.VARY)).contains(HttpHeaders.ACCEPT_ENCODING);
+        List<String> linhas = linhas(descomprimir(resposta.getContentAsByteArray()));
+        assertThat(linhas).isNotEmpty();
+        for (String linha : linhas) {
+            JsonNode medida = objectMapper.readTree(linha);
+            assertThat(medida.get("userId").asLong()).isEqualTo(2L);
+            assertThat(medida.get("weightKg").isNumber()).isTrue();
+            assertThat(medida.has("bodyFatPercentage")).isTrue();
+        }
+    }
+
+    @Test
+    @DisplayName("Deve recusar a exportação de usuário inexistente antes de começar a resposta")
+    void deveRecusarUsuarioInexistente() throws Exception {
+        mockMvc.perform(get("/usuarios/999999/medidas/export"))
+                .andExpect(request().asyncNotStarted())
+                .andExpect(status().isNotFound());
+    }
+
+    @Test
+    @DisplayName("Deve exportar as medidas de todos os usuários em partições paralelas, sem perder nem repetir linhas")
+    void deveExportarTodosOsUsuariosEmParticoes() throws Exception {
+        // Given: histórico maior para ocupar vários blocos em cada partição
+        LocalDateTime inicio = LocalDateTime.of(2020, 1, 1, 7, 0);
+        List<Object[]> novas = new ArrayList<>();
+        for (int i = 0; i < 3000; i++) {
+            novas.add(new Object[]{5_000_000L + i, 1L + i % 3, inicio.plusHours(i), 60.0 + i % 40 / 2.0});
+        }
+        jdbcTemplate.batchUpdate(
+                "INSERT INTO tb_measure (id, user_id, measurement_date, weight_kg) VALUES (?, ?, ?, ?)", novas);
+        Integer total = jdbcTemplate.queryForObject("SELECT COUNT(*) FROM tb_measure", Integer.class);
+
+        // When
+        MockHttpServletResponse resposta = exportar(get("/usuarios/medidas/export")
+                .param("format", "csv")
+                .param("particoes", "3")
+                .header(HttpHeaders.ACCEPT_ENCODING, "gzip"));
+
+        // Then: o .gz com vários membros é lido como um arquivo só
+        assertThat(resposta.getHeader(HttpHeaders.CONTENT_DISPOSITION)).contains("medidas.csv");
+        List<String> linhas = linhas(descomprimir(resposta.getContentAsByteArray()));
+        assertThat(linhas.get(0)).isEqualTo(CABECALHO_CSV);
+        assertThat(linhas).hasSize(total + 1);
+        assertThat(linhas.subList(1, linhas.size()).stream().map(linha -> linha.split(",")[1]).distinct())
+                .hasSize(total);
+
+        // As medidas de cada usuário continuam da mais recente para a mais antiga
+        Map<String, List<String>> datasPorUsuario = new HashMap<>();
+        for (String linha : linhas.subList(1, linhas.size())) {
+            String[] colunas = linha.split(",", -1);
+            datasPorUsuario.computeIfAbsent(colunas[0], id -> new ArrayList<>()).add(colunas[2]);
+        }
+        assertThat(datasPorUsuario.values())
+                .allSatisfy(datas -> assertThat(datas).isSortedAccordingTo((a, b) -> b.compareTo(a)));
+    }
+}
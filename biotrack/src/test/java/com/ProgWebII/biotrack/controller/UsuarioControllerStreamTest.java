@@ -0,0 +1,63 @@
+package com.ProgWebII.biotrack.controller;
+
+import com.ProgWebII.biotrack.service.StreamMedidasService;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.awaitility.Awaitility.await;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Teste de integração do stream SSE de medidas: a medida criada pela API chega ao assinante depois do commit.
+ * Sobe a aplicação inteira com banco em memória e os dados do DataLoader (João Silva: ID 2, Carla Mendes: ID 3).
+ */
+@SpringBootTest(properties = "spring.datasource.url=jdbc:h2:mem:usuarios-stream;DB_CLOSE_DELAY=-1")
+@AutoConfigureMockMvc
+@DisplayName("Testes de Integração - Stream SSE de medidas")
+class UsuarioControllerStreamTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private StreamMedidasService streamMedidasService;
+
+    @Test
+    @DisplayName("Deve enviar ao assinante as medidas novas do usuário, e só as dele")
+    void deveEnviarMedidasNovasDoUsuario() throws Exception {
+        // Given
+        MvcResult assinatura = mockMvc.perform(get("/usuarios/2/medidas/stream").accept(MediaType.TEXT_EVENT_STREAM))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+        assertThat(streamMedidasService.assinantesAtivos()).isPositive();
+
+        // When
+        criarMedida(3L, "{\"measurementDate\":\"2024-09-01T08:00:00\",\"weightKg\":58.3}");
+        criarMedida(2L, "{\"measurementDate\":\"2024-09-02T08:00:00\",\"weightKg\":81.4,\"heightCm\":180.0}");
+
+        // Then
+        await().atMost(5, TimeUnit.SECONDS).until(() -> assinatura.getResponse().getContentAsString()
+                .contains("event:" + StreamMedidasService.EVENTO_CRIADA));
+        assertThat(assinatura.getResponse().getContentType()).startsWith(MediaType.TEXT_EVENT_STREAM_VALUE);
+        String stream = assinatura.getResponse().getContentAsString();
+        assertThat(stream).contains("\"measurementDate\":\"2024-09-02T08:00:00\",\"weightKg\":81.4,\"heightCm\":180.0")
+                .doesNotContain("58.3");
+    }
+
+    private void criarMedida(Long userId, String json) throws Exception {
+        mockMvc.perform(post("/medidas/" + userId).contentType(MediaType.APPLICATION_JSON).content(json))
+                .andExpect(status().isOk());
+    }
+}
@@ -3,9 +3,12 @@ package com.ProgWebII.biotrack.controller;
 import com.ProgWebII.biotrack.dto.request.UserPatchRequest;
 import com.ProgWebII.biotrack.dto.request.UserRequest;
 import com.ProgWebII.biotrack.dto.response.*;
-import com.ProgWebII.biotrack.mapper.UsuarioMapper;
-import com.ProgWebII.biotrack.model.Imc;
-import com.ProgWebII.biotrack.repository.UserRepository;
+import com.ProgWebII.biotrack.repository.projection.VersaoUsuarioProjection;
+import com.ProgWebII.biotrack.service.DistribuicaoImcService;
+import com.ProgWebII.biotrack.service.MeasureExportService;
+import com.ProgWebII.biotrack.service.PasswordHashingService;
+import com.ProgWebII.biotrack.service.StreamMedidasService;
+import com.ProgWebII.biotrack.service.TendenciaService;
 import com.ProgWebII.biotrack.service.UserService;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import jakarta.persistence.EntityNotFoundException;
@@ -13,15 +16,24 @@ import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
 import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
 import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
 import org.springframework.http.MediaType;
 import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
 
+import java.time.Instant;
 import java.time.LocalDate;
 import java.util.Arrays;
 import java.util.Collections;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicReference;
 
+import static org.assertj.core.api.Assertions.assertThat;
 import static org.mockito.ArgumentMatchers.*;
 import static org.mockito.Mockito.*;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
@@ -32,6 +44,8 @@ import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.
  * Usa @WebMvcTest para testar apenas a camada web.
  */
 @WebMvcTest(UsuarioController.class)
+// O SecurityConfig (que libera tudo) fica fora do slice: sem os filtros, as requisições não esbarram no login padrão
+@AutoConfigureMockMvc(addFilters = false)
 @DisplayName("Testes de Controller - UsuarioController")
 class UsuarioControllerTest {
 
@@ -45,13 +59,19 @@ class UsuarioControllerTest {
     private UserService userService;
 
     @MockBean
-    private UserRepository userRepository;
+    private PasswordHashingService passwordHashingService;
 
     @MockBean
-    private Imc imc;
+    private TendenciaService tendenciaService;
 
     @MockBean
-    private UsuarioMapper usuarioMapper;
+    private DistribuicaoImcService distribuicaoImcService;
+
+    @MockBean
+    private StreamMedidasService streamMedidasService;
+
+    @MockBean
+    private MeasureExportService measureExportService;
 
     private UserRequest userRequest;
     private ListarTodosUsuariosResponse usuarioResponse;
@@ -75,20 +95,38 @@ class UsuarioControllerTest {
         );
     }
 
+    private VersaoUsuarioProjection versao(long revisao) {
+        return new VersaoUsuarioProjection() {
+            @Override
+            public long getRevisao() {
+                return revisao;
+            }
+
+            @Override
+            public Instant getUltimaAlteracao() {
+                return Instant.parse("2024-06-10T12:00:00Z");
+            }
+        };
+    }
+
     @Test
     @DisplayName("POST /usuarios - Deve criar usuário com sucesso")
     void deveCriarUsuarioComSucesso() throws Exception {
         // Given
-        doNothing().when(userService).createUser(any(UserRequest.class));
+        when(passwordHashingService.gerarHash("Senha123")).thenReturn(CompletableFuture.completedFuture("hash"));
+        doNothing().when(userService).createUser(any(UserRequest.class), eq("hash"));
 
         // When & Then
-        mockMvc.perform(post("/usuarios")
+        MvcResult resultado = mockMvc.perform(post("/usuarios")
                         .contentType(MediaType.APPLICATION_JSON)
                         .content(objectMapper.writeValueAsString(userRequest)))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+        mockMvc.perform(asyncDispatch(resultado))
                 .andExpect(status().isOk())
                 .andExpect(content().string("Usuário criado com sucesso!"));
 
-        verify(userService, times(1)).createUser(any(UserRequest.class));
+        verify(userService, times(1)).createUser(any(UserRequest.class), eq("hash"));
     }
 
     @Test
@@ -114,7 +152,7 @@ class UsuarioControllerTest {
     @DisplayName("GET /usuarios - Deve listar todos os usuários")
     void deveListarTodosUsuarios() throws Exception {
         // Given
-        when(userService.listarTodos())
+        when(userService.listarTodos(null, 100))
                 .thenReturn(Arrays.asList(usuarioResponse));
 
         // When & Then
@@ -123,7 +161,7 @@ class UsuarioControllerTest {
                 .andExpect(jsonPath("$[0].name").value("João Silva"))
                 .andExpect(jsonPath("$[0].email").value("joao.silva@email.com"));
 
-        verify(userService, times(1)).listarTodos();
+        verify(userService, times(1)).listarTodos(null, 100);
     }
 
     @Test
@@ -195,6 +233,7 @@ class UsuarioControllerTest {
                 Collections.emptyList()
         );
         when(userService.trazerUsuarioPorIdComTodasAsMedidas(1L)).thenReturn(response);
+        when(userService.buscarVersao(1L)).thenReturn(versao(3L));
 
         // When & Then
         mockMvc.perform(get("/usuarios/1/todas-medidas"))
@@ -217,6 +256,7 @@ class UsuarioControllerTest {
                 Collections.emptyList()
         );
         when(userService.trazerUsuarioPorIdComUltimaMedida(1L)).thenReturn(response);
+        when(userService.buscarVersao(1L)).thenReturn(versao(3L));
 
         // When & Then
         mockMvc.perform(get("/usuarios/1/ultima-medida"))
@@ -226,20 +266,71 @@ class UsuarioControllerTest {
         verify(userService, times(1)).trazerUsuarioPorIdComUltimaMedida(1L);
     }
 
+    @Test
+    @DisplayName("POST /usuarios - Deve gravar o usuário fora da thread que calculou o hash")
+    void deveGravarUsuarioForaDaThreadDoHash() throws Exception {
+        // Given: o hash termina em uma thread como as do pool do PasswordHashingService
+        CompletableFuture<String> hash = new CompletableFuture<>();
+        when(passwordHashingService.gerarHash("Senha123")).thenReturn(hash);
+        AtomicReference<String> threadDaGravacao = new AtomicReference<>();
+        doAnswer(invocacao -> {
+            threadDaGravacao.set(Thread.currentThread().getName());
+            return null;
+        }).when(userService).createUser(any(UserRequest.class), eq("hash"));
+
+        // When
+        MvcResult resultado = mockMvc.perform(post("/usuarios")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(userRequest)))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+        Thread threadDoHash = new Thread(() -> hash.complete("hash"), "hash-senha-teste");
+        threadDoHash.start();
+        threadDoHash.join();
+
+        // Then
+        mockMvc.perform(asyncDispatch(resultado))
+                .andExpect(status().isOk());
+        assertThat(threadDaGravacao.get()).isNotNull().isNotEqualTo("hash-senha-teste");
+    }
+
     @Test
     @DisplayName("PUT /usuarios/{id} - Deve atualizar usuário completamente")
     void deveAtualizarUsuarioCompletamente() throws Exception {
         // Given
-        doNothing().when(userService).atualizarUsuario(eq(1L), any(UserRequest.class));
+        when(passwordHashingService.gerarHashSeInformada("Senha123")).thenReturn(CompletableFuture.completedFuture("hash"));
+        doNothing().when(userService).atualizarUsuario(eq(1L), any(UserRequest.class), eq("hash"));
 
         // When & Then
-        mockMvc.perform(put("/usuarios/1")
+        MvcResult resultado = mockMvc.perform(put("/usuarios/1")
                         .contentType(MediaType.APPLICATION_JSON)
                         .content(objectMapper.writeValueAsString(userRequest)))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+        mockMvc.perform(asyncDispatch(resultado))
                 .andExpect(status().isOk())
                 .andExpect(content().string("Usuário atualizado com sucesso!"));
 
-        verify(userService, times(1)).atualizarUsuario(eq(1L), any(UserRequest.class));
+        verify(userService, times(1)).atualizarUsuario(eq(1L), any(UserRequest.class), eq("hash"));
+    }
+
+    @Test
+    @DisplayName("PUT /usuarios/{id} - Deve retornar 404 depois do hash quando o usuário não existe")
+    void deveRetornar404AoAtualizarUsuarioInexistente() throws Exception {
+        // Given: a exceção sai do serviço já na etapa assíncrona, depois do cálculo do hash
+        when(passwordHashingService.gerarHashSeInformada("Senha123")).thenReturn(CompletableFuture.completedFuture("hash"));
+        doThrow(new EntityNotFoundException("Usuário não encontrado com o ID: 999"))
+                .when(userService).atualizarUsuario(eq(999L), any(UserRequest.class), eq("hash"));
+
+        // When & Then
+        MvcResult resultado = mockMvc.perform(put("/usuarios/999")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(userRequest)))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+        mockMvc.perform(asyncDispatch(resultado))
+                .andExpect(status().isNotFound())
+                .andExpect(content().string("Usuário não encontrado com o ID: 999"));
     }
 
     @Test
@@ -253,16 +344,20 @@ class UsuarioControllerTest {
                 null,
                 null
         );
-        doNothing().when(userService).atualizarParcialUsuario(eq(1L), any(UserPatchRequest.class));
+        when(passwordHashingService.gerarHashSeInformada(null)).thenReturn(CompletableFuture.completedFuture(null));
+        doNothing().when(userService).atualizarParcialUsuario(eq(1L), any(UserPatchRequest.class), isNull());
 
         // When & Then
-        mockMvc.perform(patch("/usuarios/1")
+        MvcResult resultado = mockMvc.perform(patch("/usuarios/1")
                         .contentType(MediaType.APPLICATION_JSON)
                         .content(objectMapper.writeValueAsString(patchRequest)))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+        mockMvc.perform(asyncDispatch(resultado))
                 .andExpect(status().isOk())
                 .andExpect(content().string("Usuário atualizado parcialmente com sucesso!"));
 
-        verify(userService, times(1)).atualizarParcialUsuario(eq(1L), any(UserPatchRequest.class));
+        verify(userService, times(1)).atualizarParcialUsuario(eq(1L), any(UserPatchRequest.class), isNull());
     }
 
     @Test
@@ -283,22 +378,26 @@ class UsuarioControllerTest {
     @DisplayName("GET /usuarios/filtro-imc - Deve filtrar usuários por IMC")
     void deveFiltrarUsuariosPorImc() throws Exception {
         // Given
-        UsuarioResponse response = new UsuarioResponse(
+        UsuarioImcResponse response = new UsuarioImcResponse(
                 1L,
                 "João Silva",
                 LocalDate.of(1990, 5, 15),
                 "12345-678",
                 "joao.silva@email.com",
-                Collections.emptyList()
+                22.9,
+                "Peso Normal"
         );
 
-        when(userRepository.findAll()).thenReturn(Collections.emptyList());
-        when(usuarioMapper.toResponse(any())).thenReturn(response);
+        when(userService.filtrarUsuariosPorFaixaImc(eq("Peso Normal"), any(Pageable.class)))
+                .thenReturn(new PageImpl<>(Arrays.asList(response), PageRequest.of(0, 20), 1));
 
         // When & Then
         mockMvc.perform(get("/usuarios/filtro-imc")
                         .param("faixa", "Peso Normal"))
-                .andExpect(status().isOk());
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.content[0].faixaImc").value("Peso Normal"));
+
+        verify(userService, times(1)).filtrarUsuariosPorFaixaImc(eq("Peso Normal"), any(Pageable.class));
     }
 
     @Test
@@ -0,0 +1,84 @@
+package com.ProgWebII.biotrack.dto;
+
+import com.ProgWebII.biotrack.dto.response.MedidaResponse;
+import com.ProgWebII.biotrack.model.MetricaMedida;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.time.LocalDateTime;
+import java.util.Arrays;
+import java.util.EnumSet;
+import java.util.Random;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Testes do serializador próprio de MedidaResponse: o JSON deve ser o mesmo que o Jackson
+ * escreveria para os mesmos valores, inclusive nos casos fora do caminho rápido.
+ */
+@DisplayName("Testes Unitários - Serialização do MedidaResponse")
+class MedidaResponseTest {
+
+    private final ObjectMapper objectMapper = Jackson2ObjectMapperBuilder.json()
+            .featuresToDisable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS)
+            .build();
+
+    private String json(double pesoKg, LocalDateTime data) throws Exception {
+        return objectMapper.writeValueAsString(new MedidaResponse(1L, data, pesoKg,
+                null, null, null, null, null, null, null, null, null));
+    }
+
+    @Test
+    @DisplayName("Deve escrever os números com o mesmo texto do Jackson")
+    void deveEscreverNumerosComoOJackson() throws Exception {
+        // Given: valores de uma casa (caminho rápido), casos de borda e doubles quaisquer
+        Random aleatorio = new Random(42);
+        double[] valores = new double[3000];
+        double[] bordas = {0.0, -0.0, 0.1, -3.3, 27.8, 165.0, 9999999.9, 1e7, 0.05, 1e-4, 100.25,
+                0.30000000000000004, Double.MIN_VALUE, Double.MAX_VALUE};
+        System.arraycopy(bordas, 0, valores, 0, bordas.length);
+        for (int i = bordas.length; i < valores.length; i++) {
+            valores[i] = i % 2 == 0 ? aleatorio.nextInt(10_000_000) / 10.0 : aleatorio.nextDouble() * 300;
+        }
+        LocalDateTime data = LocalDateTime.of(2024, 1, 15, 10, 30);
+
+        for (double valor : valores) {
+            // When
+            String json = json(valor, data);
+
+            // Then
+            assertThat(json).as("valor %s", valor)
+                    .contains("\"weightKg\":" + objectMapper.writeValueAsString(valor) + ",");
+        }
+    }
+
+    @Test
+    @DisplayName("Deve escrever a data no formato ISO, inclusive com frações de segundo")
+    void deveEscreverDataNoFormatoIso() throws Exception {
+        // When & Then
+        assertThat(json(70.0, LocalDateTime.of(2024, 1, 15, 10, 30)))
+                .startsWith("{\"id\":1,\"measurementDate\":\"2024-01-15T10:30:00\",\"weightKg\":70.0,\"heightCm\":null,");
+        assertThat(json(70.0, LocalDateTime.of(2024, 1, 15, 10, 30, 5, 250_000_000)))
+                .contains("\"measurementDate\":\"2024-01-15T10:30:05.25\"");
+    }
+
+    @Test
+    @DisplayName("Deve omitir as métricas fora da máscara de campos")
+    void deveOmitirMetricasForaDaMascara() throws Exception {
+        // Given
+        double[] valores = new double[MetricaMedida.values().length];
+        Arrays.fill(valores, Double.NaN);
+        valores[MetricaMedida.PESO.ordinal()] = 75.5;
+        MedidaResponse medida = new MedidaResponse(3L, LocalDateTime.of(2024, 1, 15, 10, 30), valores,
+                MedidaResponse.mascara(EnumSet.of(MetricaMedida.PESO, MetricaMedida.CINTURA)));
+
+        // When
+        String json = objectMapper.writeValueAsString(medida);
+
+        // Then: a métrica pedida e sem valor aparece como null; as não pedidas não aparecem
+        assertThat(json).isEqualTo("{\"id\":3,\"measurementDate\":\"2024-01-15T10:30:00\",\"weightKg\":75.5,\"waistCm\":null}");
+    }
+}
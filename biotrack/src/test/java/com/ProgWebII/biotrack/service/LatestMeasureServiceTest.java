@@ -0,0 +1,153 @@
+package com.ProgWebII.biotrack.service;
+
+import com.ProgWebII.biotrack.model.LatestMeasure;
+import com.ProgWebII.biotrack.model.Measure;
+import com.ProgWebII.biotrack.model.User;
+import com.ProgWebII.biotrack.repository.LatestMeasureRepository;
+import com.ProgWebII.biotrack.repository.MeasureRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.time.LocalDateTime;
+import java.util.Optional;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.within;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+/**
+ * Testes unitários para LatestMeasureService.
+ */
+@ExtendWith(MockitoExtension.class)
+@DisplayName("Testes Unitários - LatestMeasureService")
+class LatestMeasureServiceTest {
+
+    @Mock
+    private LatestMeasureRepository latestMeasureRepository;
+
+    @Mock
+    private MeasureRepository measureRepository;
+
+    @InjectMocks
+    private LatestMeasureService latestMeasureService;
+
+    private User usuarioTeste;
+    private LatestMeasure projecaoAtual;
+
+    @BeforeEach
+    void setUp() {
+        usuarioTeste = User.builder().id(1L).name("João Silva").build();
+
+        projecaoAtual = LatestMeasure.builder().userId(1L).build();
+        projecaoAtual.copiarDe(medida(10L, LocalDateTime.of(2024, 6, 10, 10, 0), 76.0));
+    }
+
+    private Measure medida(Long id, LocalDateTime data, double pesoKg) {
+        return Measure.builder()
+                .id(id)
+                .measurementDate(data)
+                .weightKg(pesoKg)
+                .heightCm(175.0)
+                .user(usuarioTeste)
+                .build();
+    }
+
+    @Test
+    @DisplayName("Deve criar a projeção na primeira medida do usuário")
+    void deveCriarProjecaoNaPrimeiraMedida() {
+        // Given
+        when(latestMeasureRepository.findById(1L)).thenReturn(Optional.empty());
+
+        // When
+        latestMeasureService.medidaCriada(medida(10L, LocalDateTime.of(2024, 6, 10, 10, 0), 76.0));
+
+        // Then
+        ArgumentCaptor<LatestMeasure> captor = ArgumentCaptor.forClass(LatestMeasure.class);
+        verify(latestMeasureRepository).save(captor.capture());
+        assertThat(captor.getValue().getUserId()).isEqualTo(1L);
+        assertThat(captor.getValue().getMeasureId()).isEqualTo(10L);
+        assertThat(captor.getValue().getWeightKg()).isEqualTo(76.0);
+        // IMC gravado na projeção para o filtro por faixa: 76 / 1,75²
+        assertThat(captor.getValue().getImc()).isCloseTo(24.816, within(0.001));
+    }
+
+    @Test
+    @DisplayName("Deve substituir a projeção quando a nova medida é mais recente")
+    void deveSubstituirProjecaoQuandoMedidaMaisRecente() {
+        // Given
+        when(latestMeasureRepository.findById(1L)).thenReturn(Optional.of(projecaoAtual));
+
+        // When
+        latestMeasureService.medidaCriada(medida(11L, LocalDateTime.of(2024, 7, 1, 10, 0), 77.0));
+
+        // Then
+        verify(latestMeasureRepository).save(projecaoAtual);
+        assertThat(projecaoAtual.getMeasureId()).isEqualTo(11L);
+        assertThat(projecaoAtual.getWeightKg()).isEqualTo(77.0);
+    }
+
+    @Test
+    @DisplayName("Deve ignorar medida retroativa mais antiga que a projeção")
+    void deveIgnorarMedidaRetroativa() {
+        // Given
+        when(latestMeasureRepository.findById(1L)).thenReturn(Optional.of(projecaoAtual));
+
+        // When
+        latestMeasureService.medidaCriada(medida(11L, LocalDateTime.of(2024, 1, 1, 10, 0), 70.0));
+
+        // Then
+        verify(latestMeasureRepository, never()).save(any());
+        assertThat(projecaoAtual.getMeasureId()).isEqualTo(10L);
+    }
+
+    @Test
+    @DisplayName("Deve recalcular quando a última medida tem a data recuada")
+    void deveRecalcularQuandoUltimaMedidaRecua() {
+        // Given
+        Measure outra = medida(9L, LocalDateTime.of(2024, 5, 1, 10, 0), 75.0);
+        when(latestMeasureRepository.findById(1L)).thenReturn(Optional.of(projecaoAtual));
+        when(measureRepository.findFirstByUserIdOrderByMeasurementDateDescIdDesc(1L)).thenReturn(outra);
+
+        // When
+        latestMeasureService.medidaAtualizada(medida(10L, LocalDateTime.of(2024, 1, 1, 10, 0), 76.0));
+
+        // Then
+        verify(latestMeasureRepository).save(projecaoAtual);
+        assertThat(projecaoAtual.getMeasureId()).isEqualTo(9L);
+    }
+
+    @Test
+    @DisplayName("Deve remover a projeção quando a única medida é removida")
+    void deveRemoverProjecaoQuandoUnicaMedidaRemovida() {
+        // Given
+        when(latestMeasureRepository.findByMeasureId(10L)).thenReturn(Optional.of(projecaoAtual));
+        when(measureRepository.findFirstByUserIdOrderByMeasurementDateDescIdDesc(1L)).thenReturn(null);
+
+        // When
+        latestMeasureService.medidaRemovida(10L);
+
+        // Then
+        verify(latestMeasureRepository).deleteById(1L);
+    }
+
+    @Test
+    @DisplayName("Não deve recalcular ao remover medida que não é a mais recente")
+    void naoDeveRecalcularAoRemoverMedidaAntiga() {
+        // Given
+        when(latestMeasureRepository.findByMeasureId(3L)).thenReturn(Optional.empty());
+
+        // When
+        latestMeasureService.medidaRemovida(3L);
+
+        // Then
+        verifyNoInteractions(measureRepository);
+        verify(latestMeasureRepository, never()).save(any());
+    }
+}
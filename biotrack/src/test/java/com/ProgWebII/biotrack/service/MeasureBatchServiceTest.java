@@ -0,0 +1,189 @@
+package com.ProgWebII.biotrack.service;
+
+import com.ProgWebII.biotrack.dto.request.MeasureRequest;
+import com.ProgWebII.biotrack.dto.request.MedidaLoteRequest;
+import com.ProgWebII.biotrack.dto.response.LoteMedidasResponse;
+import com.ProgWebII.biotrack.dto.response.ResultadoLinhaLoteResponse;
+import com.ProgWebII.biotrack.mapper.MedidaMapper;
+import com.ProgWebII.biotrack.model.LatestMeasure;
+import com.ProgWebII.biotrack.model.User;
+import com.ProgWebII.biotrack.repository.LatestMeasureRepository;
+import com.ProgWebII.biotrack.repository.MeasureRepository;
+import com.ProgWebII.biotrack.store.MedidaGravadaEvent;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.ImportAutoConfiguration;
+import org.springframework.boot.autoconfigure.jackson.JacksonAutoConfiguration;
+import org.springframework.boot.autoconfigure.validation.ValidationAutoConfiguration;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.context.event.ApplicationEvents;
+import org.springframework.test.context.event.RecordApplicationEvents;
+
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * Testes de integração da ingestão em lote de medidas.
+ * Usa o banco em memória do @DataJpaTest para conferir o relatório por linha,
+ * a projeção da última medida e o agrupamento dos INSERTs em lotes JDBC.
+ */
+@DataJpaTest(properties = {
+        "spring.jpa.properties.hibernate.generate_statistics=true",
+        "biotrack.medidas.lote.tamanho-batch=10",
+        "biotrack.medidas.lote.maximo-linhas=100"
+})
+@ImportAutoConfiguration({ValidationAutoConfiguration.class, JacksonAutoConfiguration.class})
+@Import({MeasureBatchService.class, LatestMeasureService.class, MeasureRollupService.class, MedidaMapper.class})
+@RecordApplicationEvents
+@DisplayName("Testes de Integração - MeasureBatchService")
+class MeasureBatchServiceTest {
+
+    @Autowired
+    private MeasureBatchService measureBatchService;
+
+    @Autowired
+    private MeasureRepository measureRepository;
+
+    @Autowired
+    private LatestMeasureRepository latestMeasureRepository;
+
+    @Autowired
+    private TestEntityManager entityManager;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Autowired
+    private ApplicationEvents eventos;
+
+    private User usuario;
+
+    @BeforeEach
+    void setUp() {
+        usuario = entityManager.persist(User.builder()
+                .name("João Silva")
+                .birthDate(LocalDate.of(1990, 5, 15))
+                .zipCode("12345-678")
+                .email("joao.silva@email.com")
+                .password("senhaHasheada123")
+                .build());
+        entityManager.flush();
+        entityManager.clear();
+    }
+
+    private MeasureRequest medida(LocalDateTime data, Double pesoKg) {
+        return new MeasureRequest(data, pesoKg, 175.0, null, null, null, null, null, null, null, null);
+    }
+
+    @Test
+    @DisplayName("Deve inserir as linhas válidas e rejeitar as inválidas sem abortar o lote")
+    void deveInserirLinhasValidasERejeitarInvalidas() {
+        // Given
+        List<MedidaLoteRequest> itens = List.of(
+                new MedidaLoteRequest(usuario.getId(), medida(LocalDateTime.of(2024, 1, 10, 10, 0), 75.0)),
+                new MedidaLoteRequest(usuario.getId(), medida(LocalDateTime.of(2024, 1, 20, 10, 0), null)),
+                new MedidaLoteRequest(9999L, medida(LocalDateTime.of(2024, 1, 10, 10, 0), 80.0)),
+                new MedidaLoteRequest(usuario.getId(), medida(LocalDateTime.of(2024, 3, 10, 10, 0), 77.0))
+        );
+
+        // When
+        LoteMedidasResponse resposta = measureBatchService.criarMedidasEmLote(itens);
+
+        // Then
+        assertThat(resposta.total()).isEqualTo(4);
+        assertThat(resposta.inseridas()).isEqualTo(2);
+        assertThat(resposta.rejeitadas()).isEqualTo(2);
+        assertThat(resposta.linhas()).extracting(ResultadoLinhaLoteResponse::status).containsExactly(
+                ResultadoLinhaLoteResponse.CRIADA, ResultadoLinhaLoteResponse.REJEITADA,
+                ResultadoLinhaLoteResponse.REJEITADA, ResultadoLinhaLoteResponse.CRIADA);
+        assertThat(resposta.linhas().get(1).erros()).containsExactly("medida.weightKg: O peso é obrigatório.");
+        assertThat(resposta.linhas().get(2).erros()).containsExactly("Usuário não encontrado: 9999");
+        assertThat(resposta.linhas().get(0).medidaId()).isNotNull();
+        assertThat(measureRepository.count()).isEqualTo(2);
+
+        // A projeção aponta para a medida mais recente do lote
+        LatestMeasure ultima = latestMeasureRepository.findById(usuario.getId()).orElseThrow();
+        assertThat(ultima.getMeasureId()).isEqualTo(resposta.linhas().get(3).medidaId());
+        assertThat(ultima.getWeightKg()).isEqualTo(77.0);
+
+        // Cada medida criada chega ao stream SSE, como as criadas uma a uma
+        assertThat(eventos.stream(MedidaGravadaEvent.class))
+                .extracting(evento -> evento.medida().getId())
+                .containsExactly(resposta.linhas().get(0).medidaId(), resposta.linhas().get(3).medidaId());
+        assertThat(eventos.stream(MedidaGravadaEvent.class))
+                .allMatch(evento -> evento.nova() && evento.userId().equals(usuario.getId()));
+    }
+
+    @Test
+    @DisplayName("Deve agrupar os INSERTs em lotes JDBC")
+    void deveAgruparInsertsEmLotesJdbc() {
+        // Given
+        List<MedidaLoteRequest> itens = new ArrayList<>();
+        for (int i = 0; i < 30; i++) {
+            itens.add(new MedidaLoteRequest(usuario.getId(), medida(LocalDateTime.of(2024, 1, 1, 0, 0).plusDays(i), 70.0 + i)));
+        }
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+
+        // When
+        LoteMedidasResponse resposta = measureBatchService.criarMedidasEmLote(itens);
+
+        // Then
+        assertThat(resposta.inseridas()).isEqualTo(30);
+        assertThat(statistics.getEntityInsertCount()).isGreaterThanOrEqualTo(30);
+        // 30 inserções de medida em 3 lotes de 10, em vez de um statement por linha
+        assertThat(statistics.getPrepareStatementCount()).isLessThan(17);
+        // O dono só é carregado uma vez, para avançar a versão dele, e não a cada linha
+        assertThat(statistics.getEntityLoadCount()).isLessThanOrEqualTo(1);
+    }
+
+    @Test
+    @DisplayName("Deve ler NDJSON e rejeitar apenas a linha malformada")
+    void deveLerNdjsonERejeitarLinhaMalformada() throws Exception {
+        // Given
+        String corpo = "{\"userId\":" + usuario.getId() + ",\"medida\":{\"measurementDate\":\"2024-01-10T10:00:00\",\"weightKg\":75.0}}\n"
+                + "{isso não é json}\n"
+                + "\n"
+                + "{\"userId\":" + usuario.getId() + ",\"medida\":{\"measurementDate\":\"2024-02-10T10:00:00\",\"weightKg\":76.0}}\n";
+
+        // When
+        LoteMedidasResponse resposta = measureBatchService.criarMedidasEmLote(
+                new ByteArrayInputStream(corpo.getBytes(StandardCharsets.UTF_8)));
+
+        // Then
+        assertThat(resposta.total()).isEqualTo(3);
+        assertThat(resposta.inseridas()).isEqualTo(2);
+        assertThat(resposta.linhas().get(1).status()).isEqualTo(ResultadoLinhaLoteResponse.REJEITADA);
+        assertThat(resposta.linhas().get(1).erros().get(0)).startsWith("JSON inválido");
+    }
+
+    @Test
+    @DisplayName("Deve recusar lote acima do limite de linhas")
+    void deveRecusarLoteAcimaDoLimite() {
+        // Given
+        List<MedidaLoteRequest> itens = new ArrayList<>();
+        for (int i = 0; i < 101; i++) {
+            itens.add(new MedidaLoteRequest(usuario.getId(), medida(LocalDateTime.of(2024, 1, 1, 0, 0), 70.0)));
+        }
+
+        // When & Then
+        assertThatThrownBy(() -> measureBatchService.criarMedidasEmLote(itens))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessageContaining("100");
+        assertThat(measureRepository.count()).isZero();
+    }
+}
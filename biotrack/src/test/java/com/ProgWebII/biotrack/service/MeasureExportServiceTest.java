@@ -0,0 +1,183 @@
+package com.ProgWebII.biotrack.service;
+
+import com.ProgWebII.biotrack.exception.ServicoSobrecarregadoException;
+import com.ProgWebII.biotrack.repository.MeasureStreamRepository;
+import com.ProgWebII.biotrack.repository.MeasureStreamRepository.ConsumidorMedida;
+import com.ProgWebII.biotrack.repository.UserStreamRepository;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.persistence.EntityNotFoundException;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.dao.DataAccessResourceFailureException;
+
+import java.io.ByteArrayOutputStream;
+import java.time.LocalDateTime;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Optional;
+
+import static org.assertj.core.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.lenient;
+import static org.mockito.Mockito.when;
+
+/**
+ * Testes unitários para MeasureExportService, com o cursor JDBC simulado pelo repositório mockado.
+ */
+@ExtendWith(MockitoExtension.class)
+@DisplayName("Testes Unitários - MeasureExportService")
+class MeasureExportServiceTest {
+
+    private static final LocalDateTime DATA = LocalDateTime.of(2024, 6, 10, 8, 0);
+
+    @Mock
+    private MeasureStreamRepository measureStreamRepository;
+
+    @Mock
+    private UserStreamRepository userStreamRepository;
+
+    private MeasureExportService service;
+
+    @BeforeEach
+    void setUp() {
+        service = new MeasureExportService(measureStreamRepository, userStreamRepository, new ObjectMapper(), 4, 1,
+                true, 1, 60);
+    }
+
+    @AfterEach
+    void tearDown() {
+        service.encerrar();
+    }
+
+    private static double[] valores(double peso, double altura) {
+        double[] valores = new double[10];
+        Arrays.fill(valores, Double.NaN);
+        valores[0] = peso;
+        valores[1] = altura;
+        return valores;
+    }
+
+    @Test
+    @DisplayName("Deve escrever o CSV com métricas ausentes em branco")
+    void deveEscreverCsvComMetricasAusentesEmBranco() throws Exception {
+        // Given
+        doAnswer(invocacao -> {
+            ConsumidorMedida consumidor = invocacao.getArgument(1);
+            consumidor.aceitar(7L, 11L, DATA, valores(70.5, 175.0));
+            consumidor.aceitar(7L, 10L, DATA.minusDays(1), valores(71.0, Double.NaN));
+            return null;
+        }).when(measureStreamRepository).percorrerMedidas(eq(7L), any());
+        ByteArrayOutputStream saida = new ByteArrayOutputStream();
+
+        // When
+        service.exportarMedidas(7L, MeasureExportService.Formato.CSV, false, saida);
+
+        // Then
+        assertThat(saida.toString().lines()).containsExactly(
+                "userId,id,measurementDate,weightKg,heightCm,waistCm,hipCm,chestCm,armRightCm,armLeftCm,"
+                        + "thighRightCm,thighLeftCm,bodyFatPercentage",
+                "7,11,2024-06-10T08:00:00,70.5,175.0,,,,,,,,",
+                "7,10,2024-06-09T08:00:00,71.0,,,,,,,,,");
+    }
+
+    @Test
+    @DisplayName("Deve dividir o intervalo de IDs sem sobrepor nem deixar buracos")
+    void deveDividirIntervaloDeIds() {
+        assertThat(MeasureExportService.dividir(1, 10, 3))
+                .containsExactly(new long[]{1, 4}, new long[]{5, 8}, new long[]{9, 10});
+        assertThat(MeasureExportService.dividir(5, 6, 4))
+                .containsExactly(new long[]{5, 5}, new long[]{6, 6});
+    }
+
+    @Test
+    @DisplayName("Deve escrever só o cabeçalho quando não há medidas")
+    void deveEscreverSoCabecalhoSemMedidas() throws Exception {
+        // Given
+        when(measureStreamRepository.buscarIntervaloUsuarios()).thenReturn(Optional.empty());
+        ByteArrayOutputStream saida = new ByteArrayOutputStream();
+
+        // When
+        service.exportarTodasAsMedidas(MeasureExportService.Formato.CSV, 2, false, saida);
+
+        // Then
+        assertThat(saida.toString().lines()).hasSize(1);
+    }
+
+    @Test
+    @DisplayName("Deve propagar a falha de uma partição e cancelar a exportação")
+    void devePropagarFalhaDeParticao() {
+        // Given
+        when(measureStreamRepository.buscarIntervaloUsuarios()).thenReturn(Optional.of(new long[]{1, 2}));
+        // lenient: a partição 1 pode ser cancelada antes de começar
+        lenient().doAnswer(invocacao -> {
+            ConsumidorMedida consumidor = invocacao.getArgument(2);
+            for (long id = 0; id < 100; id++) {
+                consumidor.aceitar(1L, id, DATA, valores(70.0, 175.0));
+            }
+            return null;
+        }).when(measureStreamRepository).percorrerMedidasDosUsuarios(eq(1L), eq(1L), any());
+        doThrow(new DataAccessResourceFailureException("conexão perdida"))
+                .when(measureStreamRepository).percorrerMedidasDosUsuarios(eq(2L), eq(2L), any());
+
+        // When / Then
+        assertThatThrownBy(() -> service.exportarTodasAsMedidas(
+                MeasureExportService.Formato.NDJSON, 2, false, new ByteArrayOutputStream()))
+                .isInstanceOf(DataAccessResourceFailureException.class);
+    }
+
+    @Test
+    @DisplayName("Deve rejeitar número de partições fora do limite")
+    void deveRejeitarParticoesForaDoLimite() {
+        for (int particoes : List.of(0, 5)) {
+            assertThatThrownBy(() -> service.exportarTodasAsMedidas(
+                    MeasureExportService.Formato.CSV, particoes, false, new ByteArrayOutputStream()))
+                    .isInstanceOf(IllegalArgumentException.class);
+        }
+    }
+
+    @Test
+    @DisplayName("Deve recusar uma segunda exportação completa simultânea até a primeira liberar a vaga")
+    void deveLimitarExportacoesCompletasSimultaneas() {
+        // Given
+        service.reservarExportacaoCompleta(4);
+
+        // When & Then
+        assertThatThrownBy(() -> service.reservarExportacaoCompleta(4))
+                .isInstanceOf(ServicoSobrecarregadoException.class);
+        service.liberarExportacaoCompleta();
+        assertThatCode(() -> service.reservarExportacaoCompleta(4)).doesNotThrowAnyException();
+    }
+
+    @Test
+    @DisplayName("Deve recusar a exportação completa quando ela não foi habilitada")
+    void deveRecusarExportacaoCompletaDesabilitada() {
+        // Given: o padrão da configuração
+        MeasureExportService desabilitado = new MeasureExportService(measureStreamRepository, userStreamRepository,
+                new ObjectMapper(), 4, 1, false, 1, 60);
+
+        // When & Then
+        try {
+            assertThatThrownBy(() -> desabilitado.reservarExportacaoCompleta(4))
+                    .isInstanceOf(EntityNotFoundException.class);
+        } finally {
+            desabilitado.encerrar();
+        }
+    }
+
+    @Test
+    @DisplayName("Deve rejeitar formato desconhecido")
+    void deveRejeitarFormatoDesconhecido() {
+        assertThat(MeasureExportService.Formato.porNome("NDJSON")).isEqualTo(MeasureExportService.Formato.NDJSON);
+        assertThatThrownBy(() -> MeasureExportService.Formato.porNome("xml"))
+                .isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> service.validarUsuario(0L)).isInstanceOf(IllegalArgumentException.class);
+    }
+}
@@ -0,0 +1,137 @@
+package com.ProgWebII.biotrack.service;
+
+import com.ProgWebII.biotrack.dto.response.SerieAgregadaResponse;
+import com.ProgWebII.biotrack.model.GranularidadeRollup;
+import com.ProgWebII.biotrack.model.MetricaMedida;
+import com.ProgWebII.biotrack.repository.MeasureRollupRepository;
+import com.ProgWebII.biotrack.repository.UserRepository;
+import jakarta.persistence.EntityNotFoundException;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+/**
+ * Testes unitários para MeasureRollupService.
+ */
+@ExtendWith(MockitoExtension.class)
+@DisplayName("Testes Unitários - MeasureRollupService")
+class MeasureRollupServiceTest {
+
+    @Mock
+    private MeasureRollupRepository measureRollupRepository;
+
+    @Mock
+    private UserRepository userRepository;
+
+    @InjectMocks
+    private MeasureRollupService measureRollupService;
+
+    @Test
+    @DisplayName("Deve usar baldes mensais para cinco anos com 200 pontos")
+    void deveUsarBaldesMensaisParaCincoAnos() {
+        // Given
+        LocalDate de = LocalDate.of(2020, 1, 15);
+        LocalDate ate = LocalDate.of(2024, 12, 31);
+        when(measureRollupRepository.findPontos(1L, GranularidadeRollup.MES, MetricaMedida.PESO,
+                LocalDate.of(2020, 1, 1), ate)).thenReturn(List.of());
+        when(userRepository.existsById(1L)).thenReturn(true);
+
+        // When
+        SerieAgregadaResponse serie = measureRollupService.buscarSerie(1L, "weightKg", de, ate, 200, null);
+
+        // Then: 60 baldes mensais em vez de mais de 1.800 dias
+        assertThat(serie.granularidade()).isEqualTo("MES");
+        assertThat(serie.metrica()).isEqualTo("weightKg");
+        assertThat(GranularidadeRollup.MES.baldesEntre(de, ate)).isEqualTo(60);
+    }
+
+    @Test
+    @DisplayName("Deve usar a granularidade mais fina que cabe nos pontos pedidos")
+    void deveUsarGranularidadeMaisFina() {
+        // Given
+        LocalDate de = LocalDate.of(2024, 1, 1);
+        LocalDate ate = LocalDate.of(2024, 3, 31);
+
+        // When & Then: 91 dias, 13 semanas
+        assertThat(GranularidadeRollup.paraIntervalo(de, ate, 200)).isEqualTo(GranularidadeRollup.DIA);
+        assertThat(GranularidadeRollup.paraIntervalo(de, ate, 20)).isEqualTo(GranularidadeRollup.SEMANA);
+        assertThat(GranularidadeRollup.paraIntervalo(de, ate, 2)).isEqualTo(GranularidadeRollup.MES);
+    }
+
+    @Test
+    @DisplayName("Deve respeitar a granularidade informada")
+    void deveRespeitarGranularidadeInformada() {
+        // Given
+        LocalDate de = LocalDate.of(2024, 1, 3);
+        LocalDate ate = LocalDate.of(2024, 1, 31);
+        when(measureRollupRepository.findPontos(1L, GranularidadeRollup.SEMANA, MetricaMedida.CINTURA,
+                LocalDate.of(2024, 1, 1), ate)).thenReturn(List.of());
+        when(userRepository.existsById(1L)).thenReturn(true);
+
+        // When
+        SerieAgregadaResponse serie = measureRollupService.buscarSerie(1L, "waistCm", de, ate, 200, "semana");
+
+        // Then
+        assertThat(serie.granularidade()).isEqualTo("SEMANA");
+    }
+
+    @Test
+    @DisplayName("Deve rejeitar intervalo, pontos e granularidade inválidos")
+    void deveRejeitarParametrosInvalidos() {
+        LocalDate de = LocalDate.of(2024, 1, 1);
+        LocalDate ate = LocalDate.of(2024, 12, 31);
+
+        assertThatThrownBy(() -> measureRollupService.buscarSerie(1L, "weightKg", ate, de, 200, null))
+                .isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> measureRollupService.buscarSerie(1L, "weightKg", de, ate, 0, null))
+                .isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> measureRollupService.buscarSerie(1L, "weightKg", de, ate, 200, "HORA"))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessageContaining("Granularidade inválida");
+        assertThatThrownBy(() -> measureRollupService.buscarSerie(1L, "peso", de, ate, 200, null))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessageContaining("Métrica inválida");
+        verifyNoInteractions(measureRollupRepository);
+    }
+
+    @Test
+    @DisplayName("Deve lançar exceção quando o usuário não existe")
+    void deveLancarExcecaoQuandoUsuarioNaoExiste() {
+        // Given
+        when(measureRollupRepository.findPontos(any(), any(), any(), any(), any())).thenReturn(List.of());
+        when(userRepository.existsById(999L)).thenReturn(false);
+
+        // When & Then
+        assertThatThrownBy(() -> measureRollupService.buscarSerie(999L, "weightKg",
+                LocalDate.of(2024, 1, 1), LocalDate.of(2024, 1, 31), 200, null))
+                .isInstanceOf(EntityNotFoundException.class);
+    }
+
+    @Test
+    @DisplayName("Deve recalcular os baldes antigos e novos quando a data da medida muda")
+    void deveRecalcularBaldesAntigosENovos() {
+        // When
+        measureRollupService.medidaAtualizada(1L, LocalDateTime.of(2024, 1, 10, 8, 0), LocalDateTime.of(2024, 6, 12, 8, 0));
+
+        // Then: dois intervalos curtos por granularidade, não todos os baldes entre janeiro e junho
+        verify(measureRollupRepository).recalcular(1L, GranularidadeRollup.DIA, LocalDate.of(2024, 1, 10), LocalDate.of(2024, 1, 11));
+        verify(measureRollupRepository).recalcular(1L, GranularidadeRollup.DIA, LocalDate.of(2024, 6, 12), LocalDate.of(2024, 6, 13));
+        verify(measureRollupRepository).recalcular(1L, GranularidadeRollup.SEMANA, LocalDate.of(2024, 1, 8), LocalDate.of(2024, 1, 15));
+        verify(measureRollupRepository).recalcular(1L, GranularidadeRollup.SEMANA, LocalDate.of(2024, 6, 10), LocalDate.of(2024, 6, 17));
+        verify(measureRollupRepository).recalcular(1L, GranularidadeRollup.MES, LocalDate.of(2024, 1, 1), LocalDate.of(2024, 2, 1));
+        verify(measureRollupRepository).recalcular(1L, GranularidadeRollup.MES, LocalDate.of(2024, 6, 1), LocalDate.of(2024, 7, 1));
+        verifyNoMoreInteractions(measureRollupRepository);
+    }
+}
@@ -2,28 +2,41 @@ package com.ProgWebII.biotrack.service;
 
 import com.ProgWebII.biotrack.dto.request.MeasureRequest;
 import com.ProgWebII.biotrack.dto.response.MedidaResponse;
+import com.ProgWebII.biotrack.mapper.MedidaMapper;
 import com.ProgWebII.biotrack.model.Measure;
+import com.ProgWebII.biotrack.model.MetricaMedida;
 import com.ProgWebII.biotrack.model.User;
 import com.ProgWebII.biotrack.repository.MeasureRepository;
+import com.ProgWebII.biotrack.repository.MeasureSeriesRepository;
 import com.ProgWebII.biotrack.repository.UserRepository;
+import com.ProgWebII.biotrack.repository.projection.MedidaReferenciaProjection;
+import com.ProgWebII.biotrack.store.MeasureColumnStore;
+import com.ProgWebII.biotrack.store.MedidasAlteradasEvent;
+import com.ProgWebII.biotrack.store.SerieMedidas;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
 import jakarta.persistence.EntityNotFoundException;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InOrder;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
+import org.mockito.Spy;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.context.ApplicationEventPublisher;
 
 import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.util.ArrayList;
-import java.util.Arrays;
+import java.util.EnumSet;
 import java.util.List;
 import java.util.Optional;
 
 import static org.assertj.core.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
 import static org.mockito.Mockito.*;
 
 /**
@@ -36,9 +49,27 @@ class MeasureServiceTest {
     @Mock
     private MeasureRepository measureRepository;
 
+    @Mock
+    private MeasureSeriesRepository measureSeriesRepository;
+
     @Mock
     private UserRepository userRepository;
 
+    @Mock
+    private LatestMeasureService latestMeasureService;
+
+    @Mock
+    private MeasureRollupService measureRollupService;
+
+    @Mock
+    private MeasureColumnStore measureColumnStore;
+
+    @Mock
+    private ApplicationEventPublisher eventPublisher;
+
+    @Spy
+    private MedidaMapper medidaMapper;
+
     @InjectMocks
     private MeasureService measureService;
 
@@ -93,22 +124,26 @@ class MeasureServiceTest {
     @DisplayName("Deve criar medida com sucesso")
     void deveCriarMedidaComSucesso() {
         // Given
-        when(userRepository.findById(1L)).thenReturn(Optional.of(usuarioTeste));
+        when(userRepository.travar(1L)).thenReturn(Optional.of(usuarioTeste));
         when(measureRepository.save(any(Measure.class))).thenReturn(medidaTeste);
 
         // When
         measureService.CreateMeasure(measureRequest, 1L);
 
-        // Then
-        verify(userRepository, times(1)).findById(1L);
+        // Then: o usuário é travado antes da escrita e a alteração é registrada na entidade travada
+        verify(userRepository, times(1)).travar(1L);
         verify(measureRepository, times(1)).save(any(Measure.class));
+        verify(latestMeasureService, times(1)).medidaCriada(medidaTeste);
+        verify(measureRollupService, times(1)).medidaCriada(1L, medidaTeste.getMeasurementDate());
+        assertThat(usuarioTeste.getUltimaAlteracao()).isNotNull();
+        verify(eventPublisher, times(1)).publishEvent(new MedidasAlteradasEvent(1L));
     }
 
     @Test
     @DisplayName("Deve lançar exceção ao criar medida para usuário inexistente")
     void deveLancarExcecaoAoCriarMedidaParaUsuarioInexistente() {
         // Given
-        when(userRepository.findById(999L)).thenReturn(Optional.empty());
+        when(userRepository.travar(999L)).thenReturn(Optional.empty());
 
         // When & Then
         assertThatThrownBy(() -> measureService.CreateMeasure(measureRequest, 999L))
@@ -120,15 +155,14 @@ class MeasureServiceTest {
     @DisplayName("Deve listar todas as medidas de um usuário")
     void deveListarTodasMedidasDeUsuario() {
         // Given
-        Measure medida2 = Measure.builder()
-                .id(2L)
-                .measurementDate(LocalDateTime.of(2024, 1, 20, 10, 0))
-                .weightKg(76.0)
-                .heightCm(175.0)
-                .build();
-
-        usuarioTeste.setMeasures(Arrays.asList(medidaTeste, medida2));
-        when(userRepository.findById(1L)).thenReturn(Optional.of(usuarioTeste));
+        SerieMedidas serie = new SerieMedidas.Construtor()
+                .novaLinha(1L, SerieMedidas.paraInstante(LocalDateTime.of(2024, 1, 15, 10, 30)))
+                .valor(MetricaMedida.PESO, 75.5)
+                .valor(MetricaMedida.ALTURA, 175.0)
+                .novaLinha(2L, SerieMedidas.paraInstante(LocalDateTime.of(2024, 1, 20, 10, 0)))
+                .valor(MetricaMedida.PESO, 76.0)
+                .construir();
+        when(measureColumnStore.serieDoUsuario(1L)).thenReturn(serie);
 
         // When
         List<MedidaResponse> resultado = measureService.listarTodasAsMedidasDeUmUsuario(1L);
@@ -136,14 +170,19 @@ class MeasureServiceTest {
         // Then
         assertThat(resultado).hasSize(2);
         assertThat(resultado.get(0).getWeightKg()).isEqualTo(75.5);
-        verify(userRepository, times(1)).findById(1L);
+        assertThat(resultado.get(0).getMeasurementDate()).isEqualTo(LocalDateTime.of(2024, 1, 15, 10, 30));
+        assertThat(resultado.get(1).getId()).isEqualTo(2L);
+        assertThat(resultado.get(1).getHeightCm()).isNull();
+        // A série já em memória dispensa qualquer acesso ao banco
+        verifyNoInteractions(userRepository, measureRepository);
     }
 
     @Test
     @DisplayName("Deve lançar exceção ao listar medidas de usuário inexistente")
     void deveLancarExcecaoAoListarMedidasDeUsuarioInexistente() {
         // Given
-        when(userRepository.findById(999L)).thenReturn(Optional.empty());
+        when(measureColumnStore.serieDoUsuario(999L)).thenReturn(SerieMedidas.vazia());
+        when(userRepository.existsById(999L)).thenReturn(false);
 
         // When & Then
         assertThatThrownBy(() -> measureService.listarTodasAsMedidasDeUmUsuario(999L))
@@ -151,12 +190,72 @@ class MeasureServiceTest {
                 .hasMessageContaining("Usuário não encontrado");
     }
 
+    @Test
+    @DisplayName("Deve listar medidas filtradas lendo só o intervalo e as métricas pedidas")
+    void deveListarMedidasFiltradasComProjecaoDeColunas() throws Exception {
+        // Given
+        LocalDateTime de = LocalDateTime.of(2024, 1, 1, 0, 0);
+        LocalDateTime ate = LocalDateTime.of(2024, 1, 31, 23, 59);
+        SerieMedidas serie = new SerieMedidas.Construtor()
+                .novaLinha(1L, SerieMedidas.paraInstante(LocalDateTime.of(2024, 1, 15, 10, 30)))
+                .valor(MetricaMedida.PESO, 75.5)
+                .valor(MetricaMedida.CINTURA, 85.0)
+                .construir();
+        when(measureSeriesRepository.carregarSerie(1L, de, ate,
+                EnumSet.of(MetricaMedida.PESO, MetricaMedida.CINTURA), 10)).thenReturn(serie);
+
+        // When
+        List<MedidaResponse> resultado = measureService.listarMedidasFiltradas(1L, de, ate,
+                List.of("weightKg", " waistCm"), 10);
+
+        // Then: só o ID, a data e as métricas pedidas aparecem no JSON
+        assertThat(resultado).hasSize(1);
+        String json = new ObjectMapper().registerModule(new JavaTimeModule()).writeValueAsString(resultado.get(0));
+        assertThat(json).contains("\"weightKg\":75.5", "\"waistCm\":85.0", "\"id\":1", "measurementDate")
+                .doesNotContain("heightCm", "bodyFatPercentage", "null");
+        verifyNoInteractions(userRepository, measureColumnStore);
+    }
+
+    @Test
+    @DisplayName("Deve rejeitar intervalo invertido, limite fora da faixa e campo desconhecido")
+    void deveRejeitarFiltrosInvalidos() {
+        // Given
+        LocalDateTime de = LocalDateTime.of(2024, 2, 1, 0, 0);
+        LocalDateTime ate = LocalDateTime.of(2024, 1, 1, 0, 0);
+
+        // When & Then
+        assertThatThrownBy(() -> measureService.listarMedidasFiltradas(1L, de, ate, null, null))
+                .isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> measureService.listarMedidasFiltradas(1L, null, null, null,
+                MeasureService.LIMITE_MAXIMO_MEDIDAS + 1))
+                .isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> measureService.listarMedidasFiltradas(1L, null, null, List.of("altura"), null))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessageContaining("altura");
+        verifyNoInteractions(measureSeriesRepository);
+    }
+
+    @Test
+    @DisplayName("Deve lançar exceção ao filtrar medidas de usuário inexistente")
+    void deveLancarExcecaoAoFiltrarMedidasDeUsuarioInexistente() {
+        // Given
+        when(measureSeriesRepository.carregarSerie(anyLong(), any(), any(), any(), any()))
+                .thenReturn(SerieMedidas.vazia());
+        when(userRepository.existsById(999L)).thenReturn(false);
+
+        // When & Then
+        assertThatThrownBy(() -> measureService.listarMedidasFiltradas(999L, null, null, List.of("weightKg"), 5))
+                .isInstanceOf(EntityNotFoundException.class)
+                .hasMessageContaining("Usuário não encontrado");
+    }
+
     @Test
     @DisplayName("Deve buscar medida específica por ID")
     void deveBuscarMedidaEspecificaPorId() {
         // Given
-        usuarioTeste.setMeasures(Arrays.asList(medidaTeste));
-        when(userRepository.findById(1L)).thenReturn(Optional.of(usuarioTeste));
+        MedidaResponse medida = new MedidaResponse(1L, LocalDateTime.of(2024, 1, 15, 10, 30), 75.5, 175.0,
+                85.0, 95.0, 100.0, 32.0, 31.5, 58.0, 57.5, 18.5);
+        when(measureRepository.findMedidaResponseByIdAndUserId(1L, 1L)).thenReturn(Optional.of(medida));
 
         // When
         MedidaResponse resultado = measureService.buscarMedidaPorId(1L, 1L);
@@ -165,14 +264,15 @@ class MeasureServiceTest {
         assertThat(resultado).isNotNull();
         assertThat(resultado.getId()).isEqualTo(1L);
         assertThat(resultado.getWeightKg()).isEqualTo(75.5);
+        verifyNoInteractions(userRepository);
     }
 
     @Test
     @DisplayName("Deve lançar exceção ao buscar medida inexistente")
     void deveLancarExcecaoAoBuscarMedidaInexistente() {
         // Given
-        usuarioTeste.setMeasures(Arrays.asList(medidaTeste));
-        when(userRepository.findById(1L)).thenReturn(Optional.of(usuarioTeste));
+        when(measureRepository.findMedidaResponseByIdAndUserId(999L, 1L)).thenReturn(Optional.empty());
+        when(userRepository.existsById(1L)).thenReturn(true);
 
         // When & Then
         assertThatThrownBy(() -> measureService.buscarMedidaPorId(1L, 999L))
@@ -180,6 +280,19 @@ class MeasureServiceTest {
                 .hasMessageContaining("Medida não encontrada para este usuário");
     }
 
+    @Test
+    @DisplayName("Deve lançar exceção ao buscar medida de usuário inexistente")
+    void deveLancarExcecaoAoBuscarMedidaDeUsuarioInexistente() {
+        // Given
+        when(measureRepository.findMedidaResponseByIdAndUserId(1L, 999L)).thenReturn(Optional.empty());
+        when(userRepository.existsById(999L)).thenReturn(false);
+
+        // When & Then
+        assertThatThrownBy(() -> measureService.buscarMedidaPorId(999L, 1L))
+                .isInstanceOf(EntityNotFoundException.class)
+                .hasMessageContaining("Usuário não encontrado");
+    }
+
     @Test
     @DisplayName("Deve atualizar medida com sucesso")
     void deveAtualizarMedidaComSucesso() {
@@ -198,22 +311,32 @@ class MeasureServiceTest {
                 20.0
         );
 
+        LocalDateTime dataAnterior = medidaTeste.getMeasurementDate();
+        when(measureRepository.findReferenciaById(1L)).thenReturn(Optional.of(referencia(1L, dataAnterior)));
+        when(userRepository.travar(1L)).thenReturn(Optional.of(usuarioTeste));
         when(measureRepository.findById(1L)).thenReturn(Optional.of(medidaTeste));
         when(measureRepository.save(any(Measure.class))).thenReturn(medidaTeste);
 
         // When
         measureService.atualizarMedida(1L, novasMedidas);
 
-        // Then
-        verify(measureRepository, times(1)).findById(1L);
+        // Then: o dono é travado antes de a medida ser lida
+        InOrder ordem = inOrder(userRepository, measureRepository);
+        ordem.verify(userRepository).travar(1L);
+        ordem.verify(measureRepository).findById(1L);
+        assertThat(usuarioTeste.getUltimaAlteracao()).isNotNull();
         verify(measureRepository, times(1)).save(any(Measure.class));
+        verify(latestMeasureService, times(1)).medidaAtualizada(medidaTeste);
+        // A data mudou de mês: os baldes antigos e os novos são recalculados
+        verify(measureRollupService, times(1)).medidaAtualizada(1L, dataAnterior, LocalDateTime.of(2024, 2, 15, 10, 30));
+        verify(eventPublisher, times(1)).publishEvent(new MedidasAlteradasEvent(1L));
     }
 
     @Test
     @DisplayName("Deve lançar exceção ao atualizar medida inexistente")
     void deveLancarExcecaoAoAtualizarMedidaInexistente() {
         // Given
-        when(measureRepository.findById(999L)).thenReturn(Optional.empty());
+        when(measureRepository.findReferenciaById(999L)).thenReturn(Optional.empty());
 
         // When & Then
         assertThatThrownBy(() -> measureService.atualizarMedida(999L, measureRequest))
@@ -225,22 +348,28 @@ class MeasureServiceTest {
     @DisplayName("Deve remover medida com sucesso")
     void deveRemoverMedidaComSucesso() {
         // Given
-        when(measureRepository.existsById(1L)).thenReturn(true);
+        LocalDateTime dataMedicao = medidaTeste.getMeasurementDate();
+        when(measureRepository.findReferenciaById(1L)).thenReturn(Optional.of(referencia(1L, dataMedicao)));
+        when(userRepository.travar(1L)).thenReturn(Optional.of(usuarioTeste));
         doNothing().when(measureRepository).deleteById(1L);
 
         // When
         measureService.removerMedida(1L);
 
         // Then
-        verify(measureRepository, times(1)).existsById(1L);
+        verify(measureRepository, times(1)).findReferenciaById(1L);
         verify(measureRepository, times(1)).deleteById(1L);
+        assertThat(usuarioTeste.getUltimaAlteracao()).isNotNull();
+        verify(latestMeasureService, times(1)).medidaRemovida(1L);
+        verify(measureRollupService, times(1)).medidaRemovida(1L, dataMedicao);
+        verify(eventPublisher, times(1)).publishEvent(new MedidasAlteradasEvent(1L));
     }
 
     @Test
     @DisplayName("Deve lançar exceção ao remover medida inexistente")
     void deveLancarExcecaoAoRemoverMedidaInexistente() {
         // Given
-        when(measureRepository.existsById(999L)).thenReturn(false);
+        when(measureRepository.findReferenciaById(999L)).thenReturn(Optional.empty());
 
         // When & Then
         assertThatThrownBy(() -> measureService.removerMedida(999L))
@@ -252,7 +381,8 @@ class MeasureServiceTest {
     @DisplayName("Deve retornar lista vazia quando usuário não tem medidas")
     void deveRetornarListaVaziaQuandoUsuarioNaoTemMedidas() {
         // Given
-        when(userRepository.findById(1L)).thenReturn(Optional.of(usuarioTeste));
+        when(measureColumnStore.serieDoUsuario(1L)).thenReturn(SerieMedidas.vazia());
+        when(userRepository.existsById(1L)).thenReturn(true);
 
         // When
         List<MedidaResponse> resultado = measureService.listarTodasAsMedidasDeUmUsuario(1L);
@@ -260,4 +390,18 @@ class MeasureServiceTest {
         // Then
         assertThat(resultado).isEmpty();
     }
-}
\ No newline at end of file
+
+    private static MedidaReferenciaProjection referencia(Long userId, LocalDateTime dataMedicao) {
+        return new MedidaReferenciaProjection() {
+            @Override
+            public Long getUserId() {
+                return userId;
+            }
+
+            @Override
+            public LocalDateTime getMeasurementDate() {
+                return dataMedicao;
+            }
+        };
+    }
+}
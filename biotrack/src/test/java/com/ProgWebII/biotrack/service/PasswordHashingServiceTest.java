@@ -0,0 +1,95 @@
+package com.ProgWebII.biotrack.service;
+
+import com.ProgWebII.biotrack.exception.ServicoSobrecarregadoException;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.security.crypto.password.PasswordEncoder;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.*;
+
+/**
+ * Testes unitários para PasswordHashingService.
+ */
+@ExtendWith(MockitoExtension.class)
+@DisplayName("Testes Unitários - PasswordHashingService")
+class PasswordHashingServiceTest {
+
+    @Mock
+    private PasswordEncoder passwordEncoder;
+
+    private PasswordHashingService service;
+
+    @AfterEach
+    void tearDown() {
+        if (service != null) {
+            service.encerrar();
+        }
+    }
+
+    @Test
+    @DisplayName("Deve gerar o hash fora da thread chamadora")
+    void deveGerarHashForaDaThreadChamadora() throws Exception {
+        // Given
+        service = new PasswordHashingService(passwordEncoder, 1, 4, 2);
+        when(passwordEncoder.encode("senha123")).thenAnswer(invocacao -> Thread.currentThread().getName());
+
+        // When
+        String resultado = service.gerarHash("senha123").get(5, TimeUnit.SECONDS);
+
+        // Then
+        assertThat(resultado).startsWith("hash-senha-");
+    }
+
+    @Test
+    @DisplayName("Deve concluir com null sem usar o pool quando a senha não foi informada")
+    void deveConcluirComNullQuandoSenhaNaoInformada() {
+        // Given
+        service = new PasswordHashingService(passwordEncoder, 1, 4, 2);
+
+        // When
+        CompletableFuture<String> resultado = service.gerarHashSeInformada(" ");
+
+        // Then
+        assertThat(resultado).isCompletedWithValue(null);
+        verifyNoInteractions(passwordEncoder);
+    }
+
+    @Test
+    @DisplayName("Deve recusar com ServicoSobrecarregadoException quando o pool e a fila estão cheios")
+    void deveRecusarQuandoPoolEFilaEstaoCheios() throws Exception {
+        // Given: uma thread ocupada e uma vaga na fila
+        service = new PasswordHashingService(passwordEncoder, 1, 1, 7);
+        CountDownLatch iniciou = new CountDownLatch(1);
+        CountDownLatch liberar = new CountDownLatch(1);
+        when(passwordEncoder.encode(anyString())).thenAnswer(invocacao -> {
+            iniciou.countDown();
+            liberar.await(5, TimeUnit.SECONDS);
+            return "hash";
+        });
+
+        CompletableFuture<String> emExecucao = service.gerarHash("a");
+        assertThat(iniciou.await(5, TimeUnit.SECONDS)).isTrue();
+        CompletableFuture<String> naFila = service.gerarHash("b");
+
+        // When & Then
+        assertThatThrownBy(() -> service.gerarHash("c"))
+                .isInstanceOf(ServicoSobrecarregadoException.class)
+                .satisfies(e -> assertThat(((ServicoSobrecarregadoException) e).getRetryAfterSegundos()).isEqualTo(7));
+        assertThat(service.tarefasNaFila()).isEqualTo(1);
+
+        liberar.countDown();
+        assertThat(emExecucao.get(5, TimeUnit.SECONDS)).isEqualTo("hash");
+        assertThat(naFila.get(5, TimeUnit.SECONDS)).isEqualTo("hash");
+    }
+}
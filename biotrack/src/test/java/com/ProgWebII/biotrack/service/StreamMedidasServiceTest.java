@@ -0,0 +1,199 @@
+package com.ProgWebII.biotrack.service;
+
+import com.ProgWebII.biotrack.dto.response.MedidaResponse;
+import com.ProgWebII.biotrack.exception.ServicoSobrecarregadoException;
+import com.ProgWebII.biotrack.repository.UserStreamRepository;
+import com.ProgWebII.biotrack.store.MedidaGravadaEvent;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import jakarta.persistence.EntityNotFoundException;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.web.servlet.mvc.method.annotation.ResponseBodyEmitter.DataWithMediaType;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.*;
+import static org.awaitility.Awaitility.await;
+import static org.mockito.Mockito.when;
+
+/**
+ * Testes unitários para StreamMedidasService, com emitters que gravam o texto enviado em vez de escrever na rede.
+ */
+@ExtendWith(MockitoExtension.class)
+@DisplayName("Testes Unitários - StreamMedidasService")
+class StreamMedidasServiceTest {
+
+    @Mock
+    private UserStreamRepository userStreamRepository;
+
+    private final ObjectMapper objectMapper = new ObjectMapper()
+            .registerModule(new JavaTimeModule())
+            .disable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS);
+
+    private StreamMedidasService service;
+
+    private StreamMedidasService novoService(int capacidadeBuffer, int maximoAssinantes) {
+        service = new StreamMedidasService(userStreamRepository, objectMapper, capacidadeBuffer, maximoAssinantes, 30, 60, 5);
+        return service;
+    }
+
+    @AfterEach
+    void tearDown() {
+        if (service != null) {
+            service.encerrar();
+        }
+    }
+
+    private MedidaGravadaEvent evento(Long userId, long medidaId) {
+        MedidaResponse medida = new MedidaResponse(medidaId, LocalDateTime.of(2024, 6, 10, 8, 0),
+                70.0, 175.0, null, null, null, null, null, null, null, null);
+        return new MedidaGravadaEvent(userId, medida, true);
+    }
+
+    @Test
+    @DisplayName("Deve entregar a medida apenas aos assinantes do dono")
+    void deveEntregarSoAosAssinantesDoUsuario() {
+        // Given
+        novoService(8, 10);
+        EmitterGravador doUsuario1 = new EmitterGravador();
+        EmitterGravador doUsuario2 = new EmitterGravador();
+        service.registrar(1L, doUsuario1);
+        service.registrar(2L, doUsuario2);
+
+        // When
+        service.aoGravarMedida(evento(1L, 10L));
+
+        // Then
+        await().atMost(5, TimeUnit.SECONDS).until(() -> doUsuario1.enviados.size() == 1);
+        assertThat(doUsuario1.enviados.get(0))
+                .startsWith("event:" + StreamMedidasService.EVENTO_CRIADA + "\n")
+                .contains("\"id\":10", "\"measurementDate\":\"2024-06-10T08:00:00\"", "\"weightKg\":70.0");
+        assertThat(doUsuario2.enviados).isEmpty();
+    }
+
+    @Test
+    @DisplayName("Cliente lento deve perder os eventos mais antigos e ser avisado da quantidade")
+    void clienteLentoDeveDescartarOsMaisAntigos() throws Exception {
+        // Given: a primeira escrita fica bloqueada, como em um cliente que parou de ler
+        novoService(2, 10);
+        EmitterGravador lento = new EmitterGravador();
+        lento.bloquear();
+        service.registrar(1L, lento);
+        service.aoGravarMedida(evento(1L, 1L));
+        assertThat(lento.envioIniciado.await(5, TimeUnit.SECONDS)).isTrue();
+
+        // When: mais quatro medidas com espaço para duas na fila
+        for (long id = 2; id <= 5; id++) {
+            service.aoGravarMedida(evento(1L, id));
+        }
+        lento.liberar();
+
+        // Then
+        await().atMost(5, TimeUnit.SECONDS).until(() -> lento.enviados.size() == 4);
+        assertThat(lento.enviados.get(0)).contains("\"id\":1,");
+        assertThat(lento.enviados.get(1)).isEqualTo("event:" + StreamMedidasService.EVENTO_DESCARTADAS + "\ndata:2\n\n");
+        assertThat(lento.enviados.get(2)).contains("\"id\":4,");
+        assertThat(lento.enviados.get(3)).contains("\"id\":5,");
+        assertThat(service.eventosDescartados()).isEqualTo(2);
+    }
+
+    @Test
+    @DisplayName("Deve recusar assinaturas acima do limite do nó")
+    void deveRecusarAcimaDoLimite() {
+        // Given
+        novoService(8, 1);
+        service.registrar(1L, new EmitterGravador());
+
+        // When / Then
+        assertThatThrownBy(() -> service.registrar(2L, new EmitterGravador()))
+                .isInstanceOf(ServicoSobrecarregadoException.class);
+        assertThat(service.assinantesAtivos()).isEqualTo(1);
+    }
+
+    @Test
+    @DisplayName("Deve retirar o assinante cuja conexão falhou")
+    void deveRetirarAssinanteDesconectado() {
+        // Given
+        novoService(8, 10);
+        EmitterGravador desconectado = new EmitterGravador();
+        desconectado.falhar();
+        service.registrar(1L, desconectado);
+
+        // When
+        service.aoGravarMedida(evento(1L, 1L));
+
+        // Then
+        await().atMost(5, TimeUnit.SECONDS).until(() -> service.assinantesAtivos() == 0);
+        service.aoGravarMedida(evento(1L, 2L));
+        assertThat(desconectado.tentativas).isEqualTo(1);
+    }
+
+    @Test
+    @DisplayName("Deve lançar exceção ao assinar o stream de usuário inexistente")
+    void deveLancarExcecaoParaUsuarioInexistente() {
+        // Given
+        novoService(8, 10);
+        when(userStreamRepository.existe(99L)).thenReturn(false);
+
+        // When / Then
+        assertThatThrownBy(() -> service.assinar(99L))
+                .isInstanceOf(EntityNotFoundException.class)
+                .hasMessage("Usuário não encontrado");
+        assertThat(service.assinantesAtivos()).isZero();
+    }
+
+    // Grava o texto de cada envio; pode bloquear a escrita ou falhar como uma conexão fechada
+    private static class EmitterGravador extends SseEmitter {
+
+        private final List<String> enviados = new CopyOnWriteArrayList<>();
+        private final CountDownLatch envioIniciado = new CountDownLatch(1);
+        private volatile CountDownLatch bloqueio;
+        private volatile boolean falha;
+        private volatile int tentativas;
+
+        void bloquear() {
+            bloqueio = new CountDownLatch(1);
+        }
+
+        void liberar() {
+            bloqueio.countDown();
+        }
+
+        void falhar() {
+            falha = true;
+        }
+
+        @Override
+        public void send(Set<DataWithMediaType> itens) throws IOException {
+            tentativas++;
+            envioIniciado.countDown();
+            if (falha) {
+                throw new IOException("Conexão fechada pelo cliente");
+            }
+            CountDownLatch atual = bloqueio;
+            if (atual != null) {
+                try {
+                    atual.await();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            }
+            StringBuilder texto = new StringBuilder();
+            itens.forEach(item -> texto.append(item.getData()));
+            enviados.add(texto.toString());
+        }
+    }
+}
@@ -0,0 +1,213 @@
+package com.ProgWebII.biotrack.service;
+
+import com.ProgWebII.biotrack.dto.response.TendenciaJanelaResponse;
+import com.ProgWebII.biotrack.dto.response.TendenciaMetricaResponse;
+import com.ProgWebII.biotrack.dto.response.TendenciasResponse;
+import com.ProgWebII.biotrack.model.MetricaMedida;
+import com.ProgWebII.biotrack.repository.MeasureStreamRepository;
+import com.ProgWebII.biotrack.repository.MeasureStreamRepository.ConsumidorMedida;
+import com.ProgWebII.biotrack.repository.UserRepository;
+import com.ProgWebII.biotrack.store.MeasureColumnStore;
+import com.ProgWebII.biotrack.store.SerieMedidas;
+import jakarta.persistence.EntityNotFoundException;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+
+import static org.assertj.core.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+/**
+ * Testes unitários para TendenciaService.
+ */
+@ExtendWith(MockitoExtension.class)
+@DisplayName("Testes Unitários - TendenciaService")
+class TendenciaServiceTest {
+
+    private static final LocalDateTime INICIO = LocalDateTime.of(2024, 1, 1, 8, 0);
+
+    @Mock
+    private MeasureColumnStore measureColumnStore;
+
+    @Mock
+    private MeasureStreamRepository measureStreamRepository;
+
+    @Mock
+    private UserRepository userRepository;
+
+    @InjectMocks
+    private TendenciaService tendenciaService;
+
+    // Uma medida por dia; o peso cai 0,1 kg/dia e a cintura só é informada nos dias pares
+    private SerieMedidas serieDiaria(int dias) {
+        SerieMedidas.Construtor construtor = new SerieMedidas.Construtor();
+        for (int i = 0; i < dias; i++) {
+            construtor.novaLinha(i + 1, SerieMedidas.paraInstante(INICIO.plusDays(i)))
+                    .valor(MetricaMedida.PESO, 90.0 - 0.1 * i);
+            if (i % 2 == 0) {
+                construtor.valor(MetricaMedida.CINTURA, 100.0);
+            }
+        }
+        return construtor.construir();
+    }
+
+    // Simula o cursor do banco: as linhas da série, da mais recente para a mais antiga
+    private void cursorCom(SerieMedidas serie) {
+        doAnswer(invocacao -> {
+            ConsumidorMedida consumidor = invocacao.getArgument(2);
+            double[] valores = new double[MetricaMedida.values().length];
+            for (int i = serie.tamanho() - 1; i >= 0; i--) {
+                for (MetricaMedida metrica : MetricaMedida.values()) {
+                    valores[metrica.ordinal()] = serie.valor(metrica, i);
+                }
+                consumidor.aceitar(1L, serie.id(i), serie.dataMedicao(i), valores);
+            }
+            return null;
+        }).when(measureStreamRepository).percorrerMedidasRecentes(eq(1L), anyInt(), any());
+    }
+
+    @Test
+    @DisplayName("Deve calcular média, inclinação e variação em cada janela")
+    void deveCalcularTendenciasPorJanela() {
+        // Given
+        when(measureColumnStore.serieEmMemoria(1L)).thenReturn(Optional.of(serieDiaria(100)));
+
+        // When
+        TendenciasResponse resultado = tendenciaService.calcularTendencias(1L, List.of("weightKg"), List.of(30, 7));
+
+        // Then
+        assertThat(resultado.usuarioId()).isEqualTo(1L);
+        assertThat(resultado.referencia()).isEqualTo(INICIO.plusDays(99));
+
+        TendenciaMetricaResponse peso = resultado.metricas().get(0);
+        assertThat(peso.metrica()).isEqualTo("weightKg");
+        assertThat(peso.janelas()).extracting(TendenciaJanelaResponse::dias).containsExactly(7, 30);
+
+        // Janela de 7 dias: dias 92 a 99 (8 pontos, limites inclusivos)
+        TendenciaJanelaResponse semana = peso.janelas().get(0);
+        assertThat(semana.quantidade()).isEqualTo(8);
+        assertThat(semana.inclinacaoPorDia()).isCloseTo(-0.1, within(1e-9));
+        assertThat(semana.variacao()).isCloseTo(-0.7, within(1e-9));
+        assertThat(semana.media()).isCloseTo(90.0 - 0.1 * 95.5, within(1e-9));
+
+        TendenciaJanelaResponse mes = peso.janelas().get(1);
+        assertThat(mes.quantidade()).isEqualTo(31);
+        assertThat(mes.variacao()).isCloseTo(-3.0, within(1e-9));
+
+        verify(userRepository, never()).existsById(any());
+        verifyNoInteractions(measureStreamRepository);
+    }
+
+    @Test
+    @DisplayName("Sem a série em memória deve ler só a maior janela pelo cursor, com o mesmo resultado")
+    void deveCalcularPeloCursorSemSerieEmMemoria() {
+        // Given
+        SerieMedidas serie = serieDiaria(100);
+        when(measureColumnStore.serieEmMemoria(1L)).thenReturn(Optional.of(serie));
+        TendenciasResponse daSerie = tendenciaService.calcularTendencias(1L, List.of("weightKg", "waistCm"), List.of(30, 7));
+        when(measureColumnStore.serieEmMemoria(1L)).thenReturn(Optional.empty());
+        cursorCom(serie);
+
+        // When
+        TendenciasResponse doCursor = tendenciaService.calcularTendencias(1L, List.of("weightKg", "waistCm"), List.of(30, 7));
+
+        // Then: o corte na maior janela vai para o banco e a série não é carregada
+        assertThat(doCursor).isEqualTo(daSerie);
+        verify(measureStreamRepository).percorrerMedidasRecentes(eq(1L), eq(30), any());
+        verify(measureColumnStore, never()).serieDoUsuario(any());
+        verify(userRepository, never()).existsById(any());
+    }
+
+    @Test
+    @DisplayName("Deve ignorar medidas sem a métrica e não ter inclinação quando ela é constante")
+    void deveIgnorarValoresNaoInformados() {
+        // Given
+        when(measureColumnStore.serieEmMemoria(1L)).thenReturn(Optional.of(serieDiaria(10)));
+
+        // When
+        TendenciasResponse resultado = tendenciaService.calcularTendencias(1L, List.of("waistCm"), List.of(30));
+
+        // Then
+        TendenciaJanelaResponse cintura = resultado.metricas().get(0).janelas().get(0);
+        assertThat(cintura.quantidade()).isEqualTo(5);
+        assertThat(cintura.media()).isEqualTo(100.0);
+        assertThat(cintura.inclinacaoPorDia()).isCloseTo(0.0, within(1e-12));
+        assertThat(cintura.variacao()).isEqualTo(0.0);
+    }
+
+    @Test
+    @DisplayName("Deve retornar campos nulos quando a janela tem um único ponto ou nenhum")
+    void deveRetornarNulosSemPontosSuficientes() {
+        // Given: a cintura só aparece em dias pares e a última medida é de um dia ímpar
+        when(measureColumnStore.serieEmMemoria(1L)).thenReturn(Optional.of(serieDiaria(4)));
+
+        // When
+        TendenciasResponse resultado = tendenciaService.calcularTendencias(1L, List.of("weightKg", "waistCm"), List.of(1, 2));
+
+        // Then
+        TendenciaJanelaResponse cinturaUmDia = resultado.metricas().get(1).janelas().get(0);
+        assertThat(cinturaUmDia.quantidade()).isEqualTo(1);
+        assertThat(cinturaUmDia.inclinacaoPorDia()).isNull();
+        assertThat(cinturaUmDia.variacao()).isEqualTo(0.0);
+
+        TendenciaJanelaResponse pesoUmDia = resultado.metricas().get(0).janelas().get(0);
+        assertThat(pesoUmDia.quantidade()).isEqualTo(2);
+        assertThat(pesoUmDia.inclinacaoPorDia()).isCloseTo(-0.1, within(1e-9));
+    }
+
+    @Test
+    @DisplayName("Deve retornar janelas vazias para usuário existente sem medidas")
+    void deveRetornarJanelasVaziasSemMedidas() {
+        // Given
+        when(measureColumnStore.serieEmMemoria(1L)).thenReturn(Optional.of(SerieMedidas.vazia()));
+        when(userRepository.existsById(1L)).thenReturn(true);
+
+        // When
+        TendenciasResponse resultado = tendenciaService.calcularTendencias(1L, List.of("weightKg"), List.of(7));
+
+        // Then
+        assertThat(resultado.referencia()).isNull();
+        assertThat(resultado.metricas().get(0).janelas())
+                .containsExactly(new TendenciaJanelaResponse(7, 0, null, null, null));
+    }
+
+    @Test
+    @DisplayName("Deve lançar exceção quando usuário não existe")
+    void deveLancarExcecaoQuandoUsuarioNaoExiste() {
+        // Given
+        when(measureColumnStore.serieEmMemoria(999L)).thenReturn(Optional.empty());
+        when(userRepository.existsById(999L)).thenReturn(false);
+
+        // When & Then
+        assertThatThrownBy(() -> tendenciaService.calcularTendencias(999L, List.of("weightKg"), List.of(7)))
+                .isInstanceOf(EntityNotFoundException.class)
+                .hasMessage("Usuário não encontrado");
+    }
+
+    @Test
+    @DisplayName("Deve rejeitar métrica e janelas inválidas antes de ler a série")
+    void deveRejeitarParametrosInvalidos() {
+        assertThatThrownBy(() -> tendenciaService.calcularTendencias(1L, List.of("altura"), List.of(7)))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessage("Métrica inválida: altura");
+        assertThatThrownBy(() -> tendenciaService.calcularTendencias(1L, List.of("weightKg"), List.of(0, 7)))
+                .isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> tendenciaService.calcularTendencias(1L, List.of("weightKg"), List.of(3651)))
+                .isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> tendenciaService.calcularTendencias(1L, List.of("weightKg"),
+                List.of(1, 2, 3, 4, 5, 6, 7, 8, 9, 10, 11)))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessage("No máximo 10 janelas por consulta.");
+
+        verifyNoInteractions(measureColumnStore, measureStreamRepository);
+    }
+}
@@ -3,9 +3,16 @@ package com.ProgWebII.biotrack.service;
 import com.ProgWebII.biotrack.dto.request.UserPatchRequest;
 import com.ProgWebII.biotrack.dto.request.UserRequest;
 import com.ProgWebII.biotrack.dto.response.*;
+import com.ProgWebII.biotrack.mapper.MedidaMapper;
+import com.ProgWebII.biotrack.model.LatestMeasure;
 import com.ProgWebII.biotrack.model.Measure;
+import com.ProgWebII.biotrack.model.MetricaMedida;
 import com.ProgWebII.biotrack.model.User;
 import com.ProgWebII.biotrack.repository.UserRepository;
+import com.ProgWebII.biotrack.repository.projection.UsuarioImcProjection;
+import com.ProgWebII.biotrack.store.MeasureColumnStore;
+import com.ProgWebII.biotrack.store.MedidasAlteradasEvent;
+import com.ProgWebII.biotrack.store.SerieMedidas;
 import jakarta.persistence.EntityNotFoundException;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
@@ -13,8 +20,13 @@ import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
+import org.mockito.Spy;
 import org.mockito.junit.jupiter.MockitoExtension;
-import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.PageRequest;
 
 import java.time.LocalDate;
 import java.time.LocalDateTime;
@@ -26,6 +38,7 @@ import java.util.Optional;
 import static org.assertj.core.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.*;
 
 /**
@@ -40,7 +53,19 @@ class UserServiceTest {
     private UserRepository userRepository;
 
     @Mock
-    private PasswordEncoder passwordEncoder;
+    private LatestMeasureService latestMeasureService;
+
+    @Mock
+    private MeasureRollupService measureRollupService;
+
+    @Mock
+    private MeasureColumnStore measureColumnStore;
+
+    @Mock
+    private ApplicationEventPublisher eventPublisher;
+
+    @Spy
+    private MedidaMapper medidaMapper;
 
     @InjectMocks
     private UserService userService;
@@ -73,26 +98,23 @@ class UserServiceTest {
     @DisplayName("Deve criar usuário com sucesso")
     void deveCriarUsuarioComSucesso() {
         // Given
-        when(passwordEncoder.encode(anyString())).thenReturn("senhaHasheada123");
         when(userRepository.save(any(User.class))).thenReturn(usuarioTeste);
 
         // When
-        userService.createUser(userRequest);
+        userService.createUser(userRequest, "senhaHasheada123");
 
         // Then
-        verify(passwordEncoder, times(1)).encode("senha123");
-        verify(userRepository, times(1)).save(any(User.class));
+        verify(userRepository, times(1)).save(argThat(user -> "senhaHasheada123".equals(user.getPassword())));
     }
 
     @Test
     @DisplayName("Deve lançar exceção ao criar usuário com erro")
     void deveLancarExcecaoAoCriarUsuarioComErro() {
         // Given
-        when(passwordEncoder.encode(anyString())).thenReturn("senhaHasheada123");
         when(userRepository.save(any(User.class))).thenThrow(new RuntimeException("Erro no banco"));
 
         // When & Then
-        assertThatThrownBy(() -> userService.createUser(userRequest))
+        assertThatThrownBy(() -> userService.createUser(userRequest, "senhaHasheada123"))
                 .isInstanceOf(RuntimeException.class)
                 .hasMessageContaining("Falha ao processar a criação do usuário");
     }
@@ -101,39 +123,71 @@ class UserServiceTest {
     @DisplayName("Deve listar todos os usuários")
     void deveListarTodosUsuarios() {
         // Given
-        User usuario2 = User.builder()
-                .id(2L)
-                .name("Maria Santos")
-                .birthDate(LocalDate.of(1992, 8, 20))
-                .zipCode("98765-432")
-                .email("maria.santos@email.com")
-                .password("senhaHasheada456")
-                .build();
+        List<ListarTodosUsuariosResponse> pagina = Arrays.asList(
+                new ListarTodosUsuariosResponse(1L, "João Silva", LocalDate.of(1990, 5, 15), "12345-678", "joao.silva@email.com"),
+                new ListarTodosUsuariosResponse(2L, "Maria Santos", LocalDate.of(1992, 8, 20), "98765-432", "maria.santos@email.com")
+        );
 
-        when(userRepository.findAll()).thenReturn(Arrays.asList(usuarioTeste, usuario2));
+        when(userRepository.findPaginaAposId(0L, Limit.of(100))).thenReturn(pagina);
 
         // When
-        List<ListarTodosUsuariosResponse> resultado = userService.listarTodos();
+        List<ListarTodosUsuariosResponse> resultado = userService.listarTodos(null, 100);
 
         // Then
         assertThat(resultado).hasSize(2);
         assertThat(resultado.get(0).name()).isEqualTo("João Silva");
         assertThat(resultado.get(1).name()).isEqualTo("Maria Santos");
-        verify(userRepository, times(1)).findAll();
+        verify(userRepository, times(1)).findPaginaAposId(0L, Limit.of(100));
     }
 
     @Test
     @DisplayName("Deve lançar exceção ao listar usuários quando lista está vazia")
     void deveLancarExcecaoAoListarUsuariosQuandoListaVazia() {
         // Given
-        when(userRepository.findAll()).thenReturn(new ArrayList<>());
+        when(userRepository.findPaginaAposId(0L, Limit.of(100))).thenReturn(new ArrayList<>());
 
         // When & Then
-        assertThatThrownBy(() -> userService.listarTodos())
+        assertThatThrownBy(() -> userService.listarTodos(null, 100))
                 .isInstanceOf(EntityNotFoundException.class)
                 .hasMessageContaining("Nenhum usuário encontrado");
     }
 
+    @Test
+    @DisplayName("Deve retornar lista vazia ao passar do fim da listagem")
+    void deveRetornarListaVaziaAoPassarDoFimDaListagem() {
+        // Given
+        when(userRepository.findPaginaAposId(50L, Limit.of(100))).thenReturn(new ArrayList<>());
+
+        // When
+        List<ListarTodosUsuariosResponse> resultado = userService.listarTodos(50L, 100);
+
+        // Then
+        assertThat(resultado).isEmpty();
+    }
+
+    @Test
+    @DisplayName("Deve limitar o tamanho da página ao máximo permitido")
+    void deveLimitarTamanhoDaPaginaAoMaximo() {
+        // Given
+        when(userRepository.findPaginaAposId(0L, Limit.of(UserService.LIMITE_MAXIMO_PAGINA)))
+                .thenReturn(List.of(new ListarTodosUsuariosResponse(1L, "João Silva", null, null, null)));
+
+        // When
+        userService.listarTodos(null, 50_000);
+
+        // Then
+        verify(userRepository).findPaginaAposId(0L, Limit.of(UserService.LIMITE_MAXIMO_PAGINA));
+    }
+
+    @Test
+    @DisplayName("Deve lançar exceção com limite inválido")
+    void deveLancarExcecaoComLimiteInvalido() {
+        // When & Then
+        assertThatThrownBy(() -> userService.listarTodos(null, 0))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessageContaining("limit");
+    }
+
     @Test
     @DisplayName("Deve buscar usuário por ID")
     void deveBuscarUsuarioPorId() {
@@ -190,22 +244,16 @@ class UserServiceTest {
     @DisplayName("Deve trazer usuário com todas as medidas")
     void deveTrazerUsuarioComTodasMedidas() {
         // Given
-        Measure medida1 = Measure.builder()
-                .id(1L)
-                .measurementDate(LocalDateTime.of(2024, 1, 10, 10, 0))
-                .weightKg(75.0)
-                .heightCm(175.0)
-                .build();
-
-        Measure medida2 = Measure.builder()
-                .id(2L)
-                .measurementDate(LocalDateTime.of(2024, 1, 20, 10, 0))
-                .weightKg(76.0)
-                .heightCm(175.0)
-                .build();
-
-        usuarioTeste.setMeasures(Arrays.asList(medida1, medida2));
+        SerieMedidas serie = new SerieMedidas.Construtor()
+                .novaLinha(1L, SerieMedidas.paraInstante(LocalDateTime.of(2024, 1, 10, 10, 0)))
+                .valor(MetricaMedida.PESO, 75.0)
+                .valor(MetricaMedida.ALTURA, 175.0)
+                .novaLinha(2L, SerieMedidas.paraInstante(LocalDateTime.of(2024, 1, 20, 10, 0)))
+                .valor(MetricaMedida.PESO, 76.0)
+                .valor(MetricaMedida.ALTURA, 175.0)
+                .construir();
         when(userRepository.findById(1L)).thenReturn(Optional.of(usuarioTeste));
+        when(measureColumnStore.serieDoUsuario(1L)).thenReturn(serie);
 
         // When
         UsuarioResponse resultado = userService.trazerUsuarioPorIdComTodasAsMedidas(1L);
@@ -221,6 +269,7 @@ class UserServiceTest {
     void deveLancarExcecaoAoBuscarUsuarioSemMedidasParaTrazerTodas() {
         // Given
         when(userRepository.findById(1L)).thenReturn(Optional.of(usuarioTeste));
+        when(measureColumnStore.serieDoUsuario(1L)).thenReturn(SerieMedidas.vazia());
 
         // When & Then
         assertThatThrownBy(() -> userService.trazerUsuarioPorIdComTodasAsMedidas(1L))
@@ -247,7 +296,10 @@ class UserServiceTest {
                 .build();
 
         usuarioTeste.setMeasures(Arrays.asList(medidaAntiga, medidaRecente));
+        LatestMeasure projecao = LatestMeasure.builder().userId(1L).build();
+        projecao.copiarDe(medidaRecente);
         when(userRepository.findById(1L)).thenReturn(Optional.of(usuarioTeste));
+        when(latestMeasureService.buscarUltimaMedida(1L)).thenReturn(Optional.of(projecao));
 
         // When
         UsuarioResponse resultado = userService.trazerUsuarioPorIdComUltimaMedida(1L);
@@ -255,24 +307,39 @@ class UserServiceTest {
         // Then
         assertThat(resultado).isNotNull();
         assertThat(resultado.medidas()).hasSize(1);
+        assertThat(resultado.medidas().get(0).getId()).isEqualTo(2L);
         assertThat(resultado.medidas().get(0).getWeightKg()).isEqualTo(76.0);
     }
 
+    @Test
+    @DisplayName("Deve lançar exceção ao trazer última medida de usuário sem medidas")
+    void deveLancarExcecaoAoTrazerUltimaMedidaDeUsuarioSemMedidas() {
+        // Given
+        when(userRepository.findById(1L)).thenReturn(Optional.of(usuarioTeste));
+        when(latestMeasureService.buscarUltimaMedida(1L)).thenReturn(Optional.empty());
+
+        // When & Then
+        assertThatThrownBy(() -> userService.trazerUsuarioPorIdComUltimaMedida(1L))
+                .isInstanceOf(EntityNotFoundException.class)
+                .hasMessageContaining("Nenhuma medida registrada");
+    }
+
     @Test
     @DisplayName("Deve atualizar usuário completamente")
     void deveAtualizarUsuarioCompletamente() {
         // Given
-        when(userRepository.findById(1L)).thenReturn(Optional.of(usuarioTeste));
-        when(passwordEncoder.encode(anyString())).thenReturn("novaSenhaHasheada");
+        when(userRepository.travar(1L)).thenReturn(Optional.of(usuarioTeste));
         when(userRepository.save(any(User.class))).thenReturn(usuarioTeste);
 
         // When
-        userService.atualizarUsuario(1L, userRequest);
+        userService.atualizarUsuario(1L, userRequest, "novaSenhaHasheada");
 
         // Then
-        verify(userRepository, times(1)).findById(1L);
-        verify(passwordEncoder, times(1)).encode("senha123");
+        verify(userRepository, times(1)).travar(1L);
         verify(userRepository, times(1)).save(any(User.class));
+        verify(userRepository, never()).incrementarRevisao(any(), any());
+        assertThat(usuarioTeste.getUltimaAlteracao()).isNotNull();
+        assertThat(usuarioTeste.getPassword()).isEqualTo("novaSenhaHasheada");
     }
 
     @Test
@@ -287,15 +354,18 @@ class UserServiceTest {
                 null
         );
 
-        when(userRepository.findById(1L)).thenReturn(Optional.of(usuarioTeste));
+        when(userRepository.travar(1L)).thenReturn(Optional.of(usuarioTeste));
         when(userRepository.save(any(User.class))).thenReturn(usuarioTeste);
 
         // When
-        userService.atualizarParcialUsuario(1L, patchRequest);
+        userService.atualizarParcialUsuario(1L, patchRequest, null);
 
         // Then
-        verify(userRepository, times(1)).findById(1L);
+        verify(userRepository, times(1)).travar(1L);
         verify(userRepository, times(1)).save(any(User.class));
+        verify(userRepository, never()).incrementarRevisao(any(), any());
+        assertThat(usuarioTeste.getUltimaAlteracao()).isNotNull();
+        assertThat(usuarioTeste.getPassword()).isEqualTo("senhaHasheada123");
     }
 
     @Test
@@ -311,6 +381,8 @@ class UserServiceTest {
         // Then
         verify(userRepository, times(1)).existsById(1L);
         verify(userRepository, times(1)).deleteById(1L);
+        verify(latestMeasureService, times(1)).usuarioRemovido(1L);
+        verify(eventPublisher, times(1)).publishEvent(new MedidasAlteradasEvent(1L));
     }
 
     @Test
@@ -324,4 +396,34 @@ class UserServiceTest {
                 .isInstanceOf(EntityNotFoundException.class)
                 .hasMessageContaining("Usuário não encontrado com o ID: 999");
     }
-}
\ No newline at end of file
+
+    @Test
+    @DisplayName("Deve filtrar usuários pela faixa de IMC usando os limites da faixa")
+    void deveFiltrarUsuariosPelaFaixaDeImc() {
+        // Given
+        UsuarioImcProjection projecao = mock(UsuarioImcProjection.class);
+        when(projecao.getId()).thenReturn(1L);
+        when(projecao.getName()).thenReturn("João Silva");
+        when(projecao.getImc()).thenReturn(22.9);
+        when(userRepository.findUsuariosPorFaixaImc(eq(18.5), eq(25.0), any()))
+                .thenReturn(new PageImpl<>(List.of(projecao), PageRequest.of(0, 20), 1));
+
+        // When
+        Page<UsuarioImcResponse> resultado = userService.filtrarUsuariosPorFaixaImc("peso normal", PageRequest.of(0, 20));
+
+        // Then
+        assertThat(resultado.getTotalElements()).isEqualTo(1);
+        assertThat(resultado.getContent().get(0).faixaImc()).isEqualTo("Peso Normal");
+        assertThat(resultado.getContent().get(0).imc()).isEqualTo(22.9);
+    }
+
+    @Test
+    @DisplayName("Deve lançar exceção ao filtrar por faixa de IMC inválida")
+    void deveLancarExcecaoAoFiltrarPorFaixaDeImcInvalida() {
+        // When & Then
+        assertThatThrownBy(() -> userService.filtrarUsuariosPorFaixaImc("Magreza", PageRequest.of(0, 20)))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessageContaining("Faixa de IMC inválida");
+        verifyNoInteractions(userRepository);
+    }
+}
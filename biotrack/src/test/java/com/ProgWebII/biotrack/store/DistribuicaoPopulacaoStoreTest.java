@@ -0,0 +1,211 @@
+package com.ProgWebII.biotrack.store;
+
+import com.ProgWebII.biotrack.model.FaixaImc;
+import com.ProgWebII.biotrack.model.Imc;
+import com.ProgWebII.biotrack.model.LatestMeasure;
+import com.ProgWebII.biotrack.repository.LatestMeasureRepository;
+import com.ProgWebII.biotrack.repository.LatestMeasureStreamRepository;
+import com.ProgWebII.biotrack.repository.LatestMeasureStreamRepository.ConsumidorValores;
+import com.ProgWebII.biotrack.repository.UserRepository;
+import com.ProgWebII.biotrack.repository.projection.VersaoUsuarioProjection;
+import com.ProgWebII.biotrack.store.DistribuicaoPopulacaoStore.ResumoPopulacao;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.util.List;
+import java.util.Optional;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.within;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+/**
+ * Testes unitários para DistribuicaoPopulacaoStore.
+ */
+@ExtendWith(MockitoExtension.class)
+@DisplayName("Testes Unitários - DistribuicaoPopulacaoStore")
+class DistribuicaoPopulacaoStoreTest {
+
+    @Mock
+    private LatestMeasureRepository latestMeasureRepository;
+
+    @Mock
+    private LatestMeasureStreamRepository latestMeasureStreamRepository;
+
+    @Mock
+    private UserRepository userRepository;
+
+    private DistribuicaoPopulacaoStore store;
+
+    @BeforeEach
+    void setUp() {
+        store = new DistribuicaoPopulacaoStore(latestMeasureRepository, latestMeasureStreamRepository,
+                userRepository, new Imc());
+    }
+
+    private void popularTbLatestMeasure() {
+        // Altura de 1,00 m: o IMC é igual ao peso
+        doAnswer(invocacao -> {
+            ConsumidorValores consumidor = invocacao.getArgument(0);
+            consumidor.aceitar(1L, 17.0, 100.0, 10.0);
+            consumidor.aceitar(2L, 22.0, 100.0, 20.0);
+            consumidor.aceitar(3L, 24.0, 100.0, null);
+            consumidor.aceitar(4L, 27.0, 100.0, 30.0);
+            consumidor.aceitar(5L, 80.0, null, 40.0); // Sem altura: entra só na gordura corporal
+            return null;
+        }).when(latestMeasureStreamRepository).percorrerValores(any());
+    }
+
+    private LatestMeasure ultimaMedida(Long userId, Double pesoKg, Double gordura) {
+        return LatestMeasure.builder()
+                .userId(userId)
+                .weightKg(pesoKg)
+                .heightCm(100.0)
+                .bodyFatPercentage(gordura)
+                .build();
+    }
+
+    private void revisaoDoUsuario(Long userId, long revisao) {
+        when(userRepository.findVersaoById(userId)).thenReturn(Optional.of(VersaoUsuarioProjection.de(revisao, null)));
+    }
+
+    @Test
+    @DisplayName("Deve contar usuários por faixa e calcular percentis na primeira leitura")
+    void deveCarregarNaPrimeiraLeitura() {
+        // Given
+        popularTbLatestMeasure();
+
+        // When
+        ResumoPopulacao resumo = store.resumir(List.of(25.0, 50.0, 100.0));
+
+        // Then
+        assertThat(resumo.usuariosComImc()).isEqualTo(4);
+        assertThat(resumo.usuariosComGordura()).isEqualTo(4);
+        assertThat(resumo.usuariosPorFaixa()).containsEntry(FaixaImc.ABAIXO_DO_PESO, 1L)
+                .containsEntry(FaixaImc.PESO_NORMAL, 2L)
+                .containsEntry(FaixaImc.SOBREPESO, 1L)
+                .containsEntry(FaixaImc.OBESIDADE, 0L);
+        assertThat(resumo.percentisImc().get(0)).isCloseTo(17.0, within(DistribuicaoPopulacaoStore.RESOLUCAO));
+        assertThat(resumo.percentisImc().get(1)).isCloseTo(22.0, within(DistribuicaoPopulacaoStore.RESOLUCAO));
+        assertThat(resumo.percentisImc().get(2)).isCloseTo(27.0, within(DistribuicaoPopulacaoStore.RESOLUCAO));
+        assertThat(resumo.percentisGordura().get(1)).isCloseTo(20.0, within(DistribuicaoPopulacaoStore.RESOLUCAO));
+        verify(latestMeasureStreamRepository, times(1)).percorrerValores(any());
+    }
+
+    @Test
+    @DisplayName("Deve trocar a contribuição do usuário quando a última medida muda, sem reler a população")
+    void deveAtualizarDeFormaIncremental() {
+        // Given
+        popularTbLatestMeasure();
+        store.reconstruir();
+        revisaoDoUsuario(1L, 2);
+        when(latestMeasureRepository.findById(1L)).thenReturn(Optional.of(ultimaMedida(1L, 32.0, null)));
+
+        // When
+        store.aoAlterarMedidas(new MedidasAlteradasEvent(1L));
+        ResumoPopulacao resumo = store.resumir(List.of(100.0));
+
+        // Then
+        assertThat(resumo.usuariosPorFaixa()).containsEntry(FaixaImc.ABAIXO_DO_PESO, 0L)
+                .containsEntry(FaixaImc.OBESIDADE, 1L);
+        assertThat(resumo.usuariosComImc()).isEqualTo(4);
+        assertThat(resumo.usuariosComGordura()).isEqualTo(3);
+        assertThat(resumo.percentisImc().get(0)).isCloseTo(32.0, within(DistribuicaoPopulacaoStore.RESOLUCAO));
+        verify(latestMeasureStreamRepository, times(1)).percorrerValores(any());
+    }
+
+    @Test
+    @DisplayName("Deve retirar o usuário que ficou sem medidas")
+    void deveRetirarUsuarioSemMedidas() {
+        // Given
+        popularTbLatestMeasure();
+        store.reconstruir();
+        revisaoDoUsuario(4L, 5);
+        when(latestMeasureRepository.findById(4L)).thenReturn(Optional.empty());
+
+        // When
+        store.aoAlterarMedidas(new MedidasAlteradasEvent(4L));
+        ResumoPopulacao resumo = store.resumir(List.of(100.0));
+
+        // Then
+        assertThat(resumo.usuariosComImc()).isEqualTo(3);
+        assertThat(resumo.usuariosPorFaixa()).containsEntry(FaixaImc.SOBREPESO, 0L);
+        assertThat(resumo.percentisImc().get(0)).isCloseTo(24.0, within(DistribuicaoPopulacaoStore.RESOLUCAO));
+    }
+
+    @Test
+    @DisplayName("Deve descartar a leitura de uma revisão anterior à que já foi aplicada")
+    void deveDescartarLeituraAtrasada() {
+        // Given: o commit da revisão 3 foi aplicado antes do evento da revisão 2 terminar a leitura
+        popularTbLatestMeasure();
+        store.reconstruir();
+        when(userRepository.findVersaoById(1L))
+                .thenReturn(Optional.of(VersaoUsuarioProjection.de(3, null)))
+                .thenReturn(Optional.of(VersaoUsuarioProjection.de(2, null)));
+        when(latestMeasureRepository.findById(1L))
+                .thenReturn(Optional.of(ultimaMedida(1L, 32.0, null)))
+                .thenReturn(Optional.of(ultimaMedida(1L, 22.0, null)));
+
+        // When
+        store.aoAlterarMedidas(new MedidasAlteradasEvent(1L));
+        store.aoAlterarMedidas(new MedidasAlteradasEvent(1L));
+        ResumoPopulacao resumo = store.resumir(List.of(100.0));
+
+        // Then: fica o valor da revisão 3
+        assertThat(resumo.usuariosPorFaixa()).containsEntry(FaixaImc.OBESIDADE, 1L)
+                .containsEntry(FaixaImc.PESO_NORMAL, 2L);
+        assertThat(resumo.usuariosComImc()).isEqualTo(4);
+    }
+
+    @Test
+    @DisplayName("Deve ignorar eventos antes da carga inicial")
+    void deveIgnorarEventosAntesDaCarga() {
+        // When
+        store.aoAlterarMedidas(new MedidasAlteradasEvent(1L));
+
+        // Then
+        verifyNoInteractions(latestMeasureRepository, userRepository);
+    }
+
+    @Test
+    @DisplayName("Deve reler ao fim da carga os usuários alterados enquanto o cursor percorria a tabela")
+    void deveReaplicarAlteracoesFeitasDuranteACarga() {
+        // Given: o usuário 1 muda depois que o cursor já leu o valor antigo dele
+        doAnswer(invocacao -> {
+            ConsumidorValores consumidor = invocacao.getArgument(0);
+            consumidor.aceitar(1L, 17.0, 100.0, 10.0);
+            store.aoAlterarMedidas(new MedidasAlteradasEvent(1L));
+            consumidor.aceitar(2L, 22.0, 100.0, 20.0);
+            return null;
+        }).when(latestMeasureStreamRepository).percorrerValores(any());
+        revisaoDoUsuario(1L, 2);
+        when(latestMeasureRepository.findById(1L)).thenReturn(Optional.of(ultimaMedida(1L, 32.0, null)));
+
+        // When
+        ResumoPopulacao resumo = store.resumir(List.of(100.0));
+
+        // Then: vale o valor commitado durante a carga, não o que o cursor leu
+        assertThat(resumo.usuariosPorFaixa()).containsEntry(FaixaImc.ABAIXO_DO_PESO, 0L)
+                .containsEntry(FaixaImc.OBESIDADE, 1L);
+        assertThat(resumo.usuariosComImc()).isEqualTo(2);
+        assertThat(resumo.usuariosComGordura()).isEqualTo(1);
+        verify(latestMeasureRepository, times(1)).findById(1L);
+    }
+
+    @Test
+    @DisplayName("Deve retornar percentis nulos sem usuários")
+    void deveRetornarPercentisNulosSemUsuarios() {
+        // When
+        ResumoPopulacao resumo = store.resumir(List.of(50.0));
+
+        // Then
+        assertThat(resumo.usuariosComImc()).isZero();
+        assertThat(resumo.percentisImc()).containsExactly((Double) null);
+        assertThat(resumo.percentisGordura()).containsExactly((Double) null);
+    }
+}
@@ -0,0 +1,112 @@
+package com.ProgWebII.biotrack.store;
+
+import com.ProgWebII.biotrack.model.MetricaMedida;
+import com.ProgWebII.biotrack.repository.MeasureSeriesRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.time.LocalDateTime;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.*;
+
+/**
+ * Testes unitários para MeasureColumnStore.
+ */
+@ExtendWith(MockitoExtension.class)
+@DisplayName("Testes Unitários - MeasureColumnStore")
+class MeasureColumnStoreTest {
+
+    @Mock
+    private MeasureSeriesRepository measureSeriesRepository;
+
+    private MeasureColumnStore store;
+
+    private SerieMedidas serie;
+
+    @BeforeEach
+    void setUp() {
+        store = new MeasureColumnStore(measureSeriesRepository, 2);
+        serie = new SerieMedidas.Construtor()
+                .novaLinha(1L, SerieMedidas.paraInstante(LocalDateTime.of(2024, 1, 10, 10, 0)))
+                .valor(MetricaMedida.PESO, 75.0)
+                .construir();
+    }
+
+    @Test
+    @DisplayName("Deve carregar a série uma vez e reaproveitá-la nas leituras seguintes")
+    void deveCarregarSerieUmaVez() {
+        // Given
+        when(measureSeriesRepository.carregarSerie(1L)).thenReturn(serie);
+
+        // When
+        SerieMedidas primeira = store.serieDoUsuario(1L);
+        SerieMedidas segunda = store.serieDoUsuario(1L);
+
+        // Then
+        assertThat(primeira).isSameAs(serie);
+        assertThat(segunda).isSameAs(serie);
+        assertThat(primeira.valor(MetricaMedida.PESO, 0)).isEqualTo(75.0);
+        assertThat(primeira.valor(MetricaMedida.CINTURA, 0)).isNaN();
+        verify(measureSeriesRepository, times(1)).carregarSerie(1L);
+    }
+
+    @Test
+    @DisplayName("Deve recarregar a série depois do evento de alteração das medidas")
+    void deveRecarregarSerieDepoisDoEvento() {
+        // Given
+        when(measureSeriesRepository.carregarSerie(1L)).thenReturn(serie, SerieMedidas.vazia());
+        store.serieDoUsuario(1L);
+
+        // When
+        store.aoAlterarMedidas(new MedidasAlteradasEvent(1L));
+        SerieMedidas recarregada = store.serieDoUsuario(1L);
+
+        // Then
+        assertThat(recarregada.isVazia()).isTrue();
+        verify(measureSeriesRepository, times(2)).carregarSerie(1L);
+    }
+
+    @Test
+    @DisplayName("Deve descartar o usuário menos acessado ao passar do limite")
+    void deveDescartarUsuarioMenosAcessado() {
+        // Given
+        when(measureSeriesRepository.carregarSerie(anyLong())).thenReturn(serie);
+        store.serieDoUsuario(1L);
+        store.serieDoUsuario(2L);
+        store.serieDoUsuario(1L);
+
+        // When
+        store.serieDoUsuario(3L);
+        store.serieDoUsuario(1L);
+
+        // Then
+        assertThat(store.quantidadeDeUsuarios()).isEqualTo(2);
+        verify(measureSeriesRepository, times(1)).carregarSerie(1L);
+        verify(measureSeriesRepository, times(1)).carregarSerie(2L);
+    }
+
+    @Test
+    @DisplayName("Deve construir a série colunar crescendo os arrays sob demanda")
+    void deveConstruirSerieCrescendoArrays() {
+        // Given
+        SerieMedidas.Construtor construtor = new SerieMedidas.Construtor(1);
+        for (int i = 0; i < 40; i++) {
+            construtor.novaLinha(i, SerieMedidas.paraInstante(LocalDateTime.of(2024, 1, 1, 0, 0).plusDays(i)))
+                    .valor(MetricaMedida.PESO, 70.0 + i);
+        }
+
+        // When
+        SerieMedidas construida = construtor.construir();
+
+        // Then
+        assertThat(construida.tamanho()).isEqualTo(40);
+        assertThat(construida.valor(MetricaMedida.PESO, 39)).isEqualTo(109.0);
+        assertThat(construida.valorOuNull(MetricaMedida.ALTURA, 39)).isNull();
+        assertThat(construida.dataMedicao(39)).isEqualTo(LocalDateTime.of(2024, 2, 9, 0, 0));
+    }
+}